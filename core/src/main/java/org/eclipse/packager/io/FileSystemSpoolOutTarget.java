@@ -29,6 +29,10 @@ public class FileSystemSpoolOutTarget implements SpoolOutTarget {
         this.basePath = basePath;
     }
 
+    public Path getBasePath() {
+        return this.basePath;
+    }
+
     @Override
     public void spoolOut(final String fileName, final String mimeType, final IOConsumer<OutputStream> streamConsumer) throws IOException {
         final Path path = this.basePath.resolve(fileName);
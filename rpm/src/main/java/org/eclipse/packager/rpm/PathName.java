@@ -17,8 +17,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 public class PathName implements Comparable<PathName> {
     private final String[] segments;
@@ -51,13 +49,13 @@ public class PathName implements Comparable<PathName> {
         if (this.segments.length <= 1) {
             return "";
         } else {
-            return Arrays.stream(this.segments, 0, this.segments.length - 1 /* exclusive */).collect(joiner());
+            return String.join("/", Arrays.asList(this.segments).subList(0, this.segments.length - 1 /* exclusive */));
         }
     }
 
     @Override
     public String toString() {
-        return Arrays.stream(this.segments).collect(joiner());
+        return String.join("/", this.segments);
     }
 
     @Override
@@ -91,10 +89,6 @@ public class PathName implements Comparable<PathName> {
         return toString().compareTo(o.toString());
     }
 
-    private Collector<CharSequence, ?, String> joiner() {
-        return Collectors.joining("/");
-    }
-
     public static PathName parse(final String name) {
         final String[] parsed = name.split("/+");
 
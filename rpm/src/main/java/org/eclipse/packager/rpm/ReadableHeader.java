@@ -31,4 +31,64 @@ public interface ReadableHeader<T extends RpmBaseTag> {
     List<Long> getLongList(T tag);
 
     byte[] getByteArray(T tag);
+
+    /**
+     * Get an array of integers
+     * <p>
+     * The default implementation converts the result of
+     * {@link #getIntegerList(RpmBaseTag)}. Implementations should override
+     * this to decode the values without boxing them.
+     * </p>
+     *
+     * @param tag the tag
+     * @return a new array, or {@code null} if the tag is not present
+     */
+    default int[] getIntArray(final T tag) {
+        final List<Integer> values = getIntegerList(tag);
+        return values != null ? values.stream().mapToInt(Integer::intValue).toArray() : null;
+    }
+
+    /**
+     * Get an array of longs
+     * <p>
+     * The default implementation converts the result of
+     * {@link #getLongList(RpmBaseTag)}, and so only supports tags declared as
+     * arrays of longs. Implementations should override this to decode the
+     * values without boxing them.
+     * </p>
+     *
+     * @param tag the tag
+     * @return a new array, or {@code null} if the tag is not present
+     */
+    default long[] getLongArray(final T tag) {
+        final List<Long> values = getLongList(tag);
+        return values != null ? values.stream().mapToLong(Long::longValue).toArray() : null;
+    }
+
+    /**
+     * Get an array of shorts
+     * <p>
+     * There is no list accessor for shorts, which a default implementation
+     * could convert. Tags like {@link RpmTag#FILE_MODES} are only available
+     * through this method.
+     * </p>
+     *
+     * @param tag the tag
+     * @return a new array, or {@code null} if the tag is not present
+     */
+    short[] getShortArray(T tag);
+
+    /**
+     * Get a read-only view on an array of strings
+     * <p>
+     * Implementations may decode the strings on access, instead of creating
+     * all strings up front.
+     * </p>
+     *
+     * @param tag the tag
+     * @return an unmodifiable list, or {@code null} if the tag is not present
+     */
+    default List<String> getStringArrayView(final T tag) {
+        return getStringList(tag);
+    }
 }
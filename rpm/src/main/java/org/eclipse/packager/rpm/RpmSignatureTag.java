@@ -28,6 +28,7 @@ public enum RpmSignatureTag implements RpmBaseTag {
     PGP(1002, byte[].class),
     MD5(1004, byte[].class),
     PAYLOAD_SIZE(1007, Integer.class),
+    RESERVEDSPACE(1008, byte[].class),
     LONGSIZE(5009, Long.class);
 
     private final Integer value;
@@ -18,6 +18,7 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -69,6 +70,21 @@ public interface BuilderContext {
         return Defaults.PATH_PROVIDER;
     }
 
+    /**
+     * Get the default information provider for file trees
+     * <p>
+     * This provider takes the timestamp and the access mode from the
+     * attributes of the {@link TreeEntry}. If the file system doesn't support
+     * POSIX attributes, the mode is {@code 0755} for directories and
+     * {@code 0644} for all others. User and group are the defaults.
+     * </p>
+     *
+     * @return the tree information provider
+     */
+    public static FileInformationProvider<TreeEntry> treeProvider() {
+        return Defaults.TREE_PROVIDER;
+    }
+
     public static <T> FileInformationProvider<T> simpleProvider(final int mode) {
         return new FileInformationProvider<T>() {
 
@@ -155,6 +171,38 @@ public interface BuilderContext {
         addFile(targetName, source, getDefaultInformationProvider().customize(customizer));
     }
 
+    public default void addFile(final String targetName, final InputStream source, final long size) throws IOException {
+        addFile(targetName, source, size, getDefaultInformationProvider());
+    }
+
+    /**
+     * Add a file from a stream of known size
+     * <p>
+     * Other than {@link #addFile(String, InputStream, FileInformationProvider)}
+     * this allows streaming the content directly into the payload, without
+     * buffering it first. The stream must provide exactly the declared number
+     * of bytes. To verify that, one more byte is read from the stream after
+     * the declared size.
+     * </p>
+     * <p>
+     * The default implementation ignores the size and falls back to
+     * {@link #addFile(String, InputStream, FileInformationProvider)}.
+     * </p>
+     *
+     * @param targetName the name of the file in the package
+     * @param source the content, will not be closed
+     * @param size the size of the content
+     * @param provider the file information provider
+     * @throws IOException in case of IO errors
+     */
+    public default void addFile(final String targetName, final InputStream source, final long size, final FileInformationProvider<Object> provider) throws IOException {
+        addFile(targetName, source, provider);
+    }
+
+    public default void addFile(final String targetName, final InputStream source, final long size, final SimpleFileInformationCustomizer customizer) throws IOException {
+        addFile(targetName, source, size, getDefaultInformationProvider().customize(customizer));
+    }
+
     public default void addFile(final String targetName, final ByteBuffer source) throws IOException {
         addFile(targetName, source, getDefaultInformationProvider());
     }
@@ -177,6 +225,59 @@ public interface BuilderContext {
         addFile(targetName, source, getDefaultInformationProvider().customize(customizer));
     }
 
+    public default void addTree(final Path root, final String targetPrefix) throws IOException {
+        addTree(root, targetPrefix, null, null, treeProvider());
+    }
+
+    public default void addTree(final Path root, final String targetPrefix, final PathMatcher include, final PathMatcher exclude) throws IOException {
+        addTree(root, targetPrefix, include, exclude, treeProvider());
+    }
+
+    public default void addTree(final Path root, final String targetPrefix, final PathMatcher include, final PathMatcher exclude, final SimpleFileInformationCustomizer customizer) throws IOException {
+        addTree(root, targetPrefix, include, exclude, treeProvider().customize(customizer));
+    }
+
+    /**
+     * Add a file tree
+     * <p>
+     * This adds all directories, regular files and symbolic links below the
+     * root, walking the tree only once. Symbolic links are added as links and
+     * not followed. The root directory itself is not added.
+     * </p>
+     * <p>
+     * Matchers are applied to the path relative to the root. Excluding a
+     * directory excludes its whole content. A directory which is not included
+     * is not added, but its content still is, when included.
+     * </p>
+     * <p>
+     * The provider receives a {@link TreeEntry} as source object, which
+     * carries the attributes of the entry. Also see {@link #treeProvider()}.
+     * </p>
+     *
+     * @param root the root of the tree
+     * @param targetPrefix the target directory of the content of the root,
+     *            e.g. {@code /usr/lib/foo}
+     * @param include the entries to include, {@code null} for all
+     * @param exclude the entries to exclude, {@code null} for none
+     * @param provider the file information provider
+     * @throws IOException in case of IO errors
+     */
+    public default void addTree(final Path root, final String targetPrefix, final PathMatcher include, final PathMatcher exclude, final FileInformationProvider<? super TreeEntry> provider) throws IOException {
+        TreeWalker.walk(root, targetPrefix, include, exclude, (targetName, entry) -> {
+            switch (entry.getType()) {
+            case DIRECTORY:
+                addDirectory(targetName, (name, directory, type) -> provider.provide(name, entry, type));
+                break;
+            case SYMBOLIC_LINK:
+                addSymbolicLink(targetName, entry.getLinkTarget(), (name, link, type) -> provider.provide(name, entry, type));
+                break;
+            default:
+                addFile(targetName, entry.getPath(), (name, path, type) -> provider.provide(name, entry, type));
+                break;
+            }
+        });
+    }
+
     public default void addDirectory(final String targetName) throws IOException {
         addDirectory(targetName, getDefaultInformationProvider());
     }
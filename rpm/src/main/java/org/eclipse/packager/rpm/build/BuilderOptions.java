@@ -33,6 +33,8 @@ import org.eclipse.packager.rpm.coding.PayloadCoding;
  * </p>
  */
 public class BuilderOptions {
+    public static final long DEFAULT_STREAM_SPOOL_THRESHOLD = 1024 * 1024;
+
     private LongMode longMode = LongMode.DEFAULT;
 
     private OpenOption[] openOptions;
@@ -43,6 +45,16 @@ public class BuilderOptions {
 
     private String payloadFlags;
 
+    private Integer payloadWorkers;
+
+    private long payloadSpoolThreshold;
+
+    private boolean payloadSpoolDirect;
+
+    private int signatureReservedSpace;
+
+    private long streamSpoolThreshold = DEFAULT_STREAM_SPOOL_THRESHOLD;
+
     private DigestAlgorithm fileDigestAlgorithm = DigestAlgorithm.MD5;
 
     private Charset headerCharset = StandardCharsets.UTF_8;
@@ -63,6 +75,11 @@ public class BuilderOptions {
         setFileNameProvider(other.fileNameProvider);
         setPayloadCoding(other.payloadCoding);
         setPayloadFlags(other.payloadFlags);
+        setPayloadWorkers(other.payloadWorkers);
+        setPayloadSpoolThreshold(other.payloadSpoolThreshold);
+        setPayloadSpoolDirect(other.payloadSpoolDirect);
+        setSignatureReservedSpace(other.signatureReservedSpace);
+        setStreamSpoolThreshold(other.streamSpoolThreshold);
         setFileDigestAlgorithm(other.fileDigestAlgorithm);
         setHeaderCharset(other.headerCharset);
         setPayloadProcessors(other.payloadProcessors);
@@ -113,6 +130,104 @@ public class BuilderOptions {
         this.payloadFlags = payloadFlags;
     }
 
+    public Integer getPayloadWorkers() {
+        return this.payloadWorkers;
+    }
+
+    /**
+     * Set the number of worker threads used for compressing the payload
+     * <p>
+     * This is only used when the payload flags don't already contain a thread
+     * specification (like {@code 19T8}). A value of zero uses one worker per
+     * available processor, {@code null} keeps the single threaded default.
+     * Codings which don't support multi-threaded compression ignore this
+     * setting. In contrast to the payload flags, this setting is not recorded
+     * in the RPM header.
+     * </p>
+     *
+     * @param payloadWorkers the number of workers, may be {@code null}
+     */
+    public void setPayloadWorkers(final Integer payloadWorkers) {
+        this.payloadWorkers = payloadWorkers;
+    }
+
+    public long getPayloadSpoolThreshold() {
+        return this.payloadSpoolThreshold;
+    }
+
+    /**
+     * Set the number of bytes of compressed payload to keep in memory
+     * <p>
+     * The compressed payload is spooled until the RPM file gets written. Up
+     * to this size it is kept in memory, only larger payloads are spooled to
+     * a temporary file. The default of zero always uses a temporary file.
+     * </p>
+     *
+     * @param payloadSpoolThreshold the maximum number of bytes to keep in
+     *            memory
+     */
+    public void setPayloadSpoolThreshold(final long payloadSpoolThreshold) {
+        this.payloadSpoolThreshold = Math.max(0, payloadSpoolThreshold);
+    }
+
+    public boolean isPayloadSpoolDirect() {
+        return this.payloadSpoolDirect;
+    }
+
+    /**
+     * Keep the in-memory payload spool off-heap
+     *
+     * @param payloadSpoolDirect {@code true} to use direct buffers
+     * @see #setPayloadSpoolThreshold(long)
+     */
+    public void setPayloadSpoolDirect(final boolean payloadSpoolDirect) {
+        this.payloadSpoolDirect = payloadSpoolDirect;
+    }
+
+    public int getSignatureReservedSpace() {
+        return this.signatureReservedSpace;
+    }
+
+    /**
+     * Reserve space for the signature header, and sign in a single pass
+     * <p>
+     * By default the payload is read twice when writing the RPM file, once
+     * for creating the signatures and once for copying. Reserving space for
+     * the signature header allows to do both in a single pass. A few KiB
+     * (e.g. 4096 bytes) are enough for the default signatures plus RSA
+     * signatures. The default of zero disables this.
+     * </p>
+     *
+     * @param signatureReservedSpace the number of bytes to reserve for the
+     *            signature header
+     * @see RpmWriter#setSignatureReservedSpace(int)
+     */
+    public void setSignatureReservedSpace(final int signatureReservedSpace) {
+        this.signatureReservedSpace = Math.max(0, signatureReservedSpace);
+    }
+
+    public long getStreamSpoolThreshold() {
+        return this.streamSpoolThreshold;
+    }
+
+    /**
+     * Set the number of bytes to keep in memory for streams of unknown size
+     * <p>
+     * File content provided as a stream, without a size, must be buffered
+     * before it can be added to the payload, as the size of an entry is
+     * required up front. Up to this size the content is buffered in memory,
+     * larger content is buffered in a temporary file. Zero always uses a
+     * temporary file. The default is {@value #DEFAULT_STREAM_SPOOL_THRESHOLD}
+     * bytes.
+     * </p>
+     *
+     * @param streamSpoolThreshold the maximum number of bytes to keep in
+     *            memory
+     */
+    public void setStreamSpoolThreshold(final long streamSpoolThreshold) {
+        this.streamSpoolThreshold = Math.max(0, streamSpoolThreshold);
+    }
+
     public DigestAlgorithm getFileDigestAlgorithm() {
         return this.fileDigestAlgorithm;
     }
@@ -43,6 +43,17 @@ final class Defaults {
         }
     }.customize(BuilderContext.pathCustomizer());
 
+    static final FileInformationProvider<TreeEntry> TREE_PROVIDER = new FileInformationProvider<TreeEntry>() {
+
+        @Override
+        public FileInformation provide(final String targetName, final TreeEntry entry, final PayloadEntryType type) throws IOException {
+            final FileInformation information = new FileInformation();
+            information.setTimestamp(entry.getAttributes().lastModifiedTime().toInstant());
+            information.setMode(entry.getPermissionMode().orElse(type == PayloadEntryType.DIRECTORY ? (short) 0755 : (short) 0644));
+            return information;
+        }
+    };
+
     static final SimpleFileInformationCustomizer NOW_TIMESTAMP_CUSTOMIZER = new SimpleFileInformationCustomizer() {
 
         @Override
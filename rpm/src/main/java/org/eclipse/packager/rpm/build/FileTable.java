@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import java.util.Arrays;
+
+import org.eclipse.packager.rpm.RpmTag;
+import org.eclipse.packager.rpm.build.RpmBuilder.FileEntry;
+import org.eclipse.packager.rpm.header.Header;
+
+/**
+ * The file entries of a package, stored column by column
+ * <p>
+ * Each attribute is stored in a primitive array, strings are stored as
+ * indexes into a shared {@link StringPool}. File names are stored in a
+ * {@link PathTrie}, which assigns the row of a file. Adding a file with a name
+ * which is already present replaces the previous entry.
+ * </p>
+ * <p>
+ * When writing the header, the rows get sorted by an index permutation, taken
+ * from the trie, without moving any of the column data.
+ * </p>
+ */
+final class FileTable {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final PathTrie names = new PathTrie();
+
+    private final StringPool strings = new StringPool();
+
+    private long[] sizes = new long[INITIAL_CAPACITY];
+
+    private long[] targetSizes = new long[INITIAL_CAPACITY];
+
+    private short[] modes = new short[INITIAL_CAPACITY];
+
+    private short[] rdevs = new short[INITIAL_CAPACITY];
+
+    private int[] flags = new int[INITIAL_CAPACITY];
+
+    private int[] modificationTimes = new int[INITIAL_CAPACITY];
+
+    private int[] verifyFlags = new int[INITIAL_CAPACITY];
+
+    private long[] devices = new long[INITIAL_CAPACITY];
+
+    private long[] inodes = new long[INITIAL_CAPACITY];
+
+    private int[] users = new int[INITIAL_CAPACITY];
+
+    private int[] groups = new int[INITIAL_CAPACITY];
+
+    private int[] digests = new int[INITIAL_CAPACITY];
+
+    private int[] linkTos = new int[INITIAL_CAPACITY];
+
+    private int[] langs = new int[INITIAL_CAPACITY];
+
+    int size() {
+        return this.names.size();
+    }
+
+    boolean isEmpty() {
+        return this.names.size() == 0;
+    }
+
+    /**
+     * Add a file entry
+     * <p>
+     * The entry is copied into the table, and not referenced afterwards.
+     * </p>
+     *
+     * @param entry the entry to add
+     */
+    void put(final FileEntry entry) {
+        final int row = this.names.insert(entry.getTargetName().getSegments());
+        ensureCapacity(row + 1);
+
+        this.sizes[row] = entry.getSize();
+        this.targetSizes[row] = entry.getTargetSize();
+        this.modes[row] = entry.getMode();
+        this.rdevs[row] = entry.getRdevs();
+        this.flags[row] = entry.getFlags();
+        this.modificationTimes[row] = entry.getModificationTime();
+        this.verifyFlags[row] = entry.getVerifyFlags();
+        this.devices[row] = entry.getDevice();
+        this.inodes[row] = entry.getInode();
+        this.users[row] = this.strings.intern(entry.getUser());
+        this.groups[row] = this.strings.intern(entry.getGroup());
+        this.digests[row] = this.strings.intern(entry.getDigest());
+        this.linkTos[row] = this.strings.intern(entry.getLinkTo());
+        this.langs[row] = this.strings.intern(entry.getLang());
+    }
+
+    /**
+     * Put the file information into the header
+     *
+     * @param header the header to fill
+     * @param longMode the mode for writing devices and inodes
+     */
+    void fillHeader(final Header<RpmTag> header, final LongMode longMode) {
+        final PathTrie.Names names = this.names.traverse();
+        final int[] order = names.order;
+
+        long installedSize = 0;
+        for (final int row : order) {
+            installedSize += this.targetSizes[row];
+        }
+        header.putSize(installedSize, RpmTag.SIZE, RpmTag.LONGSIZE);
+
+        // TODO: implement LONG file sizes
+        final int[] fileSizes = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            fileSizes[i] = (int) this.sizes[order[i]];
+        }
+        header.putInt(RpmTag.FILE_SIZES, fileSizes);
+
+        header.putShort(RpmTag.FILE_MODES, select(this.modes, order));
+        header.putShort(RpmTag.FILE_RDEVS, select(this.rdevs, order));
+        header.putInt(RpmTag.FILE_MTIMES, select(this.modificationTimes, order));
+        header.putStringArray(RpmTag.FILE_DIGESTS, selectStrings(this.digests, order));
+        header.putStringArray(RpmTag.FILE_LINKTO, selectStrings(this.linkTos, order));
+        header.putInt(RpmTag.FILE_FLAGS, select(this.flags, order));
+        header.putStringArray(RpmTag.FILE_USERNAME, selectStrings(this.users, order));
+        header.putStringArray(RpmTag.FILE_GROUPNAME, selectStrings(this.groups, order));
+
+        header.putInt(RpmTag.FILE_VERIFYFLAGS, select(this.verifyFlags, order));
+
+        putNumber(longMode, header, RpmTag.FILE_DEVICES, select(this.devices, order));
+        putNumber(longMode, header, RpmTag.FILE_INODES, select(this.inodes, order));
+
+        header.putStringArray(RpmTag.FILE_LANGS, selectStrings(this.langs, order));
+
+        // compress file names
+
+        header.putStringArray(RpmTag.BASENAMES, names.basenames);
+        header.putInt(RpmTag.DIR_INDEXES, names.dirIndexes);
+        header.putStringArray(RpmTag.DIRNAMES, names.dirnames);
+    }
+
+    private static void putNumber(final LongMode longMode, final Header<RpmTag> header, final RpmTag tag, final long[] values) {
+        boolean useLong;
+        if (longMode == LongMode.FORCE_64BIT) {
+            // no need to check, got with 64bit
+            useLong = true;
+        } else {
+            // check if we need 64bit
+            final boolean needLong = Arrays.stream(values).anyMatch(value -> value > Integer.MAX_VALUE);
+            if (longMode == LongMode.FORCE_32BIT) {
+                if (needLong) {
+                    // we need it but are forced to 32bit
+                    throw new IllegalStateException("Requested 32bit mode, but 64bit is necessary");
+                }
+                // we don't need it, so we can accept 32bit
+                useLong = false;
+            } else {
+                // everything else is DEFAULT, we can choose, so choose
+                useLong = needLong;
+            }
+        }
+
+        if (useLong) {
+            // write as 64bit
+            header.putLong(tag, values);
+        } else {
+            // write as 32bit
+            final int[] ints = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                ints[i] = (int) values[i];
+            }
+            header.putInt(tag, ints);
+        }
+    }
+
+    private static short[] select(final short[] column, final int[] order) {
+        final short[] result = new short[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = column[order[i]];
+        }
+        return result;
+    }
+
+    private static int[] select(final int[] column, final int[] order) {
+        final int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = column[order[i]];
+        }
+        return result;
+    }
+
+    private static long[] select(final long[] column, final int[] order) {
+        final long[] result = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = column[order[i]];
+        }
+        return result;
+    }
+
+    private String[] selectStrings(final int[] column, final int[] order) {
+        final String[] result = new String[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = this.strings.get(column[order[i]]);
+        }
+        return result;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= this.sizes.length) {
+            return;
+        }
+
+        final int newCapacity = Math.max(capacity, this.sizes.length * 2);
+
+        this.sizes = Arrays.copyOf(this.sizes, newCapacity);
+        this.targetSizes = Arrays.copyOf(this.targetSizes, newCapacity);
+        this.modes = Arrays.copyOf(this.modes, newCapacity);
+        this.rdevs = Arrays.copyOf(this.rdevs, newCapacity);
+        this.flags = Arrays.copyOf(this.flags, newCapacity);
+        this.modificationTimes = Arrays.copyOf(this.modificationTimes, newCapacity);
+        this.verifyFlags = Arrays.copyOf(this.verifyFlags, newCapacity);
+        this.devices = Arrays.copyOf(this.devices, newCapacity);
+        this.inodes = Arrays.copyOf(this.inodes, newCapacity);
+        this.users = Arrays.copyOf(this.users, newCapacity);
+        this.groups = Arrays.copyOf(this.groups, newCapacity);
+        this.digests = Arrays.copyOf(this.digests, newCapacity);
+        this.linkTos = Arrays.copyOf(this.linkTos, newCapacity);
+        this.langs = Arrays.copyOf(this.langs, newCapacity);
+    }
+}
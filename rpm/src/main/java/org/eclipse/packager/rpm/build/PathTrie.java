@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A trie of path segments, mapping file names to rows of a {@link FileTable}
+ * <p>
+ * Each segment is stored once per directory. Traversing the trie produces the
+ * order of the files, together with the base names, directory names and
+ * directory indexes of the header, without joining or splitting full path
+ * names.
+ * </p>
+ * <p>
+ * The order is the same as sorting the full path names as strings. As a file
+ * named {@code a.b} sorts between the file {@code a} and the content of a
+ * directory {@code a}, a node is sorted by its name when it is a file, and by
+ * its name followed by a slash when its children are traversed.
+ * </p>
+ */
+final class PathTrie {
+    /**
+     * The result of a traversal, with one entry per file
+     */
+    static final class Names {
+        final int[] order;
+
+        final String[] basenames;
+
+        final int[] dirIndexes;
+
+        final String[] dirnames;
+
+        private Names(final int[] order, final String[] basenames, final int[] dirIndexes, final String[] dirnames) {
+            this.order = order;
+            this.basenames = basenames;
+            this.dirIndexes = dirIndexes;
+            this.dirnames = dirnames;
+        }
+    }
+
+    private static final class Node {
+        private final String segment;
+
+        private Map<String, Node> children;
+
+        private int row = -1;
+
+        private Node(final String segment) {
+            this.segment = segment;
+        }
+
+        private Node child(final String segment) {
+            if (this.children == null) {
+                this.children = new HashMap<>();
+            }
+            return this.children.computeIfAbsent(segment, Node::new);
+        }
+    }
+
+    /**
+     * A node, either in its role as file, or as directory
+     */
+    private static final class Item {
+        private final Node node;
+
+        private final boolean directory;
+
+        private Item(final Node node, final boolean directory) {
+            this.node = node;
+            this.directory = directory;
+        }
+    }
+
+    private final Node root = new Node("");
+
+    private int size;
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Add a file to the trie
+     *
+     * @param segments the segments of the file name
+     * @return the row of the file, either an existing one, or the next free
+     *         row
+     */
+    int insert(final String[] segments) {
+        Node node = this.root;
+        for (final String segment : segments) {
+            node = node.child(segment);
+        }
+
+        if (node.row < 0) {
+            node.row = this.size++;
+        }
+        return node.row;
+    }
+
+    /**
+     * Traverse the trie
+     *
+     * @return the names, in the order of the files
+     */
+    Names traverse() {
+        final Traversal traversal = new Traversal(this.size);
+
+        // a file without any segment sorts before everything else
+        traversal.walk(this.root, "/", this.root.row >= 0);
+
+        return traversal.finish();
+    }
+
+    private static final class Traversal {
+        private final int[] order;
+
+        private final String[] basenames;
+
+        private final int[] dirIndexes;
+
+        private final List<String> dirnames = new ArrayList<>();
+
+        private int pos;
+
+        private Traversal(final int size) {
+            this.order = new int[size];
+            this.basenames = new String[size];
+            this.dirIndexes = new int[size];
+        }
+
+        private void walk(final Node directory, final String dirname, final boolean self) {
+            // the directory name is recorded once, when the first file references it
+            int dirIndex = -1;
+
+            if (self) {
+                dirIndex = addDirname(dirname);
+                addFile(directory, "", dirIndex);
+            }
+
+            if (directory.children == null) {
+                return;
+            }
+
+            final List<Item> items = new ArrayList<>(directory.children.size() + 1);
+            for (final Node child : directory.children.values()) {
+                if (child.row >= 0) {
+                    items.add(new Item(child, false));
+                }
+                if (child.children != null) {
+                    items.add(new Item(child, true));
+                }
+            }
+            items.sort(PathTrie::compare);
+
+            for (final Item item : items) {
+                if (item.directory) {
+                    walk(item.node, dirname + item.node.segment + "/", false);
+                } else {
+                    if (dirIndex < 0) {
+                        dirIndex = addDirname(dirname);
+                    }
+                    addFile(item.node, item.node.segment, dirIndex);
+                }
+            }
+        }
+
+        private int addDirname(final String dirname) {
+            this.dirnames.add(dirname);
+            return this.dirnames.size() - 1;
+        }
+
+        private void addFile(final Node node, final String basename, final int dirIndex) {
+            this.order[this.pos] = node.row;
+            this.basenames[this.pos] = basename;
+            this.dirIndexes[this.pos] = dirIndex;
+            this.pos++;
+        }
+
+        private Names finish() {
+            return new Names(this.order, this.basenames, this.dirIndexes, this.dirnames.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * Compare two items, as if directories had a trailing slash
+     */
+    private static int compare(final Item a, final Item b) {
+        final String as = a.node.segment;
+        final String bs = b.node.segment;
+        final int len = Math.min(as.length(), bs.length());
+
+        for (int i = 0; i < len; i++) {
+            final char ac = as.charAt(i);
+            final char bc = bs.charAt(i);
+            if (ac != bc) {
+                return ac - bc;
+            }
+        }
+
+        if (as.length() == bs.length()) {
+            // the same node, the file sorts first
+            return Boolean.compare(a.directory, b.directory);
+        }
+
+        // segments never contain a slash, so the characters always differ
+        if (as.length() < bs.length()) {
+            return a.directory ? '/' - bs.charAt(len) : -1;
+        } else {
+            return b.directory ? as.charAt(len) - '/' : 1;
+        }
+    }
+}
@@ -14,7 +14,6 @@
 package org.eclipse.packager.rpm.build;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -22,11 +21,11 @@ import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -42,6 +41,7 @@ import org.apache.commons.compress.archivers.cpio.CpioConstants;
 import org.apache.commons.compress.utils.CharsetNames;
 import org.eclipse.packager.rpm.RpmTag;
 import org.eclipse.packager.rpm.coding.PayloadCoding;
+import org.eclipse.packager.rpm.coding.PayloadFlags;
 import org.eclipse.packager.rpm.header.Header;
 
 import com.google.common.io.ByteStreams;
@@ -97,6 +97,8 @@ public class PayloadRecorder implements AutoCloseable {
 
     private final List<PayloadProcessor> processors;
 
+    private final long streamSpoolThreshold;
+
     private Finished finished;
 
     public PayloadRecorder() throws IOException {
@@ -104,15 +106,31 @@ public class PayloadRecorder implements AutoCloseable {
     }
 
     public PayloadRecorder(final PayloadCoding payloadCoding, final String payloadFlags, final DigestAlgorithm fileDigestAlgorithm, final List<PayloadProcessor> processors) throws IOException {
-        this.fileDigestAlgorithm = fileDigestAlgorithm;
-        if (processors == null) {
-            this.processors = Collections.emptyList();
-        } else {
-            this.processors = new ArrayList<>(processors);
-        }
+        this(makeOptions(payloadCoding, payloadFlags, fileDigestAlgorithm, processors));
+    }
+
+    public PayloadRecorder(final BuilderOptions options) throws IOException {
+        this.fileDigestAlgorithm = options.getFileDigestAlgorithm();
+        this.processors = new ArrayList<>(options.getPayloadProcessors());
+        this.streamSpoolThreshold = options.getStreamSpoolThreshold();
 
-        this.finished = new Finished(payloadCoding, payloadFlags);
+        final String payloadFlags = options.getPayloadFlags();
+        final Integer payloadWorkers = options.getPayloadWorkers();
+
+        // the number of workers only affects the coding, not the flags we record in the header
+
+        final String codingFlags = payloadWorkers != null ? PayloadFlags.withThreads(payloadFlags, payloadWorkers) : payloadFlags;
+
+        this.finished = new Finished(options.getPayloadCoding(), payloadFlags, codingFlags, options.getPayloadSpoolThreshold(), options.isPayloadSpoolDirect());
+    }
 
+    private static BuilderOptions makeOptions(final PayloadCoding payloadCoding, final String payloadFlags, final DigestAlgorithm fileDigestAlgorithm, final List<PayloadProcessor> processors) {
+        final BuilderOptions options = new BuilderOptions();
+        options.setPayloadCoding(payloadCoding);
+        options.setPayloadFlags(payloadFlags);
+        options.setFileDigestAlgorithm(fileDigestAlgorithm);
+        options.setPayloadProcessors(processors != null ? processors : Collections.emptyList());
+        return options;
     }
 
     private void checkFinished() throws IOException {
@@ -130,29 +148,9 @@ public class PayloadRecorder implements AutoCloseable {
 
         final long size = Files.size(path);
 
-        final CpioArchiveEntry entry = new CpioArchiveEntry(CpioConstants.FORMAT_NEW, targetPath);
-        entry.setSize(size);
-
-        if (customizer != null) {
-            customizer.accept(entry);
-        }
-
-        this.finished.archiveStream.putArchiveEntry(entry);
-
-        MessageDigest digest;
-        try {
-            digest = this.fileDigestAlgorithm.createDigest();
-        } catch (final NoSuchAlgorithmException e) {
-            throw new IOException(e);
-        }
-
         try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
-            ByteStreams.copy(new DigestInputStream(in, digest), this.finished.archiveStream);
+            return record(targetPath, in, size, false, customizer);
         }
-
-        this.finished.archiveStream.closeArchiveEntry();
-
-        return new Result(size, digest.digest());
     }
 
     public Result addFile(final String targetPath, final ByteBuffer data) throws IOException {
@@ -162,26 +160,31 @@ public class PayloadRecorder implements AutoCloseable {
     public Result addFile(final String targetPath, final ByteBuffer data, final Consumer<CpioArchiveEntry> customizer) throws IOException {
         checkFinished();
 
-        final long size = data.remaining();
+        // record digest
 
-        final CpioArchiveEntry entry = new CpioArchiveEntry(CpioConstants.FORMAT_NEW, targetPath);
-        entry.setSize(size);
+        final MessageDigest digest = createDigest();
+        digest.update(data.slice());
 
-        if (customizer != null) {
-            customizer.accept(entry);
-        }
+        return addFile(targetPath, data, digest.digest(), customizer);
+    }
 
-        this.finished.archiveStream.putArchiveEntry(entry);
+    /**
+     * Add a file, for which the digest was already calculated
+     *
+     * @param targetPath the path of the entry
+     * @param data the content
+     * @param digest the digest of the content, using the file digest
+     *            algorithm of this recorder
+     * @param customizer an optional customizer of the archive entry
+     * @return the result of recording the file
+     * @throws IOException in case of IO errors
+     */
+    Result addFile(final String targetPath, final ByteBuffer data, final byte[] digest, final Consumer<CpioArchiveEntry> customizer) throws IOException {
+        checkFinished();
 
-        // record digest
+        final long size = data.remaining();
 
-        MessageDigest digest;
-        try {
-            digest = this.fileDigestAlgorithm.createDigest();
-            digest.update(data.slice());
-        } catch (final NoSuchAlgorithmException e) {
-            throw new IOException(e);
-        }
+        putEntry(targetPath, size, customizer);
 
         // write data
 
@@ -194,25 +197,167 @@ public class PayloadRecorder implements AutoCloseable {
 
         this.finished.archiveStream.closeArchiveEntry();
 
-        return new Result(size, digest.digest());
+        return new Result(size, digest);
+    }
+
+    /**
+     * Add a file, for which the size is already known
+     *
+     * @param targetPath the path of the entry
+     * @param path the file to add
+     * @param size the size of the file
+     * @param customizer an optional customizer of the archive entry
+     * @return the result of recording the file
+     * @throws IOException in case of IO errors, or if the size of the file
+     *             changed
+     */
+    Result addFile(final String targetPath, final Path path, final long size, final Consumer<CpioArchiveEntry> customizer) throws IOException {
+        checkFinished();
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return record(targetPath, in, size, false, customizer);
+        }
+    }
+
+    /**
+     * Add a file from a stream, for which the size and digest were already
+     * calculated
+     *
+     * @param targetPath the path of the entry
+     * @param stream the content, providing exactly {@code size} bytes, will
+     *            not be closed
+     * @param size the size of the content
+     * @param digest the digest of the content, using the file digest
+     *            algorithm of this recorder
+     * @param customizer an optional customizer of the archive entry
+     * @return the result of recording the file
+     * @throws IOException in case of IO errors, or if the size of the content
+     *             doesn't match the declared size
+     */
+    Result addFile(final String targetPath, final InputStream stream, final long size, final byte[] digest, final Consumer<CpioArchiveEntry> customizer) throws IOException {
+        checkFinished();
+
+        copyEntry(targetPath, stream, size, true, customizer);
+
+        return new Result(size, digest);
     }
 
     public Result addFile(final String targetPath, final InputStream stream) throws IOException {
         return addFile(targetPath, stream, null);
     }
 
+    /**
+     * Add a file from a stream of unknown size
+     * <p>
+     * As the size of the entry must be known before writing it, the content
+     * gets buffered first. Depending on
+     * {@link BuilderOptions#setStreamSpoolThreshold(long)} this happens in
+     * memory or in a temporary file. If the size is known up front, use
+     * {@link #addFile(String, InputStream, long, Consumer)} instead.
+     * </p>
+     *
+     * @param targetPath the path of the entry
+     * @param stream the content, will not be closed
+     * @param customizer an optional customizer of the archive entry
+     * @return the result of recording the file
+     * @throws IOException in case of IO errors
+     */
     public Result addFile(final String targetPath, final InputStream stream, final Consumer<CpioArchiveEntry> customizer) throws IOException {
         checkFinished();
 
-        final Path tmpFile = Files.createTempFile("rpm-payload-", null);
+        final SpoolBuffer buffer = new SpoolBuffer("rpm-payload-", this.streamSpoolThreshold, false);
         try {
-            try (OutputStream os = Files.newOutputStream(tmpFile)) {
-                ByteStreams.copy(stream, os);
+            try {
+                ByteStreams.copy(stream, buffer);
+            } finally {
+                buffer.close();
             }
 
-            return addFile(targetPath, tmpFile, customizer);
+            try (InputStream in = Channels.newInputStream(buffer.openChannel())) {
+                return record(targetPath, in, buffer.size(), false, customizer);
+            }
         } finally {
-            Files.deleteIfExists(tmpFile);
+            buffer.delete();
+        }
+    }
+
+    public Result addFile(final String targetPath, final InputStream stream, final long size) throws IOException {
+        return addFile(targetPath, stream, size, null);
+    }
+
+    /**
+     * Add a file from a stream of known size
+     * <p>
+     * The content is streamed directly into the payload. The stream must
+     * provide exactly the declared number of bytes. To verify that, one byte
+     * past the declared size is read from the stream, and is consumed if the
+     * stream is longer. In that case the entry is not completed, and the
+     * recorder must not be used any further.
+     * </p>
+     *
+     * @param targetPath the path of the entry
+     * @param stream the content, will not be closed
+     * @param size the size of the content
+     * @param customizer an optional customizer of the archive entry
+     * @return the result of recording the file
+     * @throws IOException in case of IO errors, or if the size of the content
+     *             doesn't match the declared size
+     */
+    public Result addFile(final String targetPath, final InputStream stream, final long size, final Consumer<CpioArchiveEntry> customizer) throws IOException {
+        checkFinished();
+
+        if (size < 0) {
+            throw new IllegalArgumentException(String.format("Size must not be negative: %s", size));
+        }
+
+        return record(targetPath, stream, size, true, customizer);
+    }
+
+    private Result record(final String targetPath, final InputStream stream, final long size, final boolean exact, final Consumer<CpioArchiveEntry> customizer) throws IOException {
+        final MessageDigest digest = createDigest();
+
+        copyEntry(targetPath, new DigestInputStream(stream, digest), size, exact, customizer);
+
+        return new Result(size, digest.digest());
+    }
+
+    /**
+     * Copy the content of an entry into the archive
+     *
+     * @param exact if {@code true}, the stream must end after {@code size}
+     *            bytes. This is checked by reading one more byte before the
+     *            entry gets closed.
+     */
+    private void copyEntry(final String targetPath, final InputStream stream, final long size, final boolean exact, final Consumer<CpioArchiveEntry> customizer) throws IOException {
+        putEntry(targetPath, size, customizer);
+
+        final long count = ByteStreams.copy(ByteStreams.limit(stream, size), this.finished.archiveStream);
+        if (count != size) {
+            throw new IOException(String.format("Content of '%s' ended after %s bytes, expected %s bytes", targetPath, count, size));
+        }
+        if (exact && stream.read() >= 0) {
+            throw new IOException(String.format("Content of '%s' is longer than the declared size of %s bytes", targetPath, size));
+        }
+
+        this.finished.archiveStream.closeArchiveEntry();
+    }
+
+    private void putEntry(final String targetPath, final long size, final Consumer<CpioArchiveEntry> customizer) throws IOException {
+        final CpioArchiveEntry entry = new CpioArchiveEntry(CpioConstants.FORMAT_NEW, targetPath);
+        entry.setSize(size);
+
+        if (customizer != null) {
+            customizer.accept(entry);
+        }
+
+        this.finished.archiveStream.putArchiveEntry(entry);
+    }
+
+    private MessageDigest createDigest() throws IOException {
+        try {
+            return this.fileDigestAlgorithm.createDigest();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
         }
     }
 
@@ -319,7 +464,7 @@ public class PayloadRecorder implements AutoCloseable {
     }
 
     public class Finished implements AutoCloseable, PayloadProvider {
-        private final Path tempFile;
+        private final SpoolBuffer spool;
 
         private final CountingOutputStream payloadCounter;
 
@@ -333,31 +478,33 @@ public class PayloadRecorder implements AutoCloseable {
 
         private Header<RpmTag> additionalHeader = new Header<>();
 
-        private Finished(final PayloadCoding payloadCoding, final String payloadFlags) throws IOException {
-            this.tempFile = Files.createTempFile("rpm-", null);
+        private Finished(final PayloadCoding payloadCoding, final String payloadFlags, final String codingFlags, final long spoolThreshold, final boolean spoolDirect) throws IOException {
+            this.spool = new SpoolBuffer("rpm-", spoolThreshold, spoolDirect);
 
             try {
-                final OutputStream fileStream = new BufferedOutputStream(Files.newOutputStream(this.tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
-                this.payloadCounter = new CountingOutputStream(new ProcessorStream(fileStream, PayloadRecorder.this::forEachCompressedData));
+                this.payloadCounter = new CountingOutputStream(new ProcessorStream(this.spool, PayloadRecorder.this::forEachCompressedData));
                 this.payloadCoding = payloadCoding;
                 this.payloadFlags = Optional.ofNullable(payloadFlags);
 
-                final OutputStream payloadStream = new ProcessorStream(this.payloadCoding.createProvider().createOutputStream(this.payloadCounter, this.payloadFlags), PayloadRecorder.this::forEachRawData);
+                final OutputStream payloadStream = new ProcessorStream(this.payloadCoding.createProvider().createOutputStream(this.payloadCounter, Optional.ofNullable(codingFlags)), PayloadRecorder.this::forEachRawData);
                 this.archiveCounter = new CountingOutputStream(payloadStream);
 
                 // setup archive stream
 
                 this.archiveStream = new CpioArchiveOutputStream(this.archiveCounter, CpioConstants.FORMAT_NEW, 4, CharsetNames.UTF_8);
             } catch (final IOException e) {
-                Files.deleteIfExists(this.tempFile);
+                this.spool.delete();
                 throw e;
             }
         }
 
         @Override
         public void close() throws IOException {
-            this.archiveStream.close();
-            Files.deleteIfExists(this.tempFile);
+            try {
+                this.archiveStream.close();
+            } finally {
+                this.spool.delete();
+            }
         }
 
         @Override
@@ -385,9 +532,15 @@ public class PayloadRecorder implements AutoCloseable {
             return PayloadRecorder.this.fileDigestAlgorithm;
         }
 
+        /**
+         * Open the payload data
+         *
+         * @return a new channel, which is a {@link FileChannel} in case the
+         *         payload was spooled to disk
+         */
         @Override
-        public FileChannel openChannel() throws IOException {
-            return FileChannel.open(this.tempFile, StandardOpenOption.READ);
+        public ReadableByteChannel openChannel() throws IOException {
+            return this.spool.openChannel();
         }
 
         @Override
@@ -13,31 +13,39 @@
 
 package org.eclipse.packager.rpm.build;
 
-import static java.util.Comparator.comparing;
 import static java.util.Optional.of;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.function.ToLongFunction;
 
 import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
 import org.apache.commons.compress.archivers.cpio.CpioConstants;
@@ -58,6 +66,8 @@ import org.eclipse.packager.rpm.header.Header;
 import org.eclipse.packager.rpm.signature.SignatureProcessor;
 import org.eclipse.packager.rpm.signature.SignatureProcessors;
 
+import com.google.common.io.ByteStreams;
+
 /**
  * Build RPM files
  * <p>
@@ -581,6 +591,319 @@ public class RpmBuilder implements AutoCloseable {
         }
     }
 
+    private class DefaultContext extends BuilderContextImpl {
+        @Override
+        public void addFile(final String targetName, final Path source, final FileInformationProvider<? super Path> provider) throws IOException {
+            if (!Files.isRegularFile(source)) {
+                throw new IllegalArgumentException(String.format("'%s' is not a regular file", source));
+            }
+            final FileInformation info = makeInformation(targetName, source, PayloadEntryType.FILE, provider);
+            RpmBuilder.this.addFile(targetName, source, info.getMode(), info.getTimestamp(), entry -> customizeFile(entry, info));
+        }
+
+        @Override
+        public void addFile(final String targetName, final InputStream source, final FileInformationProvider<Object> provider) throws IOException {
+            final FileInformation info = makeInformation(targetName, source, PayloadEntryType.FILE, provider);
+            RpmBuilder.this.addFile(targetName, source, info.getMode(), info.getTimestamp(), entry -> customizeFile(entry, info));
+        }
+
+        @Override
+        public void addFile(final String targetName, final InputStream source, final long size, final FileInformationProvider<Object> provider) throws IOException {
+            final FileInformation info = makeInformation(targetName, source, PayloadEntryType.FILE, provider);
+            RpmBuilder.this.addFile(targetName, source, size, info.getMode(), info.getTimestamp(), entry -> customizeFile(entry, info));
+        }
+
+        @Override
+        public void addFile(final String targetName, final ByteBuffer source, final FileInformationProvider<Object> provider) throws IOException {
+            final FileInformation info = makeInformation(targetName, source, PayloadEntryType.FILE, provider);
+            RpmBuilder.this.addFile(targetName, source, info.getMode(), info.getTimestamp(), entry -> customizeFile(entry, info));
+        }
+
+        @Override
+        public void addDirectory(final String targetName, final FileInformationProvider<? super Directory> provider) throws IOException {
+            final FileInformation info = makeInformation(targetName, BuilderContext.DIRECTORY, PayloadEntryType.DIRECTORY, provider);
+            RpmBuilder.this.addDirectory(targetName, info.getMode(), info.getTimestamp(), entry -> customizeDirectory(entry, info));
+        }
+
+        @Override
+        public void addSymbolicLink(final String targetName, final String linkTo, final FileInformationProvider<? super SymbolicLink> provider) throws IOException {
+            final FileInformation info = makeInformation(targetName, BuilderContext.SYMBOLIC_LINK, PayloadEntryType.SYMBOLIC_LINK, provider);
+            RpmBuilder.this.addSymbolicLink(targetName, linkTo, info.getMode(), info.getTimestamp(), entry -> customizeSymbolicLink(entry, info));
+        }
+
+        @Override
+        public void addTree(final Path root, final String targetPrefix, final PathMatcher include, final PathMatcher exclude, final FileInformationProvider<? super TreeEntry> provider) throws IOException {
+            TreeWalker.walk(root, targetPrefix, include, exclude, (targetName, entry) -> {
+                final FileInformation info = makeInformation(targetName, entry, entry.getType(), provider);
+                addTreeEntry(targetName, entry, info);
+            });
+        }
+
+        protected void addTreeEntry(final String targetName, final TreeEntry entry, final FileInformation info) throws IOException {
+            switch (entry.getType()) {
+            case DIRECTORY:
+                RpmBuilder.this.addDirectory(targetName, info.getMode(), info.getTimestamp(), fileEntry -> customizeDirectory(fileEntry, info));
+                break;
+            case SYMBOLIC_LINK:
+                RpmBuilder.this.addSymbolicLink(targetName, entry.getLinkTarget(), info.getMode(), info.getTimestamp(), fileEntry -> customizeSymbolicLink(fileEntry, info));
+                break;
+            default:
+                // the size is known from walking the tree, no need to query it again
+                RpmBuilder.this.addFile(targetName, entry, fileEntry -> customizeFile(fileEntry, info), info.getMode(), info.getTimestamp(), (recorder, name, data, customizer) -> recorder.addFile(name, data.getPath(), data.getAttributes().size(), customizer));
+                break;
+            }
+        }
+    }
+
+    /**
+     * A file, prepared ahead of being appended to the payload
+     * <p>
+     * Small files are read into memory and digested ahead, larger files are
+     * copied to a temporary file while digesting them. Files too large for
+     * that only carry their size, and are digested while being appended.
+     * </p>
+     */
+    private static final class PreparedFile {
+        private final String targetName;
+
+        private final Path source;
+
+        private final FileInformation information;
+
+        private final ByteBuffer content;
+
+        private final SpoolBuffer spool;
+
+        private final long size;
+
+        private final byte[] digest;
+
+        PreparedFile(final String targetName, final Path source, final FileInformation information, final ByteBuffer content, final SpoolBuffer spool, final long size, final byte[] digest) {
+            this.targetName = targetName;
+            this.source = source;
+            this.information = information;
+            this.content = content;
+            this.spool = spool;
+            this.size = size;
+            this.digest = digest;
+        }
+
+        Result record(final PayloadRecorder recorder, final String targetName, final Consumer<CpioArchiveEntry> customizer) throws IOException {
+            if (this.content != null) {
+                return recorder.addFile(targetName, this.content, this.digest, customizer);
+            }
+            if (this.spool != null) {
+                try (InputStream in = Channels.newInputStream(this.spool.openChannel())) {
+                    return recorder.addFile(targetName, in, this.size, this.digest, customizer);
+                }
+            }
+            return recorder.addFile(targetName, this.source, this.size, customizer);
+        }
+    }
+
+    private class ParallelContext extends DefaultContext {
+        /**
+         * The maximum number of files being processed ahead
+         */
+        private static final int MAX_PENDING = 128;
+
+        /**
+         * Files up to this size are read into memory and digested ahead
+         */
+        private static final int MAX_IN_MEMORY = 256 * 1024;
+
+        /**
+         * The maximum number of bytes of larger files being copied to
+         * temporary files ahead. Files larger than this are only read when
+         * appended.
+         */
+        private static final long MAX_SPOOLED = 256 * 1024 * 1024;
+
+        private final Executor executor;
+
+        private final Deque<FutureTask<PreparedFile>> pending = new ArrayDeque<>();
+
+        private final Deque<Long> pendingSpooled = new ArrayDeque<>();
+
+        private long spooledBytes;
+
+        private final Set<SpoolBuffer> spools = ConcurrentHashMap.newKeySet();
+
+        ParallelContext(final Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void addFile(final String targetName, final Path source, final FileInformationProvider<? super Path> provider) throws IOException {
+            if (!Files.isRegularFile(source)) {
+                throw new IllegalArgumentException(String.format("'%s' is not a regular file", source));
+            }
+
+            final long size = Files.size(source);
+            submit(() -> prepare(targetName, source, size, makeInformation(targetName, source, PayloadEntryType.FILE, provider)), size);
+        }
+
+        @Override
+        public void addFile(final String targetName, final InputStream source, final FileInformationProvider<Object> provider) throws IOException {
+            flush();
+            super.addFile(targetName, source, provider);
+        }
+
+        @Override
+        public void addFile(final String targetName, final InputStream source, final long size, final FileInformationProvider<Object> provider) throws IOException {
+            flush();
+            super.addFile(targetName, source, size, provider);
+        }
+
+        @Override
+        public void addFile(final String targetName, final ByteBuffer source, final FileInformationProvider<Object> provider) throws IOException {
+            flush();
+            super.addFile(targetName, source, provider);
+        }
+
+        @Override
+        public void addDirectory(final String targetName, final FileInformationProvider<? super Directory> provider) throws IOException {
+            flush();
+            super.addDirectory(targetName, provider);
+        }
+
+        @Override
+        public void addSymbolicLink(final String targetName, final String linkTo, final FileInformationProvider<? super SymbolicLink> provider) throws IOException {
+            flush();
+            super.addSymbolicLink(targetName, linkTo, provider);
+        }
+
+        @Override
+        protected void addTreeEntry(final String targetName, final TreeEntry entry, final FileInformation info) throws IOException {
+            if (entry.getType() == PayloadEntryType.FILE) {
+                final long size = entry.getAttributes().size();
+                submit(() -> prepare(targetName, entry.getPath(), size, info), size);
+            } else {
+                flush();
+                super.addTreeEntry(targetName, entry, info);
+            }
+        }
+
+        /**
+         * Append all pending files
+         */
+        void flush() throws IOException {
+            appendCompleted(0);
+        }
+
+        void cancel() throws IOException {
+            for (final FutureTask<PreparedFile> task : this.pending) {
+                task.cancel(true);
+            }
+            this.pending.clear();
+            this.pendingSpooled.clear();
+            this.spooledBytes = 0;
+
+            for (final SpoolBuffer spool : this.spools) {
+                release(spool);
+            }
+        }
+
+        private void submit(final Callable<PreparedFile> preparation, final long expectedSize) throws IOException {
+            final long spooled = isSpooled(expectedSize) ? expectedSize : 0;
+
+            // wait for pending files, until the new one fits into the budget of temporary files
+            while (!this.pending.isEmpty() && this.spooledBytes + spooled > MAX_SPOOLED) {
+                appendFirst();
+            }
+
+            final FutureTask<PreparedFile> task = new FutureTask<>(preparation);
+
+            this.executor.execute(task);
+            this.pending.addLast(task);
+            this.pendingSpooled.addLast(spooled);
+            this.spooledBytes += spooled;
+
+            appendCompleted(MAX_PENDING);
+        }
+
+        private boolean isSpooled(final long size) {
+            return size > MAX_IN_MEMORY && size <= MAX_SPOOLED;
+        }
+
+        private PreparedFile prepare(final String targetName, final Path source, final long expectedSize, final FileInformation information) throws IOException {
+            if (expectedSize > MAX_SPOOLED) {
+                // only read once, while being appended
+                return new PreparedFile(targetName, source, information, null, null, expectedSize, null);
+            }
+
+            final MessageDigest digest;
+            try {
+                digest = RpmBuilder.this.options.getFileDigestAlgorithm().createDigest();
+            } catch (final NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+
+            if (expectedSize <= MAX_IN_MEMORY) {
+                final byte[] data = Files.readAllBytes(source);
+                digest.update(data);
+                return new PreparedFile(targetName, source, information, ByteBuffer.wrap(data), null, data.length, digest.digest());
+            }
+
+            final SpoolBuffer spool = new SpoolBuffer("rpm-file-", 0, false);
+            this.spools.add(spool);
+            try {
+                try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+                    ByteStreams.copy(in, spool);
+                } finally {
+                    spool.close();
+                }
+            } catch (final IOException | RuntimeException e) {
+                release(spool);
+                throw e;
+            }
+
+            return new PreparedFile(targetName, source, information, null, spool, spool.size(), digest.digest());
+        }
+
+        private void release(final SpoolBuffer spool) throws IOException {
+            this.spools.remove(spool);
+            spool.delete();
+        }
+
+        private void appendCompleted(final int maxPending) throws IOException {
+            while (this.pending.size() > maxPending || !this.pending.isEmpty() && this.pending.peekFirst().isDone()) {
+                appendFirst();
+            }
+        }
+
+        private void appendFirst() throws IOException {
+            final FutureTask<PreparedFile> task = this.pending.removeFirst();
+            this.spooledBytes -= this.pendingSpooled.removeFirst();
+
+            final PreparedFile file;
+            try {
+                file = task.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading files");
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            }
+
+            final FileInformation info = file.information;
+            try {
+                RpmBuilder.this.addFile(file.targetName, file, entry -> customizeFile(entry, info), info.getMode(), info.getTimestamp(), (recorder, name, data, customizer) -> data.record(recorder, name, customizer));
+            } finally {
+                if (file.spool != null) {
+                    release(file.spool);
+                }
+            }
+        }
+    }
+
     private static final String DEFAULT_INTERPRETER = "/bin/sh";
 
     private static final String EMBEDDED_LUA_INTERPRETER = "<lua>";
@@ -617,7 +940,9 @@ public class RpmBuilder implements AutoCloseable {
 
     private final Set<Dependency> enhances = new HashSet<>();
 
-    private final Map<String, FileEntry> files = new HashMap<>();
+    private final FileTable files = new FileTable();
+
+    private final List<ParallelContext> parallelContexts = new LinkedList<>();
 
     private PackageInformation information = new PackageInformation();
 
@@ -658,7 +983,7 @@ public class RpmBuilder implements AutoCloseable {
 
         this.targetFile = makeTargetFile(targetFile);
 
-        this.recorder = new PayloadRecorder(this.options.getPayloadCoding(), this.options.getPayloadFlags(), this.options.getFileDigestAlgorithm(), this.options.getPayloadProcessors());
+        this.recorder = new PayloadRecorder(this.options);
 
         addDefaultSignatureProcessors();
     }
@@ -772,59 +1097,7 @@ public class RpmBuilder implements AutoCloseable {
                 this.header.putInt(RpmTag.FILE_DIGESTALGO, this.options.getFileDigestAlgorithm().getTag());
             }
 
-            final FileEntry[] files = this.files.values().toArray(new FileEntry[0]);
-            Arrays.sort(files, comparing(FileEntry::getTargetName));
-
-            final long installedSize = Arrays.stream(files).mapToLong(FileEntry::getTargetSize).sum();
-            this.header.putSize(installedSize, RpmTag.SIZE, RpmTag.LONGSIZE);
-
-            final Collection<FileEntry> filesList = Arrays.asList(files);
-
-            // TODO: implement LONG file sizes
-            Header.putIntFields(this.header, filesList, RpmTag.FILE_SIZES, entry -> (int) entry.getSize());
-            Header.putShortFields(this.header, filesList, RpmTag.FILE_MODES, FileEntry::getMode);
-            Header.putShortFields(this.header, filesList, RpmTag.FILE_RDEVS, FileEntry::getRdevs);
-            Header.putIntFields(this.header, filesList, RpmTag.FILE_MTIMES, FileEntry::getModificationTime);
-            Header.putFields(this.header, filesList, RpmTag.FILE_DIGESTS, String[]::new, FileEntry::getDigest, Header::putStringArray);
-            Header.putFields(this.header, filesList, RpmTag.FILE_LINKTO, String[]::new, FileEntry::getLinkTo, Header::putStringArray);
-            Header.putIntFields(this.header, filesList, RpmTag.FILE_FLAGS, FileEntry::getFlags);
-            Header.putFields(this.header, filesList, RpmTag.FILE_USERNAME, String[]::new, FileEntry::getUser, Header::putStringArray);
-            Header.putFields(this.header, filesList, RpmTag.FILE_GROUPNAME, String[]::new, FileEntry::getGroup, Header::putStringArray);
-
-            Header.putIntFields(this.header, filesList, RpmTag.FILE_VERIFYFLAGS, FileEntry::getVerifyFlags);
-
-            putNumber(this.options.getLongMode(), this.header, filesList, RpmTag.FILE_DEVICES, FileEntry::getDevice);
-            putNumber(this.options.getLongMode(), this.header, filesList, RpmTag.FILE_INODES, FileEntry::getInode);
-
-            Header.putFields(this.header, filesList, RpmTag.FILE_LANGS, String[]::new, FileEntry::getLang, Header::putStringArray);
-
-            Header.putFields(this.header, filesList, RpmTag.BASENAMES, String[]::new, fe -> fe.getTargetName().getBasename(), Header::putStringArray);
-
-            {
-                // compress file names
-
-                String currentDirName = null;
-                final List<String> dirnames = new ArrayList<>();
-                final int[] dirIndexes = new int[files.length];
-                int pos = -1;
-                int i = 0;
-                for (final FileEntry f : files) {
-                    final String dirname = f.getTargetName().getDirname();
-                    if (currentDirName == null || !currentDirName.equals(dirname)) {
-                        currentDirName = dirname;
-                        if (!dirname.isEmpty()) {
-                            dirnames.add("/" + dirname + "/");
-                        } else {
-                            dirnames.add("/");
-                        }
-                        pos++;
-                    }
-                    dirIndexes[i] = pos;
-                    i++;
-                }
-                this.header.putInt(RpmTag.DIR_INDEXES, dirIndexes);
-                this.header.putStringArray(RpmTag.DIRNAMES, dirnames.toArray(new String[0]));
-            }
+            this.files.fillHeader(this.header, this.options.getLongMode());
         } else {
             this.header.putSize(0, RpmTag.SIZE, RpmTag.LONGSIZE);
         }
@@ -834,42 +1107,6 @@ public class RpmBuilder implements AutoCloseable {
         this.header.putAll(finished.getAdditionalHeader());
     }
 
-    private static void putNumber(final LongMode longMode, final Header<RpmTag> header, final Collection<FileEntry> files, final RpmTag tag, final ToLongFunction<FileEntry> func) {
-        boolean useLong;
-        if (longMode == LongMode.FORCE_64BIT) {
-            // no need to check, got with 64bit
-            useLong = true;
-        } else {
-            // check if we need 64bit
-            final boolean needLong = needLong(files, func);
-            if (longMode == LongMode.FORCE_32BIT) {
-                if (needLong) {
-                    // we need it but are forced to 32bit
-                    throw new IllegalStateException("Requested 32bit mode, but 64bit is necessary");
-                } else {
-                    // we don't need it, so we can accept 32bit
-                    useLong = false;
-                }
-            } else // everything else is DEFAULT
-            {
-                // we can choose, so choose
-                useLong = needLong;
-            }
-        }
-
-        if (useLong) {
-            // write as 64bit
-            Header.putLongFields(header, files, tag, func);
-        } else {
-            // write as 32bit
-            Header.putIntFields(header, files, tag, file -> (int) func.applyAsLong(file));
-        }
-    }
-
-    private static boolean needLong(final Collection<FileEntry> files, final ToLongFunction<FileEntry> func) {
-        return files.stream().anyMatch(file -> func.applyAsLong(file) > Integer.MAX_VALUE);
-    }
-
     private Path makeTargetFile(final Path target) {
         if (Files.isDirectory(target)) {
             return target.resolve(makeDefaultFileName());
@@ -936,6 +1173,10 @@ public class RpmBuilder implements AutoCloseable {
      * @throws IOException in case of any IO error
      */
     public void build() throws IOException {
+        for (final ParallelContext context : this.parallelContexts) {
+            context.flush();
+        }
+
         try (final PayloadRecorder.Finished finished = this.recorder.finish()) {
             fillProvides();
             fillRequirements();
@@ -951,6 +1192,7 @@ public class RpmBuilder implements AutoCloseable {
 
             try (final RpmWriter writer = new RpmWriter(this.targetFile, leadBuilder, this.header, this.options.getHeaderCharset(), this.options.getOpenOptions())) {
                 writer.addAllSignatureProcessors(this.signatureProcessors);
+                writer.setSignatureReservedSpace(this.options.getSignatureReservedSpace());
                 writer.setPayload(finished);
             }
         }
@@ -974,7 +1216,13 @@ public class RpmBuilder implements AutoCloseable {
 
     @Override
     public void close() throws IOException {
-        this.recorder.close();
+        try {
+            for (final ParallelContext context : this.parallelContexts) {
+                context.cancel();
+            }
+        } finally {
+            this.recorder.close();
+        }
     }
 
     private void triggerVersion(final Version version) {
@@ -1106,6 +1354,10 @@ public class RpmBuilder implements AutoCloseable {
         addFile(targetName, stream, customizer, mode, modInstant, PayloadRecorder::addFile);
     }
 
+    private void addFile(final String targetName, final InputStream stream, final long size, final int mode, final Instant modInstant, final Consumer<FileEntry> customizer) throws IOException {
+        addFile(targetName, stream, customizer, mode, modInstant, (recorder, name, data, cpioCustomizer) -> recorder.addFile(name, data, size, cpioCustomizer));
+    }
+
     private void addFile(final String targetName, final ByteBuffer data, final int mode, final Instant modInstant, final Consumer<FileEntry> customizer) throws IOException {
         addFile(targetName, data, customizer, mode, modInstant, PayloadRecorder::addFile);
     }
@@ -1143,45 +1395,42 @@ public class RpmBuilder implements AutoCloseable {
 
         // recordData file entry
 
-        this.files.put(targetName.toString(), entry);
+        this.files.put(entry);
     }
 
     public BuilderContext newContext() {
-        return new BuilderContextImpl() {
-
-            @Override
-            public void addFile(final String targetName, final Path source, final FileInformationProvider<? super Path> provider) throws IOException {
-                if (!Files.isRegularFile(source)) {
-                    throw new IllegalArgumentException(String.format("'%s' is not a regular file", source));
-                }
-                final FileInformation info = makeInformation(targetName, source, PayloadEntryType.FILE, provider);
-                RpmBuilder.this.addFile(targetName, source, info.getMode(), info.getTimestamp(), entry -> customizeFile(entry, info));
-            }
-
-            @Override
-            public void addFile(final String targetName, final InputStream source, final FileInformationProvider<Object> provider) throws IOException {
-                final FileInformation info = makeInformation(targetName, source, PayloadEntryType.FILE, provider);
-                RpmBuilder.this.addFile(targetName, source, info.getMode(), info.getTimestamp(), entry -> customizeFile(entry, info));
-            }
-
-            @Override
-            public void addFile(final String targetName, final ByteBuffer source, final FileInformationProvider<Object> provider) throws IOException {
-                final FileInformation info = makeInformation(targetName, source, PayloadEntryType.FILE, provider);
-                RpmBuilder.this.addFile(targetName, source, info.getMode(), info.getTimestamp(), entry -> customizeFile(entry, info));
-            }
+        return new DefaultContext();
+    }
 
-            @Override
-            public void addDirectory(final String targetName, final FileInformationProvider<? super Directory> provider) throws IOException {
-                final FileInformation info = makeInformation(targetName, BuilderContext.DIRECTORY, PayloadEntryType.DIRECTORY, provider);
-                RpmBuilder.this.addDirectory(targetName, info.getMode(), info.getTimestamp(), entry -> customizeDirectory(entry, info));
-            }
+    /**
+     * Create a new context, which reads files concurrently
+     * <p>
+     * Files added from a {@link Path} are passed to the file information
+     * provider using the provided executor. Files are also read and digested
+     * using the executor, small files into memory, larger files into
+     * temporary files. Only files larger than the budget for temporary files
+     * are read and digested while being appended. Files still get
+     * appended to the payload in the order they were added, so the result is
+     * the same as with a context created by {@link #newContext()}. All other
+     * entries are added right away, once all files added before them have
+     * been appended.
+     * </p>
+     * <p>
+     * The file information providers used with this context must be
+     * thread-safe. Errors processing a file may be reported by a later call
+     * to the context, or by {@link #build()}, which waits for all pending
+     * files.
+     * </p>
+     *
+     * @param executor the executor to use for reading files
+     * @return a new context
+     */
+    public BuilderContext newParallelContext(final Executor executor) {
+        Objects.requireNonNull(executor);
 
-            @Override
-            public void addSymbolicLink(final String targetName, final String linkTo, final FileInformationProvider<? super SymbolicLink> provider) throws IOException {
-                final FileInformation info = makeInformation(targetName, BuilderContext.SYMBOLIC_LINK, PayloadEntryType.SYMBOLIC_LINK, provider);
-                RpmBuilder.this.addSymbolicLink(targetName, linkTo, info.getMode(), info.getTimestamp(), entry -> customizeSymbolicLink(entry, info));
-            }
-        };
+        final ParallelContext context = new ParallelContext(executor);
+        this.parallelContexts.add(context);
+        return context;
     }
 
     public void setPreInstallationScript(final String interpreter, final String script) {
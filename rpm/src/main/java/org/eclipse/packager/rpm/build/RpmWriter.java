@@ -28,6 +28,7 @@ import java.text.Normalizer;
 import java.text.Normalizer.Form;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 import org.eclipse.packager.rpm.RpmLead;
@@ -36,6 +37,7 @@ import org.eclipse.packager.rpm.RpmTag;
 import org.eclipse.packager.rpm.Rpms;
 import org.eclipse.packager.rpm.header.Header;
 import org.eclipse.packager.rpm.header.Headers;
+import org.eclipse.packager.rpm.signature.SignatureHeaders;
 import org.eclipse.packager.rpm.signature.SignatureProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,6 +71,8 @@ public class RpmWriter implements AutoCloseable {
 
     private final List<SignatureProcessor> signatureProcessors = new LinkedList<>();
 
+    private int signatureReservedSpace;
+
     public RpmWriter(final Path path, final Supplier<RpmLead> leadProvider, final Header<RpmTag> header, final Charset headerCharset, final OpenOption... options) throws IOException {
         requireNonNull(path);
         requireNonNull(leadProvider);
@@ -97,6 +101,31 @@ public class RpmWriter implements AutoCloseable {
         this.signatureProcessors.addAll(signatureProcessors);
     }
 
+    /**
+     * Reserve space for the signature header
+     * <p>
+     * When set to a positive value, the writer reserves this number of bytes
+     * (rounded up to a multiple of eight) for the signature header. The
+     * payload is then read only once, feeding the signature processors while
+     * it is copied. The signature header is written into the reserved space
+     * afterwards, filled up with a {@link RpmSignatureTag#RESERVEDSPACE}
+     * entry. If the signature header turns out to be bigger than the reserved
+     * space, the package header and payload get written again.
+     * </p>
+     * <p>
+     * The reserved space also allows to re-sign the package later on, without
+     * the need to rewrite the whole file.
+     * </p>
+     *
+     * @param signatureReservedSpace the number of bytes to reserve, zero to
+     *            disable
+     */
+    public void setSignatureReservedSpace(final int signatureReservedSpace) {
+        checkNotFinished();
+
+        this.signatureReservedSpace = Math.max(0, signatureReservedSpace);
+    }
+
     public void setPayload(final PayloadProvider payloadProvider) {
         checkNotFinished();
 
@@ -167,26 +196,21 @@ public class RpmWriter implements AutoCloseable {
         }
     }
 
-    private void writeSignatureHeader(final Header<?> header) throws IOException {
-        // render header
+    private void safeWrite(final ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += this.file.write(data, position);
+        }
+    }
 
-        final ByteBuffer buffer = Headers.render(header.makeEntries(), true, Rpms.IMMUTABLE_TAG_SIGNATURE);
+    private void writeSignatureHeader(final Header<RpmSignatureTag> header) throws IOException {
+        // render header, including padding
 
-        final int payloadSize = buffer.remaining();
+        final ByteBuffer buffer = SignatureHeaders.render(header);
 
         // header
 
-        debug("start header - offset: %s, len: %s", this.file.position(), payloadSize);
+        debug("start header - offset: %s, len: %s", this.file.position(), buffer.remaining());
         safeWrite(buffer);
-
-        // padding
-
-        final int padding = Rpms.padding(payloadSize);
-
-        if (padding > 0) {
-            safeWrite(ByteBuffer.wrap(Rpms.EMPTY_128, 0, padding));
-            debug("write - padding - %s", padding);
-        }
     }
 
     @Override
@@ -213,6 +237,11 @@ public class RpmWriter implements AutoCloseable {
         final long payloadSize = this.payloadProvider.getPayloadSize();
         debug("data - %s - %s", headerSize, payloadSize);
 
+        if (this.signatureReservedSpace > 0) {
+            finishSinglePass();
+            return;
+        }
+
         // set signature data
 
         final Header<RpmSignatureTag> signature = new Header<>();
@@ -238,6 +267,12 @@ public class RpmWriter implements AutoCloseable {
 
         // now append payload data
 
+        copyPayload();
+
+        debug("end - offset: %s", this.file.position());
+    }
+
+    private void copyPayload() throws IOException {
         try (ReadableByteChannel payloadChannel = this.payloadProvider.openChannel()) {
             if (payloadChannel instanceof FileChannel && !isForceCopy()) {
                 final long count = copyFileChannel((FileChannel) payloadChannel, this.file);
@@ -247,8 +282,79 @@ public class RpmWriter implements AutoCloseable {
                 debug("copied - %s", count);
             }
         }
+    }
+
+    /**
+     * Write the RPM file, reading the payload only once
+     * <p>
+     * This reserves the space for the signature header, and feeds the
+     * signature processors while copying the payload. The signature header is
+     * written last.
+     * </p>
+     */
+    private void finishSinglePass() throws IOException {
+        final int reserved = this.signatureReservedSpace + Rpms.padding(this.signatureReservedSpace);
+
+        for (final SignatureProcessor processor : this.signatureProcessors) {
+            processor.init(this.payloadProvider.getArchiveSize());
+        }
+        for (final SignatureProcessor processor : this.signatureProcessors) {
+            processor.feedHeader(this.header.slice());
+        }
+
+        // write lead, and skip the reserved space
+
+        writeLead();
+
+        final long signatureStart = this.file.position();
+        this.file.position(signatureStart + reserved);
+
+        // write the header
+
+        debug("package - offset: %s", this.file.position());
+        safeWrite(this.header.slice());
+
+        // copy payload data, feeding the signature processors
+
+        debug("payload - offset: %s", this.file.position());
+
+        try (ReadableByteChannel channel = this.payloadProvider.openChannel()) {
+            final ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+
+            while (channel.read(buf) >= 0) {
+                buf.flip();
+                for (final SignatureProcessor processor : this.signatureProcessors) {
+                    processor.feedPayloadData(buf.slice());
+                }
+                safeWrite(buf);
+                buf.clear();
+            }
+        }
 
         debug("end - offset: %s", this.file.position());
+
+        // finish up signature
+
+        final Header<RpmSignatureTag> signature = new Header<>();
+        for (final SignatureProcessor processor : this.signatureProcessors) {
+            processor.finish(signature);
+        }
+
+        final Optional<ByteBuffer> fitting = SignatureHeaders.render(signature, reserved);
+        if (fitting.isPresent()) {
+            debug("signature - offset: %s, reserved: %s", signatureStart, reserved);
+            safeWrite(fitting.get(), signatureStart);
+            return;
+        }
+
+        // the signature doesn't fit, write header and payload again, after the full signature header
+
+        logger.info("Signature header exceeds reserved space of {} bytes, rewriting package data", reserved);
+
+        this.file.position(signatureStart);
+        writeSignatureHeader(signature);
+        safeWrite(this.header.slice());
+        copyPayload();
     }
 
     /**
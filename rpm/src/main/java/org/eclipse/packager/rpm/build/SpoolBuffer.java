@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A buffer for spooling data, which spills to disk once it grows too big
+ * <p>
+ * Data written to this stream is kept in memory, optionally off-heap, until
+ * the size exceeds the threshold. From then on all data is written to a
+ * temporary file. A threshold of zero writes to the temporary file right
+ * away.
+ * </p>
+ * <p>
+ * Once the stream is closed, the data can be read, any number of times, using
+ * {@link #openChannel()}. The resources held by the buffer are released using
+ * {@link #delete()}.
+ * </p>
+ */
+class SpoolBuffer extends OutputStream {
+    private static final int MIN_CHUNK_SIZE = 8 * 1024;
+
+    private static final int MAX_CHUNK_SIZE = 1024 * 1024;
+
+    private final String prefix;
+
+    private final long threshold;
+
+    private final boolean direct;
+
+    private List<ByteBuffer> chunks = new ArrayList<>();
+
+    private Path file;
+
+    private OutputStream fileStream;
+
+    private long size;
+
+    private boolean closed;
+
+    /**
+     * Create a new buffer
+     *
+     * @param prefix the prefix of the temporary file
+     * @param threshold the number of bytes to keep in memory
+     * @param direct whether to allocate memory off-heap
+     * @throws IOException if creating the temporary file failed
+     */
+    SpoolBuffer(final String prefix, final long threshold, final boolean direct) throws IOException {
+        this.prefix = prefix;
+        this.threshold = threshold;
+        this.direct = direct;
+
+        if (threshold <= 0) {
+            spill();
+        }
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    public boolean isInMemory() {
+        return this.file == null;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, int off, int len) throws IOException {
+        if (this.closed) {
+            throw new IOException("Spool buffer is already closed");
+        }
+
+        if (this.fileStream == null && this.size + len > this.threshold) {
+            spill();
+        }
+
+        this.size += len;
+
+        if (this.fileStream != null) {
+            this.fileStream.write(b, off, len);
+            return;
+        }
+
+        while (len > 0) {
+            ByteBuffer chunk = this.chunks.isEmpty() ? null : this.chunks.get(this.chunks.size() - 1);
+            if (chunk == null || !chunk.hasRemaining()) {
+                chunk = allocate(chunk == null ? MIN_CHUNK_SIZE : Math.min(MAX_CHUNK_SIZE, chunk.capacity() * 2));
+                this.chunks.add(chunk);
+            }
+
+            final int n = Math.min(len, chunk.remaining());
+            chunk.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (this.fileStream != null) {
+            this.fileStream.flush();
+        }
+    }
+
+    /**
+     * Finish writing
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+
+        if (this.fileStream != null) {
+            this.fileStream.close();
+        }
+    }
+
+    /**
+     * Open a channel for reading the content
+     *
+     * @return a new channel, positioned at the start of the data. When the
+     *         data was written to disk, this is a {@link FileChannel}.
+     * @throws IOException if the buffer is not closed yet, or in case of IO
+     *             errors
+     */
+    public ReadableByteChannel openChannel() throws IOException {
+        if (!this.closed) {
+            throw new IOException("Spool buffer must be closed before it can be read");
+        }
+
+        if (this.file != null) {
+            return FileChannel.open(this.file, StandardOpenOption.READ);
+        }
+
+        if (this.chunks == null) {
+            throw new IOException("Spool buffer was deleted");
+        }
+
+        final List<ByteBuffer> buffers = new ArrayList<>(this.chunks.size());
+        for (final ByteBuffer chunk : this.chunks) {
+            final ByteBuffer buffer = chunk.duplicate();
+            buffer.flip();
+            buffers.add(buffer.asReadOnlyBuffer());
+        }
+        return new MemoryChannel(buffers);
+    }
+
+    /**
+     * Release all resources
+     *
+     * @throws IOException if deleting the temporary file failed
+     */
+    public void delete() throws IOException {
+        close();
+
+        this.chunks = null;
+
+        if (this.file != null) {
+            Files.deleteIfExists(this.file);
+        }
+    }
+
+    private ByteBuffer allocate(final int size) {
+        return this.direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+
+    private void spill() throws IOException {
+        this.file = Files.createTempFile(this.prefix, null);
+
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(this.file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (final IOException e) {
+            Files.deleteIfExists(this.file);
+            throw e;
+        }
+
+        try {
+            for (final ByteBuffer chunk : this.chunks) {
+                chunk.flip();
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+        } catch (final IOException e) {
+            channel.close();
+            Files.deleteIfExists(this.file);
+            throw e;
+        }
+
+        this.fileStream = new BufferedOutputStream(Channels.newOutputStream(channel));
+        this.chunks.clear();
+    }
+
+    private static class MemoryChannel implements ReadableByteChannel {
+        private final List<ByteBuffer> buffers;
+
+        private int index;
+
+        private boolean open = true;
+
+        MemoryChannel(final List<ByteBuffer> buffers) {
+            this.buffers = buffers;
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            if (!this.open) {
+                throw new ClosedChannelException();
+            }
+
+            int result = 0;
+
+            while (dst.hasRemaining() && this.index < this.buffers.size()) {
+                final ByteBuffer current = this.buffers.get(this.index);
+                if (!current.hasRemaining()) {
+                    this.index++;
+                    continue;
+                }
+
+                final int n = Math.min(current.remaining(), dst.remaining());
+                final ByteBuffer slice = current.slice();
+                slice.limit(n);
+                dst.put(slice);
+                current.position(current.position() + n);
+                result += n;
+            }
+
+            if (result == 0 && this.index >= this.buffers.size()) {
+                return -1;
+            }
+
+            return result;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.open;
+        }
+
+        @Override
+        public void close() {
+            this.open = false;
+        }
+    }
+}
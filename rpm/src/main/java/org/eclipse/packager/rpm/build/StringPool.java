@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import java.util.Arrays;
+
+/**
+ * A pool of unique strings, each identified by an index
+ * <p>
+ * Strings get their index in the order they are first added, starting with
+ * zero. The lookup table is an open addressing hash table of primitive
+ * indexes, so the pool only holds one reference per distinct string.
+ * </p>
+ */
+final class StringPool {
+    private String[] values = new String[16];
+
+    /**
+     * Hash slots, containing the index of the value plus one, zero marks an
+     * empty slot
+     */
+    private int[] slots = new int[32];
+
+    private int size;
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Add a string to the pool
+     *
+     * @param value the string to add, may be {@code null}
+     * @return the index of the string, or {@code -1} for {@code null}
+     */
+    int intern(final String value) {
+        if (value == null) {
+            return -1;
+        }
+
+        final int slot = findSlot(this.slots, value);
+        if (this.slots[slot] != 0) {
+            return this.slots[slot] - 1;
+        }
+
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+
+        final int index = this.size++;
+        this.values[index] = value;
+        this.slots[slot] = index + 1;
+
+        // keep the load factor at or below one half
+
+        if (this.size * 2 > this.slots.length) {
+            rehash();
+        }
+
+        return index;
+    }
+
+    /**
+     * Find the index of a string
+     *
+     * @param value the string to look up
+     * @return the index of the string, or {@code -1} if it is not part of the
+     *         pool
+     */
+    int indexOf(final String value) {
+        if (value == null) {
+            return -1;
+        }
+        return this.slots[findSlot(this.slots, value)] - 1;
+    }
+
+    /**
+     * Get a string by its index
+     *
+     * @param index the index
+     * @return the string, or {@code null} for an index of {@code -1}
+     */
+    String get(final int index) {
+        return index < 0 ? null : this.values[index];
+    }
+
+    /**
+     * Get all strings, ordered by their index
+     *
+     * @return a new array, containing all strings of the pool
+     */
+    String[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+
+    private int findSlot(final int[] slots, final String value) {
+        final int mask = slots.length - 1;
+        int slot = spread(value.hashCode()) & mask;
+        while (slots[slot] != 0 && !this.values[slots[slot] - 1].equals(value)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        final int[] slots = new int[this.slots.length * 2];
+        final int mask = slots.length - 1;
+
+        for (int i = 0; i < this.size; i++) {
+            int slot = spread(this.values[i].hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+
+        this.slots = slots;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
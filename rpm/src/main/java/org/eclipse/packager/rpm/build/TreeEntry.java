@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An entry of a file tree, added using
+ * {@link BuilderContext#addTree(Path, String, java.nio.file.PathMatcher, java.nio.file.PathMatcher, FileInformationProvider)}
+ * <p>
+ * This is the source object handed to the file information provider. It
+ * carries the attributes read while walking the tree, so that providers don't
+ * need to access the file system again.
+ * </p>
+ */
+public final class TreeEntry {
+    private final Path path;
+
+    private final Path relativePath;
+
+    private final BasicFileAttributes attributes;
+
+    private final PayloadEntryType type;
+
+    private final String linkTarget;
+
+    TreeEntry(final Path path, final Path relativePath, final BasicFileAttributes attributes, final PayloadEntryType type, final String linkTarget) {
+        this.path = Objects.requireNonNull(path);
+        this.relativePath = Objects.requireNonNull(relativePath);
+        this.attributes = Objects.requireNonNull(attributes);
+        this.type = Objects.requireNonNull(type);
+        this.linkTarget = linkTarget;
+    }
+
+    /**
+     * Get the path of the entry
+     *
+     * @return the path in the file system
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Get the path of the entry, relative to the root of the tree
+     *
+     * @return the relative path
+     */
+    public Path getRelativePath() {
+        return this.relativePath;
+    }
+
+    /**
+     * Get the attributes of the entry
+     * <p>
+     * For symbolic links, these are the attributes of the link itself.
+     * </p>
+     *
+     * @return the attributes
+     */
+    public BasicFileAttributes getAttributes() {
+        return this.attributes;
+    }
+
+    /**
+     * Get the POSIX attributes of the entry
+     *
+     * @return the POSIX attributes, if the file system supports them
+     */
+    public Optional<PosixFileAttributes> getPosixAttributes() {
+        if (this.attributes instanceof PosixFileAttributes) {
+            return Optional.of((PosixFileAttributes) this.attributes);
+        }
+        return Optional.empty();
+    }
+
+    public PayloadEntryType getType() {
+        return this.type;
+    }
+
+    /**
+     * Get the target of a symbolic link
+     *
+     * @return the target of the link, or {@code null} if the entry is not a
+     *         symbolic link
+     */
+    public String getLinkTarget() {
+        return this.linkTarget;
+    }
+
+    /**
+     * Get the mode of the entry, from its POSIX permissions
+     *
+     * @return the permission bits, if the file system supports POSIX
+     *         attributes
+     */
+    public Optional<Short> getPermissionMode() {
+        return getPosixAttributes().map(attributes -> toMode(attributes.permissions()));
+    }
+
+    private static short toMode(final Set<PosixFilePermission> permissions) {
+        int mode = 0;
+        for (final PosixFilePermission permission : permissions) {
+            // the enum is ordered from owner read (0400) to others execute (0001)
+            mode |= 0400 >> permission.ordinal();
+        }
+        return (short) mode;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[TreeEntry: %s (%s)]", this.relativePath, this.type);
+    }
+}
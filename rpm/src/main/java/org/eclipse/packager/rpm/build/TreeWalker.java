@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Walk a file tree, for adding it to a package
+ * <p>
+ * The tree is walked once, without following symbolic links, reading the
+ * attributes of each entry exactly once. When supported by the file system,
+ * these are the POSIX attributes. The attributes are handed on in the
+ * {@link TreeEntry}, so that no further file system access is required for
+ * processing an entry, except for reading the content of regular files.
+ * </p>
+ * <p>
+ * The walk doesn't use {@link Files#walkFileTree(Path, java.nio.file.FileVisitor)},
+ * as this only provides the basic attributes, requiring a second lookup for
+ * the POSIX attributes. Entries of a directory are processed in the order of
+ * their names, so the result doesn't depend on the order of the file system.
+ * </p>
+ */
+final class TreeWalker {
+    @FunctionalInterface
+    interface Visitor {
+        void visit(String targetName, TreeEntry entry) throws IOException;
+    }
+
+    private static final Comparator<Path> BY_NAME = Comparator.comparing(path -> path.getFileName().toString());
+
+    private TreeWalker() {
+    }
+
+    /**
+     * Walk a tree
+     * <p>
+     * Matchers are applied to the path relative to the root. An excluded
+     * directory skips the whole sub-tree. A directory which is not included
+     * will not be reported, but its content will still be walked. Entries
+     * other than directories, regular files, and symbolic links are ignored.
+     * The root itself is not reported.
+     * </p>
+     *
+     * @param root the root of the tree
+     * @param targetPrefix the prefix of the target names
+     * @param include the entries to include, {@code null} for all
+     * @param exclude the entries to exclude, {@code null} for none
+     * @param visitor the visitor, receiving the entries
+     * @throws IOException in case of IO errors
+     */
+    static void walk(final Path root, final String targetPrefix, final PathMatcher include, final PathMatcher exclude, final Visitor visitor) throws IOException {
+        final Class<? extends BasicFileAttributes> attributesType = root.getFileSystem().supportedFileAttributeViews().contains("posix") ? PosixFileAttributes.class : BasicFileAttributes.class;
+
+        walk(root, root, attributesType, targetPrefix, include, exclude, visitor);
+    }
+
+    private static void walk(final Path root, final Path directory, final Class<? extends BasicFileAttributes> attributesType, final String targetPrefix, final PathMatcher include, final PathMatcher exclude, final Visitor visitor) throws IOException {
+        final List<Path> children = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (final Path child : stream) {
+                children.add(child);
+            }
+        }
+
+        children.sort(BY_NAME);
+
+        for (final Path child : children) {
+            final Path relative = root.relativize(child);
+            if (exclude != null && exclude.matches(relative)) {
+                continue;
+            }
+
+            final boolean included = include == null || include.matches(relative);
+            final BasicFileAttributes attributes = Files.readAttributes(child, attributesType, LinkOption.NOFOLLOW_LINKS);
+
+            if (attributes.isDirectory()) {
+                if (included) {
+                    visitor.visit(targetName(targetPrefix, relative), new TreeEntry(child, relative, attributes, PayloadEntryType.DIRECTORY, null));
+                }
+                walk(root, child, attributesType, targetPrefix, include, exclude, visitor);
+            } else if (included && attributes.isSymbolicLink()) {
+                final String linkTarget = Files.readSymbolicLink(child).toString();
+                visitor.visit(targetName(targetPrefix, relative), new TreeEntry(child, relative, attributes, PayloadEntryType.SYMBOLIC_LINK, linkTarget));
+            } else if (included && attributes.isRegularFile()) {
+                visitor.visit(targetName(targetPrefix, relative), new TreeEntry(child, relative, attributes, PayloadEntryType.FILE, null));
+            }
+        }
+    }
+
+    private static String targetName(final String targetPrefix, final Path relative) {
+        final StringBuilder sb = new StringBuilder(targetPrefix);
+        for (final Path segment : relative) {
+            sb.append('/').append(segment);
+        }
+        return sb.toString();
+    }
+}
@@ -45,15 +45,7 @@ public class BZip2PayloadCoding implements PayloadCodingProvider {
 
     @Override
     public OutputStream createOutputStream(final OutputStream out, final Optional<String> optionalFlags) throws IOException {
-        final String flags;
-
-        final int blockSize;
-
-        if (optionalFlags.isPresent() && (flags = optionalFlags.get()).length() > 0) {
-            blockSize = Integer.parseInt(flags.substring(0, 1));
-        } else {
-            blockSize = BZip2CompressorOutputStream.MAX_BLOCKSIZE;
-        }
+        final int blockSize = PayloadFlags.parse(optionalFlags).getLevel(BZip2CompressorOutputStream.MAX_BLOCKSIZE);
 
         return new BZip2CompressorOutputStream(out, blockSize);
     }
@@ -45,13 +45,12 @@ public class GzipPayloadCoding implements PayloadCodingProvider {
 
     @Override
     public OutputStream createOutputStream(final OutputStream out, final Optional<String> optionalFlags) throws IOException {
-        final String flags;
-        final int compressionLevel;
+        final PayloadFlags flags = PayloadFlags.parse(optionalFlags);
 
-        if (optionalFlags.isPresent() && (flags = optionalFlags.get()).length() > 0) {
-            compressionLevel = Integer.parseInt(flags.substring(0, 1));
-        } else {
-            compressionLevel = Deflater.BEST_COMPRESSION;
+        final int compressionLevel = flags.getLevel(Deflater.BEST_COMPRESSION);
+
+        if (flags.isThreaded()) {
+            return new ParallelGzipOutputStream(out, compressionLevel, flags.getThreads());
         }
 
         final GzipParameters parameters = new GzipParameters();
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.coding;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An output stream compressing fixed size blocks on a pool of worker threads
+ * <p>
+ * Data is cut into blocks of a fixed size, which get compressed
+ * independently. Compressed blocks are written to the target stream in their
+ * original order. As the block boundaries only depend on the block size, the
+ * result is the same whatever number of threads is used.
+ * </p>
+ * <p>
+ * The number of blocks in flight is limited, so that memory consumption is
+ * bounded by the number of threads and the block size.
+ * </p>
+ *
+ * @param <T> the type of a compressed block
+ */
+abstract class ParallelBlockOutputStream<T> extends OutputStream {
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private final OutputStream out;
+
+    private final int blockSize;
+
+    private final int maxPending;
+
+    private final ExecutorService executor;
+
+    private final Deque<Future<T>> pending = new ArrayDeque<>();
+
+    private byte[] buffer;
+
+    private int count;
+
+    private boolean closed;
+
+    /**
+     * Create a new stream
+     *
+     * @param out the target stream
+     * @param blockSize the size of a block
+     * @param threads the number of worker threads, zero (or less) meaning one
+     *            per available processor
+     */
+    protected ParallelBlockOutputStream(final OutputStream out, final int blockSize, final int threads) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException(String.format("Block size must be positive: %s", blockSize));
+        }
+
+        final int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        this.out = out;
+        this.blockSize = blockSize;
+        this.maxPending = workers * 2;
+        this.buffer = new byte[blockSize];
+
+        final String name = String.format("%s-%s-", getClass().getSimpleName(), COUNTER.incrementAndGet());
+        final AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, r -> {
+            final Thread thread = new Thread(r, name + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create the task compressing a block
+     * <p>
+     * This method gets called in the order of the blocks, by the thread
+     * writing to this stream. The returned task will be run on a worker
+     * thread. The block data will not be modified afterwards.
+     * </p>
+     *
+     * @param data the uncompressed data
+     * @param length the number of valid bytes in {@code data}
+     * @param last {@code true} if this is the last block of the stream, may be
+     *            empty
+     * @return the task compressing the block
+     */
+    protected abstract Callable<T> compressBlock(byte[] data, int length, boolean last);
+
+    /**
+     * Write a compressed block to the target stream
+     * <p>
+     * This method gets called in the order of the blocks.
+     * </p>
+     *
+     * @param out the target stream
+     * @param block the compressed block
+     * @throws IOException in case of an IO error
+     */
+    protected abstract void writeBlock(OutputStream out, T block) throws IOException;
+
+    /**
+     * Write the data following the last block
+     *
+     * @param out the target stream
+     * @throws IOException in case of an IO error
+     */
+    protected abstract void writeTrailer(OutputStream out) throws IOException;
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, int off, int len) throws IOException {
+        checkClosed();
+
+        while (len > 0) {
+            if (this.count == this.blockSize) {
+                submit(false);
+            }
+
+            final int n = Math.min(len, this.blockSize - this.count);
+            System.arraycopy(b, off, this.buffer, this.count, n);
+            this.count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Flush all completed blocks
+     * <p>
+     * This does not end the current block, as this would make the result
+     * depend on the flushing behavior of the caller.
+     * </p>
+     */
+    @Override
+    public void flush() throws IOException {
+        checkClosed();
+
+        while (!this.pending.isEmpty() && this.pending.peekFirst().isDone()) {
+            writeNext();
+        }
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+
+        try {
+            submit(true);
+            while (!this.pending.isEmpty()) {
+                writeNext();
+            }
+            writeTrailer(this.out);
+        } finally {
+            this.closed = true;
+            this.buffer = null;
+            for (final Future<T> future : this.pending) {
+                future.cancel(true);
+            }
+            this.pending.clear();
+            this.executor.shutdownNow();
+            this.out.close();
+        }
+    }
+
+    /**
+     * Release the worker threads, without writing or closing anything
+     * <p>
+     * Subclasses must call this when their constructor fails after the
+     * constructor of this class completed, as {@link #close()} will never be
+     * called in that case.
+     * </p>
+     */
+    protected void dispose() {
+        this.closed = true;
+        this.buffer = null;
+        this.executor.shutdownNow();
+    }
+
+    private void checkClosed() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream is already closed");
+        }
+    }
+
+    private void submit(final boolean last) throws IOException {
+        this.pending.addLast(this.executor.submit(compressBlock(this.buffer, this.count, last)));
+
+        if (!last) {
+            this.buffer = new byte[this.blockSize];
+            this.count = 0;
+        }
+
+        while (this.pending.size() > this.maxPending || !this.pending.isEmpty() && this.pending.peekFirst().isDone()) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        final T block;
+        try {
+            block = this.pending.removeFirst().get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to compress block", cause);
+        }
+
+        writeBlock(this.out, block);
+    }
+}
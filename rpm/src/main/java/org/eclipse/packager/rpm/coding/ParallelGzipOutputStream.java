@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.coding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Multi-threaded gzip compression
+ * <p>
+ * This works the same way as {@code pigz} does: data is cut into chunks,
+ * which are deflated independently on a pool of worker threads. Each chunk
+ * is primed with the last 32 KiB of the previous chunk as dictionary, and
+ * ends with a sync flush, so that the chunks can simply be concatenated into
+ * a single deflate stream. The CRC32 of the chunks is combined into the CRC32
+ * of the whole stream.
+ * </p>
+ */
+public class ParallelGzipOutputStream extends ParallelBlockOutputStream<ParallelGzipOutputStream.Block> {
+
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    static final class Block {
+        private final byte[] data;
+
+        private final long crc;
+
+        private final int length;
+
+        Block(final byte[] data, final long crc, final int length) {
+            this.data = data;
+            this.crc = crc;
+            this.length = length;
+        }
+    }
+
+    private final int level;
+
+    private byte[] previous;
+
+    private int previousLength;
+
+    private long crc;
+
+    private long length;
+
+    public ParallelGzipOutputStream(final OutputStream out, final int level, final int threads) throws IOException {
+        this(out, level, DEFAULT_BLOCK_SIZE, threads);
+    }
+
+    public ParallelGzipOutputStream(final OutputStream out, final int level, final int blockSize, final int threads) throws IOException {
+        super(out, Math.max(DICTIONARY_SIZE, blockSize), threads);
+        this.level = level;
+
+        try {
+            writeHeader(out, level);
+        } catch (final IOException | RuntimeException e) {
+            dispose();
+            throw e;
+        }
+    }
+
+    @Override
+    protected Callable<Block> compressBlock(final byte[] data, final int length, final boolean last) {
+        final byte[] dictionary = this.previous;
+        final int dictionaryLength = Math.min(DICTIONARY_SIZE, this.previousLength);
+        final int dictionaryOffset = this.previousLength - dictionaryLength;
+
+        this.previous = data;
+        this.previousLength = length;
+
+        return () -> {
+            final CRC32 crc = new CRC32();
+            crc.update(data, 0, length);
+
+            final Deflater deflater = new Deflater(this.level, true);
+            try {
+                if (dictionary != null) {
+                    deflater.setDictionary(dictionary, dictionaryOffset, dictionaryLength);
+                }
+
+                final ByteArrayOutputStream result = new ByteArrayOutputStream(length / 2 + 64);
+                final byte[] buffer = new byte[64 * 1024];
+
+                deflater.setInput(data, 0, length);
+
+                if (last) {
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        final int n = deflater.deflate(buffer);
+                        result.write(buffer, 0, n);
+                    }
+                } else {
+                    // a sync flush ends the chunk on a byte boundary, without marking it as the final block
+                    int n;
+                    do {
+                        n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                        result.write(buffer, 0, n);
+                    } while (n == buffer.length);
+                }
+
+                return new Block(result.toByteArray(), crc.getValue(), length);
+            } finally {
+                deflater.end();
+            }
+        };
+    }
+
+    @Override
+    protected void writeBlock(final OutputStream out, final Block block) throws IOException {
+        out.write(block.data);
+
+        this.crc = combine(this.crc, block.crc, block.length);
+        this.length += block.length;
+    }
+
+    @Override
+    protected void writeTrailer(final OutputStream out) throws IOException {
+        writeInt(out, this.crc);
+        writeInt(out, this.length);
+    }
+
+    private static void writeHeader(final OutputStream out, final int level) throws IOException {
+        final int extraFlags;
+        if (level == Deflater.BEST_COMPRESSION) {
+            extraFlags = 2;
+        } else if (level == Deflater.BEST_SPEED) {
+            extraFlags = 4;
+        } else {
+            extraFlags = 0;
+        }
+
+        out.write(new byte[] {
+                0x1f, (byte) 0x8b, // magic
+                Deflater.DEFLATED, // compression method
+                0, // flags
+                0, 0, 0, 0, // modification time
+                (byte) extraFlags,
+                (byte) 255 // operating system: unknown
+        });
+    }
+
+    private static void writeInt(final OutputStream out, final long value) throws IOException {
+        out.write((int) value);
+        out.write((int) (value >>> 8));
+        out.write((int) (value >>> 16));
+        out.write((int) (value >>> 24));
+    }
+
+    /**
+     * Combine two CRC32 values
+     * <p>
+     * This is the same algorithm as {@code crc32_combine} of zlib.
+     * </p>
+     *
+     * @param crc1 the CRC32 of the first sequence
+     * @param crc2 the CRC32 of the second sequence
+     * @param length2 the length of the second sequence
+     * @return the CRC32 of both sequences concatenated
+     */
+    static long combine(long crc1, final long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+
+        final long[] even = new long[32];
+        final long[] odd = new long[32];
+
+        // operator for one zero bit
+
+        odd[0] = 0xEDB88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+
+        // operator for two zero bits, then four zero bits
+
+        square(even, odd);
+        square(odd, even);
+
+        // apply len2 zeros to crc1
+
+        do {
+            square(even, odd);
+            if ((length2 & 1) != 0) {
+                crc1 = times(even, crc1);
+            }
+            length2 >>>= 1;
+
+            if (length2 == 0) {
+                break;
+            }
+
+            square(odd, even);
+            if ((length2 & 1) != 0) {
+                crc1 = times(odd, crc1);
+            }
+            length2 >>>= 1;
+        } while (length2 != 0);
+
+        return (crc1 ^ crc2) & 0xFFFFFFFFL;
+    }
+
+    private static long times(final long[] matrix, long vector) {
+        long sum = 0;
+        int i = 0;
+        while (vector != 0) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+            vector >>>= 1;
+            i++;
+        }
+        return sum;
+    }
+
+    private static void square(final long[] square, final long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = times(matrix, matrix[n]);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.coding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.zip.CRC32;
+
+import org.tukaani.xz.ArrayCache;
+import org.tukaani.xz.BasicArrayCache;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZ;
+import org.tukaani.xz.XZOutputStream;
+
+/**
+ * Multi-threaded xz compression
+ * <p>
+ * This stream cuts the data into blocks of a fixed size and compresses them
+ * independently on a pool of worker threads. The result is a standard
+ * multi-block .xz stream, including an index of all blocks. By default the
+ * block size is three times the dictionary size, the same as used by
+ * {@code xz --threads}.
+ * </p>
+ */
+public class ParallelXZOutputStream extends ParallelBlockOutputStream<ParallelXZOutputStream.Block> {
+
+    private static final byte[] HEADER_MAGIC = { (byte) 0xFD, '7', 'z', 'X', 'Z', 0x00 };
+
+    private static final byte[] FOOTER_MAGIC = { 'Y', 'Z' };
+
+    private static final int CHECK_TYPE = XZ.CHECK_CRC64;
+
+    private static final int MIN_BLOCK_SIZE = 1024 * 1024;
+
+    static final class Block {
+        private final byte[] data;
+
+        private final int offset;
+
+        private final int length;
+
+        private final long unpaddedSize;
+
+        private final long uncompressedSize;
+
+        Block(final byte[] data, final int offset, final int length, final long unpaddedSize, final long uncompressedSize) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+            this.unpaddedSize = unpaddedSize;
+            this.uncompressedSize = uncompressedSize;
+        }
+    }
+
+    private final LZMA2Options options;
+
+    private final ArrayCache arrayCache = new BasicArrayCache();
+
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+
+    private long records;
+
+    public ParallelXZOutputStream(final OutputStream out, final int preset, final int threads) throws IOException {
+        this(out, new LZMA2Options(preset), threads);
+    }
+
+    public ParallelXZOutputStream(final OutputStream out, final LZMA2Options options, final int threads) throws IOException {
+        this(out, options, Math.max(MIN_BLOCK_SIZE, (int) Math.min(Integer.MAX_VALUE - 8, 3L * options.getDictSize())), threads);
+    }
+
+    public ParallelXZOutputStream(final OutputStream out, final LZMA2Options options, final int blockSize, final int threads) throws IOException {
+        super(out, blockSize, threads);
+        try {
+            this.options = (LZMA2Options) options.clone();
+
+            writeStreamHeader(out);
+        } catch (final IOException | RuntimeException e) {
+            dispose();
+            throw e;
+        }
+    }
+
+    @Override
+    protected Callable<Block> compressBlock(final byte[] data, final int length, final boolean last) {
+        return () -> {
+            if (length == 0) {
+                return null;
+            }
+
+            // we let the XZOutputStream create a full, single block stream, and extract the block afterwards
+
+            final ByteArrayOutputStream result = new ByteArrayOutputStream(length / 2 + 1024);
+            try (XZOutputStream xz = new XZOutputStream(result, this.options, CHECK_TYPE, this.arrayCache)) {
+                xz.write(data, 0, length);
+            }
+
+            return extractBlock(result.toByteArray());
+        };
+    }
+
+    @Override
+    protected void writeBlock(final OutputStream out, final Block block) throws IOException {
+        if (block == null) {
+            return;
+        }
+
+        out.write(block.data, block.offset, block.length);
+
+        writeVli(this.index, block.unpaddedSize);
+        writeVli(this.index, block.uncompressedSize);
+        this.records++;
+    }
+
+    @Override
+    protected void writeTrailer(final OutputStream out) throws IOException {
+        // index
+
+        final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        index.write(0x00);
+        writeVli(index, this.records);
+        this.index.writeTo(index);
+        while (index.size() % 4 != 0) {
+            index.write(0x00);
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(index.toByteArray());
+        writeInt(index, crc.getValue());
+
+        index.writeTo(out);
+
+        // stream footer
+
+        final ByteArrayOutputStream footer = new ByteArrayOutputStream();
+        writeInt(footer, index.size() / 4 - 1);
+        footer.write(0x00);
+        footer.write(CHECK_TYPE);
+
+        crc.reset();
+        crc.update(footer.toByteArray());
+        writeInt(out, crc.getValue());
+        footer.writeTo(out);
+        out.write(FOOTER_MAGIC);
+    }
+
+    private static void writeStreamHeader(final OutputStream out) throws IOException {
+        final byte[] flags = { 0x00, CHECK_TYPE };
+
+        final CRC32 crc = new CRC32();
+        crc.update(flags);
+
+        out.write(HEADER_MAGIC);
+        out.write(flags);
+        writeInt(out, crc.getValue());
+    }
+
+    /**
+     * Extract the block from a single block .xz stream
+     *
+     * @param stream the stream
+     * @return the block, including its padding and the sizes from the index
+     * @throws IOException if the stream is not a single block stream
+     */
+    private static Block extractBlock(final byte[] stream) throws IOException {
+        final int streamHeaderSize = HEADER_MAGIC.length + 6;
+        final int footerStart = stream.length - 12;
+
+        final long backwardSize = readInt(stream, footerStart + 4);
+        final int indexSize = (int) ((backwardSize + 1) * 4);
+        final int indexStart = footerStart - indexSize;
+
+        if (indexStart < streamHeaderSize || stream[indexStart] != 0x00) {
+            throw new IOException("Invalid xz index");
+        }
+
+        final int[] pos = { indexStart + 1 };
+        if (readVli(stream, pos) != 1) {
+            throw new IOException("Expected a single block in xz stream");
+        }
+        final long unpaddedSize = readVli(stream, pos);
+        final long uncompressedSize = readVli(stream, pos);
+
+        return new Block(stream, streamHeaderSize, indexStart - streamHeaderSize, unpaddedSize, uncompressedSize);
+    }
+
+    private static void writeInt(final OutputStream out, final long value) throws IOException {
+        out.write((int) value);
+        out.write((int) (value >>> 8));
+        out.write((int) (value >>> 16));
+        out.write((int) (value >>> 24));
+    }
+
+    private static long readInt(final byte[] data, final int offset) {
+        return data[offset] & 0xFFL | (data[offset + 1] & 0xFFL) << 8 | (data[offset + 2] & 0xFFL) << 16 | (data[offset + 3] & 0xFFL) << 24;
+    }
+
+    private static void writeVli(final OutputStream out, long value) throws IOException {
+        while (value >= 0x80) {
+            out.write((int) (value | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVli(final byte[] data, final int[] pos) throws IOException {
+        long result = 0;
+        for (int i = 0; i < 9; i++) {
+            final int b = data[pos[0]++] & 0xFF;
+            result |= (long) (b & 0x7F) << (i * 7);
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Invalid variable length integer in xz index");
+    }
+}
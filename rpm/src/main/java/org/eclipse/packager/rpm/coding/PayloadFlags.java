@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.coding;
+
+import java.util.Optional;
+
+/**
+ * Parsed payload flags
+ * <p>
+ * Payload flags follow the format used by RPM for the
+ * {@code %_binary_payload} macro: a (possibly multi digit) compression
+ * level, optionally followed by {@code T} and the number of worker threads.
+ * For example {@code 19T8} requests level 19 using 8 threads, {@code 6T0}
+ * requests level 6 using one thread per available processor. Characters
+ * which are not understood are ignored.
+ * </p>
+ */
+public final class PayloadFlags {
+    private static final PayloadFlags EMPTY = new PayloadFlags(null, null);
+
+    private final Integer level;
+
+    private final Integer threads;
+
+    private PayloadFlags(final Integer level, final Integer threads) {
+        this.level = level;
+        this.threads = threads;
+    }
+
+    /**
+     * Get the compression level
+     *
+     * @param defaultLevel the level to use when the flags don't specify one
+     * @return the compression level
+     */
+    public int getLevel(final int defaultLevel) {
+        return this.level != null ? this.level : defaultLevel;
+    }
+
+    /**
+     * Check if the flags request multi-threaded compression
+     *
+     * @return {@code true} if the flags contain a thread specification
+     */
+    public boolean isThreaded() {
+        return this.threads != null;
+    }
+
+    /**
+     * Get the number of worker threads
+     * <p>
+     * A requested thread count of zero is resolved to the number of available
+     * processors.
+     * </p>
+     *
+     * @return the number of worker threads, at least one
+     */
+    public int getThreads() {
+        if (this.threads == null) {
+            return 1;
+        }
+        if (this.threads <= 0) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return this.threads;
+    }
+
+    public static PayloadFlags parse(final Optional<String> flags) {
+        return flags.map(PayloadFlags::parse).orElse(EMPTY);
+    }
+
+    public static PayloadFlags parse(final String flags) {
+        if (flags == null || flags.isEmpty()) {
+            return EMPTY;
+        }
+
+        Integer level = null;
+        Integer threads = null;
+
+        int i = 0;
+        final int len = flags.length();
+
+        while (i < len) {
+            final char c = flags.charAt(i);
+            if (Character.isDigit(c) && level == null) {
+                final int start = i;
+                while (i < len && Character.isDigit(flags.charAt(i))) {
+                    i++;
+                }
+                level = Integer.parseInt(flags.substring(start, i));
+            } else if (c == 'T') {
+                i++;
+                final int start = i;
+                while (i < len && Character.isDigit(flags.charAt(i))) {
+                    i++;
+                }
+                threads = start == i ? 0 : Integer.parseInt(flags.substring(start, i));
+            } else {
+                i++;
+            }
+        }
+
+        return new PayloadFlags(level, threads);
+    }
+
+    /**
+     * Add a thread specification to payload flags
+     * <p>
+     * If the flags already contain a thread specification, they are returned
+     * unmodified.
+     * </p>
+     *
+     * @param flags the flags, may be {@code null}
+     * @param threads the number of threads, zero meaning one thread per
+     *            available processor
+     * @return the flags including a thread specification
+     */
+    public static String withThreads(final String flags, final int threads) {
+        if (flags == null) {
+            return "T" + threads;
+        }
+        if (parse(flags).isThreaded()) {
+            return flags;
+        }
+        return flags + "T" + threads;
+    }
+}
@@ -46,13 +46,12 @@ public class XZPayloadCoding implements PayloadCodingProvider {
 
     @Override
     public OutputStream createOutputStream(final OutputStream out, final Optional<String> optionalFlags) throws IOException {
-        final String flags;
-        final int preset;
+        final PayloadFlags flags = PayloadFlags.parse(optionalFlags);
 
-        if (optionalFlags.isPresent() && (flags = optionalFlags.get()).length() > 0) {
-            preset = Integer.parseInt(flags.substring(0, 1));
-        } else {
-            preset = LZMA2Options.PRESET_DEFAULT;
+        final int preset = flags.getLevel(LZMA2Options.PRESET_DEFAULT);
+
+        if (flags.isThreaded()) {
+            return new ParallelXZOutputStream(out, preset, flags.getThreads());
         }
 
         return new XZCompressorOutputStream(out, preset);
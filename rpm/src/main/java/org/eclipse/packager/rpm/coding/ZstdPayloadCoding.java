@@ -25,6 +25,8 @@ import org.apache.commons.compress.compressors.zstandard.ZstdUtils;
 import org.eclipse.packager.rpm.deps.Dependency;
 import org.eclipse.packager.rpm.deps.RpmDependencyFlags;
 
+import com.github.luben.zstd.ZstdOutputStream;
+
 public class ZstdPayloadCoding implements PayloadCodingProvider {
     protected ZstdPayloadCoding() {
     }
@@ -54,16 +56,44 @@ public class ZstdPayloadCoding implements PayloadCodingProvider {
             throw new IOException("Zstandard compression is not available");
         }
 
-        final String flags;
+        final PayloadFlags flags = PayloadFlags.parse(optionalFlags);
 
-        final int level;
+        final int level = flags.getLevel(3);
 
-        if (optionalFlags.isPresent() && (flags = optionalFlags.get()).length() > 0) {
-            level = Integer.parseInt(flags.substring(0, 1));
-        } else {
-            level = 3;
+        if (flags.isThreaded()) {
+            return Threaded.createOutputStream(out, level, flags.getThreads());
         }
 
         return new ZstdCompressorOutputStream(out, level);
     }
+
+    /**
+     * Multi-threaded compression
+     * <p>
+     * This needs to be kept in a separate class, so that the zstd-jni classes
+     * are only resolved when multi-threaded compression is actually used.
+     * </p>
+     * <p>
+     * Zstd produces the same output for a given level, independent of the
+     * number of workers, as long as there is at least one worker. So we never
+     * fall back to the single threaded mode (zero workers) here, keeping the
+     * result byte-identical whatever thread count was requested.
+     * </p>
+     */
+    private static final class Threaded {
+        private Threaded() {
+        }
+
+        static OutputStream createOutputStream(final OutputStream out, final int level, final int threads) throws IOException {
+            final ZstdOutputStream result = new ZstdOutputStream(out);
+            try {
+                result.setLevel(level);
+                result.setWorkers(Math.max(1, threads));
+            } catch (final IOException e) {
+                result.close();
+                throw e;
+            }
+            return result;
+        }
+    }
 }
@@ -148,16 +148,20 @@ public final class Dependencies {
     private static List<Dependency> getDependencies(final ReadableHeader<RpmTag> header, final RpmTag namesTag, final RpmTag versionsTag, final RpmTag flagsTag) {
         Objects.requireNonNull(header);
 
-        final List<String> names = header.getStringList(namesTag);
-        final List<String> versions = header.getStringList(versionsTag);
-        final List<Integer> flags = header.getIntegerList(flagsTag);
+        final List<String> names = header.getStringArrayView(namesTag);
+        final List<String> versions = header.getStringArrayView(versionsTag);
+        final int[] flags = header.getIntArray(flagsTag);
 
-        if (names.size() == versions.size() && names.size() == flags.size()) {
+        if (names == null || versions == null || flags == null) {
+            return List.of();
+        }
+
+        if (names.size() == versions.size() && names.size() == flags.length) {
             final List<Dependency> result = new ArrayList<>(names.size());
             for (int i = 0; i < names.size(); i++) {
                 final String name = names.get(i);
                 final String version = versions.get(i);
-                final Set<RpmDependencyFlags> flagSet = RpmDependencyFlags.parse(flags.get(i));
+                final Set<RpmDependencyFlags> flagSet = RpmDependencyFlags.parse(flags[i]);
                 result.add(new Dependency(name, version, flagSet));
             }
             return result;
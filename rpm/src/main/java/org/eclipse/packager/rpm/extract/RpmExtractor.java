@@ -0,0 +1,666 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.extract;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+import org.apache.commons.compress.archivers.cpio.CpioArchiveInputStream;
+import org.eclipse.packager.rpm.RpmTag;
+import org.eclipse.packager.rpm.Rpms;
+import org.eclipse.packager.rpm.build.DigestAlgorithm;
+import org.eclipse.packager.rpm.info.RpmInformations;
+import org.eclipse.packager.rpm.parse.InputHeader;
+import org.eclipse.packager.rpm.parse.RpmInputStream;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Extract the payload of an RPM into a directory
+ * <p>
+ * The payload is decompressed and read on the calling thread. Creating and
+ * writing files, verifying their digests and applying their attributes is
+ * handed to an {@link Executor}. The amount of file content waiting to be
+ * written is bounded by {@link #setMaxBufferedBytes(long)}, larger files are
+ * streamed directly on the calling thread.
+ * </p>
+ * <p>
+ * Modes, modification times, symbolic links and hard links are taken from
+ * the header of the package, falling back to the CPIO entry for files missing
+ * in the header. Permission bits are only applied on file systems supporting
+ * POSIX attributes, ownership is never applied. Neither are the setuid, setgid
+ * and sticky bits, as they cannot be expressed as POSIX file permissions.
+ * Symbolic links are created after all files have been written, followed by
+ * the modes and modification times of directories.
+ * </p>
+ * <p>
+ * Entries which would end up outside of the target directory, either by
+ * their name or by following a symbolic link, are rejected. So are entries
+ * below a symbolic link of the package.
+ * </p>
+ */
+public class RpmExtractor {
+    public static final long DEFAULT_MAX_BUFFERED_BYTES = 16 * 1024 * 1024;
+
+    private static final int MAX_PENDING = 256;
+
+    private static final int S_IFMT = 0170000;
+
+    private static final int S_IFDIR = 0040000;
+
+    private static final int S_IFLNK = 0120000;
+
+    private static final int S_IFREG = 0100000;
+
+    private final Path targetDirectory;
+
+    private final Executor executor;
+
+    private boolean verifyDigests;
+
+    private long maxBufferedBytes = DEFAULT_MAX_BUFFERED_BYTES;
+
+    /**
+     * Create a new extractor, writing files on the calling thread
+     *
+     * @param targetDirectory the directory to extract to
+     */
+    public RpmExtractor(final Path targetDirectory) {
+        this(targetDirectory, Runnable::run);
+    }
+
+    /**
+     * Create a new extractor
+     *
+     * @param targetDirectory the directory to extract to
+     * @param executor the executor for writing files
+     */
+    public RpmExtractor(final Path targetDirectory, final Executor executor) {
+        this.targetDirectory = Objects.requireNonNull(targetDirectory);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    public Path getTargetDirectory() {
+        return this.targetDirectory;
+    }
+
+    /**
+     * Verify the content of files against the digests of the header
+     *
+     * @param verifyDigests {@code true} to fail extracting if a digest doesn't
+     *            match, defaults to {@code false}
+     */
+    public void setVerifyDigests(final boolean verifyDigests) {
+        this.verifyDigests = verifyDigests;
+    }
+
+    public boolean isVerifyDigests() {
+        return this.verifyDigests;
+    }
+
+    /**
+     * Set the maximum amount of file content held in memory
+     * <p>
+     * Files larger than this are written directly while reading the payload.
+     * </p>
+     *
+     * @param maxBufferedBytes the maximum number of bytes
+     */
+    public void setMaxBufferedBytes(final long maxBufferedBytes) {
+        if (maxBufferedBytes < 0) {
+            throw new IllegalArgumentException(String.format("Maximum buffered bytes must not be negative: %s", maxBufferedBytes));
+        }
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    public long getMaxBufferedBytes() {
+        return this.maxBufferedBytes;
+    }
+
+    /**
+     * Extract an RPM file
+     *
+     * @param rpm the file to extract
+     * @throws IOException in case of IO errors, an invalid payload, or a
+     *             digest mismatch
+     */
+    public void extract(final Path rpm) throws IOException {
+        try (RpmInputStream in = new RpmInputStream(new BufferedInputStream(Files.newInputStream(rpm)))) {
+            extract(in);
+        }
+    }
+
+    /**
+     * Extract an RPM from a stream
+     * <p>
+     * The stream will be read to the end of the payload, but not closed.
+     * </p>
+     *
+     * @param in the stream to extract
+     * @throws IOException in case of IO errors, an invalid payload, or a
+     *             digest mismatch
+     */
+    public void extract(final RpmInputStream in) throws IOException {
+        final InputHeader<RpmTag> header = in.getPayloadHeader();
+
+        Files.createDirectories(this.targetDirectory);
+
+        final Extraction extraction = new Extraction(this.targetDirectory.toRealPath(), HeaderFiles.of(header));
+        try {
+            extraction.run(in.getCpioStream());
+        } finally {
+            extraction.cancel();
+        }
+    }
+
+    /**
+     * File information of the header, by name
+     */
+    private static final class HeaderFiles {
+        private final Map<String, Integer> index;
+
+        private final short[] modes;
+
+        private final int[] mtimes;
+
+        private final List<String> digests;
+
+        private final List<String> linkTos;
+
+        private final long[] devices;
+
+        private final long[] inodes;
+
+        private final DigestAlgorithm digestAlgorithm;
+
+        private HeaderFiles(final Map<String, Integer> index, final short[] modes, final int[] mtimes, final List<String> digests, final List<String> linkTos, final long[] devices, final long[] inodes, final DigestAlgorithm digestAlgorithm) {
+            this.index = index;
+            this.modes = modes;
+            this.mtimes = mtimes;
+            this.digests = digests;
+            this.linkTos = linkTos;
+            this.devices = devices;
+            this.inodes = inodes;
+            this.digestAlgorithm = digestAlgorithm;
+        }
+
+        static HeaderFiles of(final InputHeader<RpmTag> header) throws IOException {
+            final List<String> basenames = header.getStringArrayView(RpmTag.BASENAMES);
+            if (basenames == null) {
+                return new HeaderFiles(Map.of(), null, null, null, null, null, null, DigestAlgorithm.MD5);
+            }
+
+            final List<String> dirnames = header.getStringArrayView(RpmTag.DIRNAMES);
+            final int[] dirIndexes = header.getIntArray(RpmTag.DIR_INDEXES);
+
+            if (dirnames == null || dirIndexes == null || dirIndexes.length != basenames.size()) {
+                throw new IOException("Invalid file names in header");
+            }
+
+            final String[] dirs = dirnames.toArray(new String[0]);
+            final Map<String, Integer> index = new HashMap<>(basenames.size() * 2);
+            for (int i = 0; i < basenames.size(); i++) {
+                index.put(dirs[dirIndexes[i]] + basenames.get(i), i);
+            }
+
+            final int size = basenames.size();
+
+            final short[] modes = header.getShortArray(RpmTag.FILE_MODES);
+            final int[] mtimes = header.getIntArray(RpmTag.FILE_MTIMES);
+            final List<String> digests = header.getStringArrayView(RpmTag.FILE_DIGESTS);
+            final List<String> linkTos = header.getStringArrayView(RpmTag.FILE_LINKTO);
+            final long[] devices = header.getLongArray(RpmTag.FILE_DEVICES);
+            final long[] inodes = header.getLongArray(RpmTag.FILE_INODES);
+
+            checkLength(RpmTag.FILE_MODES, modes != null ? modes.length : size, size);
+            checkLength(RpmTag.FILE_MTIMES, mtimes != null ? mtimes.length : size, size);
+            checkLength(RpmTag.FILE_DIGESTS, digests != null ? digests.size() : size, size);
+            checkLength(RpmTag.FILE_LINKTO, linkTos != null ? linkTos.size() : size, size);
+            checkLength(RpmTag.FILE_DEVICES, devices != null ? devices.length : size, size);
+            checkLength(RpmTag.FILE_INODES, inodes != null ? inodes.length : size, size);
+
+            final Integer algorithm = header.getInteger(RpmTag.FILE_DIGESTALGO);
+
+            return new HeaderFiles(index, modes, mtimes, digests, linkTos, devices, inodes, algorithm != null ? DigestAlgorithm.fromTag(algorithm) : DigestAlgorithm.MD5);
+        }
+
+        private static void checkLength(final RpmTag tag, final int actual, final int expected) throws IOException {
+            if (actual != expected) {
+                throw new IOException(String.format("Invalid size of file array [%s] - expected: %s, actual: %s", tag, expected, actual));
+            }
+        }
+
+        int indexOf(final String name) {
+            final Integer result = this.index.get(name);
+            return result != null ? result : -1;
+        }
+
+        int mode(final int i, final CpioArchiveEntry entry) {
+            return i >= 0 && this.modes != null ? Short.toUnsignedInt(this.modes[i]) : (int) entry.getMode();
+        }
+
+        long mtime(final int i, final CpioArchiveEntry entry) {
+            return i >= 0 && this.mtimes != null ? Integer.toUnsignedLong(this.mtimes[i]) : entry.getTime();
+        }
+
+        String digest(final int i) {
+            return i >= 0 && this.digests != null ? this.digests.get(i) : null;
+        }
+
+        String linkTo(final int i) {
+            if (i < 0 || this.linkTos == null) {
+                return null;
+            }
+            final String result = this.linkTos.get(i);
+            return result.isEmpty() ? null : result;
+        }
+
+        FileId fileId(final int i) {
+            return i >= 0 && this.devices != null && this.inodes != null ? new FileId(this.devices[i], this.inodes[i]) : null;
+        }
+
+        /**
+         * Count the regular files per file id
+         */
+        Map<FileId, Integer> linkCounts() {
+            final Map<FileId, Integer> result = new HashMap<>();
+            if (this.modes == null || this.devices == null || this.inodes == null) {
+                return result;
+            }
+
+            for (int i = 0; i < this.modes.length; i++) {
+                if ((this.modes[i] & S_IFMT) == S_IFREG) {
+                    result.merge(new FileId(this.devices[i], this.inodes[i]), 1, Integer::sum);
+                }
+            }
+            result.values().removeIf(count -> count < 2);
+            return result;
+        }
+    }
+
+    private static final class FileId {
+        private final long device;
+
+        private final long inode;
+
+        private FileId(final long device, final long inode) {
+            this.device = device;
+            this.inode = inode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(this.device) * 31 + Long.hashCode(this.inode);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FileId)) {
+                return false;
+            }
+            final FileId other = (FileId) obj;
+            return this.device == other.device && this.inode == other.inode;
+        }
+    }
+
+    private static final class Directory {
+        private final Path path;
+
+        private final int mode;
+
+        private final long mtime;
+
+        private Directory(final Path path, final int mode, final long mtime) {
+            this.path = path;
+            this.mode = mode;
+            this.mtime = mtime;
+        }
+    }
+
+    /**
+     * A set of hard linked files
+     */
+    private static final class LinkSet {
+        private Path target;
+
+        private final List<Path> links = new ArrayList<>();
+    }
+
+    private final class Extraction {
+        private final Path root;
+
+        private final HeaderFiles files;
+
+        private final boolean posix;
+
+        private final Map<FileId, Integer> linkCounts;
+
+        private final Map<FileId, LinkSet> linkSets = new HashMap<>();
+
+        private final Deque<FutureTask<Void>> pending = new ArrayDeque<>();
+
+        private final Deque<Long> pendingSizes = new ArrayDeque<>();
+
+        private long pendingBytes;
+
+        private final List<Directory> directories = new ArrayList<>();
+
+        private final Map<Path, String> symlinks = new LinkedHashMap<>();
+
+        private Extraction(final Path root, final HeaderFiles files) {
+            this.root = root;
+            this.files = files;
+            this.posix = root.getFileSystem().supportedFileAttributeViews().contains("posix");
+            this.linkCounts = files.linkCounts();
+        }
+
+        void run(final CpioArchiveInputStream cpio) throws IOException {
+            CpioArchiveEntry entry;
+            while ((entry = cpio.getNextEntry()) != null) {
+                final String name = RpmInformations.normalize(entry.getName());
+                final Path target = resolve(name);
+                checkNotBelowSymlink(name, target);
+                final int i = this.files.indexOf(name);
+
+                final int mode = this.files.mode(i, entry);
+                final long mtime = this.files.mtime(i, entry);
+
+                switch (mode & S_IFMT) {
+                case S_IFDIR:
+                    Files.createDirectories(target);
+                    checkInside(target);
+                    this.directories.add(new Directory(target, mode, mtime));
+                    break;
+                case S_IFLNK:
+                    // created last, so that no file gets written through it
+                    this.symlinks.put(target, linkTarget(cpio, entry, i));
+                    break;
+                case S_IFREG:
+                    addFile(cpio, entry, name, target, i, mode, mtime);
+                    break;
+                default:
+                    // skip devices, fifos and sockets
+                    break;
+                }
+            }
+
+            appendCompleted(0);
+
+            createLinks();
+            createSymlinks();
+
+            // apply in reverse order, so that children are processed before their parents
+            for (int j = this.directories.size() - 1; j >= 0; j--) {
+                final Directory directory = this.directories.get(j);
+                if (!this.symlinks.containsKey(directory.path)) {
+                    applyAttributes(directory.path, directory.mode, directory.mtime);
+                }
+            }
+        }
+
+        private void addFile(final CpioArchiveInputStream cpio, final CpioArchiveEntry entry, final String name, final Path target, final int i, final int mode, final long mtime) throws IOException {
+            final FileId id = this.files.fileId(i);
+            if (id != null && this.linkCounts.containsKey(id)) {
+                final LinkSet set = this.linkSets.computeIfAbsent(id, key -> new LinkSet());
+                if (entry.getSize() == 0 || set.target != null) {
+                    // the content is attached to one of the entries only
+                    set.links.add(target);
+                    return;
+                }
+                set.target = target;
+            }
+
+            final String expectedDigest = this.files.digest(i);
+            final long size = entry.getSize();
+
+            if (size > RpmExtractor.this.maxBufferedBytes) {
+                // stream large files directly, awaiting pending files first
+                appendCompleted(0);
+                write(target, cpio, size, name, expectedDigest);
+                applyAttributes(target, mode, mtime);
+                return;
+            }
+
+            final byte[] data = new byte[(int) size];
+            ByteStreams.readFully(cpio, data);
+
+            submit(() -> {
+                write(target, data, name, expectedDigest);
+                applyAttributes(target, mode, mtime);
+            }, size);
+        }
+
+        private String linkTarget(final CpioArchiveInputStream cpio, final CpioArchiveEntry entry, final int i) throws IOException {
+            final String linkTo = this.files.linkTo(i);
+            if (linkTo != null) {
+                return linkTo;
+            }
+            return new String(ByteStreams.toByteArray(cpio), StandardCharsets.UTF_8);
+        }
+
+        private void write(final Path target, final byte[] data, final String name, final String expectedDigest) throws IOException {
+            prepareParent(target);
+            Files.deleteIfExists(target);
+            Files.write(target, data, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+            if (RpmExtractor.this.verifyDigests && expectedDigest != null && !expectedDigest.isEmpty()) {
+                final MessageDigest digest = createDigest();
+                digest.update(data);
+                checkDigest(name, expectedDigest, digest.digest());
+            }
+        }
+
+        private void write(final Path target, final InputStream in, final long size, final String name, final String expectedDigest) throws IOException {
+            prepareParent(target);
+            Files.deleteIfExists(target);
+
+            final MessageDigest digest = createDigest();
+            try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                final long copied = ByteStreams.copy(new DigestInputStream(ByteStreams.limit(in, size), digest), out);
+                if (copied != size) {
+                    throw new IOException(String.format("Content of '%s' ended after %s bytes, expected %s bytes", name, copied, size));
+                }
+            }
+
+            if (RpmExtractor.this.verifyDigests && expectedDigest != null && !expectedDigest.isEmpty()) {
+                checkDigest(name, expectedDigest, digest.digest());
+            }
+        }
+
+        private MessageDigest createDigest() throws IOException {
+            try {
+                return this.files.digestAlgorithm.createDigest();
+            } catch (final NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private void checkDigest(final String name, final String expected, final byte[] actual) throws IOException {
+            final String actualDigest = Rpms.toHex(actual).toLowerCase();
+            if (!actualDigest.equalsIgnoreCase(expected)) {
+                throw new IOException(String.format("Digest mismatch for '%s' - expected: %s, actual: %s", name, expected, actualDigest));
+            }
+        }
+
+        private void createLinks() throws IOException {
+            for (final LinkSet set : this.linkSets.values()) {
+                if (set.target == null) {
+                    // all entries were empty, create the first one as an empty file
+                    set.target = set.links.remove(0);
+                    prepareParent(set.target);
+                    Files.deleteIfExists(set.target);
+                    Files.createFile(set.target);
+                }
+                for (final Path link : set.links) {
+                    prepareParent(link);
+                    Files.deleteIfExists(link);
+                    Files.createLink(link, set.target);
+                }
+            }
+        }
+
+        private void createSymlinks() throws IOException {
+            for (final Map.Entry<Path, String> symlink : this.symlinks.entrySet()) {
+                final Path target = symlink.getKey();
+                prepareParent(target);
+                Files.deleteIfExists(target);
+                Files.createSymbolicLink(target, target.getFileSystem().getPath(symlink.getValue()));
+            }
+        }
+
+        private void applyAttributes(final Path target, final int mode, final long mtime) throws IOException {
+            if (this.posix) {
+                Files.setPosixFilePermissions(target, toPermissions(mode));
+            }
+            Files.setLastModifiedTime(target, FileTime.from(mtime, TimeUnit.SECONDS));
+        }
+
+        private Path resolve(final String name) throws IOException {
+            final Path target = this.root.resolve(name.startsWith("/") ? name.substring(1) : name).normalize();
+            if (!target.startsWith(this.root) || target.equals(this.root)) {
+                throw new IOException(String.format("Entry '%s' would be extracted outside of the target directory", name));
+            }
+            return target;
+        }
+
+        private void checkNotBelowSymlink(final String name, final Path target) throws IOException {
+            for (Path parent = target.getParent(); !parent.equals(this.root); parent = parent.getParent()) {
+                if (this.symlinks.containsKey(parent)) {
+                    throw new IOException(String.format("Entry '%s' would be extracted below the symbolic link '%s'", name, this.root.relativize(parent)));
+                }
+            }
+        }
+
+        private void prepareParent(final Path target) throws IOException {
+            final Path parent = target.getParent();
+            Files.createDirectories(parent);
+            checkInside(parent);
+        }
+
+        private void checkInside(final Path path) throws IOException {
+            if (!path.toRealPath().startsWith(this.root)) {
+                throw new IOException(String.format("Entry '%s' would be extracted outside of the target directory", this.root.relativize(path)));
+            }
+        }
+
+        private void submit(final IoTask task, final long size) throws IOException {
+            // wait for pending files, until the new one fits into the budget
+            while (!this.pending.isEmpty() && (this.pending.size() >= MAX_PENDING || this.pendingBytes + size > RpmExtractor.this.maxBufferedBytes)) {
+                awaitFirst();
+            }
+
+            final FutureTask<Void> future = new FutureTask<>(() -> {
+                task.run();
+                return null;
+            });
+
+            this.pending.addLast(future);
+            this.pendingSizes.addLast(size);
+            this.pendingBytes += size;
+
+            RpmExtractor.this.executor.execute(future);
+
+            appendCompleted(MAX_PENDING);
+        }
+
+        private void appendCompleted(final int maxPending) throws IOException {
+            while (this.pending.size() > maxPending || !this.pending.isEmpty() && this.pending.peekFirst().isDone()) {
+                awaitFirst();
+            }
+        }
+
+        private void awaitFirst() throws IOException {
+            final FutureTask<Void> task = this.pending.removeFirst();
+            this.pendingBytes -= this.pendingSizes.removeFirst();
+
+            try {
+                task.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while extracting files");
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+        void cancel() {
+            for (final FutureTask<Void> task : this.pending) {
+                task.cancel(true);
+            }
+            this.pending.clear();
+            this.pendingSizes.clear();
+            this.pendingBytes = 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    /**
+     * Convert the permission bits of a mode
+     * <p>
+     * The setuid, setgid and sticky bits are dropped, there are no
+     * {@link PosixFilePermission}s for them.
+     * </p>
+     */
+    private static Set<PosixFilePermission> toPermissions(final int mode) {
+        final Set<PosixFilePermission> result = EnumSet.noneOf(PosixFilePermission.class);
+        for (final PosixFilePermission permission : PosixFilePermission.values()) {
+            // the enum is ordered from owner read (0400) to others execute (0001)
+            if ((mode & (0400 >> permission.ordinal())) != 0) {
+                result.add(permission);
+            }
+        }
+        return result;
+    }
+}
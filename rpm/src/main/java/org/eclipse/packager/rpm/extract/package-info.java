@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+/**
+ * Extracting RPMs
+ * <p>
+ * For extracting the payload of an RPM to a directory see the
+ * {@link org.eclipse.packager.rpm.extract.RpmExtractor} class.
+ * </p>
+ */
+package org.eclipse.packager.rpm.extract;
@@ -21,6 +21,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +29,7 @@ import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.ToIntFunction;
 import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 
 import org.eclipse.packager.rpm.ReadableHeader;
 import org.eclipse.packager.rpm.RpmBaseTag;
@@ -331,6 +333,91 @@ public class Header<T extends RpmBaseTag> implements ReadableHeader<T> {
         return get(tag).getValue().asByteArray().orElse(null);
     }
 
+    @Override
+    public int[] getIntArray(final T tag) {
+        final HeaderEntry<?> entry = get(tag);
+        if (entry == null) {
+            return null;
+        }
+
+        checkType(entry, Type.INT);
+
+        final int[] result = new int[entry.getCount()];
+        ByteBuffer.wrap(entry.getData()).asIntBuffer().get(result);
+        return result;
+    }
+
+    /**
+     * Get an array of longs, without boxing each value
+     * <p>
+     * Values stored as integers are converted as unsigned integers.
+     * </p>
+     */
+    @Override
+    public long[] getLongArray(final T tag) {
+        final HeaderEntry<?> entry = get(tag);
+        if (entry == null) {
+            return null;
+        }
+
+        final long[] result = new long[entry.getCount()];
+
+        if (entry.getType() == Type.INT) {
+            final ByteBuffer data = ByteBuffer.wrap(entry.getData());
+            for (int i = 0; i < result.length; i++) {
+                result[i] = Integer.toUnsignedLong(data.getInt());
+            }
+            return result;
+        }
+
+        checkType(entry, Type.LONG);
+
+        ByteBuffer.wrap(entry.getData()).asLongBuffer().get(result);
+        return result;
+    }
+
+    @Override
+    public short[] getShortArray(final T tag) {
+        final HeaderEntry<?> entry = get(tag);
+        if (entry == null) {
+            return null;
+        }
+
+        checkType(entry, Type.SHORT);
+
+        final short[] result = new short[entry.getCount()];
+        ByteBuffer.wrap(entry.getData()).asShortBuffer().get(result);
+        return result;
+    }
+
+    @Override
+    public List<String> getStringArrayView(final T tag) {
+        final HeaderEntry<?> entry = get(tag);
+        if (entry == null) {
+            return null;
+        }
+
+        final Object value = entry.getValue().getValue();
+
+        if (value instanceof String) {
+            return List.of((String) value);
+        }
+        if (value instanceof String[]) {
+            return Collections.unmodifiableList(Arrays.asList((String[]) value));
+        }
+        if (value instanceof I18nString[]) {
+            return Arrays.stream((I18nString[]) value).map(I18nString::toString).collect(Collectors.toUnmodifiableList());
+        }
+
+        throw new IllegalArgumentException(String.format("Tag %s is of type %s, which is not a string or an array of strings", tag, entry.getType()));
+    }
+
+    private static void checkType(final HeaderEntry<?> entry, final Type expected) {
+        if (entry.getType() != expected) {
+            throw new IllegalArgumentException(String.format("Tag %s is of type %s, expected: %s", entry.getTag(), entry.getType(), expected));
+        }
+    }
+
     /**
      * Make an array of header entries with given charset
      * <p>
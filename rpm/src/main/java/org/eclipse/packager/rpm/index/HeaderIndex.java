@@ -0,0 +1,690 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.packager.rpm.info.RpmInformation;
+import org.eclipse.packager.rpm.info.RpmInformations;
+import org.eclipse.packager.rpm.parse.RpmFile;
+import org.eclipse.packager.rpm.parse.RpmHeaderRegion;
+
+/**
+ * A persistent index of RPM headers
+ * <p>
+ * The index stores the lead and the headers of RPM files, as well as the
+ * {@link RpmInformation} derived from them, keyed by the path of the file.
+ * Each entry also records the size, the modification time and the file key
+ * (e.g. device and inode) of the file at the time it was added. An entry is
+ * only used if all of them still match the file. Otherwise, the file is read
+ * again and the entry gets replaced.
+ * </p>
+ * <p>
+ * The index file is memory mapped, in regions of up to 1 GiB, and entries
+ * only keep the position of their data. Headers are returned as
+ * {@link RpmHeaderRegion}, which decodes values lazily, directly from the
+ * mapping. The information is decoded from its stored form, without parsing
+ * the headers at all. So loading an unchanged package neither touches the RPM
+ * file, nor parses its headers. The stored information carries a version,
+ * whenever the way it is derived changes, the index is rebuilt from the stored
+ * headers when it gets opened.
+ * </p>
+ * <p>
+ * New and removed entries are appended to the index file, leaving the old
+ * records in place. Use {@link #compact()} to rewrite the file with the
+ * current entries only. A record which is only partially written, e.g. after
+ * a crash, is ignored and overwritten when opening the index the next time.
+ * </p>
+ * <p>
+ * All methods are thread safe.
+ * </p>
+ */
+public class HeaderIndex implements Closeable {
+    private static final byte[] MAGIC = { 'R', 'P', 'M', 'H', 'I', 'D', 'X', 0 };
+
+    private static final int VERSION = 2;
+
+    /**
+     * The version of the stored information
+     * <p>
+     * Must be increased whenever the {@link InformationCodec encoding}, or
+     * the way {@link RpmInformations} derives the information, changes.
+     * </p>
+     */
+    static final int INFORMATION_VERSION = 1;
+
+    private static final int FILE_HEADER_SIZE = MAGIC.length + 8;
+
+    /**
+     * The maximum size of a mapped region, unless a single record is larger
+     */
+    static final int DEFAULT_REGION_SIZE = 1024 * 1024 * 1024;
+
+    /**
+     * The data length of a record marking an entry as removed
+     */
+    private static final int REMOVED = -1;
+
+    private static final class Entry {
+        private final long size;
+
+        private final long modified;
+
+        private final String fileKey;
+
+        private final long headersPosition;
+
+        private final int headersLength;
+
+        private final long informationPosition;
+
+        private final int informationLength;
+
+        private Entry(final long size, final long modified, final String fileKey, final long headersPosition, final int headersLength, final long informationPosition, final int informationLength) {
+            this.size = size;
+            this.modified = modified;
+            this.fileKey = fileKey;
+            this.headersPosition = headersPosition;
+            this.headersLength = headersLength;
+            this.informationPosition = informationPosition;
+            this.informationLength = informationLength;
+        }
+
+        private boolean matches(final BasicFileAttributes attributes) {
+            return this.size == attributes.size() && this.modified == modified(attributes) && this.fileKey.equals(fileKey(attributes));
+        }
+    }
+
+    /**
+     * The headers and the information of a file, which was just read
+     */
+    private static final class Added {
+        private final RpmHeaderRegion region;
+
+        private final RpmInformation information;
+
+        private Added(final RpmHeaderRegion region, final RpmInformation information) {
+            this.region = region;
+            this.information = information;
+        }
+    }
+
+    private final Path path;
+
+    private final int regionSize;
+
+    private FileChannel channel;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * The mapped regions of the index file, by their start position
+     */
+    private NavigableMap<Long, ByteBuffer> regions = new TreeMap<>();
+
+    private boolean informationCurrent = true;
+
+    private long end;
+
+    private int records;
+
+    private HeaderIndex(final Path path, final FileChannel channel, final int regionSize) {
+        this.path = path;
+        this.channel = channel;
+        this.regionSize = regionSize;
+    }
+
+    /**
+     * Open an index, creating it if it doesn't exist yet
+     *
+     * @param path the index file
+     * @return the opened index
+     * @throws IOException in case the index cannot be read, or is not a valid
+     *             index file
+     */
+    public static HeaderIndex open(final Path path) throws IOException {
+        return open(path, DEFAULT_REGION_SIZE);
+    }
+
+    static HeaderIndex open(final Path path, final int regionSize) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final HeaderIndex result = new HeaderIndex(path, channel, regionSize);
+            result.load();
+            if (!result.informationCurrent) {
+                result.compact();
+            }
+            return result;
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        final long size = this.channel.size();
+
+        if (size == 0) {
+            final ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            header.put(MAGIC).putInt(VERSION).putInt(INFORMATION_VERSION).flip();
+            writeFully(header, 0);
+            this.end = FILE_HEADER_SIZE;
+            return;
+        }
+
+        if (size < FILE_HEADER_SIZE) {
+            throw new IOException(String.format("Index file corrupt: File too small: %s bytes", size));
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (this.channel.read(header, header.position()) < 0) {
+                throw new IOException(String.format("Index file corrupt: File too small: %s bytes", size));
+            }
+        }
+        header.flip();
+
+        final byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException(String.format("Index file corrupt: Expected magic %s, read: %s", Arrays.toString(MAGIC), Arrays.toString(magic)));
+        }
+        final int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("Unsupported index version: %s (supported: %s)", version, VERSION));
+        }
+        this.informationCurrent = header.getInt() == INFORMATION_VERSION;
+
+        // map the file region by region, a region always starts with a record
+
+        long position = FILE_HEADER_SIZE;
+        long regionStart = position;
+        ByteBuffer region = null;
+
+        while (size - position >= 4) {
+            if (region == null || position + 4 > regionStart + region.capacity()) {
+                regionStart = position;
+                region = map(regionStart, Math.min(size - regionStart, this.regionSize));
+            }
+
+            final int length = region.getInt((int) (position - regionStart));
+            if (length < 0 || length > size - position - 4) {
+                break;
+            }
+
+            if (position + 4 + length > regionStart + region.capacity()) {
+                // the record doesn't fit into the current region, start a new one with it
+                if (4L + length > Integer.MAX_VALUE) {
+                    break;
+                }
+                regionStart = position;
+                region = map(regionStart, Math.max(4 + length, Math.min(size - regionStart, this.regionSize)));
+            }
+
+            if (!readRecord(region, regionStart, position, length)) {
+                break;
+            }
+
+            position += 4 + length;
+            this.records++;
+        }
+
+        this.end = position;
+
+        if (this.end < size) {
+            // drop an incomplete record, so that it can't be mistaken for a record later on
+            this.channel.truncate(this.end);
+        }
+    }
+
+    private ByteBuffer map(final long position, final long length) throws IOException {
+        final ByteBuffer result = this.channel.map(MapMode.READ_ONLY, position, length);
+        this.regions.put(position, result);
+        return result;
+    }
+
+    /**
+     * Read a record
+     *
+     * @param region the mapped region containing the record
+     * @param regionStart the position of the region in the file
+     * @param position the position of the record in the file
+     * @param length the length of the record, excluding the length field
+     * @return {@code true} if a valid record was read
+     */
+    private boolean readRecord(final ByteBuffer region, final long regionStart, final long position, final int length) {
+        final ByteBuffer record = region.duplicate();
+        final int offset = (int) (position - regionStart) + 4;
+        record.position(offset);
+        record.limit(offset + length);
+
+        try {
+            final String key = readString(record);
+            final long size = record.getLong();
+            final long modified = record.getLong();
+            final String fileKey = readString(record);
+            final int headersLength = record.getInt();
+
+            if (headersLength == REMOVED) {
+                this.entries.remove(key);
+                return true;
+            }
+
+            final long headersPosition = regionStart + record.position();
+            record.position(record.position() + headersLength);
+
+            final int informationLength = record.getInt();
+            final long informationPosition = regionStart + record.position();
+            if (informationLength < 0 || informationLength > record.remaining()) {
+                return false;
+            }
+
+            this.entries.put(key, new Entry(size, modified, fileKey, headersPosition, headersLength, informationPosition, informationLength));
+            return true;
+        } catch (final RuntimeException e) {
+            // a corrupt record, treat it as the end of the data
+            return false;
+        }
+    }
+
+    /**
+     * Get the data at a position of the index file
+     * <p>
+     * Data appended after the index was opened gets mapped on first access.
+     * </p>
+     */
+    private synchronized ByteBuffer slice(final long position, final int length) throws IOException {
+        final Map.Entry<Long, ByteBuffer> existing = this.regions.floorEntry(position);
+
+        final long regionStart;
+        final ByteBuffer region;
+        if (existing != null && position + length <= existing.getKey() + existing.getValue().capacity()) {
+            regionStart = existing.getKey();
+            region = existing.getValue();
+        } else {
+            regionStart = position;
+            region = map(position, Math.max(length, Math.min(this.end - position, this.regionSize)));
+        }
+
+        final ByteBuffer result = region.duplicate();
+        result.position((int) (position - regionStart));
+        result.limit(result.position() + length);
+        return result.slice();
+    }
+
+    private static String readString(final ByteBuffer data) {
+        final byte[] bytes = new byte[data.getInt()];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.channel.close();
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Get the number of entries
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Get the keys of all entries
+     *
+     * @return a new, sorted set of the keys
+     * @see #key(Path)
+     */
+    public synchronized Set<String> keys() {
+        return new TreeSet<>(this.entries.keySet());
+    }
+
+    /**
+     * Get the headers of a file from the index
+     *
+     * @param file the RPM file
+     * @return the headers, or nothing if the file is not in the index, or has
+     *         changed since it was added
+     * @throws IOException in case the attributes of the file cannot be read,
+     *             or the entry is corrupt
+     */
+    public Optional<RpmHeaderRegion> get(final Path file) throws IOException {
+        final Entry entry = lookup(file);
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(RpmHeaderRegion.parse(slice(entry.headersPosition, entry.headersLength)));
+    }
+
+    /**
+     * Get the information of a file from the index
+     * <p>
+     * The information is decoded from the index, without parsing the
+     * headers.
+     * </p>
+     *
+     * @param file the RPM file
+     * @return a new instance of the information, or nothing if the file is
+     *         not in the index, or has changed since it was added
+     * @throws IOException in case the attributes of the file cannot be read,
+     *             or the entry is corrupt
+     */
+    public Optional<RpmInformation> getInformation(final Path file) throws IOException {
+        final Entry entry = lookup(file);
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(InformationCodec.decode(slice(entry.informationPosition, entry.informationLength)));
+    }
+
+    private Entry lookup(final Path file) throws IOException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+
+        final Entry entry;
+        synchronized (this) {
+            entry = this.entries.get(key(file));
+        }
+
+        if (entry == null || !entry.matches(attributes)) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Get the headers of a file, updating the index if necessary
+     * <p>
+     * If the file is not in the index, or has changed, its headers are read
+     * from the file and stored in the index.
+     * </p>
+     *
+     * @param file the RPM file
+     * @return the headers
+     * @throws IOException in case the file cannot be read, or is not a valid
+     *             RPM file
+     */
+    public RpmHeaderRegion update(final Path file) throws IOException {
+        final Optional<RpmHeaderRegion> existing = get(file);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        return add(file).region;
+    }
+
+    /**
+     * Get the information of a file, updating the index if necessary
+     * <p>
+     * If the file is not in the index, or has changed, its headers are read
+     * from the file and stored in the index.
+     * </p>
+     *
+     * @param file the RPM file
+     * @return a new instance of the information
+     * @throws IOException in case the file cannot be read, or is not a valid
+     *             RPM file
+     * @see #getInformation(Path)
+     */
+    public RpmInformation updateInformation(final Path file) throws IOException {
+        final Optional<RpmInformation> existing = getInformation(file);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        return add(file).information;
+    }
+
+    private Added add(final Path file) throws IOException {
+        try (RpmFile rpm = RpmFile.open(file)) {
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream((int) rpm.getPayloadStart());
+            rpm.transferTo(0, rpm.getPayloadStart(), Channels.newChannel(out));
+            final ByteBuffer headers = ByteBuffer.wrap(out.toByteArray());
+
+            final RpmHeaderRegion region = RpmHeaderRegion.parse(headers);
+            final RpmInformation information = RpmInformations.makeInformation(region);
+            final ByteBuffer encoded = ByteBuffer.wrap(InformationCodec.encode(information));
+
+            synchronized (this) {
+                append(key(file), attributes.size(), modified(attributes), fileKey(attributes), headers, encoded);
+            }
+
+            // only the position is kept, the returned headers are not referenced by the index
+            return new Added(region, information);
+        }
+    }
+
+    /**
+     * Remove a file from the index
+     *
+     * @param file the RPM file
+     * @return {@code true} if the file was part of the index
+     * @throws IOException in case of IO errors
+     */
+    public synchronized boolean remove(final Path file) throws IOException {
+        final String key = key(file);
+        if (!this.entries.containsKey(key)) {
+            return false;
+        }
+
+        appendRemoval(key);
+        return true;
+    }
+
+    /**
+     * Remove all entries of files which no longer exist
+     *
+     * @return the number of removed entries
+     * @throws IOException in case of IO errors
+     */
+    public synchronized int removeMissing() throws IOException {
+        int result = 0;
+        for (final String key : keys()) {
+            if (!Files.exists(Path.of(key))) {
+                appendRemoval(key);
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write all changes to the storage device
+     *
+     * @throws IOException in case of IO errors
+     */
+    public synchronized void flush() throws IOException {
+        this.channel.force(false);
+    }
+
+    /**
+     * Rewrite the index file, keeping only the current entries
+     * <p>
+     * The new file is written next to the index file, and then replaces it.
+     * Headers returned before stay valid. Stored information of an older
+     * version is derived again from the stored headers.
+     * </p>
+     *
+     * @throws IOException in case of IO errors
+     */
+    public synchronized void compact() throws IOException {
+        final Path temp = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+        try (HeaderIndex target = new HeaderIndex(temp, FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE), this.regionSize)) {
+            target.load();
+            for (final String key : keys()) {
+                final Entry entry = this.entries.get(key);
+                final ByteBuffer headers = slice(entry.headersPosition, entry.headersLength);
+
+                final ByteBuffer information;
+                if (this.informationCurrent) {
+                    information = slice(entry.informationPosition, entry.informationLength);
+                } else {
+                    information = ByteBuffer.wrap(InformationCodec.encode(RpmInformations.makeInformation(RpmHeaderRegion.parse(headers))));
+                }
+
+                target.append(key, entry.size, entry.modified, entry.fileKey, headers, information);
+            }
+            target.flush();
+        }
+
+        Files.move(temp, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // switch over to the new file
+
+        final HeaderIndex reopened = HeaderIndex.open(this.path, this.regionSize);
+        this.channel.close();
+
+        this.channel = reopened.channel;
+        this.regions = reopened.regions;
+        this.entries.clear();
+        this.entries.putAll(reopened.entries);
+        this.informationCurrent = reopened.informationCurrent;
+        this.records = reopened.records;
+        this.end = reopened.end;
+    }
+
+    /**
+     * Get the number of records in the index file
+     * <p>
+     * This includes records which got replaced or removed. It can be compared
+     * with {@link #size()} to decide when to {@link #compact()} the index.
+     * </p>
+     *
+     * @return the number of records
+     */
+    public synchronized int getRecords() {
+        return this.records;
+    }
+
+    private void append(final String key, final long size, final long modified, final String fileKey, final ByteBuffer headers, final ByteBuffer information) throws IOException {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final byte[] fileKeyBytes = fileKey.getBytes(StandardCharsets.UTF_8);
+
+        final int headersLength = headers.remaining();
+        final int informationLength = information.remaining();
+
+        final int prefixLength = 4 + 4 + keyBytes.length + 8 + 8 + 4 + fileKeyBytes.length + 4;
+        final int length = prefixLength - 4 + headersLength + 4 + informationLength;
+
+        final ByteBuffer record = ByteBuffer.allocate(4 + length);
+        record.putInt(length);
+        record.putInt(keyBytes.length).put(keyBytes);
+        record.putLong(size);
+        record.putLong(modified);
+        record.putInt(fileKeyBytes.length).put(fileKeyBytes);
+        record.putInt(headersLength);
+        record.put(headers.duplicate());
+        record.putInt(informationLength);
+        record.put(information.duplicate());
+        record.flip();
+
+        final long position = this.end;
+        writeFully(record, position);
+        this.end += record.limit();
+        this.records++;
+
+        final long headersPosition = position + prefixLength;
+        this.entries.put(key, new Entry(size, modified, fileKey, headersPosition, headersLength, headersPosition + headersLength + 4, informationLength));
+    }
+
+    private void appendRemoval(final String key) throws IOException {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        final int length = 4 + keyBytes.length + 8 + 8 + 4 + 4;
+
+        final ByteBuffer record = ByteBuffer.allocate(4 + length);
+        record.putInt(length);
+        record.putInt(keyBytes.length).put(keyBytes);
+        record.putLong(0);
+        record.putLong(0);
+        record.putInt(0);
+        record.putInt(REMOVED);
+        record.flip();
+
+        writeFully(record, this.end);
+        this.end += record.limit();
+        this.records++;
+
+        this.entries.remove(key);
+    }
+
+    private void writeFully(final ByteBuffer data, final long position) throws IOException {
+        long offset = position;
+        while (data.hasRemaining()) {
+            offset += this.channel.write(data, offset);
+        }
+    }
+
+    /**
+     * Get the key of a file
+     *
+     * @param file the file
+     * @return the absolute, normalized path of the file
+     */
+    public static String key(final Path file) {
+        return file.toAbsolutePath().normalize().toString();
+    }
+
+    private static long modified(final BasicFileAttributes attributes) {
+        return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    private static String fileKey(final BasicFileAttributes attributes) {
+        final Object key = attributes.fileKey();
+        return key != null ? key.toString() : "";
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[HeaderIndex: %s]", this.path);
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.packager.rpm.info.RpmInformation;
+import org.eclipse.packager.rpm.info.RpmInformation.Changelog;
+import org.eclipse.packager.rpm.info.RpmInformation.Dependency;
+import org.eclipse.packager.rpm.info.RpmInformation.Version;
+
+/**
+ * Binary encoding of {@link RpmInformation}, as stored in the
+ * {@link HeaderIndex}
+ * <p>
+ * Any change to the encoding, or to the way the information is derived from
+ * the headers, requires increasing {@link HeaderIndex#INFORMATION_VERSION}.
+ * </p>
+ */
+final class InformationCodec {
+    private static final int NULL = -1;
+
+    private InformationCodec() {
+    }
+
+    static byte[] encode(final RpmInformation information) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, information.getName());
+
+            final Version version = information.getVersion();
+            out.writeBoolean(version != null);
+            if (version != null) {
+                writeString(out, version.getVersion());
+                writeString(out, version.getRelease());
+                writeLong(out, version.getEpoch() != null ? version.getEpoch().longValue() : null);
+            }
+
+            writeString(out, information.getArchitecture());
+            writeString(out, information.getLicense());
+            writeString(out, information.getSummary());
+            writeString(out, information.getDescription());
+            writeString(out, information.getPackager());
+            writeString(out, information.getVendor());
+            writeString(out, information.getUrl());
+            writeString(out, information.getBuildHost());
+            writeString(out, information.getGroup());
+            writeString(out, information.getSourcePackage());
+
+            writeLong(out, information.getInstalledSize());
+            writeLong(out, information.getArchiveSize());
+            writeLong(out, information.getBuildTimestamp());
+            out.writeLong(information.getHeaderStart());
+            out.writeLong(information.getHeaderEnd());
+
+            out.writeInt(information.getChangelog().size());
+            for (final Changelog entry : information.getChangelog()) {
+                out.writeLong(entry.getTimestamp());
+                writeString(out, entry.getAuthor());
+                writeString(out, entry.getText());
+            }
+
+            writeStrings(out, information.getFiles());
+            writeStrings(out, information.getDirectories());
+
+            writeDependencies(out, information.getProvides());
+            writeDependencies(out, information.getRequires());
+            writeDependencies(out, information.getObsoletes());
+            writeDependencies(out, information.getConflicts());
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode the information
+     *
+     * @param data the encoded information, the position of the buffer is
+     *            changed
+     * @return a new instance
+     * @throws IOException if the data is not valid
+     */
+    static RpmInformation decode(final ByteBuffer data) throws IOException {
+        try {
+            final RpmInformation result = new RpmInformation();
+
+            result.setName(readString(data));
+
+            if (data.get() != 0) {
+                final String version = readString(data);
+                final String release = readString(data);
+                final Long epoch = readLong(data);
+                result.setVersion(new Version(version, release, epoch != null ? epoch.intValue() : null));
+            }
+
+            result.setArchitecture(readString(data));
+            result.setLicense(readString(data));
+            result.setSummary(readString(data));
+            result.setDescription(readString(data));
+            result.setPackager(readString(data));
+            result.setVendor(readString(data));
+            result.setUrl(readString(data));
+            result.setBuildHost(readString(data));
+            result.setGroup(readString(data));
+            result.setSourcePackage(readString(data));
+
+            result.setInstalledSize(readLong(data));
+            result.setArchiveSize(readLong(data));
+            result.setBuildTimestamp(readLong(data));
+            result.setHeaderStart(data.getLong());
+            result.setHeaderEnd(data.getLong());
+
+            final int changes = readCount(data);
+            final List<Changelog> changelog = new ArrayList<>(changes);
+            for (int i = 0; i < changes; i++) {
+                changelog.add(new Changelog(data.getLong(), readString(data), readString(data)));
+            }
+            result.setChangelog(changelog);
+
+            readStrings(data, result.getFiles());
+            readStrings(data, result.getDirectories());
+
+            result.setProvides(readDependencies(data));
+            result.setRequires(readDependencies(data));
+            result.setObsoletes(readDependencies(data));
+            result.setConflicts(readDependencies(data));
+
+            return result;
+        } catch (final RuntimeException e) {
+            throw new IOException("Invalid information in index", e);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer data) {
+        final int length = data.getInt();
+        if (length == NULL) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLong(final DataOutputStream out, final Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(final ByteBuffer data) {
+        return data.get() != 0 ? data.getLong() : null;
+    }
+
+    private static int readCount(final ByteBuffer data) {
+        final int count = data.getInt();
+        if (count < 0 || count > data.remaining()) {
+            throw new IllegalArgumentException(String.format("Invalid number of elements: %s", count));
+        }
+        return count;
+    }
+
+    private static void writeStrings(final DataOutputStream out, final Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (final String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static void readStrings(final ByteBuffer data, final Collection<String> result) {
+        final int count = readCount(data);
+        for (int i = 0; i < count; i++) {
+            result.add(readString(data));
+        }
+    }
+
+    private static void writeDependencies(final DataOutputStream out, final List<Dependency> dependencies) throws IOException {
+        out.writeInt(dependencies.size());
+        for (final Dependency dependency : dependencies) {
+            writeString(out, dependency.getName());
+            writeString(out, dependency.getVersion());
+            out.writeLong(dependency.getFlags());
+        }
+    }
+
+    private static List<Dependency> readDependencies(final ByteBuffer data) {
+        final int count = readCount(data);
+        final List<Dependency> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new Dependency(readString(data), readString(data), data.getLong()));
+        }
+        return result;
+    }
+}
@@ -14,6 +14,7 @@
 package org.eclipse.packager.rpm.info;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -23,16 +24,21 @@ import java.util.Set;
 
 import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
 import org.apache.commons.compress.archivers.cpio.CpioArchiveInputStream;
+import org.eclipse.packager.rpm.FileFlags;
 import org.eclipse.packager.rpm.RpmSignatureTag;
 import org.eclipse.packager.rpm.RpmTag;
 import org.eclipse.packager.rpm.RpmTagValue;
+import org.eclipse.packager.rpm.index.HeaderIndex;
 import org.eclipse.packager.rpm.info.RpmInformation.Dependency;
 import org.eclipse.packager.rpm.parse.InputHeader;
+import org.eclipse.packager.rpm.parse.RpmFile;
+import org.eclipse.packager.rpm.parse.RpmHeaderRegion;
 import org.eclipse.packager.rpm.parse.RpmInputStream;
 
 import static org.eclipse.packager.rpm.RpmSignatureTag.PAYLOAD_SIZE;
 import static org.eclipse.packager.rpm.RpmTag.ARCH;
 import static org.eclipse.packager.rpm.RpmTag.ARCHIVE_SIZE;
+import static org.eclipse.packager.rpm.RpmTag.BASENAMES;
 import static org.eclipse.packager.rpm.RpmTag.BUILDHOST;
 import static org.eclipse.packager.rpm.RpmTag.BUILDTIME;
 import static org.eclipse.packager.rpm.RpmTag.CHANGELOG_AUTHOR;
@@ -42,7 +48,11 @@ import static org.eclipse.packager.rpm.RpmTag.CONFLICT_FLAGS;
 import static org.eclipse.packager.rpm.RpmTag.CONFLICT_NAME;
 import static org.eclipse.packager.rpm.RpmTag.CONFLICT_VERSION;
 import static org.eclipse.packager.rpm.RpmTag.DESCRIPTION;
+import static org.eclipse.packager.rpm.RpmTag.DIRNAMES;
+import static org.eclipse.packager.rpm.RpmTag.DIR_INDEXES;
 import static org.eclipse.packager.rpm.RpmTag.EPOCH;
+import static org.eclipse.packager.rpm.RpmTag.FILE_FLAGS;
+import static org.eclipse.packager.rpm.RpmTag.FILE_MODES;
 import static org.eclipse.packager.rpm.RpmTag.GROUP;
 import static org.eclipse.packager.rpm.RpmTag.LICENSE;
 import static org.eclipse.packager.rpm.RpmTag.NAME;
@@ -65,6 +75,12 @@ import static org.eclipse.packager.rpm.RpmTag.VENDOR;
 import static org.eclipse.packager.rpm.RpmTag.VERSION;
 
 public final class RpmInformations {
+    private static final int S_IFMT = 0170000;
+
+    private static final int S_IFDIR = 0040000;
+
+    private static final int S_IFREG = 0100000;
+
     private RpmInformations() {
     }
 
@@ -79,9 +95,143 @@ public final class RpmInformations {
      * @throws IllegalArgumentException if there are any problems reading the headers
      */
     public static RpmInformation makeInformation(final RpmInputStream in) throws IOException {
-        final InputHeader<RpmTag> header = in.getPayloadHeader();
-        final InputHeader<RpmSignatureTag> signature = in.getSignatureHeader();
+        final RpmInformation result = makeInformation(in.getPayloadHeader(), in.getSignatureHeader());
+
+        // files
+
+        final CpioArchiveInputStream cpio = in.getCpioStream();
+        CpioArchiveEntry cpioEntry;
+        while ((cpioEntry = cpio.getNextEntry()) != null) {
+            final String name = normalize(cpioEntry.getName());
+
+            if (cpioEntry.isRegularFile()) {
+                result.getFiles().add(name);
+            } else if (cpioEntry.isDirectory()) {
+                result.getDirectories().add(name);
+            }
+        }
+        cpio.close();
+
+        return result;
+    }
+
+    /**
+     * Returns the RPM information for the given RPM input stream, reading
+     * only the headers.
+     * <p>
+     * Other than {@link #makeInformation(RpmInputStream)}, this doesn't read
+     * the payload. Files and directories are taken from the file names and
+     * modes of the header. Ghost files are not part of the payload, and so are
+     * skipped. The stream is not read past the main header.
+     * </p>
+     *
+     * @param in the RPM input stream
+     * @return the RPM information for the given RPM input stream
+     * @throws IOException if an error occurs while reading from the given RPM
+     *             input stream
+     * @throws IllegalArgumentException if there are any problems reading the
+     *             headers
+     */
+    public static RpmInformation makeHeaderInformation(final RpmInputStream in) throws IOException {
+        return makeHeaderInformation(in.getPayloadHeader(), in.getSignatureHeader());
+    }
+
+    /**
+     * Returns the RPM information for the given RPM file, reading only the
+     * headers.
+     *
+     * @param file the RPM file
+     * @return the RPM information for the given RPM file
+     * @throws IllegalArgumentException if there are any problems reading the
+     *             headers
+     * @see #makeHeaderInformation(RpmInputStream)
+     */
+    public static RpmInformation makeInformation(final RpmFile file) {
+        return makeHeaderInformation(file.getPayloadHeader(), file.getSignatureHeader());
+    }
+
+    /**
+     * Returns the RPM information for the given RPM headers.
+     *
+     * @param region the lead and headers of an RPM file
+     * @return the RPM information for the given RPM headers
+     * @throws IllegalArgumentException if there are any problems reading the
+     *             headers
+     * @see #makeHeaderInformation(RpmInputStream)
+     */
+    public static RpmInformation makeInformation(final RpmHeaderRegion region) {
+        return makeHeaderInformation(region.getPayloadHeader(), region.getSignatureHeader());
+    }
+
+    /**
+     * Returns the RPM information for the given RPM file, reading only the
+     * headers, optionally using a header index.
+     * <p>
+     * If an index is provided, the information stored in the index is used,
+     * as long as the file is unchanged. This neither reads the file, nor
+     * parses its headers. Otherwise, the headers are read from the file and
+     * the index is updated.
+     * </p>
+     *
+     * @param path the RPM file
+     * @param index the index to consult, may be {@code null}
+     * @return the RPM information for the given RPM file
+     * @throws IOException if an error occurs while reading the file or the
+     *             index
+     * @throws IllegalArgumentException if there are any problems reading the
+     *             headers
+     * @see #makeHeaderInformation(RpmInputStream)
+     */
+    public static RpmInformation makeInformation(final Path path, final HeaderIndex index) throws IOException {
+        if (index != null) {
+            return index.updateInformation(path);
+        }
+
+        try (RpmFile file = RpmFile.open(path)) {
+            return makeInformation(file);
+        }
+    }
+
+    private static RpmInformation makeHeaderInformation(final InputHeader<RpmTag> header, final InputHeader<RpmSignatureTag> signature) {
+        final RpmInformation result = makeInformation(header, signature);
+
+        // files
+
+        final List<String> basenames = header.getStringArrayView(BASENAMES);
+        if (basenames == null) {
+            return result;
+        }
+
+        final List<String> dirnames = header.getStringArrayView(DIRNAMES);
+        final int[] dirIndexes = header.getIntArray(DIR_INDEXES);
+        final short[] modes = header.getShortArray(FILE_MODES);
+        final int[] flags = header.getIntArray(FILE_FLAGS);
+
+        if (dirnames == null || dirIndexes == null || modes == null || dirIndexes.length != basenames.size() || modes.length != basenames.size() || (flags != null && flags.length != basenames.size())) {
+            throw new IllegalArgumentException("Invalid file information in header");
+        }
+
+        // decode each directory name only once
+        final String[] dirs = dirnames.toArray(new String[0]);
+
+        for (int i = 0; i < basenames.size(); i++) {
+            if (flags != null && (flags[i] & FileFlags.GHOST.getValue()) != 0) {
+                continue;
+            }
+
+            final int type = modes[i] & S_IFMT;
+
+            if (type == S_IFREG) {
+                result.getFiles().add(dirs[dirIndexes[i]] + basenames.get(i));
+            } else if (type == S_IFDIR) {
+                result.getDirectories().add(dirs[dirIndexes[i]] + basenames.get(i));
+            }
+        }
 
+        return result;
+    }
+
+    private static RpmInformation makeInformation(final InputHeader<RpmTag> header, final InputHeader<RpmSignatureTag> signature) {
         final RpmInformation result = new RpmInformation();
 
         result.setHeaderStart(header.getStart());
@@ -115,16 +265,16 @@ public final class RpmInformations {
 
         // changelog
 
-        final List<Long> ts = RpmTagValue.toLong(header.getIntegerList(CHANGELOG_TIMESTAMP));
+        final long[] ts = header.getLongArray(CHANGELOG_TIMESTAMP);
 
         if (ts != null) {
-            final List<String> authors = header.getStringList(CHANGELOG_AUTHOR);
-            final List<String> texts = header.getStringList(CHANGELOG_TEXT);
-            final int size = ts.size();
+            final List<String> authors = header.getStringArrayView(CHANGELOG_AUTHOR);
+            final List<String> texts = header.getStringArrayView(CHANGELOG_TEXT);
+            final int size = ts.length;
             final List<RpmInformation.Changelog> changes = new ArrayList<>(size);
 
             for (int i = 0; i < size; i++) {
-                changes.add(new RpmInformation.Changelog(ts.get(i), authors.get(i), texts.get(i)));
+                changes.add(new RpmInformation.Changelog(ts[i], authors.get(i), texts.get(i)));
             }
 
             changes.sort(Comparator.comparingLong(RpmInformation.Changelog::getTimestamp));
@@ -139,28 +289,13 @@ public final class RpmInformations {
         result.setConflicts(makeDependencies(header, CONFLICT_NAME, CONFLICT_VERSION, CONFLICT_FLAGS));
         result.setObsoletes(makeDependencies(header, OBSOLETE_NAME, OBSOLETE_VERSION, OBSOLETE_FLAGS));
 
-        // files
-
-        final CpioArchiveInputStream cpio = in.getCpioStream();
-        CpioArchiveEntry cpioEntry;
-        while ((cpioEntry = cpio.getNextEntry()) != null) {
-            final String name = normalize(cpioEntry.getName());
-
-            if (cpioEntry.isRegularFile()) {
-                result.getFiles().add(name);
-            } else if (cpioEntry.isDirectory()) {
-                result.getDirectories().add(name);
-            }
-        }
-        cpio.close();
-
         return result;
     }
 
     public static List<Dependency> makeDependencies(final InputHeader<RpmTag> header, final RpmTag namesTag, final RpmTag versionsTag, final RpmTag flagsTag) {
-        final List<String> names = header.getStringList(namesTag);
-        final List<String> versions = header.getStringList(versionsTag);
-        final List<Integer> flags = header.getIntegerList(flagsTag);
+        final List<String> names = header.getStringArrayView(namesTag);
+        final List<String> versions = header.getStringArrayView(versionsTag);
+        final int[] flags = header.getIntArray(flagsTag);
 
         if (names == null) {
             return Collections.emptyList();
@@ -170,8 +305,8 @@ public final class RpmInformations {
             throw new IllegalStateException(String.format("Invalid size of dependency versions array [%s] - expected: %s, actual: %s", versionsTag, names.size(), versions.size()));
         }
 
-        if (flags != null && names.size() != flags.size()) {
-            throw new IllegalStateException(String.format("Invalid size of dependency flags array [%s] - expected: %s, actual: %s", flagsTag, names.size(), flags.size()));
+        if (flags != null && names.size() != flags.length) {
+            throw new IllegalStateException(String.format("Invalid size of dependency flags array [%s] - expected: %s, actual: %s", flagsTag, names.size(), flags.length));
         }
 
         final List<Dependency> result = new ArrayList<>(names.size());
@@ -185,10 +320,8 @@ public final class RpmInformations {
                 version = null;
             }
 
-            final Integer flag = flags != null ? flags.get(i) : null;
-
             if (known.add(name)) {
-                result.add(new Dependency(name, version, flag != null ? flag : 0));
+                result.add(new Dependency(name, version, flags != null ? flags[i] : 0));
             }
         }
 
@@ -17,17 +17,27 @@ import static org.eclipse.packager.rpm.header.Type.UNKNOWN;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.stream.IntStream;
+import java.util.List;
 
 import org.eclipse.packager.rpm.RpmTagValue;
 import org.eclipse.packager.rpm.Rpms;
 import org.eclipse.packager.rpm.header.Type;
 
+/**
+ * A value of a header, read from a file
+ * <p>
+ * The value is decoded lazily, on first access, from the store of the header.
+ * Until then, only the store buffer is referenced. The raw bytes of the value
+ * stay available using {@link #getRawData()}.
+ * </p>
+ */
 public class HeaderValue<E> {
     private final int tag;
 
     private RpmTagValue<?> value;
 
+    private ByteBuffer store;
+
     private final int originalType;
 
     private final Type type;
@@ -48,8 +58,24 @@ public class HeaderValue<E> {
         return this.tag;
     }
 
+    /**
+     * Get the value
+     * <p>
+     * The value is decoded on the first call. Decoding is idempotent, so
+     * concurrent first calls may decode the value more than once, but will
+     * return equal values.
+     * </p>
+     *
+     * @return the value, may be {@code null} for values of type {@code NULL}
+     *         or if the value was not read from a store
+     */
     public RpmTagValue<?> getValue() {
-        return this.value;
+        RpmTagValue<?> result = this.value;
+        if (result == null && this.store != null) {
+            result = decode(this.store.duplicate());
+            this.value = result;
+        }
+        return result;
     }
 
     public int getOriginalType() {
@@ -68,38 +94,251 @@ public class HeaderValue<E> {
         return this.index;
     }
 
+    /**
+     * Get the raw data of the value, as it was stored in the header
+     *
+     * @return a new read-only buffer, sharing the content of the store, empty
+     *         if the value was not read from a store
+     */
+    public ByteBuffer getRawData() {
+        if (this.store == null) {
+            return ByteBuffer.allocate(0).asReadOnlyBuffer();
+        }
+
+        final ByteBuffer data = this.store.asReadOnlyBuffer();
+        data.position(this.index);
+        data.limit(this.index + rawLength(data));
+        return data.slice();
+    }
+
+    /**
+     * Decode an array of integers, directly from the store
+     *
+     * @return a new array, or {@code null} if the value was not read from a
+     *         store
+     * @throws IllegalArgumentException if the value is not of type
+     *             {@code INT}
+     */
+    public int[] getIntArray() {
+        checkType(Type.INT);
+
+        if (this.store == null) {
+            return null;
+        }
+
+        final int[] result = new int[this.count];
+        this.store.duplicate().position(this.index).asIntBuffer().get(result);
+        return result;
+    }
+
+    /**
+     * Decode an array of longs, directly from the store
+     * <p>
+     * Values of type {@code INT} are converted as unsigned integers.
+     * </p>
+     *
+     * @return a new array, or {@code null} if the value was not read from a
+     *         store
+     * @throws IllegalArgumentException if the value is not of type
+     *             {@code LONG} or {@code INT}
+     */
+    public long[] getLongArray() {
+        if (this.type == Type.INT) {
+            final int[] ints = getIntArray();
+            if (ints == null) {
+                return null;
+            }
+
+            final long[] result = new long[ints.length];
+            for (int i = 0; i < ints.length; i++) {
+                result[i] = Integer.toUnsignedLong(ints[i]);
+            }
+            return result;
+        }
+
+        checkType(Type.LONG);
+
+        if (this.store == null) {
+            return null;
+        }
+
+        final long[] result = new long[this.count];
+        this.store.duplicate().position(this.index).asLongBuffer().get(result);
+        return result;
+    }
+
+    /**
+     * Decode an array of shorts, directly from the store
+     *
+     * @return a new array, or {@code null} if the value was not read from a
+     *         store
+     * @throws IllegalArgumentException if the value is not of type
+     *             {@code SHORT}
+     */
+    public short[] getShortArray() {
+        checkType(Type.SHORT);
+
+        if (this.store == null) {
+            return null;
+        }
+
+        final short[] result = new short[this.count];
+        this.store.duplicate().position(this.index).asShortBuffer().get(result);
+        return result;
+    }
+
+    /**
+     * Get a view on the strings of the value
+     * <p>
+     * Strings are decoded from the store on each access of an element of
+     * the returned list.
+     * </p>
+     *
+     * @return an unmodifiable list, or {@code null} if the value was not read
+     *         from a store
+     * @throws IllegalArgumentException if the value is not a string or an
+     *             array of strings
+     */
+    public List<String> getStringArrayView() {
+        if (this.type != Type.STRING && this.type != Type.STRING_ARRAY && this.type != Type.I18N_STRING) {
+            throw new IllegalArgumentException(String.format("Tag %s is of type %s, which is not a string or an array of strings", this.tag, this.type));
+        }
+
+        if (this.store == null) {
+            return null;
+        }
+
+        return new StringArrayView(this.store, this.index, this.type == Type.STRING ? 1 : this.count);
+    }
+
+    private void checkType(final Type expected) {
+        if (this.type != expected) {
+            throw new IllegalArgumentException(String.format("Tag %s is of type %s, expected: %s", this.tag, this.type, expected));
+        }
+    }
+
+    /**
+     * Attach the value to the store of its header
+     * <p>
+     * The value is not decoded, only the bounds of fixed size values are
+     * checked. The store must not be modified afterwards.
+     * </p>
+     *
+     * @param storeData the store of the header
+     */
     void fillFromStore(final ByteBuffer storeData) {
+        final long size = fixedSize();
+        if (this.index < 0 || this.count < 0 || this.index > storeData.limit() || (size >= 0 && this.index + size > storeData.limit())) {
+            throw new IllegalArgumentException(String.format("Corrupt tag entry. Tag %s with %s values at index %s exceeds store of %s bytes", this.tag, this.count, this.index, storeData.limit()));
+        }
+
+        this.store = storeData;
+        this.value = null;
+    }
+
+    private RpmTagValue<?> decode(final ByteBuffer storeData) {
         storeData.position(this.index);
         switch (this.type) {
         case NULL:
-            break;
+            return null;
         case CHAR:
-            this.value = new RpmTagValue<>(this.count == 1 ? Character.valueOf((char) storeData.get()) : IntStream.range(0, this.count).mapToObj(i -> (char) storeData.get()).toArray(Character[]::new));
-            break;
+            if (this.count == 1) {
+                return new RpmTagValue<>((char) storeData.get());
+            } else {
+                final Character[] result = new Character[this.count];
+                for (int i = 0; i < this.count; i++) {
+                    result[i] = (char) storeData.get();
+                }
+                return new RpmTagValue<>(result);
+            }
         case BYTE:
         case UNKNOWN:
-            this.value = new RpmTagValue<>(this.count == 1 ? Byte.valueOf(storeData.get()) : IntStream.range(0, this.count).mapToObj(i -> storeData.get()).toArray(Byte[]::new));
-            break;
+            if (this.count == 1) {
+                return new RpmTagValue<>(storeData.get());
+            } else {
+                final Byte[] result = new Byte[this.count];
+                for (int i = 0; i < this.count; i++) {
+                    result[i] = storeData.get();
+                }
+                return new RpmTagValue<>(result);
+            }
         case SHORT:
-            this.value = new RpmTagValue<>(this.count == 1 ? Short.valueOf(storeData.getShort()) : IntStream.range(0, this.count).mapToObj(i -> storeData.getShort()).toArray(Short[]::new));
-            break;
+            if (this.count == 1) {
+                return new RpmTagValue<>(storeData.getShort());
+            } else {
+                final Short[] result = new Short[this.count];
+                for (int i = 0; i < this.count; i++) {
+                    result[i] = storeData.getShort();
+                }
+                return new RpmTagValue<>(result);
+            }
         case INT:
-            this.value = new RpmTagValue<>(this.count == 1 ? Integer.valueOf(storeData.getInt()) : IntStream.range(0, this.count).mapToObj(i -> storeData.getInt()).toArray(Integer[]::new));
-            break;
+            if (this.count == 1) {
+                return new RpmTagValue<>(storeData.getInt());
+            } else {
+                final Integer[] result = new Integer[this.count];
+                for (int i = 0; i < this.count; i++) {
+                    result[i] = storeData.getInt();
+                }
+                return new RpmTagValue<>(result);
+            }
         case LONG:
-            this.value = new RpmTagValue<>(this.count == 1 ? Long.valueOf(storeData.getLong()) : IntStream.range(0, this.count).mapToObj(i -> storeData.getLong()).toArray(Long[]::new));
-            break;
+            if (this.count == 1) {
+                return new RpmTagValue<>(storeData.getLong());
+            } else {
+                final Long[] result = new Long[this.count];
+                for (int i = 0; i < this.count; i++) {
+                    result[i] = storeData.getLong();
+                }
+                return new RpmTagValue<>(result);
+            }
         case STRING:
-            this.value = new RpmTagValue<>(makeString(storeData));
-            break;
+            return new RpmTagValue<>(makeString(storeData));
         case BLOB:
-            this.value = new RpmTagValue<>(makeBlob(storeData));
-            break;
+            return new RpmTagValue<>(makeBlob(storeData));
+        case STRING_ARRAY:
+        case I18N_STRING:
+            final String[] result = new String[this.count];
+            for (int i = 0; i < this.count; i++) {
+                result[i] = makeString(storeData);
+            }
+            return new RpmTagValue<>(result);
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the size of a fixed size value
+     *
+     * @return the size in bytes, or {@code -1} for string values
+     */
+    private long fixedSize() {
+        switch (this.type) {
+        case STRING:
         case STRING_ARRAY:
         case I18N_STRING:
-            this.value = new RpmTagValue<>(IntStream.range(0, this.count).mapToObj(i -> makeString(storeData)).toArray(String[]::new));
-            break;
+            return -1;
+        case UNKNOWN:
+            return this.count;
+        default:
+            return (long) this.count * this.type.align();
+        }
+    }
+
+    private int rawLength(final ByteBuffer storeData) {
+        final long size = fixedSize();
+        if (size >= 0) {
+            return this.type == Type.NULL ? 0 : (int) size;
         }
+
+        final int strings = this.type == Type.STRING ? 1 : this.count;
+
+        int position = this.index;
+        for (int i = 0; i < strings; i++) {
+            position = nullByte(storeData, position) + 1;
+        }
+        return position - this.index;
     }
 
     private byte[] makeBlob(final ByteBuffer storeData) {
@@ -110,13 +349,27 @@ public class HeaderValue<E> {
     }
 
     private static String makeString(final ByteBuffer buf) {
-        final byte[] data = buf.array();
         final int start = buf.position();
+        final int end = nullByte(buf, start);
 
-        for (int i = 0; i < buf.remaining(); i++) { // check if there is at least one more byte, null byte
-            if (data[start + i] == 0) {
-                buf.position(start + i + 1); // skip content plus null byte
-                return new String(data, start, i, StandardCharsets.UTF_8);
+        final String result;
+        if (buf.hasArray()) {
+            result = new String(buf.array(), buf.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        } else {
+            // direct or mapped buffer
+            final ByteBuffer slice = buf.duplicate();
+            slice.limit(end);
+            result = StandardCharsets.UTF_8.decode(slice).toString();
+        }
+
+        buf.position(end + 1); // skip content plus null byte
+        return result;
+    }
+
+    private static int nullByte(final ByteBuffer buf, final int start) {
+        for (int i = start; i < buf.limit(); i++) {
+            if (buf.get(i) == 0) {
+                return i;
             }
         }
 
@@ -125,21 +378,23 @@ public class HeaderValue<E> {
 
     @Override
     public String toString() {
+        final RpmTagValue<?> value = getValue();
+
         final StringBuilder sb = new StringBuilder();
 
         sb.append('[');
         sb.append(this.tag);
         sb.append(" = ");
 
-        Rpms.dumpValue(sb, this.value);
+        Rpms.dumpValue(sb, value);
 
         sb.append(" - ").append(this.type).append(" = ");
 
-        if (this.value != null) {
+        if (value != null) {
             if (this.type == UNKNOWN) {
                 sb.append(this.originalType);
             } else {
-                sb.append(this.value.getClass().getName());
+                sb.append(value.getClass().getName());
             }
         } else {
             sb.append("NULL");
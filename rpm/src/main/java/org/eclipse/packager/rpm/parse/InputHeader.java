@@ -137,6 +137,63 @@ public class InputHeader<T extends RpmBaseTag> implements ReadableHeader<T> {
         return getOptionalTag(tag, byte[].class).flatMap(headerValue -> headerValue.getValue().asByteArray()).orElse(null);
     }
 
+    /**
+     * Get an array of integers, decoded directly from the header store
+     * <p>
+     * Other than {@link #getIntegerList(RpmBaseTag)}, this checks the type
+     * stored in the header, not the type declared by the tag.
+     * </p>
+     *
+     * @throws IllegalArgumentException if the value is not of type
+     *             {@code INT}
+     */
+    @Override
+    public int[] getIntArray(final T tag) {
+        final HeaderValue<?> value = this.entries.get(tag.getValue());
+        return value != null ? value.getIntArray() : null;
+    }
+
+    /**
+     * Get an array of longs, decoded directly from the header store
+     * <p>
+     * Other than {@link #getLongList(RpmBaseTag)}, this checks the type
+     * stored in the header, not the type declared by the tag. Values stored
+     * as integers are converted as unsigned integers. No value gets boxed.
+     * </p>
+     *
+     * @throws IllegalArgumentException if the value is not of type
+     *             {@code LONG} or {@code INT}
+     */
+    @Override
+    public long[] getLongArray(final T tag) {
+        final HeaderValue<?> value = this.entries.get(tag.getValue());
+        return value != null ? value.getLongArray() : null;
+    }
+
+    /**
+     * Get an array of shorts, decoded directly from the header store
+     *
+     * @throws IllegalArgumentException if the value is not of type
+     *             {@code SHORT}
+     */
+    @Override
+    public short[] getShortArray(final T tag) {
+        final HeaderValue<?> value = this.entries.get(tag.getValue());
+        return value != null ? value.getShortArray() : null;
+    }
+
+    /**
+     * Get a view on an array of strings, decoding each string on access
+     *
+     * @throws IllegalArgumentException if the value is not a string or an
+     *             array of strings
+     */
+    @Override
+    public List<String> getStringArrayView(final T tag) {
+        final HeaderValue<?> value = this.entries.get(tag.getValue());
+        return value != null ? value.getStringArrayView() : null;
+    }
+
     public <E> Optional<HeaderValue<E>> getOptionalTag(final int tag, Class<E> dataType) {
         return getEntry(tag, dataType);
     }
@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.parse;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.eclipse.packager.rpm.RpmBaseTag;
+import org.eclipse.packager.rpm.RpmLead;
+import org.eclipse.packager.rpm.RpmSignatureTag;
+import org.eclipse.packager.rpm.RpmTag;
+import org.eclipse.packager.rpm.Rpms;
+
+/**
+ * Random access to an RPM file
+ * <p>
+ * Other than {@link RpmInputStream}, this reads the lead and the headers
+ * directly from a {@link FileChannel}, using positional reads. The header
+ * sections are memory mapped, and values are decoded lazily, directly from
+ * the mapping, without copying the header stores. The payload is not touched
+ * when opening the file, but can be accessed directly by its offset.
+ * </p>
+ * <p>
+ * Once opened, an instance can be used by multiple threads.
+ * </p>
+ */
+public class RpmFile implements Closeable {
+    static final int LEAD_SIZE = 96;
+
+    private static final int HEADER_INTRO_SIZE = 16;
+
+    private static final int INDEX_ENTRY_SIZE = 16;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    private final RpmLead lead;
+
+    private final ByteBuffer signatureHeaderData;
+
+    private final InputHeader<RpmSignatureTag> signatureHeader;
+
+    private final ByteBuffer payloadHeaderData;
+
+    private final InputHeader<RpmTag> payloadHeader;
+
+    private final long payloadStart;
+
+    private RpmFile(final Path path, final FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.size = channel.size();
+
+        this.lead = readLead(read(0, LEAD_SIZE));
+
+        long position = LEAD_SIZE;
+
+        this.signatureHeaderData = mapHeader(position, true);
+        this.signatureHeader = readHeader(this.signatureHeaderData, position);
+        position += this.signatureHeaderData.remaining();
+
+        this.payloadHeaderData = mapHeader(position, false);
+        this.payloadHeader = readHeader(this.payloadHeaderData, position);
+        position += this.payloadHeaderData.remaining();
+
+        this.payloadStart = position;
+    }
+
+    /**
+     * Open an RPM file
+     * <p>
+     * This reads the lead and both headers. The file stays open until the
+     * instance is closed.
+     * </p>
+     *
+     * @param path the file to open
+     * @return the opened file
+     * @throws IOException in case the file cannot be read, or is not a valid
+     *             RPM file
+     */
+    public static RpmFile open(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new RpmFile(path, channel);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Get the size of the file
+     *
+     * @return the size, in bytes
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    public RpmLead getLead() {
+        return this.lead;
+    }
+
+    /**
+     * Get the signature header
+     * <p>
+     * Start and length of the header are the byte range in the file, including
+     * the padding following the header.
+     * </p>
+     *
+     * @return the signature header
+     */
+    public InputHeader<RpmSignatureTag> getSignatureHeader() {
+        return this.signatureHeader;
+    }
+
+    /**
+     * Get the main header
+     * <p>
+     * Start and length of the header are the byte range in the file.
+     * </p>
+     *
+     * @return the main header
+     */
+    public InputHeader<RpmTag> getPayloadHeader() {
+        return this.payloadHeader;
+    }
+
+    /**
+     * Get the raw data of the signature header, including its padding
+     *
+     * @return a new read-only buffer, sharing the mapped content
+     */
+    public ByteBuffer getSignatureHeaderData() {
+        return this.signatureHeaderData.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the raw data of the main header
+     *
+     * @return a new read-only buffer, sharing the mapped content
+     */
+    public ByteBuffer getPayloadHeaderData() {
+        return this.payloadHeaderData.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the offset of the payload
+     *
+     * @return the position of the first byte of the payload in the file
+     */
+    public long getPayloadStart() {
+        return this.payloadStart;
+    }
+
+    /**
+     * Get the size of the payload, as stored in the file
+     *
+     * @return the size of the (compressed) payload, in bytes
+     */
+    public long getPayloadSize() {
+        return this.size - this.payloadStart;
+    }
+
+    /**
+     * Open a stream of the payload, as stored in the file
+     * <p>
+     * The stream uses its own channel, and is independent of this instance.
+     * The content is not decompressed.
+     * </p>
+     *
+     * @return a new stream, which must be closed by the caller
+     * @throws IOException in case the file cannot be opened
+     */
+    public InputStream openRawPayload() throws IOException {
+        final FileChannel payload = FileChannel.open(this.path, StandardOpenOption.READ);
+        try {
+            payload.position(this.payloadStart);
+        } catch (final IOException e) {
+            payload.close();
+            throw e;
+        }
+        return Channels.newInputStream(payload);
+    }
+
+    /**
+     * Transfer the payload, as stored in the file, to a channel
+     * <p>
+     * This uses {@link FileChannel#transferTo(long, long, WritableByteChannel)}
+     * and so may avoid copying the data through the Java heap.
+     * </p>
+     *
+     * @param target the channel to write to
+     * @return the number of bytes transferred
+     * @throws IOException in case of IO errors
+     */
+    public long transferRawPayloadTo(final WritableByteChannel target) throws IOException {
+        return transferTo(this.payloadStart, getPayloadSize(), target);
+    }
+
+    /**
+     * Transfer a range of the file to a channel
+     *
+     * @param position the start of the range
+     * @param count the number of bytes
+     * @param target the channel to write to
+     * @return the number of bytes transferred
+     * @throws IOException in case of IO errors
+     */
+    public long transferTo(final long position, final long count, final WritableByteChannel target) throws IOException {
+        if (position < 0 || count < 0 || position + count > this.size) {
+            throw new IllegalArgumentException(String.format("Range %s+%s is outside of file of %s bytes", position, count, this.size));
+        }
+
+        long transferred = 0;
+        while (transferred < count) {
+            final long n = this.channel.transferTo(position + transferred, count - transferred, target);
+            if (n <= 0) {
+                throw new EOFException(String.format("Failed to transfer data at position %s", position + transferred));
+            }
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    /**
+     * Read data from the file, starting at the given position
+     * <p>
+     * This doesn't change the state of the instance, and can be called
+     * concurrently.
+     * </p>
+     *
+     * @param target the buffer to read into
+     * @param position the position in the file
+     * @return the number of bytes read, or {@code -1} if the position is at
+     *         or after the end of the file
+     * @throws IOException in case of IO errors
+     */
+    public int read(final ByteBuffer target, final long position) throws IOException {
+        return this.channel.read(target, position);
+    }
+
+    private ByteBuffer read(final long position, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException(String.format("File corrupt: Unexpected end of file at position %s", position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Map a header section
+     *
+     * @param position the start of the header
+     * @param withPadding whether the header is padded to eight bytes
+     * @return the mapped header, including intro, index, store and padding
+     * @throws IOException in case of IO errors, or a corrupt header
+     */
+    private ByteBuffer mapHeader(final long position, final boolean withPadding) throws IOException {
+        final long length = headerLength(read(position, HEADER_INTRO_SIZE), position, withPadding, this.size);
+        return this.channel.map(MapMode.READ_ONLY, position, length);
+    }
+
+    /**
+     * Validate the intro of a header section and get its length
+     *
+     * @param intro the data, starting with the intro of the header
+     * @param position the start of the header
+     * @param withPadding whether the header is padded to eight bytes
+     * @param size the size of the data containing the header
+     * @return the length of the header, including intro, index, store and
+     *         padding
+     * @throws IOException in case of a corrupt header
+     */
+    static long headerLength(final ByteBuffer intro, final long position, final boolean withPadding, final long size) throws IOException {
+        if (intro.remaining() < HEADER_INTRO_SIZE) {
+            throw new EOFException(String.format("File corrupt: Unexpected end of file at position %s", position + intro.remaining()));
+        }
+
+        final ByteBuffer buffer = intro.duplicate();
+
+        final byte[] magic = new byte[3];
+        buffer.get(magic);
+
+        if (!Arrays.equals(magic, Rpms.HEADER_MAGIC)) {
+            throw new IOException(String.format("File corrupt: Expected entry magic %s, read: %s", Arrays.toString(Rpms.HEADER_MAGIC), Arrays.toString(magic)));
+        }
+
+        final byte version = buffer.get();
+
+        if (version != 1) {
+            throw new IOException(String.format("File corrupt: Invalid header entry version: %s (valid: 1)", version));
+        }
+
+        buffer.position(buffer.position() + 4); // skip RESERVED
+
+        final long indexCount = Integer.toUnsignedLong(buffer.getInt());
+        final long storeSize = Integer.toUnsignedLong(buffer.getInt());
+
+        long length = HEADER_INTRO_SIZE + indexCount * INDEX_ENTRY_SIZE + storeSize;
+        if (withPadding) {
+            length += Rpms.padding((int) storeSize);
+        }
+
+        if (length > Integer.MAX_VALUE || position + length > size) {
+            throw new IOException(String.format("File corrupt: Header at position %s with %s entries and %s bytes of data exceeds the file size of %s", position, indexCount, storeSize, size));
+        }
+
+        return length;
+    }
+
+    static <T extends RpmBaseTag> InputHeader<T> readHeader(final ByteBuffer data, final long start) throws IOException {
+        final ByteBuffer buffer = data.duplicate();
+        buffer.position(8);
+
+        final int indexCount = buffer.getInt();
+        final int storeSize = buffer.getInt();
+
+        final HeaderValue<?>[] entries = new HeaderValue<?>[indexCount];
+        for (int i = 0; i < indexCount; i++) {
+            entries[i] = new HeaderValue<>(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+        }
+
+        final ByteBuffer store = buffer.slice();
+        store.limit(storeSize);
+
+        try {
+            for (final HeaderValue<?> entry : entries) {
+                entry.fillFromStore(store);
+            }
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException(String.format("File corrupt: Invalid header entry in header at position %s", start), e);
+        }
+
+        return new InputHeader<>(entries, start, data.remaining());
+    }
+
+    static RpmLead readLead(final ByteBuffer data) throws IOException {
+        final byte[] magic = new byte[4];
+        data.get(magic);
+
+        if (!Arrays.equals(magic, Rpms.LEAD_MAGIC)) {
+            throw new IOException(String.format("File corrupt: Expected magic %s, read: %s", Arrays.toString(Rpms.LEAD_MAGIC), Arrays.toString(magic)));
+        }
+
+        final byte major = data.get();
+        final byte minor = data.get();
+
+        final short type = data.getShort();
+        final short arch = data.getShort();
+
+        final ByteBuffer nameBuffer = data.slice();
+        nameBuffer.limit(66); // NAME
+        for (int i = 0; i < 66; i++) {
+            if (nameBuffer.get(i) == 0) {
+                nameBuffer.limit(i);
+                break;
+            }
+        }
+
+        final String name = StandardCharsets.UTF_8.decode(nameBuffer).toString();
+        data.position(data.position() + 66);
+
+        final short os = data.getShort();
+
+        final int sigType = Short.toUnsignedInt(data.getShort());
+
+        return new RpmLead(major, minor, name, sigType, type, arch, os);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[RpmFile: %s]", this.path);
+    }
+}
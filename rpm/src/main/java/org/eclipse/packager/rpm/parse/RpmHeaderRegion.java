@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.parse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.eclipse.packager.rpm.RpmLead;
+import org.eclipse.packager.rpm.RpmSignatureTag;
+import org.eclipse.packager.rpm.RpmTag;
+
+/**
+ * The lead and the headers of an RPM file, read from a buffer
+ * <p>
+ * The buffer contains the beginning of an RPM file, up to the start of the
+ * payload. Like with {@link RpmFile}, values are decoded lazily, directly from
+ * the buffer, which must not be modified afterwards.
+ * </p>
+ */
+public class RpmHeaderRegion {
+    private final ByteBuffer data;
+
+    private final RpmLead lead;
+
+    private final InputHeader<RpmSignatureTag> signatureHeader;
+
+    private final InputHeader<RpmTag> payloadHeader;
+
+    private RpmHeaderRegion(final ByteBuffer data, final RpmLead lead, final InputHeader<RpmSignatureTag> signatureHeader, final InputHeader<RpmTag> payloadHeader) {
+        this.data = data;
+        this.lead = lead;
+        this.signatureHeader = signatureHeader;
+        this.payloadHeader = payloadHeader;
+    }
+
+    /**
+     * Read the lead and the headers from a buffer
+     *
+     * @param data the data, from the start of the file up to the start of the
+     *            payload, the position and limit of the buffer are not changed
+     * @return the region
+     * @throws IOException in case the data is not a valid header region
+     */
+    public static RpmHeaderRegion parse(final ByteBuffer data) throws IOException {
+        final ByteBuffer buffer = data.slice();
+        final int size = buffer.remaining();
+
+        if (size < RpmFile.LEAD_SIZE) {
+            throw new IOException(String.format("Header region corrupt: Region of %s bytes is too small for the lead", size));
+        }
+
+        final RpmLead lead = RpmFile.readLead(slice(buffer, 0, RpmFile.LEAD_SIZE));
+
+        int position = RpmFile.LEAD_SIZE;
+
+        final ByteBuffer signatureData = slice(buffer, position, (int) RpmFile.headerLength(slice(buffer, position, size - position), position, true, size));
+        final InputHeader<RpmSignatureTag> signatureHeader = RpmFile.readHeader(signatureData, position);
+        position += signatureData.remaining();
+
+        final ByteBuffer payloadData = slice(buffer, position, (int) RpmFile.headerLength(slice(buffer, position, size - position), position, false, size));
+        final InputHeader<RpmTag> payloadHeader = RpmFile.readHeader(payloadData, position);
+        position += payloadData.remaining();
+
+        if (position != size) {
+            throw new IOException(String.format("Header region corrupt: Headers end at position %s, but region has %s bytes", position, size));
+        }
+
+        return new RpmHeaderRegion(buffer, lead, signatureHeader, payloadHeader);
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final int position, final int length) throws IOException {
+        if (position > buffer.limit()) {
+            throw new IOException(String.format("Header region corrupt: Unexpected end of data at position %s", buffer.limit()));
+        }
+
+        final ByteBuffer result = buffer.duplicate();
+        result.position(position);
+        result.limit(position + length);
+        return result.slice();
+    }
+
+    public RpmLead getLead() {
+        return this.lead;
+    }
+
+    public InputHeader<RpmSignatureTag> getSignatureHeader() {
+        return this.signatureHeader;
+    }
+
+    public InputHeader<RpmTag> getPayloadHeader() {
+        return this.payloadHeader;
+    }
+
+    /**
+     * Get the offset of the payload in the original file
+     *
+     * @return the size of the region
+     */
+    public long getPayloadStart() {
+        return this.data.remaining();
+    }
+
+    /**
+     * Get the raw data of the region
+     *
+     * @return a new read-only buffer, sharing the content of the region
+     */
+    public ByteBuffer getData() {
+        return this.data.asReadOnlyBuffer();
+    }
+}
@@ -16,6 +16,7 @@ package org.eclipse.packager.rpm.parse;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
@@ -67,6 +68,22 @@ public class RpmInputStream extends InputStream {
     }
 
     protected void ensureInit() throws IOException {
+        ensureHeaders();
+
+        // set up content stream
+
+        if (this.payloadStream == null) {
+            this.payloadStream = setupPayloadStream();
+            this.cpioStream = new CpioArchiveInputStream(this.payloadStream, "UTF-8"); // we did ensure that we only support CPIO before
+        }
+    }
+
+    /**
+     * Read the lead and headers, without touching the payload
+     *
+     * @throws IOException in case of IO errors
+     */
+    protected void ensureHeaders() throws IOException {
         if (this.lead == null) {
             this.lead = readLead();
         }
@@ -78,13 +95,6 @@ public class RpmInputStream extends InputStream {
         if (this.payloadHeader == null) {
             this.payloadHeader = readHeader(false);
         }
-
-        // set up content stream
-
-        if (this.payloadStream == null) {
-            this.payloadStream = setupPayloadStream();
-            this.cpioStream = new CpioArchiveInputStream(this.payloadStream, "UTF-8"); // we did ensure that we only support CPIO before
-        }
     }
 
     private InputStream setupPayloadStream() throws IOException {
@@ -111,22 +121,39 @@ public class RpmInputStream extends InputStream {
         return coding.createProvider().createInputStream(this.in);
     }
 
+    /**
+     * Get the payload as CPIO stream
+     * <p>
+     * The payload stream is set up on first access of the payload, reading
+     * only the headers doesn't touch the payload.
+     * </p>
+     *
+     * @return the CPIO stream
+     * @throws UncheckedIOException in case the payload stream cannot be set up
+     */
     public CpioArchiveInputStream getCpioStream() {
+        if (this.cpioStream == null) {
+            try {
+                ensureInit();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
         return this.cpioStream;
     }
 
     public RpmLead getLead() throws IOException {
-        ensureInit();
+        ensureHeaders();
         return this.lead;
     }
 
     public InputHeader<RpmSignatureTag> getSignatureHeader() throws IOException {
-        ensureInit();
+        ensureHeaders();
         return this.signatureHeader;
     }
 
     public InputHeader<RpmTag> getPayloadHeader() throws IOException {
-        ensureInit();
+        ensureHeaders();
         return this.payloadHeader;
     }
 
@@ -265,6 +292,7 @@ public class RpmInputStream extends InputStream {
 
     @Override
     public int read(final byte[] b, final int off, final int len) throws IOException {
+        ensureInit();
         return this.payloadStream.read(b, off, len);
     }
 
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.parse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable view on an array of strings in a header store
+ * <p>
+ * Creating the view only locates the strings in the store. Each call to
+ * {@link #get(int)} decodes the requested string, nothing is cached.
+ * </p>
+ */
+final class StringArrayView extends AbstractList<String> implements RandomAccess {
+    private final ByteBuffer store;
+
+    /**
+     * The start of each string, followed by the end of the last string plus
+     * one
+     */
+    private final int[] offsets;
+
+    StringArrayView(final ByteBuffer store, final int index, final int count) {
+        this.store = store;
+        this.offsets = new int[count + 1];
+
+        int position = index;
+        for (int i = 0; i < count; i++) {
+            this.offsets[i] = position;
+            while (position < store.limit() && store.get(position) != 0) {
+                position++;
+            }
+            if (position >= store.limit()) {
+                throw new IllegalArgumentException("Corrupt tag entry. Null byte missing!");
+            }
+            position++; // skip null byte
+        }
+        this.offsets[count] = position;
+    }
+
+    @Override
+    public String get(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(String.format("Index %s out of bounds for length %s", index, size()));
+        }
+
+        final int start = this.offsets[index];
+        final int length = this.offsets[index + 1] - start - 1;
+
+        if (this.store.hasArray()) {
+            return new String(this.store.array(), this.store.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+
+        final ByteBuffer data = this.store.duplicate();
+        data.position(start);
+        data.limit(start + length);
+        return StandardCharsets.UTF_8.decode(data).toString();
+    }
+
+    @Override
+    public int size() {
+        return this.offsets.length - 1;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.signature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPrivateKey;
+import org.eclipse.packager.rpm.HashAlgorithm;
+
+/**
+ * Sign multiple existing RPM files with the same key
+ * <p>
+ * The private key is only extracted once, and is then used for signing all
+ * files. Files are signed in parallel, each one being streamed like with
+ * {@link RpmFileSignatureProcessor}. Files are either signed in place, or
+ * written to a target directory.
+ * </p>
+ * <p>
+ * Once configured, an instance can be used by multiple threads.
+ * </p>
+ */
+public class RpmBatchSigner {
+    /**
+     * The result of signing a single file
+     */
+    public static class Result {
+        private final Path path;
+
+        private final Path target;
+
+        private final Exception error;
+
+        private Result(final Path path, final Path target, final Exception error) {
+            this.path = path;
+            this.target = target;
+            this.error = error;
+        }
+
+        /**
+         * Get the file which got signed
+         *
+         * @return the source file
+         */
+        public Path getPath() {
+            return this.path;
+        }
+
+        /**
+         * Get the signed file
+         *
+         * @return the signed file, the same as {@link #getPath()} when signing
+         *         in place
+         */
+        public Path getTarget() {
+            return this.target;
+        }
+
+        /**
+         * Get the error which prevented signing the file
+         *
+         * @return the error, or {@code null} if the file was signed
+         */
+        public Exception getError() {
+            return this.error;
+        }
+
+        public boolean isSuccess() {
+            return this.error == null;
+        }
+
+        @Override
+        public String toString() {
+            if (this.error != null) {
+                return String.format("%s: ERROR (%s)", this.path, this.error.getMessage());
+            }
+            return String.format("%s: OK (%s)", this.path, this.target);
+        }
+    }
+
+    private final PGPPrivateKey privateKey;
+
+    private final HashAlgorithm hashAlgorithm;
+
+    private Path targetDirectory;
+
+    public RpmBatchSigner(final PGPPrivateKey privateKey, final HashAlgorithm hashAlgorithm) {
+        this.privateKey = Objects.requireNonNull(privateKey);
+        this.hashAlgorithm = Objects.requireNonNull(hashAlgorithm);
+    }
+
+    /**
+     * Create a new signer, extracting the private key
+     *
+     * @param privateKeyIn the encrypted, armored private key
+     * @param passphrase the passphrase to decrypt the private key
+     * @param hashAlgorithm the hash algorithm for the signatures
+     * @return the new signer
+     * @throws IOException in case the key cannot be read
+     * @throws PGPException in case the key cannot be extracted
+     */
+    public static RpmBatchSigner create(final InputStream privateKeyIn, final String passphrase, final HashAlgorithm hashAlgorithm) throws IOException, PGPException {
+        return new RpmBatchSigner(RpmFileSignatureProcessor.getPrivateKey(privateKeyIn, passphrase), hashAlgorithm);
+    }
+
+    /**
+     * Set the directory to write signed files to
+     * <p>
+     * If set, signed files are written to this directory, using the file name
+     * of the source file. Otherwise, or if the target is the source file
+     * itself, files get signed in place, see
+     * {@link RpmFileSignatureProcessor#performInPlace(Path, PGPPrivateKey, HashAlgorithm)}.
+     * </p>
+     *
+     * @param targetDirectory the directory, or {@code null} to sign in place
+     */
+    public void setTargetDirectory(final Path targetDirectory) {
+        this.targetDirectory = targetDirectory;
+    }
+
+    public Path getTargetDirectory() {
+        return this.targetDirectory;
+    }
+
+    /**
+     * Sign a single file
+     *
+     * @param file the file to sign
+     * @return the result, errors are reported as part of the result
+     */
+    public Result sign(final Path file) {
+        final Path target = this.targetDirectory != null ? this.targetDirectory.resolve(file.getFileName()) : file;
+        try {
+            if (this.targetDirectory == null || Files.exists(target) && Files.isSameFile(target, file)) {
+                RpmFileSignatureProcessor.performInPlace(file, this.privateKey, this.hashAlgorithm);
+                return new Result(file, file, null);
+            }
+            write(file, target.toAbsolutePath());
+            return new Result(file, target, null);
+        } catch (final IOException | RuntimeException e) {
+            return new Result(file, null, e);
+        }
+    }
+
+    /**
+     * Write the signed file to a temporary file next to the target, and move
+     * it into place once complete. An existing target is only replaced if
+     * signing succeeded, the permissions are taken from the source file.
+     */
+    private void write(final Path file, final Path target) throws IOException {
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            final PosixFileAttributeView view = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+            if (view != null) {
+                Files.setPosixFilePermissions(temp, view.readAttributes().permissions());
+            }
+
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                RpmFileSignatureProcessor.perform(file, this.privateKey, out, this.hashAlgorithm);
+                out.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (final IOException e2) {
+                e.addSuppressed(e2);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Sign multiple files in parallel
+     * <p>
+     * Files which cannot be signed are reported in the result, and don't stop
+     * signing the other files.
+     * </p>
+     *
+     * @param files the files to sign, when writing to a target directory, the
+     *            file names must be unique
+     * @param threads the maximum number of files to sign in parallel
+     * @return the results, in the order the files were provided
+     * @throws IOException in case the current thread got interrupted
+     */
+    public List<Result> signAll(final Collection<Path> files, final int threads) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException(String.format("Number of threads must be positive: %s", threads));
+        }
+
+        if (this.targetDirectory != null) {
+            final Set<Path> names = new HashSet<>(files.size());
+            for (final Path file : files) {
+                if (!names.add(file.getFileName())) {
+                    throw new IllegalArgumentException(String.format("Duplicate file name: %s", file.getFileName()));
+                }
+            }
+        }
+
+        if (files.isEmpty()) {
+            return List.of();
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, files.size()));
+        try {
+            final List<Future<Result>> futures = new ArrayList<>(files.size());
+            for (final Path file : files) {
+                futures.add(executor.submit(() -> sign(file)));
+            }
+
+            final List<Result> result = new ArrayList<>(files.size());
+            for (final Future<Result> future : futures) {
+                result.add(future.get());
+            }
+            return result;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Signing got interrupted");
+        } catch (final ExecutionException e) {
+            throw new IOException("Failed to sign files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -12,19 +12,24 @@
  ********************************************************************************/
 package org.eclipse.packager.rpm.signature;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
-import org.apache.commons.io.IOUtils;
 import org.bouncycastle.bcpg.ArmoredInputStream;
 import org.bouncycastle.openpgp.PGPException;
 import org.bouncycastle.openpgp.PGPPrivateKey;
@@ -35,18 +40,29 @@ import org.bouncycastle.openpgp.operator.bc.BcPBESecretKeyDecryptorBuilder;
 import org.bouncycastle.openpgp.operator.bc.BcPGPDigestCalculatorProvider;
 import org.eclipse.packager.rpm.HashAlgorithm;
 import org.eclipse.packager.rpm.RpmSignatureTag;
-import org.eclipse.packager.rpm.Rpms;
 import org.eclipse.packager.rpm.header.Header;
-import org.eclipse.packager.rpm.header.Headers;
 import org.eclipse.packager.rpm.info.RpmInformation;
 import org.eclipse.packager.rpm.info.RpmInformations;
-import org.eclipse.packager.rpm.parse.RpmInputStream;
+import org.eclipse.packager.rpm.parse.RpmFile;
 
 /**
  * Sign existing RPM file by calling
  * {@link #perform(Path, InputStream, String, OutputStream, HashAlgorithm)}
+ * or {@link #perform(Path, PGPPrivateKey, WritableByteChannel, HashAlgorithm)}.
+ * Use {@link #performInPlace(Path, PGPPrivateKey, HashAlgorithm)} for replacing
+ * the signature of the file itself.
  */
 public class RpmFileSignatureProcessor {
+    private static final long LEAD_LENGTH = 96;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Additional space in the signature header, when a file has to be
+     * rewritten by {@link #performInPlace(Path, PGPPrivateKey, HashAlgorithm)}
+     */
+    private static final int RESERVED_SPACE = 1024;
+
     private RpmFileSignatureProcessor() {
         // Hide default constructor because of the static context
     }
@@ -67,16 +83,6 @@ public class RpmFileSignatureProcessor {
     public static void perform(Path rpm, InputStream privateKeyIn, String passphrase, OutputStream out, HashAlgorithm hashAlgorithm)
         throws IOException, PGPException {
 
-        final long leadLength = 96;
-        long signatureHeaderStart;
-        long signatureHeaderLength;
-        long payloadHeaderStart;
-        long payloadHeaderLength;
-        long payloadStart;
-        long archiveSize;
-        long payloadSize;
-        byte[] signatureHeader;
-
         if (!Files.exists(rpm)) {
             throw new IOException("The file " + rpm.getFileName() + " does not exist");
         }
@@ -84,40 +90,147 @@ public class RpmFileSignatureProcessor {
         // Extract private key
         PGPPrivateKey privateKey = getPrivateKey(privateKeyIn, passphrase);
 
-        // Get the information of the RPM
-        try (RpmInputStream rpmIn = new RpmInputStream(new BufferedInputStream(Files.newInputStream(rpm)))) {
-            signatureHeaderStart = rpmIn.getSignatureHeader().getStart();
-            signatureHeaderLength = rpmIn.getSignatureHeader().getLength();
-            payloadHeaderStart = rpmIn.getPayloadHeader().getStart();
-            payloadHeaderLength = rpmIn.getPayloadHeader().getLength();
-            RpmInformation info = RpmInformations.makeInformation(rpmIn);
-            payloadStart = info.getHeaderEnd();
-            archiveSize = info.getArchiveSize();
+        // Write directly to the file, if possible
+        WritableByteChannel channel = out instanceof FileOutputStream ? ((FileOutputStream) out).getChannel() : Channels.newChannel(out);
+
+        perform(rpm, privateKey, channel, hashAlgorithm);
+    }
+
+    /**
+     * <p>
+     * Perform the signature of the given RPM file with the given private key.
+     * Write the result into the given {@link WritableByteChannel}
+     * </p>
+     * <p>
+     * The file is processed in chunks of a fixed size, so the memory required
+     * doesn't depend on the size of the RPM file. Data which is not changed is
+     * transferred directly from the RPM file to the target channel.
+     * </p>
+     *
+     * @param rpm : RPM file
+     * @param privateKey : private key, already extracted
+     * @param out : {@link WritableByteChannel} to write to, will not be closed
+     * @param hashAlgorithm : the hash algorithm for the signature
+     * @throws IOException
+     */
+    public static void perform(Path rpm, PGPPrivateKey privateKey, WritableByteChannel out, HashAlgorithm hashAlgorithm) throws IOException {
+        try (RpmFile file = RpmFile.open(rpm)) {
+            write(file, SignatureHeaders.render(getSignature(privateKey, file, hashAlgorithm)), out);
         }
+    }
 
-        if (signatureHeaderStart == 0L || signatureHeaderLength == 0L || payloadHeaderStart == 0L
-            || payloadHeaderLength == 0L || payloadStart == 0L || archiveSize == 0L) {
-            throw new IOException("Unable to read " + rpm.getFileName() + " informations.");
+    /**
+     * <p>
+     * Perform the signature of the given RPM file with the given private key,
+     * replacing the signature of the file.
+     * </p>
+     *
+     * @param rpm : RPM file, which will be modified
+     * @param privateKeyIn : encrypted private key as {@link InputStream}
+     * @param passphrase : passphrase to decrypt the private key
+     * @param hashAlgorithm : the hash algorithm for the signature
+     * @return {@code true} if the signature was replaced in place,
+     *         {@code false} if the file had to be rewritten
+     * @throws IOException
+     * @throws PGPException
+     * @see #performInPlace(Path, PGPPrivateKey, HashAlgorithm)
+     */
+    public static boolean performInPlace(Path rpm, InputStream privateKeyIn, String passphrase, HashAlgorithm hashAlgorithm) throws IOException, PGPException {
+        return performInPlace(rpm, getPrivateKey(privateKeyIn, passphrase), hashAlgorithm);
+    }
+
+    /**
+     * <p>
+     * Perform the signature of the given RPM file with the given private key,
+     * replacing the signature of the file.
+     * </p>
+     * <p>
+     * If the new signature header fits into the space of the existing one,
+     * only the signature header is overwritten, and synced to the storage
+     * device. Remaining space is filled up using
+     * {@link RpmSignatureTag#RESERVEDSPACE}. Otherwise, the file is written
+     * to a temporary file next to it, which then replaces the original file.
+     * In this case, additional space is reserved in the signature header, so
+     * that the next signature can be replaced in place.
+     * </p>
+     *
+     * @param rpm : RPM file, which will be modified
+     * @param privateKey : private key, already extracted
+     * @param hashAlgorithm : the hash algorithm for the signature
+     * @return {@code true} if the signature was replaced in place,
+     *         {@code false} if the file had to be rewritten
+     * @throws IOException
+     */
+    public static boolean performInPlace(Path rpm, PGPPrivateKey privateKey, HashAlgorithm hashAlgorithm) throws IOException {
+        final Optional<ByteBuffer> fitted;
+
+        try (RpmFile file = RpmFile.open(rpm)) {
+            Header<RpmSignatureTag> signature = getSignature(privateKey, file, hashAlgorithm);
+
+            fitted = SignatureHeaders.render(signature, (int) file.getSignatureHeader().getLength());
+
+            if (fitted.isEmpty()) {
+                // reserve space for future signatures, the same way RPM does
+                int size = SignatureHeaders.render(signature).remaining() + RESERVED_SPACE;
+                rewrite(file, SignatureHeaders.render(signature, size).orElseThrow(() -> new IOException("Failed to render signature header with reserved space")));
+            }
+        }
+
+        if (fitted.isEmpty()) {
+            return false;
         }
 
-        // Build the signature header by digest payload header + payload
-        try (FileChannel channelIn = FileChannel.open(rpm)) {
-            payloadSize = channelIn.size() - payloadStart;
-            channelIn.position(leadLength + signatureHeaderLength);
-            ByteBuffer payloadHeaderBuff = ByteBuffer.allocate((int) payloadHeaderLength);
-            IOUtils.readFully(channelIn, payloadHeaderBuff);
-            ByteBuffer payloadBuff = ByteBuffer.allocate((int) payloadSize);
-            IOUtils.readFully(channelIn, payloadBuff);
-            signatureHeader = getSignature(privateKey, payloadHeaderBuff, payloadBuff, archiveSize, hashAlgorithm);
+        try (FileChannel channel = FileChannel.open(rpm, StandardOpenOption.WRITE)) {
+            ByteBuffer data = fitted.get();
+            long position = LEAD_LENGTH;
+            while (data.hasRemaining()) {
+                position += channel.write(data, position);
+            }
+            channel.force(false);
         }
 
-        // Write to the OutputStream
-        try (InputStream in = Files.newInputStream(rpm)) {
-            IOUtils.copyLarge(in, out, 0, leadLength);
-            IOUtils.skip(in, signatureHeaderLength);
+        return true;
+    }
+
+    private static void rewrite(RpmFile file, ByteBuffer signatureHeader) throws IOException {
+        Path target = file.getPath().toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            PosixFileAttributeView view = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+            if (view != null) {
+                Files.setPosixFilePermissions(temp, view.readAttributes().permissions());
+            }
+
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                write(file, signatureHeader, out);
+                out.force(false);
+            }
+
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * <p>
+     * Write the RPM file with a new signature header. Data which is not
+     * changed is transferred directly from the RPM file.
+     * </p>
+     */
+    private static void write(RpmFile file, ByteBuffer signatureHeader, WritableByteChannel out) throws IOException {
+        // lead
+        file.transferTo(0, LEAD_LENGTH, out);
+
+        // new signature header
+        while (signatureHeader.hasRemaining()) {
             out.write(signatureHeader);
-            IOUtils.copy(in, out);
         }
+
+        // payload header and payload
+        long payloadHeaderStart = file.getPayloadHeader().getStart();
+        file.transferTo(payloadHeaderStart, file.getSize() - payloadHeaderStart, out);
     }
 
     /**
@@ -125,55 +238,53 @@ public class RpmFileSignatureProcessor {
      * Sign the payload with its header with the given private key, see <a href=
      * "https://rpm-software-management.github.io/rpm/manual/format.html">https://rpm-software-management.github.io/rpm/manual/format.html</a>
      * </p>
+     * <p>
+     * All processors are fed in turn, with the payload being read in
+     * chunks of {@link #BUFFER_SIZE}.
+     * </p>
      *
      * @param privateKey : private key already extracted
-     * @param payloadHeader : Payload's header as {@link ByteBuffer}
-     * @param payload : Payload as {@link ByteBuffer}
-     * @param archiveSize : archiveSize retrieved in {@link RpmInformation}
+     * @param file : the RPM file
      * @param hashAlgorithm
-     * @return the signature header as a bytes array
+     * @return the signature header
      * @throws IOException
      */
-    private static byte[] getSignature(PGPPrivateKey privateKey, ByteBuffer payloadHeader, ByteBuffer payload,
-        long archiveSize, HashAlgorithm hashAlgorithm) throws IOException {
-        Header<RpmSignatureTag> signatureHeader = new Header<>();
+    static Header<RpmSignatureTag> getSignature(PGPPrivateKey privateKey, RpmFile file, HashAlgorithm hashAlgorithm) throws IOException {
+        RpmInformation info = RpmInformations.makeInformation(file);
+        Long archiveSize = info.getArchiveSize();
+
+        if (archiveSize == null || archiveSize == 0L) {
+            throw new IOException("Unable to read " + file.getPath().getFileName() + " informations.");
+        }
+
         List<SignatureProcessor> signatureProcessors = getSignatureProcessors(privateKey, hashAlgorithm);
-        payloadHeader.flip();
-        payload.flip();
+
         for (SignatureProcessor processor : signatureProcessors) {
             processor.init(archiveSize);
-            processor.feedHeader(payloadHeader.slice());
-            processor.feedPayloadData(payload.slice());
-            processor.finish(signatureHeader);
+            processor.feedHeader(file.getPayloadHeaderData());
         }
-        ByteBuffer signatureBuf = Headers.render(signatureHeader.makeEntries(), true, Rpms.IMMUTABLE_TAG_SIGNATURE);
-        final int payloadSize = signatureBuf.remaining();
-        final int padding = Rpms.padding(payloadSize);
-        byte[] signature = safeReadBuffer(signatureBuf);
-        ByteArrayOutputStream result = new ByteArrayOutputStream();
-        result.write(signature);
-        if (padding > 0) {
-            result.write(safeReadBuffer(ByteBuffer.wrap(Rpms.EMPTY_128, 0, padding)));
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = file.getPayloadStart();
+        while (position < file.getSize()) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), file.getSize() - position));
+            int read = file.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of file at position " + position);
+            }
+            buffer.flip();
+            for (SignatureProcessor processor : signatureProcessors) {
+                processor.feedPayloadData(buffer.slice());
+            }
+            position += read;
         }
-        return result.toByteArray();
-    }
 
-    /**
-     * <p>
-     * Safe read (without buffer bytes) the given buffer and return it as a byte
-     * array
-     * </p>
-     *
-     * @param buf : the {@link ByteBuffer} to read
-     * @return a bytes array
-     * @throws IOException
-     */
-    private static byte[] safeReadBuffer(ByteBuffer buf) throws IOException {
-        ByteArrayOutputStream result = new ByteArrayOutputStream();
-        while (buf.hasRemaining()) {
-            result.write(buf.get());
+        Header<RpmSignatureTag> signatureHeader = new Header<>();
+        for (SignatureProcessor processor : signatureProcessors) {
+            processor.finish(signatureHeader);
         }
-        return result.toByteArray();
+        return signatureHeader;
     }
 
     /**
@@ -207,7 +318,7 @@ public class RpmFileSignatureProcessor {
      * @throws PGPException : if the private key cannot be extrated
      * @throws IOException : if error happened with InputStream
      */
-    private static PGPPrivateKey getPrivateKey(InputStream privateKeyIn, String passphrase)
+    static PGPPrivateKey getPrivateKey(InputStream privateKeyIn, String passphrase)
         throws PGPException, IOException {
         ArmoredInputStream armor = new ArmoredInputStream(privateKeyIn);
         PGPSecretKeyRing secretKeyRing = new BcPGPSecretKeyRing(armor);
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.signature;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import org.eclipse.packager.rpm.RpmSignatureTag;
+import org.eclipse.packager.rpm.Rpms;
+import org.eclipse.packager.rpm.header.Header;
+import org.eclipse.packager.rpm.header.Headers;
+
+/**
+ * Rendering of signature headers
+ */
+public final class SignatureHeaders {
+    private SignatureHeaders() {
+    }
+
+    /**
+     * Render a signature header
+     *
+     * @param header the signature header
+     * @return the rendered header, including the padding to the following
+     *         package header
+     */
+    public static ByteBuffer render(final Header<RpmSignatureTag> header) {
+        final ByteBuffer rendered = Headers.render(header.makeEntries(), true, Rpms.IMMUTABLE_TAG_SIGNATURE);
+
+        final int size = rendered.remaining();
+        final ByteBuffer result = ByteBuffer.allocate(size + Rpms.padding(size));
+        result.put(rendered);
+        result.rewind();
+        return result;
+    }
+
+    /**
+     * Render a signature header of a fixed size
+     * <p>
+     * The header gets filled up to the requested size using the
+     * {@link RpmSignatureTag#RESERVEDSPACE} tag, the same way RPM does. This
+     * allows replacing a signature header without moving the package header
+     * and payload data.
+     * </p>
+     *
+     * @param header the signature header, any existing reserved space entry
+     *            will be ignored
+     * @param size the size of the result, including the padding, must be a
+     *            multiple of eight
+     * @return the rendered header, or nothing if the header doesn't fit into
+     *         the requested size
+     */
+    public static Optional<ByteBuffer> render(final Header<RpmSignatureTag> header, final int size) {
+        if (size % 8 != 0) {
+            throw new IllegalArgumentException(String.format("Size must be a multiple of eight: %s", size));
+        }
+
+        final Header<RpmSignatureTag> result = new Header<>(header);
+        result.remove(RpmSignatureTag.RESERVEDSPACE.getValue());
+
+        ByteBuffer rendered = render(result);
+        if (rendered.remaining() == size) {
+            return Optional.of(rendered);
+        }
+
+        // the reserved space adds an index record, the alignment of the following entries may change the size a bit
+
+        int reserved = size - rendered.remaining() - 16;
+
+        for (int i = 0; i < 8 && reserved > 0; i++) {
+            result.putBlob(RpmSignatureTag.RESERVEDSPACE, new byte[reserved]);
+            rendered = render(result);
+
+            final int delta = rendered.remaining() - size;
+            if (delta == 0) {
+                return Optional.of(rendered);
+            }
+
+            reserved -= delta;
+        }
+
+        return Optional.empty();
+    }
+}
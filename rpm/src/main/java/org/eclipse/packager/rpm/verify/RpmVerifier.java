@@ -0,0 +1,649 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.verify;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+import org.apache.commons.compress.archivers.cpio.CpioArchiveInputStream;
+import org.bouncycastle.bcpg.ArmoredInputStream;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.bouncycastle.openpgp.PGPPublicKeyRing;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.PGPSignatureList;
+import org.bouncycastle.openpgp.bc.BcPGPObjectFactory;
+import org.bouncycastle.openpgp.bc.BcPGPPublicKeyRingCollection;
+import org.bouncycastle.openpgp.operator.bc.BcPGPContentVerifierBuilderProvider;
+import org.eclipse.packager.rpm.RpmSignatureTag;
+import org.eclipse.packager.rpm.RpmTag;
+import org.eclipse.packager.rpm.Rpms;
+import org.eclipse.packager.rpm.build.DigestAlgorithm;
+import org.eclipse.packager.rpm.coding.PayloadCoding;
+import org.eclipse.packager.rpm.info.RpmInformations;
+import org.eclipse.packager.rpm.parse.InputHeader;
+import org.eclipse.packager.rpm.parse.RpmFile;
+import org.eclipse.packager.rpm.verify.Verification.Check;
+import org.eclipse.packager.rpm.verify.Verification.Status;
+
+/**
+ * Verify the digests and signatures of RPM files
+ * <p>
+ * Each file is read only once. The main header is fed to all header digests
+ * and signatures, the payload is fed, as it is read, to all payload digests
+ * and signatures, and is decompressed at the same time for checking the
+ * uncompressed payload digest and the digests of all files.
+ * </p>
+ * <p>
+ * The following values are checked, if present: {@link RpmSignatureTag#SHA1HEADER},
+ * {@link RpmSignatureTag#SHA256HEADER}, {@link RpmSignatureTag#RSAHEADER},
+ * {@link RpmSignatureTag#MD5}, {@link RpmSignatureTag#PGP},
+ * {@link RpmTag#PAYLOAD_DIGEST}, {@link RpmTag#PAYLOAD_DIGEST_ALT} and
+ * {@link RpmTag#FILE_DIGESTS}. Signatures can only be checked if the public
+ * key was added to the verifier before.
+ * </p>
+ * <p>
+ * Once configured, an instance can be used by multiple threads.
+ * </p>
+ */
+public class RpmVerifier {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Map<Long, PGPPublicKey> keys = new HashMap<>();
+
+    /**
+     * Add a public key for checking signatures
+     *
+     * @param key the key to add
+     */
+    public void addPublicKey(final PGPPublicKey key) {
+        this.keys.put(key.getKeyID(), key);
+    }
+
+    /**
+     * Add all public keys of a key ring collection
+     *
+     * @param in the stream to read from, either armored or binary
+     * @throws IOException in case the keys cannot be read
+     */
+    public void addPublicKeys(final InputStream in) throws IOException {
+        final BcPGPPublicKeyRingCollection rings;
+        try {
+            rings = new BcPGPPublicKeyRingCollection(decoderStream(in));
+        } catch (final PGPException e) {
+            throw new IOException("Failed to read public keys", e);
+        }
+
+        for (final PGPPublicKeyRing ring : rings) {
+            for (final PGPPublicKey key : ring) {
+                addPublicKey(key);
+            }
+        }
+    }
+
+    /**
+     * Detect armored data
+     * <p>
+     * Binary packets always start with a byte having the highest bit set.
+     * </p>
+     */
+    private static InputStream decoderStream(final InputStream in) throws IOException {
+        final InputStream buffered = new BufferedInputStream(in);
+        buffered.mark(1);
+        final int first = buffered.read();
+        buffered.reset();
+
+        if (first >= 0 && (first & 0x80) == 0) {
+            return new ArmoredInputStream(buffered);
+        }
+        return buffered;
+    }
+
+    /**
+     * Verify a single file
+     *
+     * @param path the file to verify
+     * @return the result of the verification
+     * @throws IOException in case the file cannot be read, or is not a valid
+     *             RPM file
+     */
+    public Verification verify(final Path path) throws IOException {
+        try (RpmFile file = RpmFile.open(path)) {
+            return new Verification(path, new Pass(file).run());
+        }
+    }
+
+    /**
+     * Verify all RPM files of a directory, including sub-directories
+     *
+     * @param directory the directory to scan for files ending with
+     *            {@code .rpm}
+     * @param threads the maximum number of files to verify in parallel
+     * @return the report, with the files in the order of their paths
+     * @throws IOException in case the directory cannot be scanned
+     * @see #verifyAll(Collection, int)
+     */
+    public VerificationReport verifyAll(final Path directory, final int threads) throws IOException {
+        final List<Path> files;
+        try (Stream<Path> stream = Files.walk(directory)) {
+            files = stream
+                    .filter(file -> file.getFileName().toString().endsWith(".rpm"))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        return verifyAll(files, threads);
+    }
+
+    /**
+     * Verify multiple files in parallel
+     * <p>
+     * Files which cannot be read are reported as failed verification, and
+     * don't stop the verification of the other files.
+     * </p>
+     *
+     * @param files the files to verify
+     * @param threads the maximum number of files to verify in parallel
+     * @return the report, with the files in the order they were provided
+     * @throws IOException in case the current thread got interrupted
+     */
+    public VerificationReport verifyAll(final Collection<Path> files, final int threads) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException(String.format("Number of threads must be positive: %s", threads));
+        }
+
+        if (files.isEmpty()) {
+            return new VerificationReport(List.of());
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, files.size()));
+        try {
+            final List<Future<Verification>> futures = new ArrayList<>(files.size());
+            for (final Path file : files) {
+                futures.add(executor.submit(() -> verifyOrFail(file)));
+            }
+
+            final List<Verification> result = new ArrayList<>(files.size());
+            for (final Future<Verification> future : futures) {
+                result.add(future.get());
+            }
+            return new VerificationReport(result);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Verification got interrupted");
+        } catch (final ExecutionException e) {
+            throw new IOException("Failed to verify files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Verification verifyOrFail(final Path file) {
+        try {
+            return verify(file);
+        } catch (final IOException | RuntimeException e) {
+            return new Verification(file, e);
+        }
+    }
+
+    /**
+     * Receives the data of a section of the file
+     */
+    @FunctionalInterface
+    private interface Update {
+        void update(byte[] data, int offset, int length);
+    }
+
+    /**
+     * A single check, fed with data and evaluated at the end
+     */
+    private interface Target extends Update {
+        Check finish();
+    }
+
+    private static final class DigestTarget implements Target {
+        private final String name;
+
+        private final MessageDigest digest;
+
+        private final String expected;
+
+        private DigestTarget(final String name, final MessageDigest digest, final String expected) {
+            this.name = name;
+            this.digest = digest;
+            this.expected = expected.toLowerCase(Locale.ROOT);
+        }
+
+        @Override
+        public void update(final byte[] data, final int offset, final int length) {
+            this.digest.update(data, offset, length);
+        }
+
+        @Override
+        public Check finish() {
+            return compare(this.name, this.expected, this.digest.digest());
+        }
+    }
+
+    private static final class SignatureTarget implements Target {
+        private final String name;
+
+        private final PGPSignature signature;
+
+        private SignatureTarget(final String name, final PGPSignature signature) {
+            this.name = name;
+            this.signature = signature;
+        }
+
+        @Override
+        public void update(final byte[] data, final int offset, final int length) {
+            this.signature.update(data, offset, length);
+        }
+
+        @Override
+        public Check finish() {
+            try {
+                if (this.signature.verify()) {
+                    return new Check(this.name, Status.VALID, String.format("key ID %016x", this.signature.getKeyID()));
+                }
+                return new Check(this.name, Status.INVALID, String.format("Signature mismatch for key ID %016x", this.signature.getKeyID()));
+            } catch (final PGPException e) {
+                return new Check(this.name, Status.INVALID, String.format("Failed to verify signature: %s", e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * A target with a result known upfront
+     */
+    private static final class FixedTarget implements Target {
+        private final Check check;
+
+        private FixedTarget(final Check check) {
+            this.check = check;
+        }
+
+        @Override
+        public void update(final byte[] data, final int offset, final int length) {
+        }
+
+        @Override
+        public Check finish() {
+            return this.check;
+        }
+    }
+
+    /**
+     * Updates all targets with the data read from a stream
+     */
+    private static final class UpdatingInputStream extends FilterInputStream {
+        private final List<? extends Update> targets;
+
+        private UpdatingInputStream(final InputStream in, final List<? extends Update> targets) {
+            super(in);
+            this.targets = targets;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] data = new byte[1];
+            return read(data, 0, 1) < 0 ? -1 : data[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int result = super.read(b, off, len);
+            if (result > 0) {
+                for (final Update target : this.targets) {
+                    target.update(b, off, result);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            // skipped data must be processed as well
+            final byte[] buffer = new byte[(int) Math.min(n, BUFFER_SIZE)];
+            long skipped = 0;
+            while (skipped < n) {
+                final int rc = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+                if (rc < 0) {
+                    break;
+                }
+                skipped += rc;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        void drain() throws IOException {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (read(buffer, 0, buffer.length) >= 0) {
+                // only update the targets
+            }
+        }
+    }
+
+    /**
+     * A single verification pass over a file
+     */
+    private final class Pass {
+        private final RpmFile file;
+
+        private final InputHeader<RpmSignatureTag> signature;
+
+        private final InputHeader<RpmTag> header;
+
+        /**
+         * All targets, in the order of the results
+         */
+        private final List<Target> targets = new ArrayList<>();
+
+        private final List<Target> headerTargets = new ArrayList<>();
+
+        private final List<Target> payloadTargets = new ArrayList<>();
+
+        private final List<Target> archiveTargets = new ArrayList<>();
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private Pass(final RpmFile file) {
+            this.file = file;
+            this.signature = file.getSignatureHeader();
+            this.header = file.getPayloadHeader();
+        }
+
+        List<Check> run() throws IOException {
+            addDigest(RpmSignatureTag.SHA1HEADER.name(), "SHA-1", this.signature.getString(RpmSignatureTag.SHA1HEADER), true, false);
+            addDigest(RpmSignatureTag.SHA256HEADER.name(), "SHA-256", this.signature.getString(RpmSignatureTag.SHA256HEADER), true, false);
+            addSignature(RpmSignatureTag.RSAHEADER, true, false);
+
+            final byte[] md5 = this.signature.getByteArray(RpmSignatureTag.MD5);
+            addDigest(RpmSignatureTag.MD5.name(), "MD5", md5 != null ? Rpms.toHex(md5) : null, true, true);
+            addSignature(RpmSignatureTag.PGP, true, true);
+
+            final Integer payloadAlgorithm = this.header.getInteger(RpmTag.PAYLOAD_DIGEST_ALGO);
+            final String algorithm = (payloadAlgorithm != null ? DigestAlgorithm.fromTag(payloadAlgorithm) : DigestAlgorithm.SHA256).getAlgorithm();
+            addDigest(RpmTag.PAYLOAD_DIGEST.name(), algorithm, first(this.header.getStringArrayView(RpmTag.PAYLOAD_DIGEST)), false, true);
+
+            final Target alt = digestTarget(RpmTag.PAYLOAD_DIGEST_ALT.name(), algorithm, first(this.header.getStringArrayView(RpmTag.PAYLOAD_DIGEST_ALT)));
+            if (alt != null) {
+                this.targets.add(alt);
+                this.archiveTargets.add(alt);
+            }
+
+            // header
+
+            final ByteBuffer headerData = this.file.getPayloadHeaderData();
+            while (headerData.hasRemaining()) {
+                final int length = Math.min(headerData.remaining(), this.buffer.length);
+                headerData.get(this.buffer, 0, length);
+                for (final Target target : this.headerTargets) {
+                    target.update(this.buffer, 0, length);
+                }
+            }
+
+            // file table, validated up front, so that a broken table is not reported as a payload failure
+
+            Map<String, Integer> fileIndex;
+            Check fileTableCheck = null;
+            try {
+                fileIndex = indexFiles();
+            } catch (final IOException e) {
+                fileIndex = null;
+                fileTableCheck = new Check(RpmTag.FILE_DIGESTS.name(), Status.INVALID, e.getMessage());
+            }
+
+            // payload
+
+            final String payloadCoding = this.header.getString(RpmTag.PAYLOAD_CODING);
+            if (payloadCoding == null) {
+                throw new IOException("Payload coding must be a single string");
+            }
+            final PayloadCoding coding = PayloadCoding.fromValue(payloadCoding).orElseThrow(() -> new IOException(String.format("Unknown payload coding: '%s'", payloadCoding)));
+
+            List<Check> fileChecks;
+            try (UpdatingInputStream payload = new UpdatingInputStream(this.file.openRawPayload(), this.payloadTargets)) {
+                // the decoder is not closed, as this would close the payload stream before it is drained
+                try {
+                    final UpdatingInputStream archive = new UpdatingInputStream(coding.createProvider().createInputStream(payload), this.archiveTargets);
+                    fileChecks = verifyFiles(new CpioArchiveInputStream(archive, "UTF-8"), fileIndex);
+
+                    // consume any remaining data, after the end of the archive
+                    archive.drain();
+                } catch (final IOException e) {
+                    fileChecks = List.of(new Check("PAYLOAD", Status.INVALID, String.format("Failed to decode payload: %s", e.getMessage())));
+                }
+
+                // the compressed payload digests still need the full payload
+                payload.drain();
+            }
+
+            final List<Check> result = new ArrayList<>(this.targets.size() + fileChecks.size());
+            for (final Target target : this.targets) {
+                result.add(target.finish());
+            }
+            result.addAll(fileChecks);
+            if (fileTableCheck != null) {
+                result.add(fileTableCheck);
+            }
+            return result;
+        }
+
+        private void addDigest(final String name, final String algorithm, final String expected, final boolean header, final boolean payload) throws IOException {
+            final Target target = digestTarget(name, algorithm, expected);
+            if (target != null) {
+                addTarget(target, header, payload);
+            }
+        }
+
+        private void addTarget(final Target target, final boolean header, final boolean payload) {
+            this.targets.add(target);
+            if (header) {
+                this.headerTargets.add(target);
+            }
+            if (payload) {
+                this.payloadTargets.add(target);
+            }
+        }
+
+        private void addSignature(final RpmSignatureTag tag, final boolean header, final boolean payload) {
+            final byte[] data = this.signature.getByteArray(tag);
+            if (data == null) {
+                return;
+            }
+
+            final PGPSignature signature;
+            try {
+                signature = parseSignature(data);
+            } catch (final IOException e) {
+                this.targets.add(new FixedTarget(new Check(tag.name(), Status.INVALID, String.format("Failed to parse signature: %s", e.getMessage()))));
+                return;
+            }
+
+            final PGPPublicKey key = RpmVerifier.this.keys.get(signature.getKeyID());
+            if (key == null) {
+                this.targets.add(new FixedTarget(new Check(tag.name(), Status.NOT_CHECKED, String.format("Public key %016x is not available", signature.getKeyID()))));
+                return;
+            }
+
+            try {
+                signature.init(new BcPGPContentVerifierBuilderProvider(), key);
+            } catch (final PGPException e) {
+                this.targets.add(new FixedTarget(new Check(tag.name(), Status.INVALID, String.format("Failed to initialize signature: %s", e.getMessage()))));
+                return;
+            }
+
+            addTarget(new SignatureTarget(tag.name(), signature), header, payload);
+        }
+
+        /**
+         * Index the files of the header by name
+         *
+         * @return the index of each file, or {@code null} if the header has no
+         *         files or no file digests
+         * @throws IOException if the file table of the header is invalid
+         */
+        private Map<String, Integer> indexFiles() throws IOException {
+            final List<String> basenames = this.header.getStringArrayView(RpmTag.BASENAMES);
+            final List<String> digests = this.header.getStringArrayView(RpmTag.FILE_DIGESTS);
+
+            if (basenames == null || digests == null) {
+                return null;
+            }
+
+            final List<String> dirnames;
+            final int[] dirIndexes;
+            try {
+                dirnames = this.header.getStringArrayView(RpmTag.DIRNAMES);
+                dirIndexes = this.header.getIntArray(RpmTag.DIR_INDEXES);
+            } catch (final IllegalArgumentException e) {
+                throw new IOException(String.format("Invalid file names in header: %s", e.getMessage()));
+            }
+
+            if (dirnames == null || dirIndexes == null || dirIndexes.length != basenames.size()) {
+                throw new IOException("Invalid file names in header");
+            }
+            if (digests.size() != basenames.size()) {
+                throw new IOException(String.format("Invalid number of file digests in header - expected: %s, actual: %s", basenames.size(), digests.size()));
+            }
+
+            final Map<String, Integer> index = new HashMap<>(basenames.size() * 2);
+            for (int i = 0; i < basenames.size(); i++) {
+                if (dirIndexes[i] < 0 || dirIndexes[i] >= dirnames.size()) {
+                    throw new IOException(String.format("Invalid directory index of file %s in header: %s", i, dirIndexes[i]));
+                }
+                index.put(dirnames.get(dirIndexes[i]) + basenames.get(i), i);
+            }
+            return index;
+        }
+
+        private List<Check> verifyFiles(final CpioArchiveInputStream cpio, final Map<String, Integer> index) throws IOException {
+            if (index == null) {
+                // still read the archive, for the payload digests
+                while (cpio.getNextEntry() != null) {
+                    // the content is skipped, which still reads the data
+                }
+                return List.of();
+            }
+
+            final List<String> digests = this.header.getStringArrayView(RpmTag.FILE_DIGESTS);
+
+            final Integer fileAlgorithm = this.header.getInteger(RpmTag.FILE_DIGESTALGO);
+            final DigestAlgorithm algorithm = fileAlgorithm != null ? DigestAlgorithm.fromTag(fileAlgorithm) : DigestAlgorithm.MD5;
+
+            final List<Check> failures = new ArrayList<>();
+            int verified = 0;
+
+            CpioArchiveEntry entry;
+            while ((entry = cpio.getNextEntry()) != null) {
+                if (!entry.isRegularFile()) {
+                    continue;
+                }
+
+                final String name = RpmInformations.normalize(entry.getName());
+                final Integer i = index.get(name);
+                if (i == null) {
+                    failures.add(new Check(RpmTag.FILE_DIGESTS.name(), Status.INVALID, String.format("File '%s' is not part of the header", name)));
+                    continue;
+                }
+
+                final String expected = digests.get(i);
+                if (expected.isEmpty() || (entry.getSize() == 0 && entry.getNumberOfLinks() > 1)) {
+                    // no digest, or a hard link with the content stored in another entry
+                    continue;
+                }
+
+                final MessageDigest digest = createDigest(algorithm.getAlgorithm());
+                int rc;
+                while ((rc = cpio.read(this.buffer)) >= 0) {
+                    digest.update(this.buffer, 0, rc);
+                }
+
+                final Check check = compare(RpmTag.FILE_DIGESTS.name(), expected.toLowerCase(Locale.ROOT), digest.digest());
+                if (check.getStatus() == Status.VALID) {
+                    verified++;
+                } else {
+                    failures.add(new Check(check.getName(), check.getStatus(), String.format("File '%s' - %s", name, check.getMessage())));
+                }
+            }
+
+            if (failures.isEmpty() && verified > 0) {
+                return List.of(new Check(RpmTag.FILE_DIGESTS.name(), Status.VALID, String.format("%s files", verified)));
+            }
+            return failures;
+        }
+    }
+
+    private static Target digestTarget(final String name, final String algorithm, final String expected) throws IOException {
+        if (expected == null || expected.isEmpty()) {
+            return null;
+        }
+        return new DigestTarget(name, createDigest(algorithm), expected);
+    }
+
+    private static MessageDigest createDigest(final String algorithm) throws IOException {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(String.format("Digest algorithm '%s' is not supported", algorithm), e);
+        }
+    }
+
+    private static Check compare(final String name, final String expected, final byte[] digest) {
+        final String actual = Rpms.toHex(digest).toLowerCase(Locale.ROOT);
+        if (actual.equals(expected)) {
+            return new Check(name, Status.VALID, null);
+        }
+        return new Check(name, Status.INVALID, String.format("expected: %s, actual: %s", expected, actual));
+    }
+
+    private static PGPSignature parseSignature(final byte[] data) throws IOException {
+        final Object object = new BcPGPObjectFactory(data).nextObject();
+        if (object instanceof PGPSignatureList && !((PGPSignatureList) object).isEmpty()) {
+            return ((PGPSignatureList) object).get(0);
+        }
+        throw new IOException("Data does not contain a signature");
+    }
+
+    private static String first(final List<String> values) {
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.verify;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * The result of verifying a single RPM file
+ */
+public class Verification {
+    public enum Status {
+        /**
+         * The value matches the content of the file
+         */
+        VALID,
+        /**
+         * The value does not match the content of the file
+         */
+        INVALID,
+        /**
+         * The value could not be checked, e.g. because the public key is not
+         * available
+         */
+        NOT_CHECKED
+    }
+
+    /**
+     * The result of checking a single value
+     */
+    public static class Check {
+        private final String name;
+
+        private final Status status;
+
+        private final String message;
+
+        public Check(final String name, final Status status, final String message) {
+            this.name = Objects.requireNonNull(name);
+            this.status = Objects.requireNonNull(status);
+            this.message = message;
+        }
+
+        /**
+         * Get the name of the check
+         *
+         * @return the name of the tag which got checked
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        public Status getStatus() {
+            return this.status;
+        }
+
+        /**
+         * Get the details of the result
+         *
+         * @return the message, may be {@code null}
+         */
+        public String getMessage() {
+            return this.message;
+        }
+
+        @Override
+        public String toString() {
+            if (this.message == null) {
+                return String.format("%s: %s", this.name, this.status);
+            }
+            return String.format("%s: %s (%s)", this.name, this.status, this.message);
+        }
+    }
+
+    private final Path path;
+
+    private final List<Check> checks;
+
+    private final Exception error;
+
+    public Verification(final Path path, final List<Check> checks) {
+        this(path, checks, null);
+    }
+
+    public Verification(final Path path, final Exception error) {
+        this(path, List.of(), Objects.requireNonNull(error));
+    }
+
+    private Verification(final Path path, final List<Check> checks, final Exception error) {
+        this.path = Objects.requireNonNull(path);
+        this.checks = List.copyOf(checks);
+        this.error = error;
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Get all checks, in the order they were performed
+     *
+     * @return an unmodifiable list of checks
+     */
+    public List<Check> getChecks() {
+        return this.checks;
+    }
+
+    /**
+     * Get the checks which failed
+     *
+     * @return an unmodifiable list of checks with status
+     *         {@link Status#INVALID}
+     */
+    public List<Check> getFailures() {
+        return this.checks.stream().filter(check -> check.getStatus() == Status.INVALID).collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Get the error which prevented the verification
+     *
+     * @return the error, or {@code null} if the file could be read
+     */
+    public Exception getError() {
+        return this.error;
+    }
+
+    /**
+     * Check if the file is valid
+     * <p>
+     * A file is valid if it could be read, and none of the checks failed.
+     * Checks which could not be performed don't make a file invalid.
+     * </p>
+     *
+     * @return {@code true} if the file is valid
+     */
+    public boolean isValid() {
+        return this.error == null && this.checks.stream().noneMatch(check -> check.getStatus() == Status.INVALID);
+    }
+
+    @Override
+    public String toString() {
+        if (this.error != null) {
+            return String.format("%s: ERROR (%s)", this.path, this.error.getMessage());
+        }
+        return String.format("%s: %s %s", this.path, isValid() ? "OK" : "FAILED", this.checks);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.verify;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The result of verifying multiple RPM files
+ */
+public class VerificationReport {
+    private final List<Verification> verifications;
+
+    public VerificationReport(final List<Verification> verifications) {
+        this.verifications = List.copyOf(verifications);
+    }
+
+    /**
+     * Get the results of all files
+     *
+     * @return an unmodifiable list, in the order of the files
+     */
+    public List<Verification> getVerifications() {
+        return this.verifications;
+    }
+
+    /**
+     * Get the results of all files which are not valid
+     *
+     * @return an unmodifiable list, in the order of the files
+     */
+    public List<Verification> getFailures() {
+        return this.verifications.stream().filter(verification -> !verification.isValid()).collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Check if all files are valid
+     *
+     * @return {@code true} if all files are valid
+     */
+    public boolean isValid() {
+        return this.verifications.stream().allMatch(Verification::isValid);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[VerificationReport: %s files, %s failed]", this.verifications.size(), getFailures().size());
+    }
+}
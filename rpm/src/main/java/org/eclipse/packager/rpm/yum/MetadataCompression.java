@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.yum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.packager.rpm.coding.ParallelGzipOutputStream;
+import org.eclipse.packager.rpm.coding.PayloadCoding;
+
+/**
+ * Compression of the metadata and database files of a repository
+ */
+public enum MetadataCompression {
+    GZIP(PayloadCoding.GZIP, "gz", "application/x-gzip"),
+    BZIP2(PayloadCoding.BZIP2, "bz2", "application/x-bzip2"),
+    XZ(PayloadCoding.XZ, "xz", "application/x-xz"),
+    ZSTD(PayloadCoding.ZSTD, "zst", "application/zstd");
+
+    private final PayloadCoding coding;
+
+    private final String extension;
+
+    private final String mimeType;
+
+    MetadataCompression(final PayloadCoding coding, final String extension, final String mimeType) {
+        this.coding = coding;
+        this.extension = extension;
+        this.mimeType = mimeType;
+    }
+
+    public PayloadCoding getCoding() {
+        return this.coding;
+    }
+
+    public String getExtension() {
+        return this.extension;
+    }
+
+    public String getMimeType() {
+        return this.mimeType;
+    }
+
+    public OutputStream createOutputStream(final OutputStream out) throws IOException {
+        return createOutputStream(out, null);
+    }
+
+    /**
+     * Create a compressing output stream
+     * <p>
+     * gzip keeps using the default deflate level, all other codings use the
+     * defaults of their {@link PayloadCoding} provider.
+     * </p>
+     *
+     * @param out the stream to write the compressed data to
+     * @param workers the number of compression threads, zero for one per
+     *            available processor, {@code null} for single threaded
+     *            compression
+     * @return the compressing stream
+     * @throws IOException if the stream cannot be created
+     */
+    public OutputStream createOutputStream(final OutputStream out, final Integer workers) throws IOException {
+        if (this == GZIP) {
+            if (workers != null) {
+                return new ParallelGzipOutputStream(out, Deflater.DEFAULT_COMPRESSION, workers);
+            }
+            return new GZIPOutputStream(out);
+        }
+
+        return this.coding.createProvider().createOutputStream(out, workers != null ? Optional.of("T" + workers) : Optional.empty());
+    }
+
+    public InputStream createInputStream(final InputStream in) throws IOException {
+        return this.coding.createProvider().createInputStream(in);
+    }
+
+    /**
+     * Find the compression by the extension of a file name
+     *
+     * @param fileName the file name
+     * @return the compression, or nothing if the file name does not carry a
+     *         known extension
+     */
+    public static Optional<MetadataCompression> fromFileName(final String fileName) {
+        for (final MetadataCompression compression : values()) {
+            if (fileName.endsWith("." + compression.extension)) {
+                return Optional.of(compression);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,505 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.yum;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Read the metadata of an existing repository
+ * <p>
+ * The package entries of the primary document are read once, to find out
+ * which packages can be reused. Afterwards, the primary, filelists and other
+ * documents are read in parallel, package by package, copying or skipping
+ * entries. This relies on all three documents listing the packages in the
+ * same order, which is checked using the package IDs.
+ * </p>
+ */
+class PreviousRepository implements Closeable {
+    static final String REPOMD = "repodata/repomd.xml";
+
+    /**
+     * A package entry of the primary document
+     */
+    static class Package {
+        private final String location;
+
+        private final String pkgid;
+
+        private final String checksumType;
+
+        private final long size;
+
+        private final long fileTime;
+
+        Package(final String location, final String pkgid, final String checksumType, final long size, final long fileTime) {
+            this.location = location;
+            this.pkgid = pkgid;
+            this.checksumType = checksumType;
+            this.size = size;
+            this.fileTime = fileTime;
+        }
+
+        public String getLocation() {
+            return this.location;
+        }
+
+        public String getPkgid() {
+            return this.pkgid;
+        }
+
+        public String getChecksumType() {
+            return this.checksumType;
+        }
+
+        public long getSize() {
+            return this.size;
+        }
+
+        /**
+         * @return the file timestamp, in seconds since the epoch
+         */
+        public long getFileTime() {
+            return this.fileTime;
+        }
+    }
+
+    private final XMLInputFactory inputFactory;
+
+    private final Path repository;
+
+    private final Map<String, String> locations;
+
+    private List<Package> packages;
+
+    private DocumentReader primary;
+
+    private DocumentReader filelists;
+
+    private DocumentReader other;
+
+    private int index;
+
+    private PreviousRepository(final XMLInputFactory inputFactory, final Path repository, final Map<String, String> locations) {
+        this.inputFactory = inputFactory;
+        this.repository = repository;
+        this.locations = locations;
+    }
+
+    /**
+     * Open an existing repository
+     *
+     * @param repository the base directory of the repository, containing the
+     *            {@code repodata} directory
+     * @return the repository
+     * @throws IOException if the {@code repomd.xml} file cannot be read
+     */
+    static PreviousRepository open(final Path repository) throws IOException {
+        final XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        final Map<String, String> locations = new HashMap<>();
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(repository.resolve(REPOMD)))) {
+            final XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+            try {
+                String type = null;
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    if ("data".equals(reader.getLocalName())) {
+                        type = reader.getAttributeValue(null, "type");
+                    } else if ("location".equals(reader.getLocalName()) && type != null) {
+                        locations.put(type, reader.getAttributeValue(null, "href"));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException e) {
+            throw new IOException(String.format("Failed to parse %s", REPOMD), e);
+        }
+
+        for (final String type : new String[] { "primary", "filelists", "other" }) {
+            if (locations.get(type) == null) {
+                throw new IOException(String.format("%s has no location for '%s' data", REPOMD, type));
+            }
+        }
+
+        return new PreviousRepository(inputFactory, repository, locations);
+    }
+
+    /**
+     * Get the locations of all data files registered in {@code repomd.xml}
+     *
+     * @return the locations, relative to the base directory of the repository
+     */
+    Collection<String> getLocations() {
+        return Collections.unmodifiableCollection(this.locations.values());
+    }
+
+    /**
+     * Get the package entries of the primary document
+     *
+     * @return the packages, in document order
+     * @throws IOException if reading fails
+     */
+    List<Package> getPackages() throws IOException {
+        if (this.packages == null) {
+            this.packages = readPackages();
+        }
+        return this.packages;
+    }
+
+    private List<Package> readPackages() throws IOException {
+        final List<Package> result = new ArrayList<>();
+
+        try (DocumentReader reader = openDocument("primary")) {
+            final XMLStreamReader xml = reader.reader;
+
+            while (reader.nextPackage()) {
+                String location = null;
+                String pkgid = null;
+                String checksumType = null;
+                long size = -1;
+                long fileTime = -1;
+
+                int depth = 1;
+                while (depth > 0) {
+                    final int event = xml.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                        continue;
+                    }
+                    if (event != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    if (depth == 1) {
+                        switch (xml.getLocalName()) {
+                            case "location":
+                                location = xml.getAttributeValue(null, "href");
+                                break;
+                            case "size":
+                                size = parseLong(xml.getAttributeValue(null, "package"));
+                                break;
+                            case "time":
+                                fileTime = parseLong(xml.getAttributeValue(null, "file"));
+                                break;
+                            case "checksum":
+                                if ("YES".equals(xml.getAttributeValue(null, "pkgid"))) {
+                                    checksumType = xml.getAttributeValue(null, "type");
+                                    pkgid = xml.getElementText();
+                                    // getElementText consumes the end element
+                                    continue;
+                                }
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                    depth++;
+                }
+                reader.depth--;
+
+                result.add(new Package(location, pkgid, checksumType, size, fileTime));
+            }
+        } catch (final XMLStreamException e) {
+            throw new IOException(String.format("Failed to read packages of %s", this.locations.get("primary")), e);
+        }
+
+        return result;
+    }
+
+    private static long parseLong(final String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Copy the next package entry of all documents
+     */
+    void copyPackage(final XMLStreamWriter primary, final XMLStreamWriter filelists, final XMLStreamWriter other) throws IOException {
+        final String pkgid = nextPackage();
+        try {
+            this.primary.copy(primary);
+            this.filelists.copy(filelists);
+            this.other.copy(other);
+        } catch (final XMLStreamException e) {
+            throw new IOException(String.format("Failed to copy package entry %s", pkgid), e);
+        }
+    }
+
+    /**
+     * Skip the next package entry of all documents
+     */
+    void skipPackage() throws IOException {
+        final String pkgid = nextPackage();
+        try {
+            this.primary.skip();
+            this.filelists.skip();
+            this.other.skip();
+        } catch (final XMLStreamException e) {
+            throw new IOException(String.format("Failed to skip package entry %s", pkgid), e);
+        }
+    }
+
+    private String nextPackage() throws IOException {
+        if (this.primary == null) {
+            getPackages();
+            this.primary = openDocument("primary");
+            this.filelists = openDocument("filelists");
+            this.other = openDocument("other");
+        }
+
+        if (this.index >= this.packages.size()) {
+            throw new IllegalStateException("No more packages");
+        }
+        final String pkgid = this.packages.get(this.index++).getPkgid();
+
+        try {
+            if (!this.primary.nextPackage()) {
+                throw new IOException("Primary data has less packages than before");
+            }
+            checkPackage(this.filelists, pkgid);
+            checkPackage(this.other, pkgid);
+        } catch (final XMLStreamException e) {
+            throw new IOException(e);
+        }
+
+        return pkgid;
+    }
+
+    private static void checkPackage(final DocumentReader reader, final String pkgid) throws IOException, XMLStreamException {
+        if (!reader.nextPackage()) {
+            throw new IOException(String.format("'%s' data is missing package %s", reader.type, pkgid));
+        }
+        final String actual = reader.reader.getAttributeValue(null, "pkgid");
+        if (!Objects.equals(actual, pkgid)) {
+            throw new IOException(String.format("'%s' data is not in the same order as the primary data, expected package %s, found %s", reader.type, pkgid, actual));
+        }
+    }
+
+    private DocumentReader openDocument(final String type) throws IOException {
+        final String location = this.locations.get(type);
+        final Path file = this.repository.resolve(location);
+
+        InputStream in = new BufferedInputStream(Files.newInputStream(file));
+        try {
+            final Optional<MetadataCompression> compression = MetadataCompression.fromFileName(location);
+            if (compression.isPresent()) {
+                in = compression.get().createInputStream(in);
+            } else if (!location.endsWith(".xml")) {
+                throw new IOException(String.format("Unsupported compression of '%s' data: %s", type, location));
+            }
+            return new DocumentReader(type, in, this.inputFactory.createXMLStreamReader(in));
+        } catch (final IOException | XMLStreamException | RuntimeException e) {
+            in.close();
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            }
+            throw new IOException(String.format("Failed to open '%s' data: %s", type, location), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException result = null;
+
+        for (final DocumentReader reader : new DocumentReader[] { this.primary, this.filelists, this.other }) {
+            if (reader == null) {
+                continue;
+            }
+            try {
+                reader.close();
+            } catch (final IOException e) {
+                if (result == null) {
+                    result = e;
+                } else {
+                    result.addSuppressed(e);
+                }
+            }
+        }
+
+        if (result != null) {
+            throw result;
+        }
+    }
+
+    private static class DocumentReader implements Closeable {
+        private final String type;
+
+        private final InputStream stream;
+
+        private final XMLStreamReader reader;
+
+        private int depth;
+
+        DocumentReader(final String type, final InputStream stream, final XMLStreamReader reader) {
+            this.type = type;
+            this.stream = stream;
+            this.reader = reader;
+        }
+
+        /**
+         * Move to the start of the next package entry
+         *
+         * @return {@code false} if there are no more entries
+         */
+        boolean nextPackage() throws XMLStreamException {
+            while (this.reader.hasNext()) {
+                final int event = this.reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    this.depth++;
+                    if (this.depth == 2) {
+                        return true;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    this.depth--;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Skip the current package entry
+         */
+        void skip() throws XMLStreamException {
+            int level = 1;
+            while (level > 0) {
+                final int event = this.reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    level++;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    level--;
+                }
+            }
+            this.depth--;
+        }
+
+        /**
+         * Copy the current package entry
+         * <p>
+         * Whitespace inside the entry is copied as is. Like with the
+         * {@link StreamingXmlContext}, the entry starts on a new, indented
+         * line.
+         * </p>
+         */
+        void copy(final XMLStreamWriter writer) throws XMLStreamException {
+            writer.writeCharacters("\n  ");
+
+            int level = 0;
+            int event = this.reader.getEventType();
+            while (true) {
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        final String prefix = this.reader.getPrefix();
+                        final String localName = this.reader.getLocalName();
+                        final int count = this.reader.getAttributeCount();
+                        final String[] attributes = new String[count * 2];
+                        for (int i = 0; i < count; i++) {
+                            attributes[i * 2] = this.reader.getAttributeLocalName(i);
+                            attributes[i * 2 + 1] = this.reader.getAttributeValue(i);
+                        }
+
+                        event = this.reader.next();
+                        final boolean empty = event == XMLStreamConstants.END_ELEMENT;
+
+                        // namespaces are declared by the root element
+                        if (prefix != null && !prefix.isEmpty()) {
+                            if (empty) {
+                                writer.writeEmptyElement(prefix, localName, "");
+                            } else {
+                                writer.writeStartElement(prefix, localName, "");
+                            }
+                        } else if (empty) {
+                            writer.writeEmptyElement(localName);
+                        } else {
+                            writer.writeStartElement(localName);
+                        }
+
+                        for (int i = 0; i < count; i++) {
+                            writer.writeAttribute(attributes[i * 2], attributes[i * 2 + 1]);
+                        }
+
+                        if (empty) {
+                            if (level == 0) {
+                                this.depth--;
+                                return;
+                            }
+                            event = this.reader.next();
+                        } else {
+                            level++;
+                        }
+                        continue;
+
+                    case XMLStreamConstants.END_ELEMENT:
+                        writer.writeEndElement();
+                        level--;
+                        if (level == 0) {
+                            this.depth--;
+                            return;
+                        }
+                        break;
+
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        writer.writeCharacters(this.reader.getTextCharacters(), this.reader.getTextStart(), this.reader.getTextLength());
+                        break;
+
+                    default:
+                        break;
+                }
+                event = this.reader.next();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.reader.close();
+            } catch (final XMLStreamException e) {
+                throw new IOException(e);
+            } finally {
+                this.stream.close();
+            }
+        }
+    }
+}
@@ -13,24 +13,49 @@
 
 package org.eclipse.packager.rpm.yum;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.zip.GZIPOutputStream;
+import java.util.stream.Stream;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Result;
 import javax.xml.transform.Transformer;
@@ -41,24 +66,34 @@ import javax.xml.transform.stream.StreamResult;
 
 import org.bouncycastle.bcpg.HashAlgorithmTags;
 import org.bouncycastle.openpgp.PGPPrivateKey;
+import org.eclipse.packager.io.FileSystemSpoolOutTarget;
 import org.eclipse.packager.io.IOConsumer;
 import org.eclipse.packager.io.OutputSpooler;
 import org.eclipse.packager.io.SpoolOutTarget;
 import org.eclipse.packager.rpm.HashAlgorithm;
+import org.eclipse.packager.rpm.Rpms;
 import org.eclipse.packager.rpm.RpmVersion;
 import org.eclipse.packager.rpm.deps.RpmDependencyFlags;
 import org.eclipse.packager.rpm.info.RpmInformation;
 import org.eclipse.packager.rpm.info.RpmInformation.Changelog;
 import org.eclipse.packager.rpm.info.RpmInformation.Dependency;
+import org.eclipse.packager.rpm.info.RpmInformations;
 import org.eclipse.packager.security.pgp.SigningStream;
+import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
 
 public class RepositoryCreator {
     private static final String MD_NAME = "SHA-256";
 
     private static final String MD_TAG = "sha256";
 
+    private static final Map<HashAlgorithm, String> DIGEST_NAMES = Map.of(HashAlgorithm.SHA1, "SHA-1", HashAlgorithm.SHA256, "SHA-256", HashAlgorithm.SHA512, "SHA-512");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final XmlContext xml;
 
     private final OutputSpooler primaryStreamBuilder;
@@ -79,6 +114,14 @@ public class RepositoryCreator {
 
     private final String otherUniqueName;
 
+    private final SpoolOutTarget target;
+
+    private final MetadataCompression compression;
+
+    private final Integer compressionWorkers;
+
+    private final MetadataCompression databaseCompression;
+
     public interface XmlContext {
         void write(Document primary, OutputStream primaryStream) throws IOException;
 
@@ -166,11 +209,11 @@ public class RepositoryCreator {
     }
 
     private class ContextImpl implements Context {
-        private final OutputStream primaryStream;
+        protected final OutputStream primaryStream;
 
-        private final OutputStream filelistsStream;
+        protected final OutputStream filelistsStream;
 
-        private final OutputStream otherStream;
+        protected final OutputStream otherStream;
 
         private final XmlContext xml;
 
@@ -180,13 +223,13 @@ public class RepositoryCreator {
 
         private final Document other;
 
-        private final Element primaryRoot;
+        protected final Element primaryRoot;
 
-        private final Element filelistsRoot;
+        protected final Element filelistsRoot;
 
-        private final Element otherRoot;
+        protected final Element otherRoot;
 
-        private long count;
+        protected long count;
 
         public ContextImpl(final OutputStream primaryStream, final OutputStream filelistsStream, final OutputStream otherStream, final XmlContext xml) {
             this.primaryStream = primaryStream;
@@ -244,6 +287,14 @@ public class RepositoryCreator {
                     cl.setAttribute("date", "" + log.getTimestamp());
                 }
             }
+
+            packageAdded();
+        }
+
+        /**
+         * Called after a package was added to all documents
+         */
+        protected void packageAdded() {
         }
 
         private void appendFiles(final RpmInformation info, final Element pkg, final Predicate<String> fileFilter, final Predicate<String> dirFilter) {
@@ -349,18 +400,12 @@ public class RepositoryCreator {
                     version.getRelease().ifPresent(string -> entry.setAttribute("rel", string));
                 }
 
-                final boolean eq = flags.contains(RpmDependencyFlags.EQUAL);
-
-                if (flags.contains(RpmDependencyFlags.GREATER)) {
-                    entry.setAttribute("flags", eq ? "GE" : "GT");
-                } else if (flags.contains(RpmDependencyFlags.LESS)) {
-                    entry.setAttribute("flags", eq ? "LE" : "LT");
-                } else if (eq) {
-                    entry.setAttribute("flags", "EQ");
+                final String flagsValue = makeFlags(flags);
+                if (flagsValue != null) {
+                    entry.setAttribute("flags", flagsValue);
                 }
 
-                final boolean pre = flags.contains(RpmDependencyFlags.PREREQ) || flags.contains(RpmDependencyFlags.SCRIPT_PRE) || flags.contains(RpmDependencyFlags.SCRIPT_POST);
-                if (pre) {
+                if (isPre(flags)) {
                     entry.setAttribute("pre", "1");
                 }
             }
@@ -410,6 +455,325 @@ public class RepositoryCreator {
                 throw new IOException(e);
             }
         }
+
+        /**
+         * Release all resources, also when the context did not get closed
+         *
+         * @throws IOException if releasing the resources fails
+         */
+        public void dispose() throws IOException {
+        }
+    }
+
+    private class StreamingContextImpl extends ContextImpl {
+        private final Spool primarySpool;
+
+        private final Spool filelistsSpool;
+
+        private final Spool otherSpool;
+
+        public StreamingContextImpl(final OutputStream primaryStream, final OutputStream filelistsStream, final OutputStream otherStream, final StreamingXmlContext xml) throws IOException {
+            super(primaryStream, filelistsStream, otherStream, xml);
+
+            this.primarySpool = new Spool(xml, "primary-");
+            this.filelistsSpool = new Spool(xml, "filelists-");
+            this.otherSpool = new Spool(xml, "other-");
+        }
+
+        @Override
+        protected void packageAdded() {
+            try {
+                this.primarySpool.write(this.primaryRoot);
+                this.filelistsSpool.write(this.filelistsRoot);
+                this.otherSpool.write(this.otherRoot);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void addRendered(final RenderedPackage rendered) throws IOException {
+            this.count++;
+
+            this.primarySpool.append(rendered.primary);
+            this.filelistsSpool.append(rendered.filelists);
+            this.otherSpool.append(rendered.other);
+        }
+
+        void addCopied(final PreviousRepository previous) throws IOException {
+            this.count++;
+
+            previous.copyPackage(this.primarySpool.writer, this.filelistsSpool.writer, this.otherSpool.writer);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.primaryRoot.setAttribute("packages", Long.toString(this.count));
+            this.filelistsRoot.setAttribute("packages", Long.toString(this.count));
+            this.otherRoot.setAttribute("packages", Long.toString(this.count));
+
+            this.primarySpool.transferTo(this.primaryRoot, this.primaryStream);
+            this.filelistsSpool.transferTo(this.filelistsRoot, this.filelistsStream);
+            this.otherSpool.transferTo(this.otherRoot, this.otherStream);
+        }
+
+        @Override
+        public void dispose() throws IOException {
+            try {
+                this.primarySpool.dispose();
+            } finally {
+                try {
+                    this.filelistsSpool.dispose();
+                } finally {
+                    this.otherSpool.dispose();
+                }
+            }
+        }
+    }
+
+    /**
+     * Renders packages into XML fragments, instead of writing them
+     * <p>
+     * Each instance must only be used by a single thread at a time.
+     * </p>
+     */
+    private class RenderingContextImpl extends ContextImpl {
+        private final Fragment primaryFragment;
+
+        private final Fragment filelistsFragment;
+
+        private final Fragment otherFragment;
+
+        private byte[][] rendered;
+
+        public RenderingContextImpl(final StreamingXmlContext xml) throws IOException {
+            super(null, null, null, xml);
+
+            this.primaryFragment = new Fragment(xml);
+            this.filelistsFragment = new Fragment(xml);
+            this.otherFragment = new Fragment(xml);
+        }
+
+        @Override
+        protected void packageAdded() {
+            try {
+                this.rendered = new byte[][] { this.primaryFragment.render(this.primaryRoot), this.filelistsFragment.render(this.filelistsRoot), this.otherFragment.render(this.otherRoot) };
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        RenderedPackage render(final FileInformation fileInformation, final RpmInformation info, final Map<HashAlgorithm, String> checksums, final HashAlgorithm idType) {
+            addPackage(fileInformation, info, checksums, idType);
+            final RenderedPackage result = new RenderedPackage(this.rendered[0], this.rendered[1], this.rendered[2], fileInformation, info, checksums);
+            this.rendered = null;
+            return result;
+        }
+    }
+
+    /**
+     * A single step of writing the package entries
+     */
+    private static class Step {
+        enum Kind {
+            /**
+             * Read and render a package
+             */
+            RENDER,
+            /**
+             * Copy the next entry of the previous repository
+             */
+            COPY,
+            /**
+             * Skip the next entry of the previous repository
+             */
+            SKIP
+        }
+
+        private final Kind kind;
+
+        private final String location;
+
+        private final PreviousRepository.Package previous;
+
+        Step(final Kind kind, final String location) {
+            this(kind, location, null);
+        }
+
+        Step(final Kind kind, final String location, final PreviousRepository.Package previous) {
+            this.kind = kind;
+            this.location = location;
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * The XML fragments of a single package, one for each document
+     * <p>
+     * The package information is kept for adding the package to the
+     * databases. The fragments are missing, if the package is only loaded for
+     * the databases.
+     * </p>
+     */
+    private static class RenderedPackage {
+        private final byte[] primary;
+
+        private final byte[] filelists;
+
+        private final byte[] other;
+
+        private final FileInformation fileInformation;
+
+        private final RpmInformation info;
+
+        private final Map<HashAlgorithm, String> checksums;
+
+        RenderedPackage(final byte[] primary, final byte[] filelists, final byte[] other, final FileInformation fileInformation, final RpmInformation info, final Map<HashAlgorithm, String> checksums) {
+            this.primary = primary;
+            this.filelists = filelists;
+            this.other = other;
+            this.fileInformation = fileInformation;
+            this.info = info;
+            this.checksums = checksums;
+        }
+    }
+
+    /**
+     * A database file, as written to the target
+     */
+    private static class DatabaseFile {
+        private final String type;
+
+        private final String location;
+
+        private final String checksum;
+
+        private final long size;
+
+        private final String openChecksum;
+
+        private final long openSize;
+
+        DatabaseFile(final String type, final String location, final String checksum, final long size, final String openChecksum, final long openSize) {
+            this.type = type;
+            this.location = location;
+            this.checksum = checksum;
+            this.size = size;
+            this.openChecksum = openChecksum;
+            this.openSize = openSize;
+        }
+    }
+
+    private static class Fragment {
+        private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        private final XMLStreamWriter writer;
+
+        Fragment(final StreamingXmlContext xml) throws IOException {
+            this.writer = xml.createWriter(this.stream);
+        }
+
+        /**
+         * Render and remove all children of the root element
+         */
+        byte[] render(final Element root) throws IOException {
+            try {
+                StreamingXmlContext.writeChildren(this.writer, root);
+                this.writer.flush();
+            } catch (final XMLStreamException e) {
+                throw new IOException(e);
+            }
+
+            final byte[] result = this.stream.toByteArray();
+            this.stream.reset();
+            return result;
+        }
+    }
+
+    /**
+     * Package entries of one document, spooled to a temporary file
+     */
+    private static class Spool {
+        private final StreamingXmlContext xml;
+
+        private final Path file;
+
+        private final OutputStream stream;
+
+        private final XMLStreamWriter writer;
+
+        Spool(final StreamingXmlContext xml, final String prefix) throws IOException {
+            this.xml = xml;
+            this.file = xml.createTemporaryFile(prefix);
+            this.stream = new BufferedOutputStream(Files.newOutputStream(this.file));
+            this.writer = xml.createWriter(this.stream);
+        }
+
+        /**
+         * Write and remove all children of the root element
+         */
+        void write(final Element root) throws IOException {
+            try {
+                StreamingXmlContext.writeChildren(this.writer, root);
+            } catch (final XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        /**
+         * Append an already rendered package entry
+         */
+        void append(final byte[] fragment) throws IOException {
+            try {
+                this.writer.flush();
+            } catch (final XMLStreamException e) {
+                throw new IOException(e);
+            }
+            this.stream.write(fragment);
+        }
+
+        /**
+         * Write the root element, including all spooled entries
+         */
+        void transferTo(final Element root, final OutputStream target) throws IOException {
+            try {
+                this.writer.close();
+                this.stream.close();
+
+                final XMLStreamWriter out = this.xml.createWriter(target);
+                out.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+                out.writeCharacters("\n");
+                out.writeStartElement(root.getTagName());
+                out.writeDefaultNamespace(root.getNamespaceURI());
+
+                final NamedNodeMap attributes = root.getAttributes();
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    final Attr attribute = (Attr) attributes.item(i);
+                    out.writeAttribute(attribute.getName(), attribute.getValue());
+                }
+
+                // close the start tag, before mixing in the raw content
+                out.writeCharacters("");
+                out.flush();
+
+                Files.copy(this.file, target);
+
+                out.writeCharacters("\n");
+                out.writeEndElement();
+                out.writeCharacters("\n");
+                out.writeEndDocument();
+                out.close();
+            } catch (final XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        void dispose() throws IOException {
+            try {
+                this.stream.close();
+            } finally {
+                Files.deleteIfExists(this.file);
+            }
+        }
     }
 
     public static class Builder {
@@ -419,6 +783,12 @@ public class RepositoryCreator {
 
         private Function<OutputStream, OutputStream> signingStreamCreator;
 
+        private Integer compressionWorkers;
+
+        private List<MetadataCompression> compressions = List.of(MetadataCompression.GZIP);
+
+        private MetadataCompression databaseCompression;
+
         public Builder() {
         }
 
@@ -454,15 +824,76 @@ public class RepositoryCreator {
             return this;
         }
 
+        /**
+         * Compress the metadata files using multiple threads
+         * <p>
+         * By default the compressed metadata files are written using a single
+         * thread. Setting the number of workers uses the parallel
+         * implementation of the compression instead. Zero uses one worker per
+         * available processor.
+         * </p>
+         *
+         * @param compressionWorkers the number of workers, {@code null} to use
+         *            the single threaded default
+         * @return the builder
+         */
+        public Builder setCompressionWorkers(final Integer compressionWorkers) {
+            this.compressionWorkers = compressionWorkers;
+            return this;
+        }
+
+        /**
+         * Set the compression of the primary, filelists and other data
+         * <p>
+         * The first compression is the one registered in {@code repomd.xml}.
+         * Additional compressions are written next to it, like the
+         * uncompressed data, for clients locating the data by file name. By
+         * default, the data is compressed using gzip.
+         * </p>
+         *
+         * @param compressions the compressions, must not be empty
+         * @return the builder
+         */
+        public Builder setCompression(final MetadataCompression... compressions) {
+            Objects.requireNonNull(compressions);
+            if (compressions.length == 0) {
+                throw new IllegalArgumentException("At least one compression is required");
+            }
+            this.compressions = new ArrayList<>(new LinkedHashSet<>(Arrays.asList(compressions)));
+            return this;
+        }
+
+        /**
+         * Also create the primary, filelists and other SQLite databases
+         * <p>
+         * The databases are created in the same pass as the XML data, and are
+         * registered in {@code repomd.xml}. Creating the databases requires an
+         * SQLite JDBC driver at runtime.
+         * </p>
+         *
+         * @param databaseCompression the compression of the database files,
+         *            {@code null} to not create databases
+         * @return the builder
+         */
+        public Builder setDatabases(final MetadataCompression databaseCompression) {
+            this.databaseCompression = databaseCompression;
+            return this;
+        }
+
         public RepositoryCreator build() {
-            return new RepositoryCreator(this.target, this.xmlContext == null ? new DefaultXmlContext() : this.xmlContext, this.signingStreamCreator);
+            return new RepositoryCreator(this.target, this.xmlContext == null ? new DefaultXmlContext() : this.xmlContext, this.signingStreamCreator, this.compressionWorkers, this.compressions, this.databaseCompression);
         }
     }
 
-    private RepositoryCreator(final SpoolOutTarget target, final XmlContext xml, final Function<OutputStream, OutputStream> signingStreamCreator) {
+    private RepositoryCreator(final SpoolOutTarget target, final XmlContext xml, final Function<OutputStream, OutputStream> signingStreamCreator, final Integer compressionWorkers, final List<MetadataCompression> compressions, final MetadataCompression databaseCompression) {
         Objects.requireNonNull(target);
         Objects.requireNonNull(xml);
 
+        this.target = target;
+        this.compression = compressions.get(0);
+        this.compressionWorkers = compressionWorkers;
+        this.databaseCompression = databaseCompression;
+
         // xml
 
         this.xml = xml;
@@ -486,7 +917,7 @@ public class RepositoryCreator {
         this.primaryStreamBuilder.addDigest(MD_NAME);
 
         this.primaryStreamBuilder.addOutput(String.format("repodata/%s-primary.xml", this.primaryUniqueName), "application/xml");
-        this.primaryStreamBuilder.addOutput(String.format("repodata/%s-primary.xml.gz", this.primaryUniqueName), "application/x-gzip", GZIPOutputStream::new);
+        addCompressedOutputs(this.primaryStreamBuilder, dataFileName(this.primaryUniqueName, "primary"), compressions);
 
         // filelists
 
@@ -495,7 +926,7 @@ public class RepositoryCreator {
         this.filelistsStreamBuilder.addDigest(MD_NAME);
 
         this.filelistsStreamBuilder.addOutput(String.format("repodata/%s-filelists.xml", this.filelistsUniqueName), "application/xml");
-        this.filelistsStreamBuilder.addOutput(String.format("repodata/%s-filelists.xml.gz", this.filelistsUniqueName), "application/x-gzip", GZIPOutputStream::new);
+        addCompressedOutputs(this.filelistsStreamBuilder, dataFileName(this.filelistsUniqueName, "filelists"), compressions);
 
         // other
 
@@ -504,7 +935,7 @@ public class RepositoryCreator {
         this.otherStreamBuilder.addDigest(MD_NAME);
 
         this.otherStreamBuilder.addOutput(String.format("repodata/%s-other.xml", this.otherUniqueName), "application/xml");
-        this.otherStreamBuilder.addOutput(String.format("repodata/%s-other.xml.gz", this.otherUniqueName), "application/x-gzip", GZIPOutputStream::new);
+        addCompressedOutputs(this.otherStreamBuilder, dataFileName(this.otherUniqueName, "other"), compressions);
 
         // md
 
@@ -516,6 +947,29 @@ public class RepositoryCreator {
         }
     }
 
+    private void addCompressedOutputs(final OutputSpooler spooler, final String fileName, final List<MetadataCompression> compressions) {
+        for (final MetadataCompression compression : compressions) {
+            spooler.addOutput(compressedFileName(fileName, compression), compression.getMimeType(), out -> compression.createOutputStream(out, this.compressionWorkers));
+        }
+    }
+
+    static String makeFlags(final Set<RpmDependencyFlags> flags) {
+        final boolean eq = flags.contains(RpmDependencyFlags.EQUAL);
+
+        if (flags.contains(RpmDependencyFlags.GREATER)) {
+            return eq ? "GE" : "GT";
+        } else if (flags.contains(RpmDependencyFlags.LESS)) {
+            return eq ? "LE" : "LT";
+        } else if (eq) {
+            return "EQ";
+        }
+        return null;
+    }
+
+    static boolean isPre(final Set<RpmDependencyFlags> flags) {
+        return flags.contains(RpmDependencyFlags.PREREQ) || flags.contains(RpmDependencyFlags.SCRIPT_PRE) || flags.contains(RpmDependencyFlags.SCRIPT_POST);
+    }
+
     private boolean matches(final String pathName, final List<Pattern> filterList) {
         for (final Pattern p : filterList) {
             if (p.matcher(pathName).find()) {
@@ -528,21 +982,407 @@ public class RepositoryCreator {
     public void process(final IOConsumer<Context> consumer) throws IOException {
         final long now = System.currentTimeMillis();
 
-        this.primaryStreamBuilder.open(primaryStream -> this.filelistsStreamBuilder.open(filelistsStream -> this.otherStreamBuilder.open(otherStream -> {
-            final ContextImpl ctx = makeContext(primaryStream, filelistsStream, otherStream);
-            consumer.accept(ctx);
-            ctx.close();
-        })));
+        try (SqliteDatabases databases = createDatabases()) {
+            this.primaryStreamBuilder.open(primaryStream -> this.filelistsStreamBuilder.open(filelistsStream -> this.otherStreamBuilder.open(otherStream -> {
+                final ContextImpl ctx = makeContext(primaryStream, filelistsStream, otherStream);
+                try {
+                    if (databases == null) {
+                        consumer.accept(ctx);
+                    } else {
+                        consumer.accept((fileInformation, info, checksums, idType) -> {
+                            ctx.addPackage(fileInformation, info, checksums, idType);
+                            try {
+                                databases.addPackage(fileInformation, info, checksums, idType);
+                            } catch (final IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                    }
+                    ctx.close();
+                } catch (final UncheckedIOException e) {
+                    throw e.getCause();
+                } finally {
+                    ctx.dispose();
+                }
+            })));
+
+            final List<DatabaseFile> databaseFiles = finishDatabases(databases);
+            this.mdStreamBuilder.open(stream -> writeRepoMd(stream, now, databaseFiles));
+        }
+    }
+
+    private SqliteDatabases createDatabases() throws IOException {
+        if (this.databaseCompression == null) {
+            return null;
+        }
+
+        final Path temporaryDirectory = this.xml instanceof StreamingXmlContext ? ((StreamingXmlContext) this.xml).getTemporaryDirectory() : null;
+        return SqliteDatabases.create(temporaryDirectory, file -> matches(file, this.primaryFiles), dir -> matches(dir, this.primaryDirs));
+    }
+
+    private List<DatabaseFile> finishDatabases(final SqliteDatabases databases) throws IOException {
+        if (databases == null) {
+            return List.of();
+        }
+
+        databases.finish(
+                this.primaryStreamBuilder.getChecksum(compressedFileName(dataFileName(this.primaryUniqueName, "primary"), this.compression), MD_NAME),
+                this.filelistsStreamBuilder.getChecksum(compressedFileName(dataFileName(this.filelistsUniqueName, "filelists"), this.compression), MD_NAME),
+                this.otherStreamBuilder.getChecksum(compressedFileName(dataFileName(this.otherUniqueName, "other"), this.compression), MD_NAME));
+
+        return List.of(
+                spoolDatabase(databases.getPrimary(), "primary"),
+                spoolDatabase(databases.getFilelists(), "filelists"),
+                spoolDatabase(databases.getOther(), "other"));
+    }
+
+    private DatabaseFile spoolDatabase(final Path file, final String baseName) throws IOException {
+        final String location = String.format("repodata/%s-%s.sqlite.%s", UUID.randomUUID().toString().replace("-", ""), baseName, this.databaseCompression.getExtension());
+
+        final OutputSpooler spooler = new OutputSpooler(this.target);
+        spooler.addDigest(MD_NAME);
+        spooler.addOutput(location, this.databaseCompression.getMimeType(), out -> this.databaseCompression.createOutputStream(out, this.compressionWorkers));
+
+        final MessageDigest openDigest;
+        try {
+            openDigest = MessageDigest.getInstance(MD_NAME);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        spooler.open(stream -> {
+            try (DigestOutputStream out = new DigestOutputStream(stream, openDigest)) {
+                Files.copy(file, out);
+            }
+        });
+
+        return new DatabaseFile(baseName + "_db", location, spooler.getChecksum(location, MD_NAME), spooler.getSize(location), Rpms.toHex(openDigest.digest()).toLowerCase(), Files.size(file));
+    }
+
+    /**
+     * Create the repository metadata for all RPM files in a directory
+     * <p>
+     * All files ending with {@code .rpm} in the directory and its
+     * sub-directories are added to the repository, using the path relative to
+     * the directory as location. Reading the RPM headers, computing the
+     * checksums and rendering the XML entries is performed in parallel. The
+     * package entries are written in the order of their location, so that the
+     * result does not depend on the number of threads.
+     * </p>
+     * <p>
+     * The package metadata is always written like with the
+     * {@link StreamingXmlContext}. If the creator was not set up with one, a
+     * default instance is used.
+     * </p>
+     *
+     * @param directory the directory to scan
+     * @param idType the checksum algorithm for the package ID
+     * @param parallelism the number of files to process in parallel
+     * @throws IOException if scanning, reading a package or writing the
+     *             metadata fails
+     */
+    public void scan(final Path directory, final HashAlgorithm idType, final int parallelism) throws IOException {
+        Objects.requireNonNull(directory);
+        Objects.requireNonNull(idType);
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException(String.format("Parallelism must be positive: %s", parallelism));
+        }
+
+        final List<Step> steps = findPackages(directory).stream()
+                .map(location -> new Step(Step.Kind.RENDER, location))
+                .collect(Collectors.toList());
+
+        write(directory, steps, idType, parallelism, null);
+    }
+
+    /**
+     * Update the metadata of an existing repository
+     * <p>
+     * This works like {@link #scan(Path, HashAlgorithm, int)}, but reuses the
+     * metadata of an existing repository. Package entries are reused, if the
+     * file at the same location still has the same size and either the same
+     * modification time, or the same checksum. Those entries are copied from
+     * the existing metadata, without reading the RPM file. Only new or
+     * changed files are read and rendered.
+     * </p>
+     * <p>
+     * Reused and changed entries keep their position, new packages are added
+     * at the end, in the order of their location. If there is no existing
+     * repository, or the package ID of the existing metadata uses a different
+     * checksum type, all packages are read again.
+     * </p>
+     * <p>
+     * If the repository is written to the same location, using a
+     * {@link FileSystemSpoolOutTarget}, the data files registered in the
+     * previous {@code repomd.xml} are removed once the new one is written.
+     * Otherwise, the existing metadata files are left untouched.
+     * </p>
+     *
+     * @param directory the directory to scan
+     * @param previous the base directory of the existing repository, which
+     *            contains the {@code repodata} directory
+     * @param idType the checksum algorithm for the package ID
+     * @param parallelism the number of files to process in parallel
+     * @throws IOException if scanning, reading the existing metadata, reading a
+     *             package or writing the metadata fails
+     */
+    public void update(final Path directory, final Path previous, final HashAlgorithm idType, final int parallelism) throws IOException {
+        Objects.requireNonNull(directory);
+        Objects.requireNonNull(previous);
+        Objects.requireNonNull(idType);
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException(String.format("Parallelism must be positive: %s", parallelism));
+        }
+
+        if (!Files.isRegularFile(previous.resolve(PreviousRepository.REPOMD))) {
+            scan(directory, idType, parallelism);
+            return;
+        }
+
+        final Collection<String> superseded;
+        try (PreviousRepository repository = PreviousRepository.open(previous)) {
+            final List<Step> steps = plan(directory, findPackages(directory), repository.getPackages(), idType);
+            write(directory, steps, idType, parallelism, repository);
+            superseded = repository.getLocations();
+        }
+
+        if (this.target instanceof FileSystemSpoolOutTarget && Files.isSameFile(((FileSystemSpoolOutTarget) this.target).getBasePath(), previous)) {
+            removeSuperseded(previous, superseded);
+        }
+    }
+
+    /**
+     * Remove the data files of a replaced {@code repomd.xml}
+     * <p>
+     * Along with the registered file, the uncompressed and differently
+     * compressed variants are removed, as written next to it. Files written by
+     * this creator and files outside the {@code repodata} directory are kept.
+     * </p>
+     */
+    private void removeSuperseded(final Path repository, final Collection<String> locations) throws IOException {
+        final Path repodata = repository.resolve("repodata").toAbsolutePath().normalize();
+
+        for (final String location : locations) {
+            final Path file = repository.resolve(location).toAbsolutePath().normalize();
+            if (!repodata.equals(file.getParent())) {
+                continue;
+            }
+
+            final String name = file.getFileName().toString();
+            final String stem = MetadataCompression.fromFileName(name)
+                    .map(compression -> name.substring(0, name.length() - compression.getExtension().length() - 1))
+                    .orElse(name);
+
+            if (stem.startsWith("repomd.xml") || stem.startsWith(this.primaryUniqueName + "-") || stem.startsWith(this.filelistsUniqueName + "-") || stem.startsWith(this.otherUniqueName + "-")) {
+                continue;
+            }
+
+            Files.deleteIfExists(repodata.resolve(stem));
+            for (final MetadataCompression compression : MetadataCompression.values()) {
+                Files.deleteIfExists(repodata.resolve(compressedFileName(stem, compression)));
+            }
+        }
+    }
+
+    private static List<Step> plan(final Path directory, final List<String> locations, final List<PreviousRepository.Package> packages, final HashAlgorithm idType) throws IOException {
+        final Set<String> remaining = new LinkedHashSet<>(locations);
+        final List<Step> result = new ArrayList<>(locations.size() + packages.size());
+
+        for (final PreviousRepository.Package pkg : packages) {
+            final String location = pkg.getLocation();
+            if (location == null || !remaining.remove(location)) {
+                // removed, or a duplicate entry
+                result.add(new Step(Step.Kind.SKIP, location));
+            } else if (isUnchanged(directory.resolve(location), pkg, idType)) {
+                result.add(new Step(Step.Kind.COPY, location, pkg));
+            } else {
+                result.add(new Step(Step.Kind.SKIP, location));
+                result.add(new Step(Step.Kind.RENDER, location));
+            }
+        }
+
+        for (final String location : remaining) {
+            result.add(new Step(Step.Kind.RENDER, location));
+        }
+
+        return result;
+    }
+
+    private static boolean isUnchanged(final Path file, final PreviousRepository.Package pkg, final HashAlgorithm idType) throws IOException {
+        if (pkg.getPkgid() == null || !idType.getId().equals(pkg.getChecksumType())) {
+            return false;
+        }
+
+        if (Files.size(file) != pkg.getSize()) {
+            return false;
+        }
+
+        if (Files.getLastModifiedTime(file).toInstant().getEpochSecond() == pkg.getFileTime()) {
+            return true;
+        }
+
+        // touched, but maybe not changed
+        return checksum(file, idType).equals(pkg.getPkgid());
+    }
+
+    private void write(final Path directory, final List<Step> steps, final HashAlgorithm idType, final int parallelism, final PreviousRepository previous) throws IOException {
+        final StreamingXmlContext xml = this.xml instanceof StreamingXmlContext ? (StreamingXmlContext) this.xml : new StreamingXmlContext();
+        final long now = System.currentTimeMillis();
+
+        try (SqliteDatabases databases = createDatabases()) {
+            this.primaryStreamBuilder.open(primaryStream -> this.filelistsStreamBuilder.open(filelistsStream -> this.otherStreamBuilder.open(otherStream -> {
+                final StreamingContextImpl ctx = new StreamingContextImpl(primaryStream, filelistsStream, otherStream, xml);
+                try {
+                    execute(directory, steps, idType, parallelism, xml, ctx, previous, databases);
+                    ctx.close();
+                } finally {
+                    ctx.dispose();
+                }
+            })));
+
+            final List<DatabaseFile> databaseFiles = finishDatabases(databases);
+            this.mdStreamBuilder.open(stream -> writeRepoMd(stream, now, databaseFiles));
+        }
+    }
+
+    private static List<String> findPackages(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(".rpm"))
+                    .filter(Files::isRegularFile)
+                    .map(file -> directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void execute(final Path directory, final List<Step> steps, final HashAlgorithm idType, final int parallelism, final StreamingXmlContext xml, final StreamingContextImpl ctx, final PreviousRepository previous, final SqliteDatabases databases) throws IOException {
+        final ThreadLocal<RenderingContextImpl> renderers = ThreadLocal.withInitial(() -> {
+            // document builders might not be thread safe
+            synchronized (xml) {
+                try {
+                    return new RenderingContextImpl(xml);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+
+        // limit the number of rendered packages waiting to be written
+        final int window = parallelism * 4;
+
+        final ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            final Deque<Future<RenderedPackage>> pending = new ArrayDeque<>(window);
+            // copied packages still need to be loaded for the databases
+            final Iterator<Step> renders = steps.stream()
+                    .filter(step -> step.kind == Step.Kind.RENDER || step.kind == Step.Kind.COPY && databases != null)
+                    .iterator();
+
+            for (final Step step : steps) {
+                // render ahead, while copying or waiting for the next package
+                while (renders.hasNext() && pending.size() < window) {
+                    final Step next = renders.next();
+                    if (next.kind == Step.Kind.RENDER) {
+                        pending.add(pool.submit(() -> renderPackage(directory, next.location, idType, renderers.get())));
+                    } else {
+                        pending.add(pool.submit(() -> loadPackage(directory, next, idType)));
+                    }
+                }
+
+                switch (step.kind) {
+                    case RENDER: {
+                        final RenderedPackage rendered = join(pending.remove());
+                        ctx.addRendered(rendered);
+                        if (databases != null) {
+                            databases.addPackage(rendered.fileInformation, rendered.info, rendered.checksums, idType);
+                        }
+                        break;
+                    }
+                    case COPY:
+                        ctx.addCopied(previous);
+                        if (databases != null) {
+                            final RenderedPackage loaded = join(pending.remove());
+                            databases.addPackage(loaded.fileInformation, loaded.info, loaded.checksums, idType);
+                        }
+                        break;
+                    case SKIP:
+                        previous.skipPackage();
+                        break;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static RenderedPackage join(final Future<RenderedPackage> task) throws IOException {
+        try {
+            return task.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Scanning got interrupted");
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static RenderedPackage renderPackage(final Path directory, final String location, final HashAlgorithm idType, final RenderingContextImpl renderer) throws IOException {
+        final Path file = directory.resolve(location);
+
+        try {
+            final FileInformation fileInformation = new FileInformation(Files.getLastModifiedTime(file).toInstant(), Files.size(file), location);
+            final RpmInformation info = RpmInformations.makeInformation(file, null);
+            final String checksum = checksum(file, idType);
+
+            return renderer.render(fileInformation, info, Map.of(idType, checksum), idType);
+        } catch (final IOException | RuntimeException e) {
+            throw new IOException(String.format("Failed to process package: %s", location), e);
+        }
+    }
+
+    private static RenderedPackage loadPackage(final Path directory, final Step step, final HashAlgorithm idType) throws IOException {
+        try {
+            final FileInformation fileInformation = new FileInformation(Instant.ofEpochSecond(step.previous.getFileTime()), step.previous.getSize(), step.location);
+            final RpmInformation info = RpmInformations.makeInformation(directory.resolve(step.location), null);
+
+            return new RenderedPackage(null, null, null, fileInformation, info, Map.of(idType, step.previous.getPkgid()));
+        } catch (final IOException | RuntimeException e) {
+            throw new IOException(String.format("Failed to process package: %s", step.location), e);
+        }
+    }
 
-        this.mdStreamBuilder.open(stream -> writeRepoMd(stream, now));
+    private static String checksum(final Path file, final HashAlgorithm algorithm) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_NAMES.get(algorithm));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
 
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        return Rpms.toHex(digest.digest()).toLowerCase();
     }
 
-    private ContextImpl makeContext(final OutputStream primaryStream, final OutputStream filelistsStream, final OutputStream otherStream) {
+    private ContextImpl makeContext(final OutputStream primaryStream, final OutputStream filelistsStream, final OutputStream otherStream) throws IOException {
+        if (this.xml instanceof StreamingXmlContext) {
+            return new StreamingContextImpl(primaryStream, filelistsStream, otherStream, (StreamingXmlContext) this.xml);
+        }
         return new ContextImpl(primaryStream, filelistsStream, otherStream, this.xml);
     }
 
-    private void writeRepoMd(final OutputStream stream, final long now) throws IOException {
+    private void writeRepoMd(final OutputStream stream, final long now, final List<DatabaseFile> databaseFiles) throws IOException {
         final Document doc = this.xml.createDocument();
 
         final Element root = doc.createElementNS("http://linux.duke.edu/metadata/repo", "repomd");
@@ -554,6 +1394,10 @@ public class RepositoryCreator {
         addDataFile(root, this.filelistsStreamBuilder, this.filelistsUniqueName, "filelists", now);
         addDataFile(root, this.otherStreamBuilder, this.otherUniqueName, "other", now);
 
+        for (final DatabaseFile file : databaseFiles) {
+            addDatabaseFile(root, file, now);
+        }
+
         try {
             this.xml.write(doc, stream);
         } catch (final Exception e) {
@@ -561,26 +1405,55 @@ public class RepositoryCreator {
         }
     }
 
+    private static String dataFileName(final String unique, final String baseName) {
+        return "repodata/" + unique + "-" + baseName + ".xml";
+    }
+
+    private static String compressedFileName(final String fileName, final MetadataCompression compression) {
+        return fileName + "." + compression.getExtension();
+    }
+
     private void addDataFile(final Element root, final OutputSpooler spooler, final String unique, final String baseName, final long now) {
-        final String filename = "repodata/" + unique + "-" + baseName + ".xml";
+        final String filename = dataFileName(unique, baseName);
+        final String compressedFilename = compressedFileName(filename, this.compression);
         final Element data = addElement(root, "data");
 
         data.setAttribute("type", baseName);
 
-        final Element checksum = addElement(data, "checksum", spooler.getChecksum(filename + ".gz", MD_NAME));
+        final Element checksum = addElement(data, "checksum", spooler.getChecksum(compressedFilename, MD_NAME));
         checksum.setAttribute("type", MD_TAG);
 
         final Element openChecksum = addElement(data, "open-checksum", spooler.getChecksum(filename, MD_NAME));
         openChecksum.setAttribute("type", MD_TAG);
 
         final Element location = addElement(data, "location");
-        location.setAttribute("href", filename + ".gz");
+        location.setAttribute("href", compressedFilename);
         addElement(data, "timestamp", now / 1000);
 
-        addElement(data, "size", "" + spooler.getSize(filename + ".gz"));
+        addElement(data, "size", "" + spooler.getSize(compressedFilename));
         addElement(data, "open-size", "" + spooler.getSize(filename));
     }
 
+    private void addDatabaseFile(final Element root, final DatabaseFile file, final long now) {
+        final Element data = addElement(root, "data");
+
+        data.setAttribute("type", file.type);
+
+        final Element checksum = addElement(data, "checksum", file.checksum);
+        checksum.setAttribute("type", MD_TAG);
+
+        final Element openChecksum = addElement(data, "open-checksum", file.openChecksum);
+        openChecksum.setAttribute("type", MD_TAG);
+
+        final Element location = addElement(data, "location");
+        location.setAttribute("href", file.location);
+        addElement(data, "timestamp", now / 1000);
+        addElement(data, "database_version", SqliteDatabases.DATABASE_VERSION);
+
+        addElement(data, "size", "" + file.size);
+        addElement(data, "open-size", "" + file.openSize);
+    }
+
     private static void addOptionalElement(final Element parent, final String name, final Object value) {
         if (value == null) {
             return;
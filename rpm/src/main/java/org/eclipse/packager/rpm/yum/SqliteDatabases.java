@@ -0,0 +1,472 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.yum;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import org.eclipse.packager.rpm.HashAlgorithm;
+import org.eclipse.packager.rpm.RpmVersion;
+import org.eclipse.packager.rpm.deps.RpmDependencyFlags;
+import org.eclipse.packager.rpm.info.RpmInformation;
+import org.eclipse.packager.rpm.info.RpmInformation.Changelog;
+import org.eclipse.packager.rpm.info.RpmInformation.Dependency;
+
+/**
+ * The primary, filelists and other SQLite databases
+ * <p>
+ * The databases follow the schema version 10, as created by
+ * {@code createrepo}. They are written using JDBC, an SQLite JDBC driver must
+ * be available at runtime. The databases are written to temporary files, which
+ * are removed when closing.
+ * </p>
+ */
+class SqliteDatabases implements Closeable {
+    static final int DATABASE_VERSION = 10;
+
+    private static final String[] PRIMARY_SCHEMA = {
+            "CREATE TABLE db_info (dbversion INTEGER, checksum TEXT)",
+            "CREATE TABLE packages (pkgKey INTEGER PRIMARY KEY, pkgId TEXT, name TEXT, arch TEXT, version TEXT, epoch TEXT, release TEXT, summary TEXT, description TEXT, url TEXT, time_file INTEGER, time_build INTEGER, rpm_license TEXT, rpm_vendor TEXT, rpm_group TEXT, rpm_buildhost TEXT, rpm_sourcerpm TEXT, rpm_header_start INTEGER, rpm_header_end INTEGER, rpm_packager TEXT, size_package INTEGER, size_installed INTEGER, size_archive INTEGER, location_href TEXT, location_base TEXT, checksum_type TEXT)",
+            "CREATE TABLE files (name TEXT, type TEXT, pkgKey INTEGER)",
+            "CREATE TABLE requires (name TEXT, flags TEXT, epoch TEXT, version TEXT, release TEXT, pkgKey INTEGER, pre BOOLEAN DEFAULT FALSE)",
+            "CREATE TABLE provides (name TEXT, flags TEXT, epoch TEXT, version TEXT, release TEXT, pkgKey INTEGER)",
+            "CREATE TABLE conflicts (name TEXT, flags TEXT, epoch TEXT, version TEXT, release TEXT, pkgKey INTEGER)",
+            "CREATE TABLE obsoletes (name TEXT, flags TEXT, epoch TEXT, version TEXT, release TEXT, pkgKey INTEGER)",
+    };
+
+    private static final String[] PRIMARY_INDEXES = {
+            "CREATE INDEX packagename ON packages (name)",
+            "CREATE INDEX packageId ON packages (pkgId)",
+            "CREATE INDEX filenames ON files (name)",
+            "CREATE INDEX pkgfiles ON files (pkgKey)",
+            "CREATE INDEX pkgrequires ON requires (pkgKey)",
+            "CREATE INDEX requiresname ON requires (name)",
+            "CREATE INDEX pkgprovides ON provides (pkgKey)",
+            "CREATE INDEX providesname ON provides (name)",
+            "CREATE INDEX pkgconflicts ON conflicts (pkgKey)",
+            "CREATE INDEX pkgobsoletes ON obsoletes (pkgKey)",
+            "CREATE TRIGGER removals AFTER DELETE ON packages BEGIN"
+                    + " DELETE FROM files WHERE pkgKey = old.pkgKey;"
+                    + " DELETE FROM requires WHERE pkgKey = old.pkgKey;"
+                    + " DELETE FROM provides WHERE pkgKey = old.pkgKey;"
+                    + " DELETE FROM conflicts WHERE pkgKey = old.pkgKey;"
+                    + " DELETE FROM obsoletes WHERE pkgKey = old.pkgKey;"
+                    + " END",
+    };
+
+    private static final String[] FILELISTS_SCHEMA = {
+            "CREATE TABLE db_info (dbversion INTEGER, checksum TEXT)",
+            "CREATE TABLE packages (pkgKey INTEGER PRIMARY KEY, pkgId TEXT)",
+            "CREATE TABLE filelist (pkgKey INTEGER, dirname TEXT, filenames TEXT, filetypes TEXT)",
+    };
+
+    private static final String[] FILELISTS_INDEXES = {
+            "CREATE INDEX keyfile ON filelist (pkgKey)",
+            "CREATE INDEX pkgId ON packages (pkgId)",
+            "CREATE INDEX dirnames ON filelist (dirname)",
+            "CREATE TRIGGER remove_filelist AFTER DELETE ON packages BEGIN DELETE FROM filelist WHERE pkgKey = old.pkgKey; END",
+    };
+
+    private static final String[] OTHER_SCHEMA = {
+            "CREATE TABLE db_info (dbversion INTEGER, checksum TEXT)",
+            "CREATE TABLE packages (pkgKey INTEGER PRIMARY KEY, pkgId TEXT)",
+            "CREATE TABLE changelog (pkgKey INTEGER, author TEXT, date INTEGER, changelog TEXT)",
+    };
+
+    private static final String[] OTHER_INDEXES = {
+            "CREATE INDEX keychange ON changelog (pkgKey)",
+            "CREATE INDEX pkgId ON packages (pkgId)",
+            "CREATE TRIGGER remove_changelogs AFTER DELETE ON packages BEGIN DELETE FROM changelog WHERE pkgKey = old.pkgKey; END",
+    };
+
+    private final Predicate<String> primaryFiles;
+
+    private final Predicate<String> primaryDirs;
+
+    private final List<Path> files = new ArrayList<>(3);
+
+    private final List<Connection> connections = new ArrayList<>(3);
+
+    private Database primary;
+
+    private Database filelists;
+
+    private Database other;
+
+    private long pkgKey;
+
+    private SqliteDatabases(final Predicate<String> primaryFiles, final Predicate<String> primaryDirs) {
+        this.primaryFiles = primaryFiles;
+        this.primaryDirs = primaryDirs;
+    }
+
+    /**
+     * Create new, empty databases
+     *
+     * @param temporaryDirectory the directory to create the databases in,
+     *            {@code null} to use the default temporary directory
+     * @param primaryFiles the filter for files to add to the primary
+     *            database
+     * @param primaryDirs the filter for directories to add to the primary
+     *            database
+     * @return the databases
+     * @throws IOException if creating the databases fails
+     */
+    static SqliteDatabases create(final Path temporaryDirectory, final Predicate<String> primaryFiles, final Predicate<String> primaryDirs) throws IOException {
+        final SqliteDatabases result = new SqliteDatabases(primaryFiles, primaryDirs);
+        try {
+            result.primary = result.open(temporaryDirectory, "primary", PRIMARY_SCHEMA);
+            result.filelists = result.open(temporaryDirectory, "filelists", FILELISTS_SCHEMA);
+            result.other = result.open(temporaryDirectory, "other", OTHER_SCHEMA);
+            return result;
+        } catch (final IOException | RuntimeException e) {
+            try {
+                result.close();
+            } catch (final IOException e2) {
+                e.addSuppressed(e2);
+            }
+            throw e;
+        }
+    }
+
+    private Database open(final Path temporaryDirectory, final String name, final String[] schema) throws IOException {
+        final Path file = temporaryDirectory != null ? Files.createTempFile(temporaryDirectory, name + "-", ".sqlite") : Files.createTempFile(name + "-", ".sqlite");
+        this.files.add(file);
+
+        final Connection connection;
+        try {
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+        } catch (final SQLException e) {
+            throw new IOException("Unable to open SQLite database, an SQLite JDBC driver is required for creating databases", e);
+        }
+        this.connections.add(connection);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = OFF");
+            statement.execute("PRAGMA synchronous = OFF");
+            for (final String sql : schema) {
+                statement.execute(sql);
+            }
+            connection.setAutoCommit(false);
+        } catch (final SQLException e) {
+            throw new IOException(String.format("Failed to create %s database", name), e);
+        }
+
+        return new Database(name, file, connection);
+    }
+
+    /**
+     * Add a package to all databases
+     *
+     * @throws IOException if writing to a database fails
+     */
+    void addPackage(final RepositoryCreator.FileInformation fileInformation, final RpmInformation info, final Map<HashAlgorithm, String> checksums, final HashAlgorithm idType) throws IOException {
+        final long key = ++this.pkgKey;
+        final String id = checksums.get(idType);
+
+        try {
+            addPrimary(key, id, fileInformation, info, idType);
+            addFilelists(key, id, info);
+            addOther(key, id, info);
+        } catch (final SQLException e) {
+            throw new IOException(String.format("Failed to add package %s to the databases", fileInformation.getLocation()), e);
+        }
+    }
+
+    private void addPrimary(final long key, final String id, final RepositoryCreator.FileInformation fileInformation, final RpmInformation info, final HashAlgorithm idType) throws SQLException {
+        final RpmInformation.Version version = info.getVersion();
+
+        final PreparedStatement pkg = this.primary.prepare("INSERT INTO packages VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)");
+        int i = 1;
+        pkg.setLong(i++, key);
+        pkg.setString(i++, id);
+        pkg.setString(i++, info.getName());
+        pkg.setString(i++, info.getArchitecture());
+        pkg.setString(i++, version != null ? version.getVersion() : null);
+        pkg.setString(i++, version != null && version.getEpoch() != null ? Integer.toString(version.getEpoch()) : "0");
+        pkg.setString(i++, version != null ? version.getRelease() : null);
+        pkg.setString(i++, info.getSummary());
+        pkg.setString(i++, info.getDescription());
+        pkg.setString(i++, info.getUrl());
+        pkg.setLong(i++, fileInformation.getTimestamp().getEpochSecond());
+        setLong(pkg, i++, info.getBuildTimestamp());
+        pkg.setString(i++, info.getLicense());
+        pkg.setString(i++, info.getVendor());
+        pkg.setString(i++, info.getGroup());
+        pkg.setString(i++, info.getBuildHost());
+        pkg.setString(i++, info.getSourcePackage());
+        pkg.setLong(i++, info.getHeaderStart());
+        pkg.setLong(i++, info.getHeaderEnd());
+        pkg.setString(i++, info.getPackager());
+        pkg.setLong(i++, fileInformation.getSize());
+        setLong(pkg, i++, info.getInstalledSize());
+        setLong(pkg, i++, info.getArchiveSize());
+        pkg.setString(i++, fileInformation.getLocation());
+        pkg.setString(i++, null);
+        pkg.setString(i++, idType.getId());
+        pkg.addBatch();
+
+        final PreparedStatement files = this.primary.prepare("INSERT INTO files VALUES (?,?,?)");
+        for (final String file : new TreeSet<>(info.getFiles())) {
+            if (this.primaryFiles.test(file)) {
+                addFile(files, key, file, "file");
+            }
+        }
+        for (final String dir : new TreeSet<>(info.getDirectories())) {
+            if (this.primaryDirs.test(dir)) {
+                addFile(files, key, dir, "dir");
+            }
+        }
+
+        addDependencies(key, "provides", info.getProvides());
+        addDependencies(key, "requires", info.getRequires());
+        addDependencies(key, "conflicts", info.getConflicts());
+        addDependencies(key, "obsoletes", info.getObsoletes());
+    }
+
+    private static void addFile(final PreparedStatement statement, final long key, final String name, final String type) throws SQLException {
+        statement.setString(1, name);
+        statement.setString(2, type);
+        statement.setLong(3, key);
+        statement.addBatch();
+    }
+
+    private void addDependencies(final long key, final String table, final List<Dependency> deps) throws SQLException {
+        final boolean requires = "requires".equals(table);
+        final PreparedStatement statement = this.primary.prepare(requires ? "INSERT INTO requires VALUES (?,?,?,?,?,?,?)" : String.format("INSERT INTO %s VALUES (?,?,?,?,?,?)", table));
+
+        for (final Dependency dep : deps) {
+            final Set<RpmDependencyFlags> flags = RpmDependencyFlags.parse(dep.getFlags());
+            if (flags.contains(RpmDependencyFlags.RPMLIB)) {
+                continue;
+            }
+
+            statement.setString(1, dep.getName());
+            statement.setString(2, RepositoryCreator.makeFlags(flags));
+            if (dep.getVersion() != null) {
+                final RpmVersion version = RpmVersion.valueOf(dep.getVersion());
+                statement.setString(3, Integer.toString(version.getEpoch().orElse(0)));
+                statement.setString(4, version.getVersion());
+                statement.setString(5, version.getRelease().orElse(null));
+            } else {
+                statement.setString(3, null);
+                statement.setString(4, null);
+                statement.setString(5, null);
+            }
+            statement.setLong(6, key);
+            if (requires) {
+                statement.setString(7, RepositoryCreator.isPre(flags) ? "TRUE" : "FALSE");
+            }
+            statement.addBatch();
+        }
+    }
+
+    private void addFilelists(final long key, final String id, final RpmInformation info) throws SQLException {
+        addPackageId(this.filelists, key, id);
+
+        // group by directory, like createrepo
+
+        final Map<String, StringBuilder[]> dirs = new TreeMap<>();
+        for (final String file : new TreeSet<>(info.getFiles())) {
+            addFilelistEntry(dirs, file, 'f');
+        }
+        for (final String dir : new TreeSet<>(info.getDirectories())) {
+            addFilelistEntry(dirs, dir, 'd');
+        }
+
+        final PreparedStatement statement = this.filelists.prepare("INSERT INTO filelist VALUES (?,?,?,?)");
+        for (final Map.Entry<String, StringBuilder[]> entry : dirs.entrySet()) {
+            statement.setLong(1, key);
+            statement.setString(2, entry.getKey());
+            statement.setString(3, entry.getValue()[0].toString());
+            statement.setString(4, entry.getValue()[1].toString());
+            statement.addBatch();
+        }
+    }
+
+    private static void addFilelistEntry(final Map<String, StringBuilder[]> dirs, final String path, final char type) {
+        final int idx = path.lastIndexOf('/');
+        final String dirname = idx > 0 ? path.substring(0, idx) : "/";
+        final String filename = path.substring(idx + 1);
+
+        final StringBuilder[] entry = dirs.computeIfAbsent(dirname, k -> new StringBuilder[] { new StringBuilder(), new StringBuilder() });
+        if (entry[0].length() > 0) {
+            entry[0].append('/');
+        }
+        entry[0].append(filename);
+        entry[1].append(type);
+    }
+
+    private void addOther(final long key, final String id, final RpmInformation info) throws SQLException {
+        addPackageId(this.other, key, id);
+
+        final PreparedStatement statement = this.other.prepare("INSERT INTO changelog VALUES (?,?,?,?)");
+        for (final Changelog log : info.getChangelog()) {
+            statement.setLong(1, key);
+            statement.setString(2, log.getAuthor());
+            statement.setLong(3, log.getTimestamp());
+            statement.setString(4, log.getText());
+            statement.addBatch();
+        }
+    }
+
+    private static void addPackageId(final Database database, final long key, final String id) throws SQLException {
+        final PreparedStatement statement = database.prepare("INSERT INTO packages VALUES (?,?)");
+        statement.setLong(1, key);
+        statement.setString(2, id);
+        statement.addBatch();
+    }
+
+    private static void setLong(final PreparedStatement statement, final int index, final Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    /**
+     * Complete the databases
+     * <p>
+     * Records the checksums of the matching XML data, creates the indexes and
+     * closes the connections. The database files stay available until
+     * closing.
+     * </p>
+     *
+     * @throws IOException if writing to a database fails
+     */
+    void finish(final String primaryChecksum, final String filelistsChecksum, final String otherChecksum) throws IOException {
+        this.primary.finish(primaryChecksum, PRIMARY_INDEXES);
+        this.filelists.finish(filelistsChecksum, FILELISTS_INDEXES);
+        this.other.finish(otherChecksum, OTHER_INDEXES);
+    }
+
+    Path getPrimary() {
+        return this.primary.file;
+    }
+
+    Path getFilelists() {
+        return this.filelists.file;
+    }
+
+    Path getOther() {
+        return this.other.file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        final IOException result = new IOException("Failed to close databases");
+
+        for (final Connection connection : this.connections) {
+            try {
+                connection.close();
+            } catch (final SQLException e) {
+                result.addSuppressed(e);
+            }
+        }
+        for (final Path file : this.files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException e) {
+                result.addSuppressed(e);
+            }
+        }
+
+        if (result.getSuppressed().length > 0) {
+            throw result;
+        }
+    }
+
+    private static class Database {
+        private final String name;
+
+        private final Path file;
+
+        private final Connection connection;
+
+        private final Map<String, PreparedStatement> statements = new TreeMap<>();
+
+        private int pending;
+
+        Database(final String name, final Path file, final Connection connection) {
+            this.name = name;
+            this.file = file;
+            this.connection = connection;
+        }
+
+        /**
+         * Get a prepared statement, executing pending batches once in a while
+         */
+        PreparedStatement prepare(final String sql) throws SQLException {
+            if (++this.pending > 10_000) {
+                executeBatches();
+            }
+
+            PreparedStatement result = this.statements.get(sql);
+            if (result == null) {
+                result = this.connection.prepareStatement(sql);
+                this.statements.put(sql, result);
+            }
+            return result;
+        }
+
+        private void executeBatches() throws SQLException {
+            for (final PreparedStatement statement : this.statements.values()) {
+                statement.executeBatch();
+            }
+            this.pending = 0;
+        }
+
+        void finish(final String checksum, final String[] indexes) throws IOException {
+            try {
+                executeBatches();
+                for (final PreparedStatement statement : this.statements.values()) {
+                    statement.close();
+                }
+
+                try (PreparedStatement info = this.connection.prepareStatement("INSERT INTO db_info VALUES (?,?)")) {
+                    info.setInt(1, DATABASE_VERSION);
+                    info.setString(2, checksum);
+                    info.executeUpdate();
+                }
+
+                try (Statement statement = this.connection.createStatement()) {
+                    for (final String sql : indexes) {
+                        statement.execute(sql);
+                    }
+                }
+
+                this.connection.commit();
+                this.connection.close();
+            } catch (final SQLException e) {
+                throw new IOException(String.format("Failed to complete %s database", this.name), e);
+            }
+        }
+    }
+}
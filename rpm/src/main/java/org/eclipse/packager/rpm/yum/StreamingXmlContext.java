@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.yum;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.TransformerFactory;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * An XML context which streams the package metadata
+ * <p>
+ * With the {@link RepositoryCreator.DefaultXmlContext}, the primary, filelists
+ * and other documents are kept in memory until all packages got added. Using
+ * this context, each package is written out as soon as it got added, using
+ * StAX. As the root elements carry the number of packages, packages are
+ * spooled to temporary files first, and copied to the final output once the
+ * number is known. Memory use does not depend on the number of packages.
+ * </p>
+ * <p>
+ * The small repomd document is still written using DOM.
+ * </p>
+ */
+public class StreamingXmlContext extends RepositoryCreator.DefaultXmlContext {
+    private static final String INDENT = "  ";
+
+    private final XMLOutputFactory outputFactory;
+
+    private Path temporaryDirectory;
+
+    public StreamingXmlContext() {
+        this.outputFactory = XMLOutputFactory.newFactory();
+    }
+
+    public StreamingXmlContext(final DocumentBuilderFactory documentBuilderFactory, final TransformerFactory transformerFactory, final XMLOutputFactory outputFactory) {
+        super(documentBuilderFactory, transformerFactory);
+        this.outputFactory = Objects.requireNonNull(outputFactory);
+    }
+
+    /**
+     * Set the directory for spooling package entries
+     *
+     * @param temporaryDirectory the directory, {@code null} to use the default
+     *            temporary directory
+     */
+    public void setTemporaryDirectory(final Path temporaryDirectory) {
+        this.temporaryDirectory = temporaryDirectory;
+    }
+
+    public Path getTemporaryDirectory() {
+        return this.temporaryDirectory;
+    }
+
+    Path createTemporaryFile(final String prefix) throws IOException {
+        if (this.temporaryDirectory != null) {
+            return Files.createTempFile(this.temporaryDirectory, prefix, ".xml");
+        }
+        return Files.createTempFile(prefix, ".xml");
+    }
+
+    XMLStreamWriter createWriter(final OutputStream stream) throws IOException {
+        try {
+            return this.outputFactory.createXMLStreamWriter(stream, StandardCharsets.UTF_8.name());
+        } catch (final XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Write and remove all child elements of a root element
+     *
+     * @param writer the writer to write to
+     * @param root the root element
+     * @throws XMLStreamException if writing fails
+     */
+    static void writeChildren(final XMLStreamWriter writer, final Element root) throws XMLStreamException {
+        for (Node child = root.getFirstChild(); child != null; child = root.getFirstChild()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                writeElement(writer, (Element) child, 1);
+            }
+            root.removeChild(child);
+        }
+    }
+
+    /**
+     * Write a DOM element, including its children
+     * <p>
+     * Elements only containing text are written on a single line, all other
+     * elements are indented.
+     * </p>
+     *
+     * @param writer the writer to write to
+     * @param element the element to write
+     * @param depth the indentation level of the element
+     * @throws XMLStreamException if writing fails
+     */
+    static void writeElement(final XMLStreamWriter writer, final Element element, final int depth) throws XMLStreamException {
+        writer.writeCharacters("\n");
+        writer.writeCharacters(INDENT.repeat(depth));
+
+        final String name = element.getTagName();
+        final int idx = name.indexOf(':');
+        final boolean empty = !element.hasChildNodes();
+
+        if (idx > 0) {
+            // prefixed names are created without a namespace, the prefix is declared by the root element
+            if (empty) {
+                writer.writeEmptyElement(name.substring(0, idx), name.substring(idx + 1), "");
+            } else {
+                writer.writeStartElement(name.substring(0, idx), name.substring(idx + 1), "");
+            }
+        } else if (empty) {
+            writer.writeEmptyElement(name);
+        } else {
+            writer.writeStartElement(name);
+        }
+
+        final NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            final Attr attribute = (Attr) attributes.item(i);
+            writer.writeAttribute(attribute.getName(), attribute.getValue());
+        }
+
+        if (empty) {
+            return;
+        }
+
+        boolean nested = false;
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                writeElement(writer, (Element) child, depth + 1);
+                nested = true;
+            } else if (child.getNodeType() == Node.TEXT_NODE) {
+                writer.writeCharacters(child.getNodeValue());
+            }
+        }
+
+        if (nested) {
+            writer.writeCharacters("\n");
+            writer.writeCharacters(INDENT.repeat(depth));
+        }
+        writer.writeEndElement();
+    }
+}
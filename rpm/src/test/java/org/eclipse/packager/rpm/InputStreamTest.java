@@ -14,8 +14,13 @@
 package org.eclipse.packager.rpm;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.eclipse.packager.rpm.RpmTag.ARCH;
+import static org.eclipse.packager.rpm.RpmTag.BASENAMES;
 import static org.eclipse.packager.rpm.RpmTag.DIRNAMES;
+import static org.eclipse.packager.rpm.RpmTag.DIR_INDEXES;
+import static org.eclipse.packager.rpm.RpmTag.FILE_MODES;
+import static org.eclipse.packager.rpm.RpmTag.FILE_SIZES;
 import static org.eclipse.packager.rpm.RpmTag.LICENSE;
 import static org.eclipse.packager.rpm.RpmTag.NAME;
 import static org.eclipse.packager.rpm.RpmTag.OS;
@@ -56,6 +61,80 @@ class InputStreamTest {
         }
     }
 
+    @Test
+    void primitiveArrays() throws IOException {
+        try (final RpmInputStream in = new RpmInputStream(new BufferedInputStream(Files.newInputStream(Path.of("src/test/resources/data/org.eclipse.scada-0.2.1-1.noarch.rpm"))))) {
+            final InputHeader<RpmTag> header = in.getPayloadHeader();
+
+            assertThat(header.getIntArray(FILE_SIZES)).containsExactly(header.getIntegerList(FILE_SIZES).stream().mapToInt(Integer::intValue).toArray());
+            assertThat(header.getLongArray(FILE_SIZES)).containsExactly(header.getIntegerList(FILE_SIZES).stream().mapToLong(Integer::toUnsignedLong).toArray());
+            assertThat(header.getIntArray(DIR_INDEXES)).hasSameSizeAs(header.getStringList(BASENAMES));
+
+            final Short[] modes = (Short[]) header.getRawTags().get(FILE_MODES.getValue()).getValue().getValue();
+            final short[] modeArray = header.getShortArray(FILE_MODES);
+            assertThat(modeArray).hasSize(modes.length);
+            for (int i = 0; i < modes.length; i++) {
+                assertThat(modeArray[i]).isEqualTo(modes[i]);
+            }
+
+            assertThat(header.getStringArrayView(DIRNAMES)).containsExactlyElementsOf(EXPECTED_DIRNAMES);
+            assertThat(header.getStringArrayView(NAME)).containsExactly("org.eclipse.scada");
+            assertThat(header.getIntArray(RpmTag.RECOMMEND_FLAGS)).isNull();
+            assertThatThrownBy(() -> header.getIntArray(FILE_MODES)).isInstanceOf(IllegalArgumentException.class);
+
+            // the default implementations, based on the list accessors
+
+            final ReadableHeader<RpmTag> listOnly = new ReadableHeader<>() {
+                @Override
+                public boolean hasTag(final RpmTag tag) {
+                    return header.hasTag(tag);
+                }
+
+                @Override
+                public String getString(final RpmTag tag) {
+                    return header.getString(tag);
+                }
+
+                @Override
+                public Integer getInteger(final RpmTag tag) {
+                    return header.getInteger(tag);
+                }
+
+                @Override
+                public Long getLong(final RpmTag tag) {
+                    return header.getLong(tag);
+                }
+
+                @Override
+                public List<String> getStringList(final RpmTag tag) {
+                    return header.getStringList(tag);
+                }
+
+                @Override
+                public List<Integer> getIntegerList(final RpmTag tag) {
+                    return header.getIntegerList(tag);
+                }
+
+                @Override
+                public List<Long> getLongList(final RpmTag tag) {
+                    return header.getLongList(tag);
+                }
+
+                @Override
+                public byte[] getByteArray(final RpmTag tag) {
+                    return header.getByteArray(tag);
+                }
+
+                @Override
+                public short[] getShortArray(final RpmTag tag) {
+                    return header.getShortArray(tag);
+                }
+            };
+
+            assertThat(listOnly.getIntArray(FILE_SIZES)).containsExactly(header.getIntArray(FILE_SIZES));
+        }
+    }
+
     @Test
     void test2() throws IOException {
         try (final RpmInputStream in = new RpmInputStream(new BufferedInputStream(Files.newInputStream(Path.of("src/test/resources/data/org.eclipse.scada-centos6-0.2.1-1.noarch.rpm"))))) {
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.eclipse.packager.rpm.parse.HeaderValue;
+import org.eclipse.packager.rpm.parse.InputHeader;
+import org.eclipse.packager.rpm.parse.RpmFile;
+import org.eclipse.packager.rpm.parse.RpmInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RpmFileTest {
+    @ParameterizedTest
+    @ValueSource(strings = { "org.eclipse.scada-0.2.1-1.noarch.rpm", "org.eclipse.scada-centos6-0.2.1-1.noarch.rpm" })
+    void sameAsStream(final String name) throws IOException {
+        final Path path = Path.of("src/test/resources/data", name);
+        final byte[] data = Files.readAllBytes(path);
+
+        try (RpmFile file = RpmFile.open(path);
+                RpmInputStream in = new RpmInputStream(Files.newInputStream(path))) {
+
+            assertThat(file.getLead()).usingRecursiveComparison().isEqualTo(in.getLead());
+
+            assertHeader(file.getSignatureHeader(), in.getSignatureHeader());
+            assertHeader(file.getPayloadHeader(), in.getPayloadHeader());
+
+            final InputHeader<RpmTag> header = file.getPayloadHeader();
+            assertThat(file.getPayloadStart()).isEqualTo(header.getStart() + header.getLength());
+            assertThat(file.getPayloadSize()).isEqualTo(data.length - file.getPayloadStart());
+
+            final byte[] headerData = new byte[(int) header.getLength()];
+            file.getPayloadHeaderData().get(headerData);
+            assertThat(headerData).isEqualTo(Arrays.copyOfRange(data, (int) header.getStart(), (int) file.getPayloadStart()));
+
+            final byte[] payload = Arrays.copyOfRange(data, (int) file.getPayloadStart(), data.length);
+            try (InputStream raw = file.openRawPayload()) {
+                assertThat(raw.readAllBytes()).isEqualTo(payload);
+            }
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertThat(file.transferRawPayloadTo(Channels.newChannel(out))).isEqualTo(payload.length);
+            assertThat(out.toByteArray()).isEqualTo(payload);
+        }
+    }
+
+    @Test
+    void rawData() throws IOException {
+        try (RpmFile file = RpmFile.open(Path.of("src/test/resources/data/org.eclipse.scada-0.2.1-1.noarch.rpm"))) {
+            final InputHeader<RpmTag> header = file.getPayloadHeader();
+
+            final HeaderValue<?> name = header.getRawTags().get(RpmTag.NAME.getValue());
+            final ByteBuffer nameData = name.getRawData();
+            assertThat(StandardCharsets.UTF_8.decode(nameData).toString()).isEqualTo("org.eclipse.scada\0");
+
+            final HeaderValue<?> dirnames = header.getRawTags().get(RpmTag.DIRNAMES.getValue());
+            final ByteBuffer dirnamesData = dirnames.getRawData();
+            assertThat(dirnamesData.isReadOnly()).isTrue();
+            assertThat(dirnamesData.remaining()).isEqualTo(header.getStringList(RpmTag.DIRNAMES).stream().mapToInt(dir -> dir.length() + 1).sum());
+
+            final HeaderValue<?> sizes = header.getRawTags().get(RpmTag.FILE_SIZES.getValue());
+            assertThat(sizes.getRawData().remaining()).isEqualTo(sizes.getCount() * 4);
+        }
+    }
+
+    @Test
+    void notAnRpm(@TempDir final Path dir) throws IOException {
+        final Path path = Files.write(dir.resolve("test.rpm"), new byte[200]);
+        assertThatThrownBy(() -> RpmFile.open(path)).isInstanceOf(IOException.class).hasMessageStartingWith("File corrupt");
+    }
+
+    private static void assertHeader(final InputHeader<?> actual, final InputHeader<?> expected) {
+        assertThat(actual.getStart()).isEqualTo(expected.getStart());
+        assertThat(actual.getLength()).isEqualTo(expected.getLength());
+        assertThat(actual.getRawTags().keySet()).containsExactlyElementsOf(expected.getRawTags().keySet());
+        actual.getRawTags().forEach((tag, value) -> assertThat(value.getValue()).usingRecursiveComparison().isEqualTo(expected.getRawTags().get(tag).getValue()));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.packager.rpm.PathName;
+import org.eclipse.packager.rpm.RpmTag;
+import org.eclipse.packager.rpm.build.RpmBuilder.FileEntry;
+import org.eclipse.packager.rpm.header.Header;
+import org.junit.jupiter.api.Test;
+
+class FileTableTest {
+    @Test
+    void stringPool() {
+        final StringPool pool = new StringPool();
+
+        assertThat(pool.intern(null)).isEqualTo(-1);
+        assertThat(pool.get(-1)).isNull();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(pool.intern("value-" + i)).isEqualTo(i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(pool.intern("value-" + i)).isEqualTo(i);
+            assertThat(pool.get(i)).isEqualTo("value-" + i);
+        }
+
+        assertThat(pool.size()).isEqualTo(10_000);
+        assertThat(pool.indexOf("missing")).isEqualTo(-1);
+    }
+
+    @Test
+    void sortedByName() {
+        final FileTable table = new FileTable();
+        table.put(entry("/usr/lib/b", "root", 2));
+        table.put(entry("/etc/conf", "daemon", 3));
+        table.put(entry("/usr/lib/a", "root", 1));
+
+        final Header<RpmTag> header = new Header<>();
+        table.fillHeader(header, LongMode.DEFAULT);
+
+        assertThat(header.getStringList(RpmTag.BASENAMES)).containsExactly("conf", "a", "b");
+        assertThat(header.getStringList(RpmTag.DIRNAMES)).containsExactly("/etc/", "/usr/lib/");
+        assertThat(header.get(RpmTag.DIR_INDEXES).getValue().getValue()).isEqualTo(new int[] { 0, 1, 1 });
+        assertThat(header.getStringList(RpmTag.FILE_USERNAME)).containsExactly("daemon", "root", "root");
+        assertThat(header.get(RpmTag.FILE_SIZES).getValue().getValue()).isEqualTo(new int[] { 3, 1, 2 });
+        assertThat(header.get(RpmTag.SIZE).getValue().getValue()).isEqualTo(new int[] { 6 });
+    }
+
+    @Test
+    void trieOrder() {
+        final String[] segments = { "a", "a.b", "a-b", "b", "ab" };
+        final Random random = new Random(42);
+
+        final PathTrie trie = new PathTrie();
+        final List<String> names = new ArrayList<>();
+
+        for (int i = 0; i < 1_000; i++) {
+            final String[] path = new String[1 + random.nextInt(4)];
+            for (int j = 0; j < path.length; j++) {
+                path[j] = segments[random.nextInt(segments.length)];
+            }
+            if (trie.insert(path) == names.size()) {
+                names.add(String.join("/", path));
+            }
+        }
+
+        final PathTrie.Names result = trie.traverse();
+
+        final List<String> sorted = new ArrayList<>(names);
+        Collections.sort(sorted);
+
+        final List<String> actual = new ArrayList<>();
+        for (int i = 0; i < result.order.length; i++) {
+            assertThat(result.dirnames[result.dirIndexes[i]] + result.basenames[i]).isEqualTo("/" + names.get(result.order[i]));
+            actual.add(names.get(result.order[i]));
+        }
+
+        assertThat(actual).isEqualTo(sorted);
+        assertThat(result.dirnames).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void dirnamesDeduplicated() {
+        final PathTrie trie = new PathTrie();
+        trie.insert(PathName.parse("/a/b.txt").getSegments());
+        trie.insert(PathName.parse("/a/b/c").getSegments());
+        trie.insert(PathName.parse("/a/c").getSegments());
+
+        final PathTrie.Names result = trie.traverse();
+
+        assertThat(result.basenames).containsExactly("b.txt", "c", "c");
+        assertThat(result.dirnames).containsExactly("/a/", "/a/b/");
+        assertThat(result.dirIndexes).containsExactly(0, 1, 0);
+    }
+
+    private static FileEntry entry(final String name, final String user, final long size) {
+        final FileEntry entry = new FileEntry();
+        entry.setTargetName(PathName.parse(name));
+        entry.setUser(user);
+        entry.setGroup(user);
+        entry.setSize(size);
+        entry.setTargetSize(size);
+        entry.setDigest("");
+        entry.setLinkTo("");
+        entry.setLang("");
+        return entry;
+    }
+}
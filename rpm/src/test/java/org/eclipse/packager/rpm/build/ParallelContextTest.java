@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.eclipse.packager.rpm.RpmTag;
+import org.eclipse.packager.rpm.RpmVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelContextTest {
+    private static final Instant TIMESTAMP = Instant.parse("2020-01-01T00:00:00Z");
+
+    @TempDir
+    private Path base;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        this.executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * The parallel context must produce the same result as the default one.
+     */
+    @Test
+    void sameResult() throws IOException {
+        final Path in = Files.createDirectories(this.base.resolve("in"));
+        final Random random = new Random(42);
+
+        final List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            // mostly small files, some bigger than what gets kept in memory
+            final byte[] data = new byte[i % 50 == 0 ? 300_000 + i : random.nextInt(2_000)];
+            random.nextBytes(data);
+
+            final Path file = in.resolve("file-" + i);
+            Files.write(file, data);
+            files.add(file);
+        }
+
+        final Path sequential = build("sequential", files, RpmBuilder::newContext);
+        final Path parallel = build("parallel", files, builder -> builder.newParallelContext(this.executor));
+
+        assertThat(Files.readAllBytes(parallel)).isEqualTo(Files.readAllBytes(sequential));
+    }
+
+    @Test
+    void missingFile() throws IOException {
+        try (RpmBuilder builder = new RpmBuilder("test", new RpmVersion("1.0.0", "1"), "noarch", this.base)) {
+            // the failure is reported by whichever call collects the completed task first
+            assertThatThrownBy(() -> {
+                builder.newParallelContext(this.executor).addFile("/usr/lib/test/missing", this.base.resolve("missing"));
+                builder.build();
+            }).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private Path build(final String name, final List<Path> files, final Function<RpmBuilder, BuilderContext> contextFactory) throws IOException {
+        final Path outDir = Files.createDirectories(this.base.resolve(name));
+
+        try (RpmBuilder builder = new RpmBuilder("test", new RpmVersion("1.0.0", "1"), "noarch", outDir)) {
+            builder.setHeaderCustomizer(header -> header.putInt(RpmTag.BUILDTIME, (int) TIMESTAMP.getEpochSecond()));
+
+            final BuilderContext ctx = contextFactory.apply(builder);
+            ctx.setDefaultInformationProvider(BuilderContext.<Object> defaultProvider().customize(info -> info.setTimestamp(TIMESTAMP)));
+
+            for (int i = 0; i < files.size(); i++) {
+                if (i % 100 == 0) {
+                    ctx.addDirectory("/usr/lib/test/dir-" + i);
+                    ctx.addSymbolicLink("/usr/lib/test/link-" + i, "file-" + i);
+                }
+                ctx.addFile("/usr/lib/test/" + files.get(i).getFileName(), files.get(i));
+            }
+
+            builder.build();
+            return builder.getTargetFile();
+        }
+    }
+}
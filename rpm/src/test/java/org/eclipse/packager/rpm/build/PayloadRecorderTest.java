@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+import org.apache.commons.compress.archivers.cpio.CpioArchiveInputStream;
+import org.eclipse.packager.rpm.coding.PayloadCoding;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.google.common.io.ByteStreams;
+
+class PayloadRecorderTest {
+    private static byte[] makeData(final int size) {
+        final byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Streams of known and unknown size must record the same as a buffer.
+     */
+    @ParameterizedTest
+    @ValueSource(longs = { 0, 1024, 1024 * 1024 })
+    void stream(final long streamSpoolThreshold) throws IOException {
+        final byte[] data = makeData(100_000);
+
+        final BuilderOptions options = new BuilderOptions();
+        options.setStreamSpoolThreshold(streamSpoolThreshold);
+
+        try (PayloadRecorder recorder = new PayloadRecorder(options)) {
+            final PayloadRecorder.Result expected = recorder.addFile("./buffer", ByteBuffer.wrap(data));
+            final PayloadRecorder.Result sized = recorder.addFile("./sized", new ByteArrayInputStream(data), data.length);
+            final PayloadRecorder.Result unsized = recorder.addFile("./unsized", new ByteArrayInputStream(data));
+
+            assertThat(sized.getSize()).isEqualTo(expected.getSize());
+            assertThat(sized.getDigest()).isEqualTo(expected.getDigest());
+            assertThat(unsized.getSize()).isEqualTo(expected.getSize());
+            assertThat(unsized.getDigest()).isEqualTo(expected.getDigest());
+
+            try (PayloadRecorder.Finished finished = recorder.finish();
+                    CpioArchiveInputStream in = new CpioArchiveInputStream(PayloadCoding.GZIP.createProvider().createInputStream(Channels.newInputStream(finished.openChannel())), "UTF-8")) {
+                CpioArchiveEntry entry;
+                int count = 0;
+                while ((entry = in.getNextEntry()) != null) {
+                    assertThat(ByteStreams.toByteArray(in)).as(entry.getName()).isEqualTo(data);
+                    count++;
+                }
+                assertThat(count).isEqualTo(3);
+            }
+        }
+    }
+
+    @Test
+    void streamShorterThanDeclared() throws IOException {
+        final byte[] data = makeData(1_000);
+
+        final PayloadRecorder recorder = new PayloadRecorder();
+
+        assertThatThrownBy(() -> recorder.addFile("./file", new ByteArrayInputStream(data), data.length + 1))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("ended after 1000 bytes");
+
+        // the entry is incomplete, closing the recorder reports that too
+
+        assertThatThrownBy(recorder::close).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void streamLongerThanDeclared() throws IOException {
+        final byte[] data = makeData(1_000);
+
+        final PayloadRecorder recorder = new PayloadRecorder();
+        final ByteArrayInputStream stream = new ByteArrayInputStream(data);
+
+        assertThatThrownBy(() -> recorder.addFile("./file", stream, data.length - 2))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("longer than the declared size");
+
+        // only one byte past the declared size got consumed
+
+        assertThat(stream.available()).isEqualTo(1);
+
+        // the entry was not completed
+
+        assertThatThrownBy(recorder::close).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eclipse.packager.rpm.RpmSignatureTag;
+import org.eclipse.packager.rpm.RpmTag;
+import org.eclipse.packager.rpm.RpmVersion;
+import org.eclipse.packager.rpm.header.Header;
+import org.eclipse.packager.rpm.parse.InputHeader;
+import org.eclipse.packager.rpm.parse.RpmInputStream;
+import org.eclipse.packager.rpm.signature.SignatureProcessors;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SignatureReservedSpaceTest {
+    @TempDir
+    private Path outBase;
+
+    /**
+     * Write the same package with and without reserved space, the signatures
+     * and the package data must be the same.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = { 4096, 1000, 8 })
+    void reservedSpace(final int reservedSpace) throws IOException {
+        final byte[] data = new byte[1024 * 1024];
+        new Random(42).nextBytes(data);
+
+        final Header<RpmTag> header = new Header<>();
+        header.putString(RpmTag.PAYLOAD_FORMAT, "cpio");
+        header.putString(RpmTag.PAYLOAD_CODING, "gzip");
+        header.putString(RpmTag.NAME, "test");
+        header.putString(RpmTag.VERSION, "1.0.0");
+        header.putString(RpmTag.RELEASE, "1");
+        header.putString(RpmTag.ARCH, "noarch");
+        header.putString(RpmTag.OS, "linux");
+
+        final Path plain = this.outBase.resolve("plain.rpm");
+        final Path reserved = this.outBase.resolve("reserved.rpm");
+
+        try (PayloadRecorder recorder = new PayloadRecorder()) {
+            recorder.addFile("/data", ByteBuffer.wrap(data));
+
+            try (PayloadRecorder.Finished finished = recorder.finish()) {
+                write(plain, header, finished, 0);
+                write(reserved, header, finished, reservedSpace);
+            }
+        }
+
+        final InputHeader<RpmSignatureTag> plainSignature;
+        final InputHeader<RpmSignatureTag> reservedSignature;
+        final long plainStart;
+        final long reservedStart;
+
+        try (RpmInputStream in = new RpmInputStream(Files.newInputStream(plain))) {
+            plainSignature = in.getSignatureHeader();
+            plainStart = in.getPayloadHeader().getStart();
+        }
+        try (RpmInputStream in = new RpmInputStream(Files.newInputStream(reserved))) {
+            reservedSignature = in.getSignatureHeader();
+            reservedStart = in.getPayloadHeader().getStart();
+        }
+
+        assertThat(reservedSignature.getByteArray(RpmSignatureTag.MD5)).isEqualTo(plainSignature.getByteArray(RpmSignatureTag.MD5));
+        assertThat(reservedSignature.getString(RpmSignatureTag.SHA256HEADER)).isEqualTo(plainSignature.getString(RpmSignatureTag.SHA256HEADER));
+        assertThat(reservedSignature.getInteger(RpmSignatureTag.SIZE)).isEqualTo(plainSignature.getInteger(RpmSignatureTag.SIZE));
+
+        if (reservedSpace >= 1000) {
+            // the signature fits, the package header starts right after the reserved space
+            assertThat(reservedSignature.hasTag(RpmSignatureTag.RESERVEDSPACE)).isTrue();
+            assertThat(reservedStart).isEqualTo(96 + reservedSpace);
+        } else {
+            // fallback, the package is written the same way as without reserved space
+            assertThat(reservedSignature.hasTag(RpmSignatureTag.RESERVEDSPACE)).isFalse();
+            assertThat(reservedStart).isEqualTo(plainStart);
+        }
+
+        final byte[] plainBytes = Files.readAllBytes(plain);
+        final byte[] reservedBytes = Files.readAllBytes(reserved);
+        assertThat(Arrays.copyOfRange(reservedBytes, (int) reservedStart, reservedBytes.length))
+                .isEqualTo(Arrays.copyOfRange(plainBytes, (int) plainStart, plainBytes.length));
+    }
+
+    private static void write(final Path file, final Header<RpmTag> header, final PayloadProvider payload, final int reservedSpace) throws IOException {
+        try (RpmWriter writer = new RpmWriter(file, new LeadBuilder("test", new RpmVersion("1.0.0", "1")), header)) {
+            writer.setPayload(payload);
+            writer.setSignatureReservedSpace(reservedSpace);
+            writer.addSignatureProcessor(SignatureProcessors.size());
+            writer.addSignatureProcessor(SignatureProcessors.md5());
+            writer.addSignatureProcessor(SignatureProcessors.sha256Header());
+        }
+    }
+}
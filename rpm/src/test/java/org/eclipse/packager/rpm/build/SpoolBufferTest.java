@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+import org.eclipse.packager.rpm.RpmTag;
+import org.eclipse.packager.rpm.RpmVersion;
+import org.eclipse.packager.rpm.parse.RpmInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.google.common.io.ByteStreams;
+
+class SpoolBufferTest {
+    @TempDir
+    private Path outBase;
+
+    @Test
+    void buildInMemory() throws IOException {
+        final BuilderOptions options = new BuilderOptions();
+        options.setPayloadSpoolThreshold(1024 * 1024);
+
+        final Path outFile;
+        try (RpmBuilder builder = new RpmBuilder("testInMemory", new RpmVersion("1.0.0", "1"), "noarch", this.outBase, options)) {
+            builder.getInformation().setSummary("In memory payload");
+            builder.newContext().addFile("/etc/test/file", "Hello World".getBytes(StandardCharsets.UTF_8));
+
+            outFile = builder.getTargetFile();
+            builder.build();
+        }
+
+        try (RpmInputStream in = new RpmInputStream(Files.newInputStream(outFile))) {
+            assertThat(in.getPayloadHeader().getString(RpmTag.NAME)).isEqualTo("testInMemory");
+
+            final CpioArchiveEntry entry = in.getCpioStream().getNextEntry();
+            assertThat(entry.getName()).isEqualTo("./etc/test/file");
+            assertThat(new String(ByteStreams.toByteArray(in.getCpioStream()), StandardCharsets.UTF_8)).isEqualTo("Hello World");
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = { "0,false,false", "1000000,false,true", "1000000,true,true", "100000,false,false", "100000,true,false" })
+    void spool(final long threshold, final boolean direct, final boolean inMemory) throws IOException {
+        final byte[] data = new byte[200_000];
+        new Random(42).nextBytes(data);
+
+        final SpoolBuffer buffer = new SpoolBuffer("test-", threshold, direct);
+        try {
+            // write in odd sized parts, to cross chunk boundaries
+
+            for (int i = 0; i < data.length; i += 1_234) {
+                buffer.write(data, i, Math.min(1_234, data.length - i));
+            }
+            buffer.close();
+
+            assertThat(buffer.size()).isEqualTo(data.length);
+            assertThat(buffer.isInMemory()).isEqualTo(inMemory);
+
+            // read twice, channels must be independent
+
+            for (int i = 0; i < 2; i++) {
+                try (ReadableByteChannel channel = buffer.openChannel()) {
+                    assertThat(channel instanceof FileChannel).isEqualTo(!inMemory);
+
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    ByteStreams.copy(channel, Channels.newChannel(out));
+                    assertThat(out.toByteArray()).isEqualTo(data);
+                }
+            }
+        } finally {
+            buffer.delete();
+        }
+    }
+}
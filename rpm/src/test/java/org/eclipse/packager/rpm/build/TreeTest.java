@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.build;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+import org.eclipse.packager.rpm.RpmVersion;
+import org.eclipse.packager.rpm.parse.RpmInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.io.ByteStreams;
+
+@DisabledOnOs(OS.WINDOWS)
+class TreeTest {
+    @TempDir
+    private Path base;
+
+    private Path root;
+
+    @BeforeEach
+    void setup() throws IOException {
+        this.root = Files.createDirectories(this.base.resolve("tree"));
+
+        Files.createDirectories(this.root.resolve("bin"));
+        Files.createDirectories(this.root.resolve("lib/sub"));
+        Files.createDirectories(this.root.resolve("tmp"));
+
+        Files.write(this.root.resolve("bin/tool"), "#!/bin/sh".getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(this.root.resolve("bin/tool"), PosixFilePermissions.fromString("rwxr-xr-x"));
+        Files.write(this.root.resolve("lib/sub/data.txt"), "data".getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(this.root.resolve("lib/sub/data.txt"), PosixFilePermissions.fromString("rw-r-----"));
+        Files.write(this.root.resolve("lib/sub/data.bak"), "backup".getBytes(StandardCharsets.UTF_8));
+        Files.write(this.root.resolve("tmp/scratch"), "scratch".getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(this.root.resolve("lib/link"), Path.of("sub/data.txt"));
+    }
+
+    @Test
+    void addTree() throws IOException {
+        final PathMatcher exclude = this.root.getFileSystem().getPathMatcher("glob:{tmp,**.bak}");
+
+        final Path file = build("tree", builder -> builder.newContext(), exclude);
+        final Map<String, CpioArchiveEntry> entries = new HashMap<>();
+        final Map<String, String> content = new HashMap<>();
+        read(file, entries, content);
+
+        assertThat(entries).containsOnlyKeys(
+                "./opt/test/bin",
+                "./opt/test/bin/tool",
+                "./opt/test/lib",
+                "./opt/test/lib/sub",
+                "./opt/test/lib/sub/data.txt",
+                "./opt/test/lib/link");
+
+        assertThat(entries.get("./opt/test/bin").isDirectory()).isTrue();
+        assertThat(entries.get("./opt/test/bin/tool").getMode() & 07777).isEqualTo(0755);
+        assertThat(entries.get("./opt/test/lib/sub/data.txt").getMode() & 07777).isEqualTo(0640);
+        assertThat(entries.get("./opt/test/lib/link").isSymbolicLink()).isTrue();
+
+        assertThat(content.get("./opt/test/bin/tool")).isEqualTo("#!/bin/sh");
+        assertThat(content.get("./opt/test/lib/link")).isEqualTo("sub/data.txt");
+    }
+
+    @Test
+    void include() throws IOException {
+        final PathMatcher include = this.root.getFileSystem().getPathMatcher("glob:**.txt");
+
+        final Map<String, CpioArchiveEntry> entries = new HashMap<>();
+        read(build("include", builder -> builder.newContext(), include, null), entries, new HashMap<>());
+
+        assertThat(entries).containsOnlyKeys("./opt/test/lib/sub/data.txt");
+    }
+
+    @Test
+    void parallel() throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Path sequential = build("sequential", builder -> builder.newContext(), null);
+            final Path parallel = build("parallel", builder -> builder.newParallelContext(executor), null);
+
+            final Map<String, CpioArchiveEntry> sequentialEntries = new HashMap<>();
+            final Map<String, String> sequentialContent = new HashMap<>();
+            read(sequential, sequentialEntries, sequentialContent);
+
+            final Map<String, CpioArchiveEntry> parallelEntries = new HashMap<>();
+            final Map<String, String> parallelContent = new HashMap<>();
+            read(parallel, parallelEntries, parallelContent);
+
+            assertThat(parallelEntries.keySet()).isEqualTo(sequentialEntries.keySet());
+            assertThat(parallelContent).isEqualTo(sequentialContent);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Path build(final String name, final Function<RpmBuilder, BuilderContext> contextFactory, final PathMatcher exclude) throws IOException {
+        return build(name, contextFactory, null, exclude);
+    }
+
+    private Path build(final String name, final Function<RpmBuilder, BuilderContext> contextFactory, final PathMatcher include, final PathMatcher exclude) throws IOException {
+        final Path outDir = Files.createDirectories(this.base.resolve(name));
+
+        try (RpmBuilder builder = new RpmBuilder("test", new RpmVersion("1.0.0", "1"), "noarch", outDir)) {
+            contextFactory.apply(builder).addTree(this.root, "/opt/test", include, exclude);
+            builder.build();
+            return builder.getTargetFile();
+        }
+    }
+
+    private static void read(final Path file, final Map<String, CpioArchiveEntry> entries, final Map<String, String> content) throws IOException {
+        try (RpmInputStream in = new RpmInputStream(Files.newInputStream(file))) {
+            in.getPayloadHeader();
+
+            CpioArchiveEntry entry;
+            while ((entry = in.getCpioStream().getNextEntry()) != null) {
+                entries.put(entry.getName(), entry);
+                content.put(entry.getName(), new String(ByteStreams.toByteArray(in.getCpioStream()), StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.coding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.compressors.zstandard.ZstdUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.SeekableInputStream;
+import org.tukaani.xz.SeekableXZInputStream;
+
+import com.google.common.io.ByteStreams;
+
+class PayloadCodingTest {
+    @ParameterizedTest
+    @CsvSource(value = { "'',-1,false", "9,9,false", "19,19,false", "19T8,19,true", "6T0,6,true", "T4,-1,true", "w19T8L,19,true" })
+    void parseFlags(final String value, final int level, final boolean threaded) {
+        final PayloadFlags flags = PayloadFlags.parse(value);
+        assertThat(flags.getLevel(-1)).isEqualTo(level);
+        assertThat(flags.isThreaded()).isEqualTo(threaded);
+        assertThat(flags.getThreads()).isPositive();
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = { "3T1", "3T2", "3T8", "3T0" })
+    void zstdThreadsAreDeterministic(final String flags) throws IOException {
+        assumeTrue(ZstdUtils.isZstdCompressionAvailable());
+
+        final byte[] data = makeData(16 * 1024 * 1024);
+        final byte[] reference = compress(PayloadCoding.ZSTD, "3T4", data);
+
+        assertThat(compress(PayloadCoding.ZSTD, flags, data)).isEqualTo(reference);
+        assertThat(decompress(PayloadCoding.ZSTD, reference)).isEqualTo(data);
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = { "1", "2", "4", "0" })
+    void xzThreadsAreDeterministic(final int threads) throws IOException {
+        final byte[] data = makeData(4 * 1024 * 1024);
+
+        final byte[] reference = compressXz(data, 1);
+        assertThat(compressXz(data, threads)).isEqualTo(reference);
+
+        // the index must be valid, so we use the seekable stream which reads it
+
+        try (SeekableXZInputStream in = new SeekableXZInputStream(new InMemorySeekableInputStream(reference))) {
+            assertThat(in.getBlockCount()).isEqualTo(data.length / (512 * 1024));
+            assertThat(ByteStreams.toByteArray(in)).isEqualTo(data);
+        }
+
+        assertThat(decompress(PayloadCoding.XZ, reference)).isEqualTo(data);
+    }
+
+    @Test
+    void xzFlags() throws IOException {
+        final byte[] data = "Hello World".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(decompress(PayloadCoding.XZ, compress(PayloadCoding.XZ, "1T0", data))).isEqualTo(data);
+        assertThat(decompress(PayloadCoding.XZ, compress(PayloadCoding.XZ, "1T0", new byte[0]))).isEmpty();
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = { "1", "3", "0" })
+    void gzipThreads(final int threads) throws IOException {
+        final byte[] data = makeData(1024 * 1024 + 17);
+
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (OutputStream out = new ParallelGzipOutputStream(result, 6, 64 * 1024, threads)) {
+            out.write(data);
+        }
+
+        // the JDK stream verifies the CRC32 and the size
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(result.toByteArray()))) {
+            assertThat(ByteStreams.toByteArray(in)).isEqualTo(data);
+        }
+
+        assertThat(decompress(PayloadCoding.GZIP, compress(PayloadCoding.GZIP, "9T" + threads, data))).isEqualTo(data);
+        assertThat(decompress(PayloadCoding.GZIP, compress(PayloadCoding.GZIP, "9T" + threads, new byte[0]))).isEmpty();
+    }
+
+    @Test
+    void combineCrc() {
+        final byte[] data = makeData(100_000);
+
+        final CRC32 all = new CRC32();
+        all.update(data);
+
+        final CRC32 first = new CRC32();
+        first.update(data, 0, 12_345);
+        final CRC32 second = new CRC32();
+        second.update(data, 12_345, data.length - 12_345);
+
+        assertThat(ParallelGzipOutputStream.combine(first.getValue(), second.getValue(), data.length - 12_345)).isEqualTo(all.getValue());
+    }
+
+    @Test
+    void failingHeader() {
+        final OutputStream broken = new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                throw new IOException("broken");
+            }
+        };
+
+        assertThatThrownBy(() -> new ParallelXZOutputStream(broken, 1, 2)).isInstanceOf(IOException.class).hasMessage("broken");
+        assertThatThrownBy(() -> new ParallelGzipOutputStream(broken, 6, 2)).isInstanceOf(IOException.class).hasMessage("broken");
+    }
+
+    private static byte[] compressXz(final byte[] data, final int threads) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (OutputStream out = new ParallelXZOutputStream(result, new LZMA2Options(1), 512 * 1024, threads)) {
+            out.write(data);
+        }
+        return result.toByteArray();
+    }
+
+    private static class InMemorySeekableInputStream extends SeekableInputStream {
+        private final byte[] data;
+
+        private int position;
+
+        InMemorySeekableInputStream(final byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() {
+            return this.position < this.data.length ? this.data[this.position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (this.position >= this.data.length) {
+                return -1;
+            }
+            final int n = Math.min(len, this.data.length - this.position);
+            System.arraycopy(this.data, this.position, b, off, n);
+            this.position += n;
+            return n;
+        }
+
+        @Override
+        public long length() {
+            return this.data.length;
+        }
+
+        @Override
+        public long position() {
+            return this.position;
+        }
+
+        @Override
+        public void seek(final long pos) {
+            this.position = (int) pos;
+        }
+    }
+
+    static byte[] makeData(final int size) {
+        // somewhat compressible, and large enough for multiple compression jobs
+        final Random random = new Random(42);
+        final byte[] data = new byte[size];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return data;
+    }
+
+    static byte[] compress(final PayloadCoding coding, final String flags, final byte[] data) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (OutputStream out = coding.createProvider().createOutputStream(result, Optional.ofNullable(flags))) {
+            out.write(data);
+        }
+        return result.toByteArray();
+    }
+
+    static byte[] decompress(final PayloadCoding coding, final byte[] data) throws IOException {
+        try (InputStream in = coding.createProvider().createInputStream(new ByteArrayInputStream(data))) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.extract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.eclipse.packager.rpm.RpmTag;
+import org.eclipse.packager.rpm.RpmVersion;
+import org.eclipse.packager.rpm.build.BuilderContext;
+import org.eclipse.packager.rpm.build.RpmBuilder;
+import org.eclipse.packager.rpm.header.Header;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisabledOnOs(OS.WINDOWS)
+class RpmExtractorTest {
+    private static final Instant TIMESTAMP = Instant.parse("2020-01-01T00:00:00Z");
+
+    @TempDir
+    private Path base;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        this.executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void extract() throws IOException {
+        final byte[] large = new byte[100_000];
+        new Random(42).nextBytes(large);
+
+        final Path rpm = build(ctx -> {
+            ctx.addDirectory("/opt/test", info -> info.setMode((short) 0750));
+            ctx.addFile("/opt/test/bin/tool", "#!/bin/sh".getBytes(StandardCharsets.UTF_8), info -> info.setMode((short) 0755));
+            ctx.addFile("/opt/test/large.bin", large);
+            for (int i = 0; i < 100; i++) {
+                ctx.addFile("/opt/test/data/file-" + i, ("file " + i).getBytes(StandardCharsets.UTF_8));
+            }
+            ctx.addSymbolicLink("/opt/test/link", "bin/tool");
+        });
+
+        final Path out = this.base.resolve("out");
+        final RpmExtractor extractor = new RpmExtractor(out, this.executor);
+        extractor.setVerifyDigests(true);
+        extractor.setMaxBufferedBytes(50_000);
+        extractor.extract(rpm);
+
+        final Path root = out.resolve("opt/test");
+
+        assertThat(root.resolve("bin/tool")).hasContent("#!/bin/sh");
+        assertThat(Files.readAllBytes(root.resolve("large.bin"))).isEqualTo(large);
+        for (int i = 0; i < 100; i++) {
+            assertThat(root.resolve("data/file-" + i)).hasContent("file " + i);
+        }
+
+        assertThat(Files.isSymbolicLink(root.resolve("link"))).isTrue();
+        assertThat(Files.readSymbolicLink(root.resolve("link"))).isEqualTo(Path.of("bin/tool"));
+
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(root.resolve("bin/tool")))).isEqualTo("rwxr-xr-x");
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(root))).isEqualTo("rwxr-x---");
+
+        assertThat(Files.getLastModifiedTime(root.resolve("large.bin"))).isEqualTo(FileTime.from(TIMESTAMP));
+        assertThat(Files.getLastModifiedTime(root, LinkOption.NOFOLLOW_LINKS)).isEqualTo(FileTime.from(TIMESTAMP));
+    }
+
+    @Test
+    void outsideOfTarget() throws IOException {
+        final Path rpm = build(ctx -> ctx.addFile("/../escape", new byte[] { 1 }));
+
+        assertThatThrownBy(() -> new RpmExtractor(this.base.resolve("out"), this.executor).extract(rpm))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("outside of the target directory");
+
+        assertThat(this.base.resolve("escape")).doesNotExist();
+    }
+
+    @Test
+    void belowSymlink() throws IOException {
+        final Path outside = Files.createDirectories(this.base.resolve("outside"));
+
+        final Path rpm = build(ctx -> {
+            ctx.addSymbolicLink("/opt/link", outside.toString());
+            ctx.addFile("/opt/link/escape", new byte[] { 1 });
+        });
+
+        assertThatThrownBy(() -> new RpmExtractor(this.base.resolve("out"), this.executor).extract(rpm))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Entry '/opt/link/escape' would be extracted below the symbolic link 'opt/link'");
+
+        assertThat(outside.resolve("escape")).doesNotExist();
+    }
+
+    @Test
+    void hardLinks() throws IOException {
+        final Path rpm = build(ctx -> {
+            ctx.addFile("/opt/test/a", new byte[0]);
+            ctx.addFile("/opt/test/b", "shared".getBytes(StandardCharsets.UTF_8));
+            ctx.addFile("/opt/test/c", new byte[0]);
+            ctx.addFile("/opt/test/empty-1", new byte[0]);
+            ctx.addFile("/opt/test/empty-2", new byte[0]);
+            ctx.addFile("/opt/test/other", "other".getBytes(StandardCharsets.UTF_8));
+        }, header -> {
+            final List<String> basenames = header.getStringList(RpmTag.BASENAMES);
+            final long[] inodes = header.getLongArray(RpmTag.FILE_INODES);
+            final List<String> digests = new ArrayList<>(header.getStringList(RpmTag.FILE_DIGESTS));
+
+            // the content is only attached to one of the hard linked entries, the digest is the same for all of them
+
+            final int shared = basenames.indexOf("b");
+            for (final String name : new String[] { "a", "c" }) {
+                inodes[basenames.indexOf(name)] = inodes[shared];
+                digests.set(basenames.indexOf(name), digests.get(shared));
+            }
+            inodes[basenames.indexOf("empty-2")] = inodes[basenames.indexOf("empty-1")];
+
+            final long[] devices = new long[inodes.length];
+            Arrays.fill(devices, 1);
+
+            header.putInt(RpmTag.FILE_INODES, Arrays.stream(inodes).mapToInt(inode -> (int) inode).toArray());
+            header.putInt(RpmTag.FILE_DEVICES, Arrays.stream(devices).mapToInt(device -> (int) device).toArray());
+            header.putStringArray(RpmTag.FILE_DIGESTS, digests.toArray(new String[0]));
+        });
+
+        final Path out = this.base.resolve("out");
+        final RpmExtractor extractor = new RpmExtractor(out, this.executor);
+        extractor.setVerifyDigests(true);
+        extractor.extract(rpm);
+
+        final Path root = out.resolve("opt/test");
+
+        for (final String name : new String[] { "a", "b", "c" }) {
+            assertThat(root.resolve(name)).hasContent("shared");
+        }
+        assertThat(Files.isSameFile(root.resolve("a"), root.resolve("b"))).isTrue();
+        assertThat(Files.isSameFile(root.resolve("c"), root.resolve("b"))).isTrue();
+
+        assertThat(root.resolve("empty-1")).isEmptyFile();
+        assertThat(Files.isSameFile(root.resolve("empty-1"), root.resolve("empty-2"))).isTrue();
+
+        assertThat(root.resolve("other")).hasContent("other");
+        assertThat(Files.isSameFile(root.resolve("other"), root.resolve("b"))).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = { RpmExtractor.DEFAULT_MAX_BUFFERED_BYTES, 0 })
+    void digestMismatch(final long maxBufferedBytes) throws IOException {
+        final Path rpm = build(ctx -> {
+            ctx.addFile("/opt/test/good", "good".getBytes(StandardCharsets.UTF_8));
+            ctx.addFile("/opt/test/tampered", "tampered".getBytes(StandardCharsets.UTF_8));
+        }, header -> {
+            final List<String> basenames = header.getStringList(RpmTag.BASENAMES);
+            final List<String> digests = new ArrayList<>(header.getStringList(RpmTag.FILE_DIGESTS));
+            final int i = basenames.indexOf("tampered");
+            digests.set(i, "0".repeat(digests.get(i).length()));
+            header.putStringArray(RpmTag.FILE_DIGESTS, digests.toArray(new String[0]));
+        });
+
+        final RpmExtractor extractor = new RpmExtractor(this.base.resolve("verified"), this.executor);
+        extractor.setMaxBufferedBytes(maxBufferedBytes);
+        extractor.setVerifyDigests(true);
+
+        assertThatThrownBy(() -> extractor.extract(rpm))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Digest mismatch for '/opt/test/tampered'");
+
+        // without verification, the content is extracted as it is
+
+        final Path out = this.base.resolve("unverified");
+        new RpmExtractor(out, this.executor).extract(rpm);
+        assertThat(out.resolve("opt/test/tampered")).hasContent("tampered");
+    }
+
+    @FunctionalInterface
+    private interface Content {
+        void add(BuilderContext ctx) throws IOException;
+    }
+
+    private Path build(final Content content) throws IOException {
+        return build(content, null);
+    }
+
+    private Path build(final Content content, final Consumer<Header<RpmTag>> headerCustomizer) throws IOException {
+        final Path outDir = Files.createDirectories(this.base.resolve("rpm"));
+
+        try (RpmBuilder builder = new RpmBuilder("test", new RpmVersion("1.0.0", "1"), "noarch", outDir)) {
+            builder.setHeaderCustomizer(headerCustomizer);
+            final BuilderContext ctx = builder.newContext();
+            ctx.setDefaultInformationProvider(BuilderContext.<Object> defaultProvider().customize(info -> info.setTimestamp(TIMESTAMP)));
+            content.add(ctx);
+            builder.build();
+            return builder.getTargetFile();
+        }
+    }
+}
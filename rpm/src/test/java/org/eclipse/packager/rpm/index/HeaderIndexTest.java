@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import org.eclipse.packager.rpm.RpmTag;
+import org.eclipse.packager.rpm.info.RpmInformation;
+import org.eclipse.packager.rpm.info.RpmInformations;
+import org.eclipse.packager.rpm.parse.RpmFile;
+import org.eclipse.packager.rpm.parse.RpmHeaderRegion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class HeaderIndexTest {
+    private static final Path DATA = Path.of("src/test/resources/data");
+
+    @TempDir
+    private Path base;
+
+    private Path rpm1;
+
+    private Path rpm2;
+
+    private Path indexFile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        this.rpm1 = Files.copy(DATA.resolve("org.eclipse.scada-0.2.1-1.noarch.rpm"), this.base.resolve("a.rpm"));
+        this.rpm2 = Files.copy(DATA.resolve("org.eclipse.scada-centos6-0.2.1-1.noarch.rpm"), this.base.resolve("b.rpm"));
+        this.indexFile = this.base.resolve("headers.idx");
+    }
+
+    @Test
+    void persistent() throws IOException {
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            assertThat(index.get(this.rpm1)).isEmpty();
+
+            index.update(this.rpm1);
+            index.update(this.rpm2);
+
+            assertThat(index.size()).isEqualTo(2);
+            assertThat(index.get(this.rpm1)).isPresent();
+        }
+
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile); RpmFile file = RpmFile.open(this.rpm1)) {
+            assertThat(index.keys()).containsExactly(HeaderIndex.key(this.rpm1), HeaderIndex.key(this.rpm2));
+
+            final RpmHeaderRegion region = index.get(this.rpm1).orElseThrow();
+
+            assertThat(region.getPayloadStart()).isEqualTo(file.getPayloadStart());
+            assertThat(region.getPayloadHeader().getStart()).isEqualTo(file.getPayloadHeader().getStart());
+            assertThat(region.getPayloadHeader().getString(RpmTag.NAME)).isEqualTo("org.eclipse.scada");
+            assertThat(region.getLead().getName()).isEqualTo(file.getLead().getName());
+
+            assertThat(RpmInformations.makeInformation(region)).usingRecursiveComparison().isEqualTo(RpmInformations.makeInformation(file));
+        }
+    }
+
+    @Test
+    void changed() throws IOException {
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            index.update(this.rpm1);
+
+            Files.setLastModifiedTime(this.rpm1, FileTime.from(Instant.parse("2020-01-01T00:00:00Z")));
+            assertThat(index.get(this.rpm1)).isEmpty();
+
+            Files.copy(this.rpm2, this.rpm1, StandardCopyOption.REPLACE_EXISTING);
+            assertThat(index.update(this.rpm1).getPayloadHeader().getString(RpmTag.NAME)).isEqualTo("org.eclipse.scada-centos6");
+            assertThat(index.get(this.rpm1)).isPresent();
+
+            assertThat(index.size()).isEqualTo(1);
+            assertThat(index.getRecords()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void removeAndCompact() throws IOException {
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            index.update(this.rpm1);
+            final RpmHeaderRegion region = index.update(this.rpm2);
+
+            assertThat(index.remove(this.rpm1)).isTrue();
+            assertThat(index.remove(this.rpm1)).isFalse();
+
+            Files.delete(this.rpm2);
+            assertThat(index.removeMissing()).isEqualTo(1);
+            assertThat(index.getRecords()).isEqualTo(4);
+
+            index.update(this.rpm1);
+
+            final long before = Files.size(this.indexFile);
+            index.compact();
+
+            assertThat(Files.size(this.indexFile)).isLessThan(before);
+            assertThat(index.getRecords()).isEqualTo(1);
+            assertThat(index.size()).isEqualTo(1);
+            assertThat(index.get(this.rpm1)).isPresent();
+
+            // regions returned before compacting are still valid
+            assertThat(region.getPayloadHeader().getString(RpmTag.NAME)).isEqualTo("org.eclipse.scada-centos6");
+        }
+
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            assertThat(index.keys()).containsExactly(HeaderIndex.key(this.rpm1));
+        }
+    }
+
+    @Test
+    void incompleteRecord() throws IOException {
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            index.update(this.rpm1);
+        }
+
+        // simulate a record which was only partially written
+        Files.write(this.indexFile, new byte[] { 0, 0, 1, 0, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            assertThat(index.getRecords()).isEqualTo(1);
+            index.update(this.rpm2);
+        }
+
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            assertThat(index.getRecords()).isEqualTo(2);
+            assertThat(index.get(this.rpm1)).isPresent();
+            assertThat(index.get(this.rpm2)).isPresent();
+        }
+    }
+
+    @Test
+    void notAnIndex() throws IOException {
+        Files.writeString(this.indexFile, "this is not an index file");
+
+        assertThatThrownBy(() -> HeaderIndex.open(this.indexFile))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("magic");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 64, 8 * 1024, HeaderIndex.DEFAULT_REGION_SIZE })
+    void regions(final int regionSize) throws IOException {
+        final RpmInformation expected1 = RpmInformations.makeInformation(this.rpm1, null);
+        final RpmInformation expected2 = RpmInformations.makeInformation(this.rpm2, null);
+
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile, regionSize)) {
+            index.update(this.rpm1);
+            index.update(this.rpm2);
+            index.remove(this.rpm1);
+            index.update(this.rpm1);
+        }
+
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile, regionSize)) {
+            assertThat(index.getRecords()).isEqualTo(4);
+            assertThat(index.getInformation(this.rpm1)).get().usingRecursiveComparison().isEqualTo(expected1);
+            assertThat(index.getInformation(this.rpm2)).get().usingRecursiveComparison().isEqualTo(expected2);
+
+            // appended after opening, mapped on first access
+            index.remove(this.rpm2);
+            index.update(this.rpm2);
+            assertThat(index.get(this.rpm2).orElseThrow().getPayloadHeader().getString(RpmTag.NAME)).isEqualTo("org.eclipse.scada-centos6");
+            assertThat(index.getInformation(this.rpm2)).get().usingRecursiveComparison().isEqualTo(expected2);
+
+            index.compact();
+            assertThat(index.getInformation(this.rpm1)).get().usingRecursiveComparison().isEqualTo(expected1);
+            assertThat(index.get(this.rpm2).orElseThrow().getPayloadHeader().getString(RpmTag.NAME)).isEqualTo("org.eclipse.scada-centos6");
+        }
+    }
+
+    @Test
+    void storedInformation() throws IOException {
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            index.update(this.rpm1);
+        }
+
+        // break the stored headers, by overwriting the magic of the lead
+
+        final byte[] data = Files.readAllBytes(this.indexFile);
+        final int lead = indexOf(data, new byte[] { (byte) 0xED, (byte) 0xAB, (byte) 0xEE, (byte) 0xDB });
+        assertThat(lead).isPositive();
+        data[lead] = 0;
+        Files.write(this.indexFile, data);
+
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            // the information is used as it is, without parsing the headers
+            assertThat(index.getInformation(this.rpm1)).get().usingRecursiveComparison().isEqualTo(RpmInformations.makeInformation(this.rpm1, null));
+            assertThatThrownBy(() -> index.get(this.rpm1)).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void outdatedInformation() throws IOException {
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            index.update(this.rpm1);
+            index.update(this.rpm2);
+            index.update(this.rpm2);
+        }
+
+        // pretend the information was stored by an older version
+
+        try (FileChannel channel = FileChannel.open(this.indexFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, HeaderIndex.INFORMATION_VERSION - 1), 12);
+        }
+
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            // rebuilt from the stored headers
+            assertThat(index.getRecords()).isEqualTo(2);
+            assertThat(index.getInformation(this.rpm1)).get().usingRecursiveComparison().isEqualTo(RpmInformations.makeInformation(this.rpm1, null));
+            assertThat(index.getInformation(this.rpm2)).get().usingRecursiveComparison().isEqualTo(RpmInformations.makeInformation(this.rpm2, null));
+        }
+
+        final ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(this.indexFile));
+        assertThat(header.getInt(12)).isEqualTo(HeaderIndex.INFORMATION_VERSION);
+    }
+
+    private static int indexOf(final byte[] data, final byte[] pattern) {
+        outer: for (int i = 0; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    @Test
+    void informations() throws IOException {
+        try (HeaderIndex index = HeaderIndex.open(this.indexFile)) {
+            final RpmInformation direct = RpmInformations.makeInformation(this.rpm1, null);
+            final RpmInformation first = RpmInformations.makeInformation(this.rpm1, index);
+            final RpmInformation indexed = RpmInformations.makeInformation(this.rpm1, index);
+
+            assertThat(first).usingRecursiveComparison().isEqualTo(direct);
+            assertThat(indexed).usingRecursiveComparison().isEqualTo(direct);
+            assertThat(index.getRecords()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.info;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.eclipse.packager.rpm.parse.RpmFile;
+import org.eclipse.packager.rpm.parse.RpmInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RpmInformationsTest {
+    @ParameterizedTest
+    @ValueSource(strings = { "org.eclipse.scada-0.2.1-1.noarch.rpm", "org.eclipse.scada-centos6-0.2.1-1.noarch.rpm" })
+    void headerOnly(final String name) throws IOException {
+        final Path path = Path.of("src/test/resources/data", name);
+
+        final RpmInformation expected;
+        try (RpmInputStream in = new RpmInputStream(Files.newInputStream(path))) {
+            expected = RpmInformations.makeInformation(in);
+        }
+
+        assertThat(expected.getFiles()).isNotEmpty();
+
+        final RpmInformation fromFile;
+        try (RpmFile file = RpmFile.open(path)) {
+            fromFile = RpmInformations.makeInformation(file);
+        }
+        assertThat(fromFile).usingRecursiveComparison().isEqualTo(expected);
+
+        // the payload is not required at all
+
+        final byte[] data = Files.readAllBytes(path);
+        final byte[] headers = Arrays.copyOf(data, (int) expected.getHeaderEnd());
+
+        try (RpmInputStream in = new RpmInputStream(new ByteArrayInputStream(headers))) {
+            assertThat(RpmInformations.makeHeaderInformation(in)).usingRecursiveComparison().isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void payloadAfterHeaders() throws IOException {
+        final Path path = Path.of("src/test/resources/data/org.eclipse.scada-0.2.1-1.noarch.rpm");
+
+        try (RpmInputStream in = new RpmInputStream(Files.newInputStream(path))) {
+            in.getPayloadHeader();
+            assertThat(in.getCpioStream().getNextEntry()).isNotNull();
+        }
+        try (InputStream in = new RpmInputStream(Files.newInputStream(path))) {
+            assertThat(in.read(new byte[16], 0, 16)).isPositive();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.signature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.packager.rpm.HashAlgorithm;
+import org.eclipse.packager.rpm.verify.RpmVerifier;
+import org.eclipse.packager.rpm.verify.Verification;
+import org.eclipse.packager.rpm.verify.VerificationReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RpmBatchSignerTest {
+    private static final Path DATA = Path.of("src/test/resources/data");
+
+    private static final Path PRIVATE_KEY = Path.of("src/test/resources/key/private_key.txt");
+
+    private static final Path PUBLIC_KEY = Path.of("src/test/resources/key/public_key.txt");
+
+    @TempDir
+    private Path base;
+
+    private Path source;
+
+    private List<Path> files;
+
+    private RpmBatchSigner signer;
+
+    @BeforeEach
+    void setup() throws Exception {
+        this.source = Files.createDirectories(this.base.resolve("source"));
+        this.files = List.of(
+                Files.copy(DATA.resolve("org.eclipse.scada-0.2.1-1.noarch.rpm"), this.source.resolve("a.rpm")),
+                Files.copy(DATA.resolve("org.eclipse.scada-centos6-0.2.1-1.noarch.rpm"), this.source.resolve("b.rpm")),
+                Files.writeString(this.source.resolve("broken.rpm"), "not an rpm"),
+                Files.copy(DATA.resolve("org.eclipse.scada-0.2.1-1.noarch.rpm"), this.source.resolve("c.rpm")));
+
+        try (InputStream in = Files.newInputStream(PRIVATE_KEY)) {
+            this.signer = RpmBatchSigner.create(in, "testkey", HashAlgorithm.SHA256);
+        }
+    }
+
+    @Test
+    void targetDirectory() throws IOException {
+        final Path target = Files.createDirectories(this.base.resolve("target"));
+        this.signer.setTargetDirectory(target);
+
+        final List<RpmBatchSigner.Result> results = this.signer.signAll(this.files, 2);
+
+        assertThat(results).extracting(RpmBatchSigner.Result::getPath).containsExactlyElementsOf(this.files);
+        assertThat(results).extracting(RpmBatchSigner.Result::isSuccess).containsExactly(true, true, false, true);
+        assertThat(results.get(2).getError()).isInstanceOf(IOException.class);
+
+        // no partial output for failed files
+        assertThat(target.resolve("broken.rpm")).doesNotExist();
+
+        assertVerified(target, 3);
+
+        // the source files are unchanged
+        assertThat(Files.size(this.source.resolve("a.rpm"))).isEqualTo(Files.size(DATA.resolve("org.eclipse.scada-0.2.1-1.noarch.rpm")));
+    }
+
+    @Test
+    void inPlace() throws IOException {
+        final List<RpmBatchSigner.Result> results = this.signer.signAll(this.files, 4);
+
+        assertThat(results).extracting(RpmBatchSigner.Result::getTarget).containsExactly(this.files.get(0), this.files.get(1), null, this.files.get(3));
+
+        Files.delete(this.source.resolve("broken.rpm"));
+        assertVerified(this.source, 3);
+    }
+
+    @Test
+    void targetIsSource() throws IOException {
+        this.signer.setTargetDirectory(this.source);
+
+        final List<RpmBatchSigner.Result> results = this.signer.signAll(this.files, 2);
+
+        assertThat(results).extracting(RpmBatchSigner.Result::getTarget).containsExactly(this.files.get(0), this.files.get(1), null, this.files.get(3));
+
+        // a failed file is left alone, and no temporary files remain
+        assertThat(this.source.resolve("broken.rpm")).hasContent("not an rpm");
+        try (Stream<Path> list = Files.list(this.source)) {
+            assertThat(list).hasSize(4);
+        }
+
+        Files.delete(this.source.resolve("broken.rpm"));
+        assertVerified(this.source, 3);
+    }
+
+    @Test
+    void replaceTarget() throws IOException {
+        final Path target = Files.createDirectories(this.base.resolve("target"));
+        Files.writeString(target.resolve("a.rpm"), "old");
+        Files.writeString(target.resolve("broken.rpm"), "old");
+        this.signer.setTargetDirectory(target);
+
+        final List<RpmBatchSigner.Result> results = this.signer.signAll(this.files, 2);
+
+        assertThat(results).extracting(RpmBatchSigner.Result::isSuccess).containsExactly(true, true, false, true);
+
+        // an existing target is only replaced by a signed file
+        assertThat(target.resolve("broken.rpm")).hasContent("old");
+        Files.delete(target.resolve("broken.rpm"));
+        assertVerified(target, 3);
+    }
+
+    @Test
+    void duplicateNames() {
+        this.signer.setTargetDirectory(this.base);
+
+        assertThatThrownBy(() -> this.signer.signAll(List.of(this.files.get(0), this.base.resolve("other/a.rpm")), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertVerified(final Path directory, final int expected) throws IOException {
+        final RpmVerifier verifier = new RpmVerifier();
+        try (InputStream in = Files.newInputStream(PUBLIC_KEY)) {
+            verifier.addPublicKeys(in);
+        }
+
+        final VerificationReport report = verifier.verifyAll(directory, 2);
+
+        assertThat(report.getVerifications()).hasSize(expected);
+        assertThat(report.isValid()).isTrue();
+        assertThat(report.getVerifications()).allSatisfy(verification -> assertThat(verification.getChecks()).anySatisfy(check -> {
+            assertThat(check.getName()).isEqualTo("PGP");
+            assertThat(check.getStatus()).isEqualTo(Verification.Status.VALID);
+        }));
+    }
+}
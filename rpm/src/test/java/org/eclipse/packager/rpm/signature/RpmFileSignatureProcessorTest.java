@@ -15,6 +15,7 @@ package org.eclipse.packager.rpm.signature;
 
 import static java.nio.file.StandardOpenOption.CREATE_NEW;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.eclipse.packager.rpm.RpmSignatureTag.MD5;
 import static org.eclipse.packager.rpm.RpmSignatureTag.PAYLOAD_SIZE;
 import static org.eclipse.packager.rpm.RpmSignatureTag.PGP;
@@ -24,17 +25,24 @@ import static org.testcontainers.containers.Container.ExecResult;
 import static org.testcontainers.images.builder.Transferable.DEFAULT_FILE_MODE;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 
 import org.bouncycastle.openpgp.PGPException;
 import org.eclipse.packager.rpm.HashAlgorithm;
 import org.eclipse.packager.rpm.RpmSignatureTag;
 import org.eclipse.packager.rpm.parse.InputHeader;
+import org.eclipse.packager.rpm.parse.RpmFile;
 import org.eclipse.packager.rpm.parse.RpmInputStream;
+import org.eclipse.packager.rpm.verify.RpmVerifier;
+import org.eclipse.packager.rpm.verify.Verification;
+import org.eclipse.packager.rpm.verify.Verification.Check;
+import org.eclipse.packager.rpm.verify.Verification.Status;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -104,6 +112,79 @@ class RpmFileSignatureProcessorTest {
         }
     }
 
+    @Test
+    void verifySignedRpm() throws Exception {
+        final RpmVerifier verifier = new RpmVerifier();
+        try (final InputStream in = Files.newInputStream(PUBLIC_KEY)) {
+            verifier.addPublicKeys(in);
+        }
+
+        final Verification result = verifier.verify(signedRpm);
+
+        assertThat(result.getFailures()).isEmpty();
+        assertThat(result.getChecks()).extracting(Check::getName, Check::getStatus).contains(tuple("PGP", Status.VALID), tuple("MD5", Status.VALID));
+        assertThat(Files.size(signedRpm)).isGreaterThan(Files.size(RPM));
+    }
+
+    @Test
+    void signToStream() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final InputStream privateKeyStream = Files.newInputStream(PRIVATE_KEY)) {
+            RpmFileSignatureProcessor.perform(RPM, privateKeyStream, PASSPHRASE, out, HashAlgorithm.SHA256);
+        }
+
+        final Path result = Files.write(resultDirectory.resolve("stream.rpm"), out.toByteArray());
+
+        // same layout, only the signature itself differs
+        assertThat(Files.size(result)).isEqualTo(Files.size(signedRpm));
+
+        final RpmVerifier verifier = new RpmVerifier();
+        try (final InputStream in = Files.newInputStream(PUBLIC_KEY)) {
+            verifier.addPublicKeys(in);
+        }
+        assertThat(verifier.verify(result).isValid()).isTrue();
+    }
+
+    @Test
+    void signInPlace() throws Exception {
+        final Path rpm = Files.copy(RPM, resultDirectory.resolve("in-place.rpm"));
+
+        final long payloadHeaderStart;
+        try (final RpmFile file = RpmFile.open(rpm)) {
+            payloadHeaderStart = file.getPayloadHeader().getStart();
+        }
+
+        // the unsigned file has no space for the signature
+        try (final InputStream privateKeyStream = Files.newInputStream(PRIVATE_KEY)) {
+            assertThat(RpmFileSignatureProcessor.performInPlace(rpm, privateKeyStream, PASSPHRASE, HashAlgorithm.SHA256)).isFalse();
+        }
+        assertThat(Files.size(rpm)).isGreaterThan(Files.size(signedRpm));
+
+        final long signedPayloadHeaderStart;
+        try (final RpmFile file = RpmFile.open(rpm)) {
+            signedPayloadHeaderStart = file.getPayloadHeader().getStart();
+        }
+        assertThat(signedPayloadHeaderStart).isGreaterThan(payloadHeaderStart);
+
+        // signing again re-uses the existing space
+        final byte[] before = Files.readAllBytes(rpm);
+        try (final InputStream privateKeyStream = Files.newInputStream(PRIVATE_KEY)) {
+            assertThat(RpmFileSignatureProcessor.performInPlace(rpm, privateKeyStream, PASSPHRASE, HashAlgorithm.SHA512)).isTrue();
+        }
+        final byte[] after = Files.readAllBytes(rpm);
+
+        assertThat(after).hasSameSizeAs(before);
+        assertThat(Arrays.copyOfRange(after, (int) signedPayloadHeaderStart, after.length)).isEqualTo(Arrays.copyOfRange(before, (int) signedPayloadHeaderStart, before.length));
+
+        final RpmVerifier verifier = new RpmVerifier();
+        try (final InputStream in = Files.newInputStream(PUBLIC_KEY)) {
+            verifier.addPublicKeys(in);
+        }
+        final Verification result = verifier.verify(rpm);
+        assertThat(result.getFailures()).isEmpty();
+        assertThat(result.getChecks()).extracting(Check::getName, Check::getStatus).contains(tuple("PGP", Status.VALID));
+    }
+
     @Test
     void verifyRpmSignature() throws Exception {
         assertThat(PUBLIC_KEY).exists();
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.verify;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bouncycastle.bcpg.ArmoredInputStream;
+import org.bouncycastle.openpgp.PGPPrivateKey;
+import org.bouncycastle.openpgp.bc.BcPGPSecretKeyRing;
+import org.bouncycastle.openpgp.operator.bc.BcPBESecretKeyDecryptorBuilder;
+import org.bouncycastle.openpgp.operator.bc.BcPGPDigestCalculatorProvider;
+import org.eclipse.packager.rpm.RpmTag;
+import org.eclipse.packager.rpm.RpmVersion;
+import org.eclipse.packager.rpm.build.BuilderContext;
+import org.eclipse.packager.rpm.build.RpmBuilder;
+import org.eclipse.packager.rpm.parse.RpmFile;
+import org.eclipse.packager.rpm.signature.RsaHeaderSignatureProcessor;
+import org.eclipse.packager.rpm.signature.RsaSignatureProcessor;
+import org.eclipse.packager.rpm.verify.Verification.Check;
+import org.eclipse.packager.rpm.verify.Verification.Status;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RpmVerifierTest {
+    private static final Path PRIVATE_KEY = Path.of("src/test/resources/key/private_key.txt");
+
+    private static final Path PUBLIC_KEY = Path.of("src/test/resources/key/public_key.txt");
+
+    private static final String PASSPHRASE = "testkey";
+
+    @TempDir
+    private Path base;
+
+    @Test
+    void valid() throws Exception {
+        final Path rpm = buildSigned("valid");
+
+        final Verification result = verifier().verify(rpm);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(statusByName(result)).containsExactly(
+                Map.entry("SHA1HEADER", Status.VALID),
+                Map.entry("SHA256HEADER", Status.VALID),
+                Map.entry("RSAHEADER", Status.VALID),
+                Map.entry("MD5", Status.VALID),
+                Map.entry("PGP", Status.VALID),
+                Map.entry("PAYLOAD_DIGEST", Status.VALID),
+                Map.entry("PAYLOAD_DIGEST_ALT", Status.VALID),
+                Map.entry("FILE_DIGESTS", Status.VALID));
+    }
+
+    @Test
+    void noKey() throws Exception {
+        final Path rpm = buildSigned("nokey");
+
+        final Verification result = new RpmVerifier().verify(rpm);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(statusByName(result))
+                .containsEntry("RSAHEADER", Status.NOT_CHECKED)
+                .containsEntry("PGP", Status.NOT_CHECKED)
+                .containsEntry("MD5", Status.VALID);
+    }
+
+    @Test
+    void corruptPayload() throws Exception {
+        final Path rpm = buildSigned("corrupt");
+
+        final long position;
+        try (RpmFile file = RpmFile.open(rpm)) {
+            position = file.getPayloadStart() + file.getPayloadSize() / 2;
+        }
+        flipByte(rpm, position);
+
+        final Verification result = verifier().verify(rpm);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(statusByName(result))
+                .containsEntry("SHA1HEADER", Status.VALID)
+                .containsEntry("RSAHEADER", Status.VALID)
+                .containsEntry("MD5", Status.INVALID)
+                .containsEntry("PGP", Status.INVALID)
+                .containsEntry("PAYLOAD_DIGEST", Status.INVALID)
+                .containsEntry("PAYLOAD", Status.INVALID);
+    }
+
+    @Test
+    void invalidFileTable() throws Exception {
+        final Path outDir = Files.createDirectories(this.base.resolve("table"));
+        final Path rpm;
+        try (RpmBuilder builder = new RpmBuilder("test", new RpmVersion("1.0.0", "1"), "noarch", outDir)) {
+            // point the first file to a directory which does not exist
+            builder.setHeaderCustomizer(header -> {
+                final int[] dirIndexes = header.getIntArray(RpmTag.DIR_INDEXES);
+                dirIndexes[0] = header.getStringList(RpmTag.DIRNAMES).size();
+                header.putInt(RpmTag.DIR_INDEXES, dirIndexes);
+            });
+
+            final BuilderContext ctx = builder.newContext();
+            ctx.addFile("/opt/test/file", "content".getBytes(StandardCharsets.UTF_8));
+
+            builder.build();
+            rpm = builder.getTargetFile();
+        }
+
+        final Verification result = new RpmVerifier().verify(rpm);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(statusByName(result))
+                .containsEntry("PAYLOAD_DIGEST", Status.VALID)
+                .containsEntry("FILE_DIGESTS", Status.INVALID)
+                .doesNotContainKey("PAYLOAD");
+        assertThat(result.getFailures()).singleElement().extracting(Check::getMessage).asString().contains("Invalid directory index");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "src/test/resources/data/org.eclipse.scada-0.2.1-1.noarch.rpm", "src/test/resources/data/org.eclipse.scada-centos6-0.2.1-1.noarch.rpm" })
+    void existing(final Path rpm) throws IOException {
+        final Verification result = new RpmVerifier().verify(rpm);
+
+        assertThat(result.getFailures()).isEmpty();
+        assertThat(result.isValid()).isTrue();
+        assertThat(statusByName(result)).containsEntry("MD5", Status.VALID).containsEntry("FILE_DIGESTS", Status.VALID);
+    }
+
+    @Test
+    void batch() throws Exception {
+        final Path valid = buildSigned("batch-valid");
+        final Path corrupt = buildSigned("batch-corrupt");
+        final long position;
+        try (RpmFile file = RpmFile.open(corrupt)) {
+            // change the version string in the store of the main header
+            final ByteBuffer data = file.getPayloadHeaderData();
+            final byte[] header = new byte[data.remaining()];
+            data.get(header);
+            position = file.getPayloadHeader().getStart() + new String(header, StandardCharsets.ISO_8859_1).indexOf("1.0.0\0") + 4;
+        }
+        flipByte(corrupt, position);
+        final Path broken = Files.writeString(this.base.resolve("broken.rpm"), "not an rpm");
+
+        final VerificationReport report = verifier().verifyAll(List.of(valid, corrupt, broken), 2);
+
+        assertThat(report.isValid()).isFalse();
+        assertThat(report.getVerifications()).extracting(Verification::getPath).containsExactly(valid, corrupt, broken);
+        assertThat(report.getFailures()).extracting(Verification::getPath).containsExactly(corrupt, broken);
+        assertThat(report.getFailures().get(1).getError()).isInstanceOf(IOException.class);
+        assertThat(statusByName(report.getFailures().get(0))).containsEntry("SHA256HEADER", Status.INVALID);
+
+        final VerificationReport directory = verifier().verifyAll(this.base, 4);
+        assertThat(directory.getVerifications()).hasSize(3);
+        assertThat(directory.getFailures()).hasSize(2);
+    }
+
+    private static Map<String, Status> statusByName(final Verification verification) {
+        return verification.getChecks().stream().collect(Collectors.toMap(Check::getName, Check::getStatus, (a, b) -> a == Status.INVALID ? a : b, LinkedHashMap::new));
+    }
+
+    private static RpmVerifier verifier() throws IOException {
+        final RpmVerifier verifier = new RpmVerifier();
+        try (InputStream in = Files.newInputStream(PUBLIC_KEY)) {
+            verifier.addPublicKeys(in);
+        }
+        return verifier;
+    }
+
+    private Path buildSigned(final String name) throws Exception {
+        final PGPPrivateKey key;
+        try (InputStream in = new ArmoredInputStream(Files.newInputStream(PRIVATE_KEY))) {
+            key = new BcPGPSecretKeyRing(in).getSecretKey().extractPrivateKey(new BcPBESecretKeyDecryptorBuilder(new BcPGPDigestCalculatorProvider()).build(PASSPHRASE.toCharArray()));
+        }
+
+        final Path outDir = Files.createDirectories(this.base.resolve(name));
+        try (RpmBuilder builder = new RpmBuilder("test", new RpmVersion("1.0.0", "1"), "noarch", outDir)) {
+            builder.addSignatureProcessor(new RsaHeaderSignatureProcessor(key));
+            builder.addSignatureProcessor(new RsaSignatureProcessor(key));
+
+            final BuilderContext ctx = builder.newContext();
+            ctx.addDirectory("/opt/test");
+            for (int i = 0; i < 50; i++) {
+                ctx.addFile("/opt/test/file-" + i, ("content of file " + i).repeat(i).getBytes(StandardCharsets.UTF_8));
+            }
+            ctx.addSymbolicLink("/opt/test/link", "file-1");
+
+            builder.build();
+            return builder.getTargetFile();
+        }
+    }
+
+    private static void flipByte(final Path file, final long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final ByteBuffer data = ByteBuffer.allocate(1);
+            channel.read(data, position);
+            data.flip();
+            data.put(0, (byte) (data.get(0) ^ 0xFF));
+            channel.write(data, position);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.yum;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.eclipse.packager.io.FileSystemSpoolOutTarget;
+import org.eclipse.packager.rpm.HashAlgorithm;
+import org.eclipse.packager.rpm.Rpms;
+import org.eclipse.packager.rpm.info.RpmInformations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RepositoryCreatorTest {
+    private static final Path DATA = Path.of("src/test/resources/data");
+
+    private static final FileTime TIMESTAMP = FileTime.from(Instant.parse("2026-01-01T00:00:00Z"));
+
+    @TempDir
+    private Path base;
+
+    private Path packages;
+
+    @BeforeEach
+    void setup() throws IOException {
+        this.packages = Files.createDirectories(this.base.resolve("packages"));
+
+        copy("org.eclipse.scada-0.2.1-1.noarch.rpm", "b/org.eclipse.scada-0.2.1-1.noarch.rpm");
+        copy("org.eclipse.scada-centos6-0.2.1-1.noarch.rpm", "a/org.eclipse.scada-centos6-0.2.1-1.noarch.rpm");
+        copy("org.eclipse.scada-0.2.1-1.noarch.rpm", "c.rpm");
+        Files.writeString(this.packages.resolve("README.txt"), "not a package");
+    }
+
+    private void copy(final String name, final String location) throws IOException {
+        final Path target = this.packages.resolve(location);
+        Files.createDirectories(target.getParent());
+        Files.copy(DATA.resolve(name), target);
+        Files.setLastModifiedTime(target, TIMESTAMP);
+    }
+
+    @Test
+    void scan() throws Exception {
+        final Path scanned = this.base.resolve("scanned");
+        create(scanned).scan(this.packages, HashAlgorithm.SHA256, 2);
+
+        // the same result, but added manually
+
+        final Map<String, String> checksums = new LinkedHashMap<>();
+        for (final String location : new String[] { "a/org.eclipse.scada-centos6-0.2.1-1.noarch.rpm", "b/org.eclipse.scada-0.2.1-1.noarch.rpm", "c.rpm" }) {
+            final byte[] data = Files.readAllBytes(this.packages.resolve(location));
+            checksums.put(location, Rpms.toHex(MessageDigest.getInstance("SHA-256").digest(data)).toLowerCase());
+        }
+
+        final Path expected = this.base.resolve("expected");
+        create(expected).process(ctx -> {
+            for (final Map.Entry<String, String> entry : checksums.entrySet()) {
+                final Path file = this.packages.resolve(entry.getKey());
+                ctx.addPackage(new RepositoryCreator.FileInformation(TIMESTAMP.toInstant(), Files.size(file), entry.getKey()), RpmInformations.makeInformation(file, null), Map.of(HashAlgorithm.SHA256, entry.getValue()), HashAlgorithm.SHA256);
+            }
+        });
+
+        for (final String type : new String[] { "primary", "filelists", "other" }) {
+            assertThat(find(scanned, type)).hasSameTextualContentAs(find(expected, type));
+        }
+        assertThat(find(scanned, "primary")).content().contains("packages=\"3\"", "<location href=\"a/org.eclipse.scada-centos6-0.2.1-1.noarch.rpm\"/>");
+    }
+
+    @Test
+    void deterministic() throws Exception {
+        final Path first = this.base.resolve("first");
+        create(first).scan(this.packages, HashAlgorithm.SHA1, 1);
+
+        final Path second = this.base.resolve("second");
+        create(second).scan(this.packages, HashAlgorithm.SHA1, 4);
+
+        for (final String type : new String[] { "primary", "filelists", "other" }) {
+            assertThat(find(second, type)).hasSameBinaryContentAs(find(first, type));
+        }
+    }
+
+    @Test
+    void brokenPackage() throws IOException {
+        Files.writeString(this.packages.resolve("broken.rpm"), "not an rpm");
+
+        assertThatThrownBy(() -> create(this.base.resolve("broken")).scan(this.packages, HashAlgorithm.SHA256, 2))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Failed to process package: broken.rpm")
+                .cause()
+                .isNotInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void updateWithoutPrevious() throws Exception {
+        final Path scanned = this.base.resolve("scanned");
+        create(scanned).scan(this.packages, HashAlgorithm.SHA256, 2);
+
+        final Path updated = this.base.resolve("updated");
+        create(updated).update(this.packages, this.base.resolve("missing"), HashAlgorithm.SHA256, 2);
+
+        for (final String type : new String[] { "primary", "filelists", "other" }) {
+            assertThat(find(updated, type)).hasSameTextualContentAs(find(scanned, type));
+        }
+    }
+
+    @Test
+    void update() throws Exception {
+        final Path previous = this.base.resolve("previous");
+        create(previous).scan(this.packages, HashAlgorithm.SHA256, 2);
+
+        // mark all previous entries, to detect which ones got copied
+
+        final Path xml = find(previous, "primary");
+        final Path primary = xml.resolveSibling(xml.getFileName() + ".gz");
+        final String content = new String(decompress(primary), StandardCharsets.UTF_8);
+        compress(primary, content.replace("<summary>", "<summary>copied ").getBytes(StandardCharsets.UTF_8));
+
+        // change the packages
+
+        Files.delete(this.packages.resolve("c.rpm"));
+        Files.copy(DATA.resolve("org.eclipse.scada-centos6-0.2.1-1.noarch.rpm"), this.packages.resolve("b/org.eclipse.scada-0.2.1-1.noarch.rpm"), StandardCopyOption.REPLACE_EXISTING);
+        copy("org.eclipse.scada-0.2.1-1.noarch.rpm", "d.rpm");
+        // touched, but still the same content
+        Files.setLastModifiedTime(this.packages.resolve("a/org.eclipse.scada-centos6-0.2.1-1.noarch.rpm"), FileTime.from(Instant.parse("2026-02-01T00:00:00Z")));
+
+        final Path updated = this.base.resolve("updated");
+        create(updated).update(this.packages, previous, HashAlgorithm.SHA256, 2);
+
+        final String result = Files.readString(find(updated, "primary"));
+        assertThat(result)
+                .contains("packages=\"3\"")
+                .containsSubsequence(
+                        "<location href=\"a/org.eclipse.scada-centos6-0.2.1-1.noarch.rpm\"/>",
+                        "<location href=\"b/org.eclipse.scada-0.2.1-1.noarch.rpm\"/>",
+                        "<location href=\"d.rpm\"/>")
+                .doesNotContain("href=\"c.rpm\"");
+        assertThat(result.split("<summary>copied ", -1)).hasSize(2);
+
+        // the result must be the same as a fresh scan, apart from the order and the marker
+
+        final Path scanned = this.base.resolve("scanned");
+        create(scanned).scan(this.packages, HashAlgorithm.SHA256, 2);
+
+        for (final String type : new String[] { "filelists", "other" }) {
+            assertThat(packageIds(find(updated, type))).containsExactlyInAnyOrderElementsOf(packageIds(find(scanned, type)));
+        }
+    }
+
+    @Test
+    void updateDifferentIdType() throws Exception {
+        final Path previous = this.base.resolve("previous");
+        create(previous).scan(this.packages, HashAlgorithm.SHA1, 2);
+
+        final Path updated = this.base.resolve("updated");
+        create(updated).update(this.packages, previous, HashAlgorithm.SHA256, 2);
+
+        final Path scanned = this.base.resolve("scanned");
+        create(scanned).scan(this.packages, HashAlgorithm.SHA256, 2);
+
+        for (final String type : new String[] { "primary", "filelists", "other" }) {
+            assertThat(find(updated, type)).hasSameTextualContentAs(find(scanned, type));
+        }
+    }
+
+    @Test
+    void compression() throws Exception {
+        final Path repository = this.base.resolve("repository");
+        new RepositoryCreator.Builder()
+                .setTarget(new FileSystemSpoolOutTarget(repository))
+                .setCompression(MetadataCompression.ZSTD, MetadataCompression.XZ)
+                .build()
+                .scan(this.packages, HashAlgorithm.SHA256, 2);
+
+        final String repomd = Files.readString(repository.resolve("repodata/repomd.xml"));
+
+        for (final String type : new String[] { "primary", "filelists", "other" }) {
+            final Path xml = find(repository, type);
+            final Path zstd = xml.resolveSibling(xml.getFileName() + ".zst");
+            final Path xz = xml.resolveSibling(xml.getFileName() + ".xz");
+
+            assertThat(xml.resolveSibling(xml.getFileName() + ".gz")).doesNotExist();
+
+            // only the first compression gets registered
+
+            assertThat(repomd).contains(
+                    "href=\"repodata/" + zstd.getFileName() + "\"",
+                    sha256(Files.readAllBytes(zstd)),
+                    "<size>" + Files.size(zstd) + "</size>");
+            assertThat(repomd).doesNotContain(xz.getFileName().toString());
+
+            for (final Path file : new Path[] { zstd, xz }) {
+                final MetadataCompression compression = MetadataCompression.fromFileName(file.toString()).orElseThrow();
+                try (InputStream in = compression.createInputStream(Files.newInputStream(file))) {
+                    assertThat(in.readAllBytes()).isEqualTo(Files.readAllBytes(xml));
+                }
+            }
+        }
+    }
+
+    @Test
+    void updateCompressed() throws Exception {
+        final Path previous = this.base.resolve("previous");
+        new RepositoryCreator.Builder()
+                .setTarget(new FileSystemSpoolOutTarget(previous))
+                .setCompression(MetadataCompression.XZ)
+                .build()
+                .scan(this.packages, HashAlgorithm.SHA256, 2);
+
+        // all entries get copied from the xz compressed data
+
+        final Path updated = this.base.resolve("updated");
+        create(updated).update(this.packages, previous, HashAlgorithm.SHA256, 2);
+
+        for (final String type : new String[] { "primary", "filelists", "other" }) {
+            assertThat(find(updated, type)).hasSameTextualContentAs(find(previous, type));
+        }
+    }
+
+    @Test
+    void databases() throws Exception {
+        final Path repository = this.base.resolve("repository");
+        create(repository, MetadataCompression.BZIP2).scan(this.packages, HashAlgorithm.SHA256, 2);
+
+        final String repomd = Files.readString(repository.resolve("repodata/repomd.xml"));
+        assertThat(repomd).contains("type=\"primary_db\"", "type=\"filelists_db\"", "type=\"other_db\"", "<database_version>10</database_version>");
+
+        final Path primary = decompressDatabase(repository, "primary");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + primary);
+                Statement statement = connection.createStatement()) {
+            assertThat(queryStrings(statement, "SELECT location_href FROM packages ORDER BY pkgKey")).containsExactly("a/org.eclipse.scada-centos6-0.2.1-1.noarch.rpm", "b/org.eclipse.scada-0.2.1-1.noarch.rpm", "c.rpm");
+            assertThat(queryStrings(statement, "SELECT dbversion FROM db_info")).containsExactly("10");
+            assertThat(queryStrings(statement, "SELECT name FROM requires WHERE pre = 'TRUE'")).contains("/bin/sh");
+            assertThat(queryStrings(statement, "SELECT name FROM files WHERE type = 'file'")).contains("/etc/profile.d/eclipsescada.sh");
+        }
+
+        final Path filelists = decompressDatabase(repository, "filelists");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + filelists);
+                Statement statement = connection.createStatement()) {
+            assertThat(queryStrings(statement, "SELECT filenames FROM filelist WHERE dirname = '/usr/bin' AND pkgKey = 2")).singleElement().asString().contains("esService/");
+        }
+
+        final Path other = decompressDatabase(repository, "other");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + other);
+                Statement statement = connection.createStatement()) {
+            assertThat(queryStrings(statement, "SELECT COUNT(*) FROM packages")).containsExactly("3");
+            assertThat(queryStrings(statement, "SELECT COUNT(*) FROM changelog")).isNotEqualTo(List.of("0"));
+        }
+    }
+
+    @Test
+    void databasesOfUpdate() throws Exception {
+        final Path previous = this.base.resolve("previous");
+        create(previous).scan(this.packages, HashAlgorithm.SHA256, 2);
+
+        Files.delete(this.packages.resolve("c.rpm"));
+
+        final Path updated = this.base.resolve("updated");
+        create(updated, MetadataCompression.XZ).update(this.packages, previous, HashAlgorithm.SHA256, 2);
+
+        final Path primary = decompressDatabase(updated, "primary");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + primary);
+                Statement statement = connection.createStatement()) {
+            assertThat(queryStrings(statement, "SELECT location_href FROM packages ORDER BY pkgKey")).containsExactly("a/org.eclipse.scada-centos6-0.2.1-1.noarch.rpm", "b/org.eclipse.scada-0.2.1-1.noarch.rpm");
+            assertThat(queryStrings(statement, "SELECT pkgId FROM packages ORDER BY pkgKey")).containsExactlyElementsOf(packageIds(find(updated, "filelists")));
+        }
+    }
+
+    @Test
+    void updateInPlace() throws Exception {
+        final Path repository = this.base.resolve("repository");
+        create(repository, MetadataCompression.BZIP2).scan(this.packages, HashAlgorithm.SHA256, 2);
+        final List<String> previous = listRepoData(repository);
+
+        // not created by the repository creator
+        Files.writeString(repository.resolve("repodata/other.txt"), "other");
+
+        Files.delete(this.packages.resolve("c.rpm"));
+        create(repository, MetadataCompression.BZIP2).update(this.packages, repository, HashAlgorithm.SHA256, 2);
+
+        final List<String> files = listRepoData(repository);
+        assertThat(files)
+                .hasSize(previous.size() + 1)
+                .contains("repomd.xml", "other.txt")
+                .doesNotContainAnyElementsOf(previous.stream().filter(name -> !name.equals("repomd.xml")).collect(Collectors.toList()));
+
+        // all registered files still exist
+        final Matcher m = Pattern.compile("href=\"([^\"]+)\"").matcher(Files.readString(repository.resolve("repodata/repomd.xml")));
+        while (m.find()) {
+            assertThat(repository.resolve(m.group(1))).isRegularFile();
+        }
+
+        assertThat(packageIds(find(repository, "primary"))).hasSize(2);
+    }
+
+    private static List<String> listRepoData(final Path repository) throws IOException {
+        try (Stream<Path> files = Files.list(repository.resolve("repodata"))) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toList());
+        }
+    }
+
+    private Path decompressDatabase(final Path repository, final String type) throws IOException {
+        final Path file;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(repository.resolve("repodata"), "*-" + type + ".sqlite.*")) {
+            file = stream.iterator().next();
+        }
+
+        // the checksums must match the registered ones
+        final String repomd = Files.readString(repository.resolve("repodata/repomd.xml"));
+        assertThat(repomd).contains(sha256(Files.readAllBytes(file)));
+
+        final Path result = this.base.resolve(repository.getFileName() + "-" + type + ".sqlite");
+        try (InputStream in = new CompressorStreamFactory().createCompressorInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Files.copy(in, result);
+        } catch (final CompressorException e) {
+            throw new IOException(e);
+        }
+
+        assertThat(repomd).contains(sha256(Files.readAllBytes(result)));
+        return result;
+    }
+
+    private static String sha256(final byte[] data) throws IOException {
+        try {
+            return Rpms.toHex(MessageDigest.getInstance("SHA-256").digest(data)).toLowerCase();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static List<String> queryStrings(final Statement statement, final String sql) throws SQLException {
+        final List<String> result = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                result.add(rs.getString(1));
+            }
+        }
+        return result;
+    }
+
+    private static List<String> packageIds(final Path file) throws IOException {
+        final Matcher m = Pattern.compile("pkgid=\"([^\"]+)\"").matcher(Files.readString(file));
+        final List<String> result = new ArrayList<>();
+        while (m.find()) {
+            result.add(m.group(1));
+        }
+        return result;
+    }
+
+    private static byte[] decompress(final Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void compress(final Path file, final byte[] data) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(data);
+        }
+    }
+
+    private static RepositoryCreator create(final Path target) {
+        return create(target, null);
+    }
+
+    private static RepositoryCreator create(final Path target, final MetadataCompression databaseCompression) {
+        return new RepositoryCreator.Builder()
+                .setTarget(new FileSystemSpoolOutTarget(target))
+                .setXmlContext(new StreamingXmlContext())
+                .setDatabases(databaseCompression)
+                .build();
+    }
+
+    private static Path find(final Path repository, final String type) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(repository.resolve("repodata"), "*-" + type + ".xml")) {
+            return stream.iterator().next();
+        }
+    }
+}
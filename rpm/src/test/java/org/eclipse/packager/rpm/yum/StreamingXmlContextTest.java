@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.packager.rpm.yum;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.eclipse.packager.io.FileSystemSpoolOutTarget;
+import org.eclipse.packager.io.IOConsumer;
+import org.eclipse.packager.rpm.HashAlgorithm;
+import org.eclipse.packager.rpm.info.RpmInformations;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+class StreamingXmlContextTest {
+    private static final Path DATA = Path.of("src/test/resources/data");
+
+    private static final List<Path> PACKAGES = List.of(
+            DATA.resolve("org.eclipse.scada-0.2.1-1.noarch.rpm"),
+            DATA.resolve("org.eclipse.scada-centos6-0.2.1-1.noarch.rpm"));
+
+    @TempDir
+    private Path base;
+
+    @Test
+    void sameAsDefault() throws Exception {
+        final Path spool = Files.createDirectories(this.base.resolve("spool"));
+        final StreamingXmlContext xml = new StreamingXmlContext();
+        xml.setTemporaryDirectory(spool);
+
+        final Path expected = create(new RepositoryCreator.DefaultXmlContext(), "default", StreamingXmlContextTest::addPackages);
+        final Path actual = create(xml, "streaming", StreamingXmlContextTest::addPackages);
+
+        for (final String type : List.of("primary", "filelists", "other")) {
+            final Document expectedDocument = parse(find(expected, type));
+            final Document actualDocument = parse(find(actual, type));
+
+            assertThat(actualDocument.getDocumentElement().getAttribute("packages")).isEqualTo("2");
+            assertThat(actualDocument.isEqualNode(expectedDocument)).as(type).isTrue();
+        }
+
+        assertThat(list(spool)).isEmpty();
+    }
+
+    @Test
+    void empty() throws Exception {
+        final Path actual = create(new StreamingXmlContext(), "empty", ctx -> {
+        });
+
+        final Document document = parse(find(actual, "primary"));
+        assertThat(document.getDocumentElement().getAttribute("packages")).isEqualTo("0");
+        assertThat(document.getDocumentElement().getNamespaceURI()).isEqualTo("http://linux.duke.edu/metadata/common");
+        assertThat(document.getDocumentElement().hasChildNodes()).isFalse();
+    }
+
+    @Test
+    void cleanupOnFailure() throws Exception {
+        final Path spool = Files.createDirectories(this.base.resolve("spool"));
+        final StreamingXmlContext xml = new StreamingXmlContext();
+        xml.setTemporaryDirectory(spool);
+
+        assertThatThrownBy(() -> create(xml, "failed", ctx -> {
+            addPackages(ctx);
+            throw new IOException("Failed to add package");
+        })).hasMessage("Failed to add package");
+
+        assertThat(list(spool)).isEmpty();
+    }
+
+    private Path create(final RepositoryCreator.XmlContext xml, final String name, final IOConsumer<RepositoryCreator.Context> consumer) throws IOException {
+        final Path target = this.base.resolve(name);
+
+        final RepositoryCreator creator = new RepositoryCreator.Builder()
+                .setTarget(new FileSystemSpoolOutTarget(target))
+                .setXmlContext(xml)
+                .build();
+
+        creator.process(consumer);
+
+        return target;
+    }
+
+    private static void addPackages(final RepositoryCreator.Context context) throws IOException {
+        final Instant timestamp = Instant.parse("2026-01-01T00:00:00Z");
+        for (final Path file : PACKAGES) {
+            final String location = "Packages/" + file.getFileName();
+            final Map<HashAlgorithm, String> checksums = Map.of(HashAlgorithm.SHA256, Integer.toHexString(location.hashCode()));
+            context.addPackage(new RepositoryCreator.FileInformation(timestamp, Files.size(file), location), RpmInformations.makeInformation(file, null), checksums, HashAlgorithm.SHA256);
+        }
+    }
+
+    private static Path find(final Path repository, final String type) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(repository.resolve("repodata"), "*-" + type + ".xml")) {
+            return stream.iterator().next();
+        }
+    }
+
+    private static List<Path> list(final Path directory) throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    private static Document parse(final Path file) throws Exception {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+
+        final Document document = factory.newDocumentBuilder().parse(file.toFile());
+        stripWhitespace(document.getDocumentElement());
+        return document;
+    }
+
+    private static void stripWhitespace(final Node node) {
+        Node child = node.getFirstChild();
+        while (child != null) {
+            final Node next = child.getNextSibling();
+            if (child.getNodeType() == Node.TEXT_NODE && child.getNodeValue().isBlank()) {
+                node.removeChild(child);
+            } else {
+                stripWhitespace(child);
+            }
+            child = next;
+        }
+    }
+}